@@ -1,5 +1,7 @@
 package com.milestone2.classifier;
 
+import com.milestone2.metric.ConfidenceInterval;
+import com.milestone2.metric.MetricAccumulator;
 import com.milestone2.metric.MetricDefinition;
 import com.milestone2.foldMetadata.FoldResult;
 
@@ -9,19 +11,28 @@ import java.util.List;
 import java.util.Map;
 
 /**
- * Holds the fold-level and aggregate outcome for one classifier on one dataset.
+ * Holds the aggregate outcome and the streamed fold-metric distribution for one classifier on one dataset.
  */
 public class EvaluationReport {
  private final Definition definition;
  private final Map<MetricDefinition, Double> aggregateMetrics;
- private final List<FoldResult> foldResults;
+ private final MetricAccumulator foldMetrics;
+ private final Map<MetricDefinition, ConfidenceInterval> confidenceIntervals;
 
  public EvaluationReport(Definition definition,
  Map<MetricDefinition, Double> aggregateMetrics,
  List<FoldResult> foldResults) {
+ this(definition, aggregateMetrics, accumulate(foldResults), Map.of());
+ }
+
+ public EvaluationReport(Definition definition,
+ Map<MetricDefinition, Double> aggregateMetrics,
+ MetricAccumulator foldMetrics,
+ Map<MetricDefinition, ConfidenceInterval> confidenceIntervals) {
  this.definition = definition;
  this.aggregateMetrics = immutableMetricMap(aggregateMetrics);
- this.foldResults = List.copyOf(foldResults);
+ this.foldMetrics = foldMetrics;
+ this.confidenceIntervals = immutableIntervalMap(confidenceIntervals);
  }
 
  /**
@@ -43,12 +54,36 @@ public class EvaluationReport {
  }
 
  /**
- * Returns the fold-level results used to compute the aggregate metrics.
+ * Returns the online summary of the fold metrics: spread, extremes and quartiles per metric.
+ *
+ * @return fold-metric accumulator
+ */
+ public MetricAccumulator getFoldMetrics() {
+ return foldMetrics;
+ }
+
+ /**
+ * Returns the bootstrap confidence interval of every aggregate metric.
+ *
+ * @param metric metric whose interval is requested
+ * @return confidence interval, or {@link ConfidenceInterval#UNAVAILABLE} when none was estimated
+ */
+ public ConfidenceInterval getConfidenceInterval(MetricDefinition metric) {
+ return confidenceIntervals.getOrDefault(metric, ConfidenceInterval.UNAVAILABLE);
+ }
+
+ /**
+ * Feeds already collected fold results into a fresh accumulator.
  *
- * @return immutable per-fold results list
+ * @param foldResults fold-level results
+ * @return accumulator summarizing the folds
  */
- public List<FoldResult> getFoldResults() {
- return foldResults;
+ private static MetricAccumulator accumulate(List<FoldResult> foldResults) {
+ MetricAccumulator accumulator = new MetricAccumulator();
+ for (FoldResult result : foldResults) {
+ accumulator.add(result);
+ }
+ return accumulator;
  }
 
  /**
@@ -62,5 +97,17 @@ public class EvaluationReport {
  copy.putAll(metrics);
  return Collections.unmodifiableMap(copy);
  }
-}
 
+ /**
+ * Copies the interval map into an immutable enum map.
+ *
+ * @param intervals source interval map
+ * @return immutable interval map copy
+ */
+ private Map<MetricDefinition, ConfidenceInterval> immutableIntervalMap(
+ Map<MetricDefinition, ConfidenceInterval> intervals) {
+ Map<MetricDefinition, ConfidenceInterval> copy = new EnumMap<>(MetricDefinition.class);
+ copy.putAll(intervals);
+ return Collections.unmodifiableMap(copy);
+ }
+}
@@ -0,0 +1,22 @@
+package com.milestone2.columnarExport;
+
+/**
+ * Name and physical type of one columnar table column.
+ */
+public class ColumnSpec {
+ private final String name;
+ private final ColumnType type;
+
+ public ColumnSpec(String name, ColumnType type) {
+ this.name = name;
+ this.type = type;
+ }
+
+ public String getName() {
+ return name;
+ }
+
+ public ColumnType getType() {
+ return type;
+ }
+}
@@ -0,0 +1,19 @@
+package com.milestone2.columnarExport;
+
+/**
+ * Physical type of one columnar table column.
+ */
+public enum ColumnType {
+ /**
+ * Text values stored as codes into a per-column dictionary.
+ */
+ STRING,
+ /**
+ * Integral values stored as primitive longs.
+ */
+ LONG,
+ /**
+ * Floating-point values stored as primitive doubles.
+ */
+ DOUBLE
+}
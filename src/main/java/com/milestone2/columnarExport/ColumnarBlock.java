@@ -0,0 +1,89 @@
+package com.milestone2.columnarExport;
+
+import java.util.List;
+
+/**
+ * Decoded rows of one columnar table block, accessed column by column.
+ */
+public class ColumnarBlock {
+ private final List<ColumnSpec> columns;
+ private final int rowCount;
+ private final Object[] values;
+ private final long[][] nulls;
+
+ ColumnarBlock(List<ColumnSpec> columns, int rowCount, Object[] values, long[][] nulls) {
+ this.columns = columns;
+ this.rowCount = rowCount;
+ this.values = values;
+ this.nulls = nulls;
+ }
+
+ public int getRowCount() {
+ return rowCount;
+ }
+
+ /**
+ * Indicates whether a cell holds no value.
+ *
+ * @param column column index
+ * @param row row index inside the block
+ * @return {@code true} when the cell is null
+ */
+ public boolean isNull(int column, int row) {
+ return nulls[column] != null && (nulls[column][row >>> 6] & 1L << row) != 0;
+ }
+
+ /**
+ * Returns a string cell.
+ *
+ * @param column string column index
+ * @param row row index inside the block
+ * @return cell value, or {@code null}
+ */
+ public String getString(int column, int row) {
+ return isNull(column, row) ? null : ((String[]) values[column])[row];
+ }
+
+ /**
+ * Returns a long cell; check {@link #isNull(int, int)} first for nullable columns.
+ *
+ * @param column long column index
+ * @param row row index inside the block
+ * @return cell value, {@code 0} when null
+ */
+ public long getLong(int column, int row) {
+ return ((long[]) values[column])[row];
+ }
+
+ /**
+ * Returns a double cell; check {@link #isNull(int, int)} first for nullable columns.
+ *
+ * @param column double column index
+ * @param row row index inside the block
+ * @return cell value, {@code 0.0} when null
+ */
+ public double getDouble(int column, int row) {
+ return ((double[]) values[column])[row];
+ }
+
+ /**
+ * Returns a cell boxed according to its column type.
+ *
+ * @param column column index
+ * @param row row index inside the block
+ * @return {@link String}, {@link Long} or {@link Double} value, or {@code null}
+ */
+ public Object getValue(int column, int row) {
+ if (isNull(column, row)) {
+ return null;
+ }
+ switch (columns.get(column).getType()) {
+ case STRING:
+ return getString(column, row);
+ case LONG:
+ return getLong(column, row);
+ default:
+ return getDouble(column, row);
+ }
+ }
+}
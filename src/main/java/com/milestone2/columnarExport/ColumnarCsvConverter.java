@@ -0,0 +1,68 @@
+package com.milestone2.columnarExport;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts a columnar table back to the CSV the analysis would have written.
+ * <p>
+ * Usage: {@code java -cp <classpath> com.milestone2.columnarExport.ColumnarCsvConverter <input.m2c> <output.csv>}
+ */
+public class ColumnarCsvConverter {
+ /**
+ * Converts the file named by the first argument into the CSV file named by the second one.
+ *
+ * @param args input columnar file and output CSV file
+ * @throws IOException when a file cannot be read or written
+ */
+ public static void main(String[] args) throws IOException {
+ if (args.length != 2) {
+ throw new IllegalArgumentException("Usage: ColumnarCsvConverter <input.m2c> <output.csv>");
+ }
+ new ColumnarCsvConverter().convert(Paths.get(args[0]), Paths.get(args[1]));
+ }
+
+ /**
+ * Writes every row of a columnar table to a CSV file with the same header, formatting numbers as the CSV writers
+ * do and null cells as empty fields.
+ *
+ * @param columnarFile input columnar table
+ * @param csvFile output CSV file
+ * @return number of converted rows
+ * @throws IOException when a file cannot be read or written
+ */
+ public long convert(Path columnarFile, Path csvFile) throws IOException {
+ long rows = 0;
+ try (ColumnarReader reader = new ColumnarReader(columnarFile);
+ Writer out = Files.newBufferedWriter(csvFile, StandardCharsets.UTF_8)) {
+ List<ColumnSpec> columns = reader.getColumns();
+ String[] header = new String[columns.size()];
+ for (int column = 0; column < header.length; column++) {
+ header[column] = columns.get(column).getName();
+ }
+ CSVPrinter printer = new CSVPrinter(out, CSVFormat.DEFAULT.builder().setHeader(header).get());
+ List<Object> record = new ArrayList<>(columns.size());
+ for (ColumnarBlock block = reader.next(); block != null; block = reader.next()) {
+ for (int row = 0; row < block.getRowCount(); row++) {
+ record.clear();
+ for (int column = 0; column < columns.size(); column++) {
+ record.add(block.getValue(column, row));
+ }
+ printer.printRecord(record);
+ }
+ rows += block.getRowCount();
+ }
+ printer.flush();
+ }
+ return rows;
+ }
+}
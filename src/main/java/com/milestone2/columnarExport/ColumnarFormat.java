@@ -0,0 +1,18 @@
+package com.milestone2.columnarExport;
+
+/**
+ * Constants of the binary columnar table layout.
+ * <p>
+ * A file starts with a header (magic, version, column count, then the name and type of every column) followed by
+ * blocks of rows. Each block holds its row count, its uncompressed and compressed sizes and a deflated payload with one
+ * section per column: a null bitmap flag and bitmap, then for string columns the dictionary entries first used in the
+ * block and one code per row, or one primitive value per row for numeric columns.
+ */
+final class ColumnarFormat {
+ static final int MAGIC = 0x4D32434C;
+ static final int VERSION = 1;
+ static final int BLOCK_MARKER = 0x424C4B31;
+
+ private ColumnarFormat() {
+ }
+}
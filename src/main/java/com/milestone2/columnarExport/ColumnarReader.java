@@ -0,0 +1,171 @@
+package com.milestone2.columnarExport;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads a columnar table file block by block.
+ */
+public class ColumnarReader implements Closeable {
+ private final Path file;
+ private final DataInputStream input;
+ private final List<ColumnSpec> columns;
+ private final List<List<String>> dictionaries = new ArrayList<>();
+ private final Inflater inflater = new Inflater();
+
+ public ColumnarReader(Path file) throws IOException {
+ this.file = file;
+ this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+ this.columns = readHeader();
+ for (int column = 0; column < columns.size(); column++) {
+ dictionaries.add(new ArrayList<>());
+ }
+ }
+
+ /**
+ * Returns the column names and types, in file order.
+ *
+ * @return immutable column specifications
+ */
+ public List<ColumnSpec> getColumns() {
+ return columns;
+ }
+
+ /**
+ * Reads and decodes the next block.
+ *
+ * @return next block, or {@code null} at the end of the file
+ * @throws IOException when the file is truncated or corrupted
+ */
+ public ColumnarBlock next() throws IOException {
+ int marker;
+ try {
+ marker = input.readInt();
+ } catch (EOFException endOfTable) {
+ return null;
+ }
+ if (marker != ColumnarFormat.BLOCK_MARKER) {
+ throw new IOException("Corrupted columnar block in " + file);
+ }
+ int rows = input.readInt();
+ byte[] uncompressed = new byte[input.readInt()];
+ byte[] compressed = new byte[input.readInt()];
+ input.readFully(compressed);
+ inflate(compressed, uncompressed);
+
+ DataInputStream payload = new DataInputStream(new ByteArrayInputStream(uncompressed));
+ Object[] values = new Object[columns.size()];
+ long[][] nulls = new long[columns.size()][];
+ for (int column = 0; column < columns.size(); column++) {
+ if (payload.readBoolean()) {
+ nulls[column] = new long[(rows + 63) >>> 6];
+ for (int word = 0; word < nulls[column].length; word++) {
+ nulls[column][word] = payload.readLong();
+ }
+ }
+ switch (columns.get(column).getType()) {
+ case STRING:
+ values[column] = readStrings(payload, column, rows);
+ break;
+ case LONG:
+ long[] longs = new long[rows];
+ for (int row = 0; row < rows; row++) {
+ longs[row] = payload.readLong();
+ }
+ values[column] = longs;
+ break;
+ default:
+ double[] doubles = new double[rows];
+ for (int row = 0; row < rows; row++) {
+ doubles[row] = payload.readDouble();
+ }
+ values[column] = doubles;
+ break;
+ }
+ }
+ return new ColumnarBlock(columns, rows, values, nulls);
+ }
+
+ @Override
+ public void close() throws IOException {
+ inflater.end();
+ input.close();
+ }
+
+ private List<ColumnSpec> readHeader() throws IOException {
+ if (input.readInt() != ColumnarFormat.MAGIC) {
+ throw new IOException("Not a columnar table file: " + file);
+ }
+ int version = input.readInt();
+ if (version != ColumnarFormat.VERSION) {
+ throw new IOException("Unsupported columnar table version " + version + " in " + file);
+ }
+ int count = input.readInt();
+ List<ColumnSpec> specs = new ArrayList<>(count);
+ for (int column = 0; column < count; column++) {
+ String name = input.readUTF();
+ int type = input.readUnsignedByte();
+ if (type >= ColumnType.values().length) {
+ throw new IOException("Unknown column type " + type + " in " + file);
+ }
+ specs.add(new ColumnSpec(name, ColumnType.values()[type]));
+ }
+ return List.copyOf(specs);
+ }
+
+ /**
+ * Extends the column dictionary with the block entries and resolves the block codes.
+ *
+ * @param payload decompressed block payload positioned at the column section
+ * @param column string column index
+ * @param rows block row count
+ * @return resolved string values, {@code null} in null cells
+ * @throws IOException when the payload is corrupted
+ */
+ private String[] readStrings(DataInputStream payload, int column, int rows) throws IOException {
+ List<String> dictionary = dictionaries.get(column);
+ int entries = payload.readInt();
+ for (int entry = 0; entry < entries; entry++) {
+ dictionary.add(payload.readUTF());
+ }
+ String[] strings = new String[rows];
+ for (int row = 0; row < rows; row++) {
+ int code = payload.readInt();
+ if (code < -1 || code >= dictionary.size()) {
+ throw new IOException("Invalid dictionary code " + code + " in " + file);
+ }
+ strings[row] = code < 0 ? null : dictionary.get(code);
+ }
+ return strings;
+ }
+
+ private void inflate(byte[] compressed, byte[] uncompressed) throws IOException {
+ inflater.reset();
+ inflater.setInput(compressed);
+ try {
+ int length = 0;
+ while (length < uncompressed.length && !inflater.finished()) {
+ int inflated = inflater.inflate(uncompressed, length, uncompressed.length - length);
+ if (inflated == 0 && inflater.needsInput()) {
+ throw new IOException("Truncated columnar block in " + file);
+ }
+ length += inflated;
+ }
+ if (length != uncompressed.length) {
+ throw new IOException("Truncated columnar block in " + file);
+ }
+ } catch (DataFormatException e) {
+ throw new IOException("Corrupted columnar block in " + file, e);
+ }
+ }
+}
@@ -0,0 +1,314 @@
+package com.milestone2.columnarExport;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.Deflater;
+
+/**
+ * Writes rows to a compressed binary columnar table.
+ * <p>
+ * Rows are appended to primitive column buffers and string values are replaced by dictionary codes as they arrive.
+ * Once a block is full it is handed over a small bounded queue to a dedicated I/O thread, which lays out, deflates and
+ * writes it, so callers never wait on the disk unless several blocks are pending. A write failure is kept and
+ * rethrown by the next {@link #write(List)} or by {@link #close()}.
+ */
+public class ColumnarWriter implements AutoCloseable {
+ private static final int DEFAULT_BLOCK_ROWS = 8_192;
+ private static final int MAX_PENDING_BLOCKS = 4;
+ private static final Block END = new Block(new ArrayList<>(), 0);
+
+ private final List<ColumnSpec> columns;
+ private final int blockRows;
+ private final DataOutputStream output;
+ private final List<Map<String, Integer>> dictionaries = new ArrayList<>();
+ private final List<List<String>> newEntries = new ArrayList<>();
+ private final BlockingQueue<Block> queue = new ArrayBlockingQueue<>(MAX_PENDING_BLOCKS);
+ private final Thread ioThread;
+ private Block current;
+ private volatile IOException failure;
+ private boolean closed;
+
+ public ColumnarWriter(Path file, List<ColumnSpec> columns) throws IOException {
+ this(file, columns, DEFAULT_BLOCK_ROWS);
+ }
+
+ ColumnarWriter(Path file, List<ColumnSpec> columns, int blockRows) throws IOException {
+ this.columns = List.copyOf(columns);
+ this.blockRows = blockRows;
+ for (int column = 0; column < columns.size(); column++) {
+ dictionaries.add(new HashMap<>());
+ newEntries.add(new ArrayList<>());
+ }
+ this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+ writeHeader();
+ this.current = new Block(this.columns, blockRows);
+ this.ioThread = new Thread(this::drain, "columnar-writer-" + file.getFileName());
+ ioThread.setDaemon(true);
+ ioThread.start();
+ }
+
+ /**
+ * Appends one row. Safe to call from concurrent threads.
+ *
+ * @param values one value per column: any object for string columns, a {@link Number} for numeric ones, or
+ * {@code null}
+ * @throws IOException when an earlier block could not be written or the calling thread is interrupted
+ * @throws IllegalArgumentException when the row does not have one value per column
+ */
+ public synchronized void write(List<Object> values) throws IOException {
+ throwIfFailed();
+ if (closed) {
+ throw new IOException("Columnar writer is closed");
+ }
+ if (values.size() != columns.size()) {
+ throw new IllegalArgumentException("Expected " + columns.size() + " values but got " + values.size());
+ }
+ int row = current.rows;
+ for (int column = 0; column < values.size(); column++) {
+ Object value = values.get(column);
+ if (value == null) {
+ current.markNull(column, row);
+ if (columns.get(column).getType() == ColumnType.STRING) {
+ ((int[]) current.values[column])[row] = -1;
+ }
+ continue;
+ }
+ switch (columns.get(column).getType()) {
+ case STRING:
+ ((int[]) current.values[column])[row] = code(column, value.toString());
+ break;
+ case LONG:
+ ((long[]) current.values[column])[row] = ((Number) value).longValue();
+ break;
+ default:
+ ((double[]) current.values[column])[row] = ((Number) value).doubleValue();
+ break;
+ }
+ }
+ current.rows++;
+ if (current.rows == blockRows) {
+ seal();
+ }
+ }
+
+ /**
+ * Writes the last partial block, waits for the I/O thread and closes the file.
+ *
+ * @throws IOException when a block could not be written, the file cannot be closed or the wait is interrupted
+ */
+ @Override
+ public synchronized void close() throws IOException {
+ if (closed) {
+ return;
+ }
+ closed = true;
+ try {
+ if (current.rows > 0) {
+ seal();
+ }
+ queue.put(END);
+ ioThread.join();
+ } catch (InterruptedException e) {
+ Thread.currentThread().interrupt();
+ throw interrupted(e);
+ } finally {
+ if (!ioThread.isAlive()) {
+ output.close();
+ }
+ }
+ throwIfFailed();
+ }
+
+ /**
+ * Returns the dictionary code of a string value, registering it as a new entry of the current block if needed.
+ *
+ * @param column string column index
+ * @param value string value
+ * @return dictionary code
+ */
+ private int code(int column, String value) {
+ Map<String, Integer> dictionary = dictionaries.get(column);
+ Integer code = dictionary.get(value);
+ if (code == null) {
+ code = dictionary.size();
+ dictionary.put(value, code);
+ newEntries.get(column).add(value);
+ }
+ return code;
+ }
+
+ /**
+ * Hands the current block, with the dictionary entries it introduced, to the I/O thread and starts a new one.
+ *
+ * @throws IOException when the calling thread is interrupted while the queue is full
+ */
+ private void seal() throws IOException {
+ current.entries = new String[columns.size()][];
+ for (int column = 0; column < columns.size(); column++) {
+ List<String> entries = newEntries.get(column);
+ current.entries[column] = entries.toArray(new String[0]);
+ entries.clear();
+ }
+ try {
+ queue.put(current);
+ } catch (InterruptedException e) {
+ Thread.currentThread().interrupt();
+ throw interrupted(e);
+ }
+ current = new Block(columns, blockRows);
+ }
+
+ /**
+ * Body of the I/O thread: writes sealed blocks until the end marker arrives, discarding them after a failure.
+ */
+ private void drain() {
+ Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+ try {
+ for (Block block = queue.take(); block != END; block = queue.take()) {
+ if (failure == null) {
+ writeBlock(block, deflater);
+ }
+ }
+ output.flush();
+ } catch (IOException e) {
+ failure = e;
+ } catch (InterruptedException e) {
+ failure = interrupted(e);
+ } finally {
+ deflater.end();
+ }
+ }
+
+ /**
+ * Lays out one block column by column, deflates the payload and appends it to the file.
+ *
+ * @param block sealed block
+ * @param deflater compressor owned by the I/O thread
+ * @throws IOException when the block cannot be written
+ */
+ private void writeBlock(Block block, Deflater deflater) throws IOException {
+ ByteArrayOutputStream raw = new ByteArrayOutputStream();
+ DataOutputStream payload = new DataOutputStream(raw);
+ for (int column = 0; column < columns.size(); column++) {
+ long[] nulls = block.nulls[column];
+ payload.writeBoolean(nulls != null);
+ if (nulls != null) {
+ for (int word = 0; word < (block.rows + 63) >>> 6; word++) {
+ payload.writeLong(nulls[word]);
+ }
+ }
+ switch (columns.get(column).getType()) {
+ case STRING:
+ payload.writeInt(block.entries[column].length);
+ for (String entry : block.entries[column]) {
+ payload.writeUTF(entry);
+ }
+ int[] codes = (int[]) block.values[column];
+ for (int row = 0; row < block.rows; row++) {
+ payload.writeInt(codes[row]);
+ }
+ break;
+ case LONG:
+ long[] longs = (long[]) block.values[column];
+ for (int row = 0; row < block.rows; row++) {
+ payload.writeLong(longs[row]);
+ }
+ break;
+ default:
+ double[] doubles = (double[]) block.values[column];
+ for (int row = 0; row < block.rows; row++) {
+ payload.writeDouble(doubles[row]);
+ }
+ break;
+ }
+ }
+ payload.flush();
+ byte[] uncompressed = raw.toByteArray();
+
+ deflater.reset();
+ deflater.setInput(uncompressed);
+ deflater.finish();
+ ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, uncompressed.length / 4));
+ byte[] buffer = new byte[1 << 14];
+ while (!deflater.finished()) {
+ compressed.write(buffer, 0, deflater.deflate(buffer));
+ }
+
+ output.writeInt(ColumnarFormat.BLOCK_MARKER);
+ output.writeInt(block.rows);
+ output.writeInt(uncompressed.length);
+ output.writeInt(compressed.size());
+ compressed.writeTo(output);
+ }
+
+ private void writeHeader() throws IOException {
+ output.writeInt(ColumnarFormat.MAGIC);
+ output.writeInt(ColumnarFormat.VERSION);
+ output.writeInt(columns.size());
+ for (ColumnSpec column : columns) {
+ output.writeUTF(column.getName());
+ output.writeByte(column.getType().ordinal());
+ }
+ }
+
+ private void throwIfFailed() throws IOException {
+ IOException current = failure;
+ if (current != null) {
+ throw new IOException("Columnar write failed", current);
+ }
+ }
+
+ private static InterruptedIOException interrupted(InterruptedException cause) {
+ InterruptedIOException exception = new InterruptedIOException("Interrupted while writing columnar rows");
+ exception.initCause(cause);
+ return exception;
+ }
+
+ /**
+ * Column buffers of one block of rows.
+ */
+ private static final class Block {
+ private final int capacity;
+ private final Object[] values;
+ private final long[][] nulls;
+ private String[][] entries;
+ private int rows;
+
+ private Block(List<ColumnSpec> columns, int capacity) {
+ this.capacity = capacity;
+ values = new Object[columns.size()];
+ nulls = new long[columns.size()][];
+ for (int column = 0; column < columns.size(); column++) {
+ switch (columns.get(column).getType()) {
+ case STRING:
+ values[column] = new int[capacity];
+ break;
+ case LONG:
+ values[column] = new long[capacity];
+ break;
+ default:
+ values[column] = new double[capacity];
+ break;
+ }
+ }
+ }
+
+ private void markNull(int column, int row) {
+ if (nulls[column] == null) {
+ nulls[column] = new long[(capacity + 63) >>> 6];
+ }
+ nulls[column][row >>> 6] |= 1L << row;
+ }
+ }
+}
@@ -0,0 +1,4 @@
+/**
+ * Compressed binary columnar export of tabular results, with its reader and a converter back to CSV.
+ */
+package com.milestone2.columnarExport;
@@ -0,0 +1,142 @@
+package com.milestone2.comparison;
+
+import com.milestone2.metric.MetricDefinition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntSupplier;
+
+/**
+ * Compares the classifiers of a run with paired permutation tests on the fold metrics of each dataset, then ranks
+ * them across datasets.
+ * <p>
+ * Every dataset gets its own sign-flip patterns, drawn from a {@link SplittableRandom} stream split from the run seed
+ * in dataset order and shared by all its pairs and metrics. The tests of each dataset and metric form one task, so
+ * the work spreads across cores and the p-values are identical whatever the number of worker threads.
+ */
+public class ClassifierComparator {
+ private static final Logger log = LoggerFactory.getLogger(ClassifierComparator.class);
+
+ private final PermutationTester permutationTester;
+ private final RankAnalyzer rankAnalyzer;
+ private final IntSupplier availableProcessorsSupplier;
+
+ public ClassifierComparator() {
+ this(new PermutationTester(), new RankAnalyzer(), () -> Runtime.getRuntime().availableProcessors());
+ }
+
+ ClassifierComparator(PermutationTester permutationTester,
+ RankAnalyzer rankAnalyzer,
+ IntSupplier availableProcessorsSupplier) {
+ this.permutationTester = permutationTester;
+ this.rankAnalyzer = rankAnalyzer;
+ this.availableProcessorsSupplier = availableProcessorsSupplier;
+ }
+
+ /**
+ * Runs the pairwise tests of every dataset and the rankings of every metric.
+ *
+ * @param datasets comparison views of the analyzed datasets, in run order
+ * @param permutations permutation budget of each paired test; {@code 0} disables the pairwise tests
+ * @param alpha significance level in {@code (0, 1)}
+ * @param seed run seed the sign-flip patterns are derived from
+ * @return comparison report
+ */
+ public ComparisonReport compare(List<ComparisonDataset> datasets, int permutations, double alpha, long seed) {
+ if (!(alpha > 0.0 && alpha < 1.0)) {
+ throw new IllegalArgumentException("Significance level must be in (0, 1): " + alpha);
+ }
+ long start = System.nanoTime();
+ MetricDefinition[] metrics = MetricDefinition.values();
+ AtomicReferenceArray<List<PairwiseComparison>> slots =
+ new AtomicReferenceArray<>(datasets.size() * metrics.length);
+ List<Runnable> tasks = new ArrayList<>();
+ if (permutations > 0) {
+ SplittableRandom seedStream = new SplittableRandom(seed);
+ for (int d = 0; d < datasets.size(); d++) {
+ ComparisonDataset dataset = datasets.get(d);
+ int[][] positions = permutationTester.align(dataset);
+ SignMasks masks = SignMasks.generate(sharedFolds(positions), permutations, seedStream.split());
+ for (int m = 0; m < metrics.length; m++) {
+ int metricIndex = m;
+ int slot = d * metrics.length + m;
+ tasks.add(() -> slots.set(slot, permutationTester.compare(
+ dataset,
+ positions,
+ metrics[metricIndex],
+ masks
+ )));
+ }
+ }
+ }
+ runTasks(tasks);
+
+ List<PairwiseComparison> pairwise = new ArrayList<>();
+ for (int slot = 0; slot < slots.length(); slot++) {
+ List<PairwiseComparison> comparisons = slots.get(slot);
+ if (comparisons != null) {
+ pairwise.addAll(comparisons);
+ }
+ }
+ List<RankComparison> rankings = new ArrayList<>();
+ for (MetricDefinition metric : metrics) {
+ RankComparison ranking = rankAnalyzer.rank(metric, datasets, alpha);
+ if (ranking != null) {
+ rankings.add(ranking);
+ }
+ }
+ log.debug("Compared classifiers on {} datasets ({} paired tests, {} permutations) in {} ms",
+ datasets.size(),
+ pairwise.size(),
+ permutations,
+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+ return new ComparisonReport(pairwise, rankings);
+ }
+
+ private static int sharedFolds(int[][] positions) {
+ for (int[] aligned : positions) {
+ if (aligned != null) {
+ return aligned.length;
+ }
+ }
+ return 0;
+ }
+
+ private void runTasks(List<Runnable> tasks) {
+ int workers = Math.min(Math.max(1, availableProcessorsSupplier.getAsInt()), tasks.size());
+ if (workers <= 1) {
+ tasks.forEach(Runnable::run);
+ return;
+ }
+ ExecutorService executor = Executors.newFixedThreadPool(workers);
+ try {
+ List<Future<?>> futures = new ArrayList<>();
+ for (Runnable task : tasks) {
+ futures.add(executor.submit(task));
+ }
+ for (Future<?> future : futures) {
+ future.get();
+ }
+ } catch (InterruptedException e) {
+ Thread.currentThread().interrupt();
+ throw new IllegalStateException("Classifier comparison was interrupted", e);
+ } catch (ExecutionException e) {
+ Throwable cause = e.getCause();
+ if (cause instanceof RuntimeException) {
+ throw (RuntimeException) cause;
+ }
+ throw new IllegalStateException("Classifier comparison failed", cause);
+ } finally {
+ executor.shutdownNow();
+ }
+ }
+}
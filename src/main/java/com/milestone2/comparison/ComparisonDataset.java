@@ -0,0 +1,103 @@
+package com.milestone2.comparison;
+
+import com.milestone2.classifier.Definition;
+import com.milestone2.classifier.EvaluationReport;
+import com.milestone2.dataset.AnalysisReport;
+import com.milestone2.metric.FoldSamples;
+import com.milestone2.metric.MetricDefinition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact view of one analyzed dataset holding only what the classifier comparison needs: the fold samples and the
+ * aggregate metrics of every classifier. It lets the run release the full analysis reports as soon as they are
+ * published.
+ */
+public class ComparisonDataset {
+ private final String datasetName;
+ private final List<Definition> classifiers;
+ private final List<FoldSamples> foldSamples;
+ private final List<Map<MetricDefinition, Double>> aggregateMetrics;
+
+ public ComparisonDataset(String datasetName,
+ List<Definition> classifiers,
+ List<FoldSamples> foldSamples,
+ List<Map<MetricDefinition, Double>> aggregateMetrics) {
+ if (classifiers.size() != foldSamples.size() || classifiers.size() != aggregateMetrics.size()) {
+ throw new IllegalArgumentException("Classifiers, fold samples and aggregate metrics must be aligned");
+ }
+ this.datasetName = datasetName;
+ this.classifiers = List.copyOf(classifiers);
+ this.foldSamples = List.copyOf(foldSamples);
+ this.aggregateMetrics = List.copyOf(aggregateMetrics);
+ }
+
+ /**
+ * Extracts the comparison inputs from a dataset analysis report.
+ *
+ * @param report dataset analysis report
+ * @return comparison view of the dataset
+ */
+ public static ComparisonDataset from(AnalysisReport report) {
+ List<Definition> classifiers = new ArrayList<>();
+ List<FoldSamples> samples = new ArrayList<>();
+ List<Map<MetricDefinition, Double>> aggregates = new ArrayList<>();
+ for (EvaluationReport classifierReport : report.getClassifierReports()) {
+ classifiers.add(classifierReport.getDefinition());
+ samples.add(classifierReport.getFoldMetrics().foldSamples());
+ aggregates.add(classifierReport.getAggregateMetrics());
+ }
+ return new ComparisonDataset(report.getDatasetName(), classifiers, samples, aggregates);
+ }
+
+ /**
+ * Returns the dataset name.
+ *
+ * @return dataset name
+ */
+ public String getDatasetName() {
+ return datasetName;
+ }
+
+ /**
+ * Returns how many classifiers were evaluated on the dataset.
+ *
+ * @return classifier count
+ */
+ public int getClassifierCount() {
+ return classifiers.size();
+ }
+
+ /**
+ * Returns the classifier at the given position.
+ *
+ * @param index classifier position
+ * @return classifier definition
+ */
+ public Definition getClassifier(int index) {
+ return classifiers.get(index);
+ }
+
+ /**
+ * Returns the fold samples of the classifier at the given position.
+ *
+ * @param index classifier position
+ * @return fold samples ordered by run and fold
+ */
+ public FoldSamples getFoldSamples(int index) {
+ return foldSamples.get(index);
+ }
+
+ /**
+ * Returns the aggregate value of a metric for the classifier at the given position.
+ *
+ * @param index classifier position
+ * @param metric metric to read
+ * @return aggregate value, or {@link Double#NaN} when it is missing
+ */
+ public double getAggregate(int index, MetricDefinition metric) {
+ return aggregateMetrics.get(index).getOrDefault(metric, Double.NaN);
+ }
+}
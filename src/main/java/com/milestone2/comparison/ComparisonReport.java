@@ -0,0 +1,34 @@
+package com.milestone2.comparison;
+
+import java.util.List;
+
+/**
+ * Outcome of the classifier comparison stage: pairwise tests per dataset and rankings across datasets.
+ */
+public class ComparisonReport {
+ private final List<PairwiseComparison> pairwiseComparisons;
+ private final List<RankComparison> rankComparisons;
+
+ public ComparisonReport(List<PairwiseComparison> pairwiseComparisons, List<RankComparison> rankComparisons) {
+ this.pairwiseComparisons = List.copyOf(pairwiseComparisons);
+ this.rankComparisons = List.copyOf(rankComparisons);
+ }
+
+ /**
+ * Returns the paired permutation tests, grouped by dataset and metric in run order.
+ *
+ * @return immutable pairwise comparisons
+ */
+ public List<PairwiseComparison> getPairwiseComparisons() {
+ return pairwiseComparisons;
+ }
+
+ /**
+ * Returns the per-metric rankings across datasets.
+ *
+ * @return immutable rank comparisons
+ */
+ public List<RankComparison> getRankComparisons() {
+ return rankComparisons;
+ }
+}
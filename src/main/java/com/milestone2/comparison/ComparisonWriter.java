@@ -0,0 +1,132 @@
+package com.milestone2.comparison;
+
+import com.milestone2.classifier.Definition;
+import com.milestone2.startupUtility.ExecutionSettings;
+import com.milestone2.startupUtility.RunConfig;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the classifier comparison: one {@code DATASET} row per classifier pair, dataset and metric, then one
+ * {@code ACROSS_DATASETS} row per classifier and metric. Columns that do not apply to a scope are left empty.
+ */
+public class ComparisonWriter implements AutoCloseable {
+ private static final String DATASET_SCOPE = "DATASET";
+ private static final String ACROSS_DATASETS_SCOPE = "ACROSS_DATASETS";
+ private static final String[] HEADER = {
+ "RunId",
+ "Granularity",
+ "ValidationStrategy",
+ "Seed",
+ "Scope",
+ "Dataset",
+ "Metric",
+ "Classifier",
+ "ClassifierId",
+ "Opponent",
+ "OpponentId",
+ "Observations",
+ "MeanDifference",
+ "PValue",
+ "AdjustedPValue",
+ "Significant",
+ "Winner",
+ "MeanRank",
+ "ScottKnottGroup",
+ "FriedmanStatistic",
+ "FriedmanPValue",
+ "CriticalDifference"
+ };
+
+ private final CSVPrinter printer;
+
+ public ComparisonWriter(Path file) throws IOException {
+ Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+ printer = new CSVPrinter(out, CSVFormat.DEFAULT.builder().setHeader(HEADER).get());
+ }
+
+ /**
+ * Writes every pairwise test and ranking of the comparison report.
+ *
+ * @param config immutable analysis configuration
+ * @param report classifier comparison report
+ * @throws IOException when the CSV output cannot be written
+ */
+ public void write(RunConfig config, ComparisonReport report) throws IOException {
+ double alpha = config.getReporting().getSignificanceLevel();
+ for (PairwiseComparison comparison : report.getPairwiseComparisons()) {
+ List<Object> row = baseFields(config, DATASET_SCOPE, comparison.getDatasetName());
+ Definition winner = comparison.getWinner(alpha);
+ row.add(comparison.getMetric().getDisplayName());
+ row.add(comparison.getClassifier().getDisplayName());
+ row.add(comparison.getClassifier().getId());
+ row.add(comparison.getOpponent().getDisplayName());
+ row.add(comparison.getOpponent().getId());
+ row.add(comparison.getObservations());
+ row.add(comparison.getMeanDifference());
+ row.add(comparison.getPValue());
+ row.add(comparison.getAdjustedPValue());
+ row.add(comparison.isSignificant(alpha));
+ row.add(winner == null ? "" : winner.getDisplayName());
+ addEmpty(row, 5);
+ printer.printRecord(row);
+ }
+ for (RankComparison ranking : report.getRankComparisons()) {
+ for (int c = 0; c < ranking.getClassifiers().size(); c++) {
+ Definition classifier = ranking.getClassifiers().get(c);
+ List<Object> row = baseFields(config, ACROSS_DATASETS_SCOPE, "");
+ row.add(ranking.getMetric().getDisplayName());
+ row.add(classifier.getDisplayName());
+ row.add(classifier.getId());
+ addEmpty(row, 2);
+ row.add(ranking.getDatasets());
+ addEmpty(row, 3);
+ row.add(ranking.getFriedmanPValue() < alpha);
+ row.add("");
+ row.add(ranking.getMeanRank(c));
+ row.add(ranking.getGroup(c));
+ row.add(ranking.getFriedmanStatistic());
+ row.add(ranking.getFriedmanPValue());
+ row.add(ranking.getCriticalDifference());
+ printer.printRecord(row);
+ }
+ }
+ printer.flush();
+ }
+
+ private static List<Object> baseFields(RunConfig config, String scope, String datasetName) {
+ ExecutionSettings execution = config.getExecution();
+ List<Object> row = new ArrayList<>();
+ row.add(execution.getRunId());
+ row.add(config.getSelection().getGranularity());
+ row.add(execution.getValidationStrategy().getCliValue());
+ row.add(execution.getSeed());
+ row.add(scope);
+ row.add(datasetName);
+ return row;
+ }
+
+ private static void addEmpty(List<Object> row, int columns) {
+ for (int i = 0; i < columns; i++) {
+ row.add("");
+ }
+ }
+
+ /**
+ * Closes the underlying CSV printer.
+ *
+ * @throws IOException when closing the writer fails
+ */
+ @Override
+ public void close() throws IOException {
+ printer.close();
+ }
+}
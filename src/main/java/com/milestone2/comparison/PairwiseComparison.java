@@ -0,0 +1,131 @@
+package com.milestone2.comparison;
+
+import com.milestone2.classifier.Definition;
+import com.milestone2.metric.MetricDefinition;
+
+/**
+ * Outcome of the paired permutation test between two classifiers on one dataset and one metric.
+ */
+public class PairwiseComparison {
+ private final String datasetName;
+ private final MetricDefinition metric;
+ private final Definition classifier;
+ private final Definition opponent;
+ private final int observations;
+ private final double meanDifference;
+ private final double pValue;
+ private final double adjustedPValue;
+
+ public PairwiseComparison(String datasetName,
+ MetricDefinition metric,
+ Definition classifier,
+ Definition opponent,
+ int observations,
+ double meanDifference,
+ double pValue,
+ double adjustedPValue) {
+ this.datasetName = datasetName;
+ this.metric = metric;
+ this.classifier = classifier;
+ this.opponent = opponent;
+ this.observations = observations;
+ this.meanDifference = meanDifference;
+ this.pValue = pValue;
+ this.adjustedPValue = adjustedPValue;
+ }
+
+ /**
+ * Returns the dataset the classifiers were compared on.
+ *
+ * @return dataset name
+ */
+ public String getDatasetName() {
+ return datasetName;
+ }
+
+ /**
+ * Returns the compared metric.
+ *
+ * @return metric definition
+ */
+ public MetricDefinition getMetric() {
+ return metric;
+ }
+
+ /**
+ * Returns the first classifier of the pair.
+ *
+ * @return classifier definition
+ */
+ public Definition getClassifier() {
+ return classifier;
+ }
+
+ /**
+ * Returns the second classifier of the pair.
+ *
+ * @return opponent definition
+ */
+ public Definition getOpponent() {
+ return opponent;
+ }
+
+ /**
+ * Returns how many folds were paired, i.e. folds where both classifiers produced a defined value.
+ *
+ * @return paired fold count
+ */
+ public int getObservations() {
+ return observations;
+ }
+
+ /**
+ * Returns the mean of the paired differences, classifier minus opponent.
+ *
+ * @return mean paired difference, or {@link Double#NaN} when no fold was paired
+ */
+ public double getMeanDifference() {
+ return meanDifference;
+ }
+
+ /**
+ * Returns the two-sided permutation p-value of the mean paired difference.
+ *
+ * @return raw p-value, or {@link Double#NaN} when the test was not run
+ */
+ public double getPValue() {
+ return pValue;
+ }
+
+ /**
+ * Returns the p-value after the Holm step-down adjustment over every pair of the same dataset and metric.
+ *
+ * @return adjusted p-value, or {@link Double#NaN} when the test was not run
+ */
+ public double getAdjustedPValue() {
+ return adjustedPValue;
+ }
+
+ /**
+ * Indicates whether the adjusted p-value is below the significance level.
+ *
+ * @param alpha significance level
+ * @return {@code true} when the difference is significant
+ */
+ public boolean isSignificant(double alpha) {
+ return adjustedPValue < alpha;
+ }
+
+ /**
+ * Returns the classifier that is significantly better on the metric, honoring its optimization direction.
+ *
+ * @param alpha significance level
+ * @return better classifier, or {@code null} when the difference is not significant
+ */
+ public Definition getWinner(double alpha) {
+ if (!isSignificant(alpha) || meanDifference == 0.0) {
+ return null;
+ }
+ return metric.isBetter(meanDifference, 0.0) ? classifier : opponent;
+ }
+}
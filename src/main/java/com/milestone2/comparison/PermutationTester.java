@@ -0,0 +1,281 @@
+package com.milestone2.comparison;
+
+import com.milestone2.metric.FoldSamples;
+import com.milestone2.metric.MetricDefinition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Paired sign-flip permutation tests between every pair of classifiers of one dataset.
+ * <p>
+ * The statistic is the absolute sum of the paired fold differences. Flipping the signs selected by a pattern turns
+ * the observed sum {@code D} into {@code D - 2 * (S_a - S_b)}, where {@code S_c} is the sum of classifier
+ * {@code c}'s values over the flipped folds. {@code S_c} is computed once per classifier and pattern from 256-entry
+ * subset-sum tables over eight-fold chunks, so each pair costs one subtraction per pattern instead of a pass over the
+ * folds. Classifiers with undefined fold values fall back to a direct pass over the folds both classifiers defined.
+ */
+class PermutationTester {
+ private static final double RELATIVE_TOLERANCE = 1e-9;
+
+ /**
+ * Aligns the fold samples of every classifier on the folds that all of them evaluated.
+ *
+ * @param dataset comparison view of the dataset
+ * @return per classifier, the positions of the shared folds in its samples; {@code null} for classifiers without
+ * folds
+ */
+ int[][] align(ComparisonDataset dataset) {
+ int classifiers = dataset.getClassifierCount();
+ long[] shared = null;
+ for (int c = 0; c < classifiers; c++) {
+ FoldSamples samples = dataset.getFoldSamples(c);
+ if (samples.size() == 0) {
+ continue;
+ }
+ shared = shared == null ? keys(samples) : intersect(shared, samples);
+ }
+ int[][] positions = new int[classifiers][];
+ if (shared == null) {
+ return positions;
+ }
+ for (int c = 0; c < classifiers; c++) {
+ FoldSamples samples = dataset.getFoldSamples(c);
+ if (samples.size() == 0) {
+ continue;
+ }
+ int[] aligned = new int[shared.length];
+ int position = 0;
+ for (int i = 0; i < shared.length; i++) {
+ while (samples.key(position) != shared[i]) {
+ position++;
+ }
+ aligned[i] = position;
+ }
+ positions[c] = aligned;
+ }
+ return positions;
+ }
+
+ /**
+ * Tests every pair of classifiers of the dataset on one metric and Holm-adjusts the p-values of the family.
+ *
+ * @param dataset comparison view of the dataset
+ * @param positions shared fold positions from {@link #align(ComparisonDataset)}
+ * @param metric metric to compare
+ * @param masks sign-flip patterns over the shared folds
+ * @return one comparison per pair, in catalog order
+ */
+ List<PairwiseComparison> compare(ComparisonDataset dataset,
+ int[][] positions,
+ MetricDefinition metric,
+ SignMasks masks) {
+ int classifiers = dataset.getClassifierCount();
+ double[][] values = new double[classifiers][];
+ double[][] flippedSums = new double[classifiers][];
+ for (int c = 0; c < classifiers; c++) {
+ if (positions[c] == null) {
+ continue;
+ }
+ values[c] = new double[masks.folds()];
+ boolean complete = true;
+ for (int i = 0; i < values[c].length; i++) {
+ values[c][i] = dataset.getFoldSamples(c).value(metric, positions[c][i]);
+ complete &= !Double.isNaN(values[c][i]);
+ }
+ if (complete) {
+ flippedSums[c] = flippedSums(values[c], masks);
+ }
+ }
+
+ int pairs = classifiers * (classifiers - 1) / 2;
+ int[] firsts = new int[pairs];
+ int[] seconds = new int[pairs];
+ int[] observations = new int[pairs];
+ double[] meanDifferences = new double[pairs];
+ double[] pValues = new double[pairs];
+ int pair = 0;
+ for (int a = 0; a < classifiers; a++) {
+ for (int b = a + 1; b < classifiers; b++, pair++) {
+ firsts[pair] = a;
+ seconds[pair] = b;
+ pValues[pair] = Double.NaN;
+ meanDifferences[pair] = Double.NaN;
+ if (values[a] == null || values[b] == null) {
+ continue;
+ }
+ if (flippedSums[a] != null && flippedSums[b] != null) {
+ observations[pair] = masks.folds();
+ testWithTables(values[a], values[b], flippedSums[a], flippedSums[b], masks, pair,
+ meanDifferences, pValues);
+ } else {
+ observations[pair] = testDirectly(values[a], values[b], masks, pair, meanDifferences, pValues);
+ }
+ }
+ }
+
+ double[] adjusted = holm(pValues);
+ List<PairwiseComparison> comparisons = new ArrayList<>(pairs);
+ for (int p = 0; p < pairs; p++) {
+ comparisons.add(new PairwiseComparison(
+ dataset.getDatasetName(),
+ metric,
+ dataset.getClassifier(firsts[p]),
+ dataset.getClassifier(seconds[p]),
+ observations[p],
+ meanDifferences[p],
+ pValues[p],
+ adjusted[p]
+ ));
+ }
+ return comparisons;
+ }
+
+ /**
+ * Applies the Holm step-down adjustment to a family of p-values, ignoring undefined ones.
+ *
+ * @param pValues raw p-values, {@link Double#NaN} for tests that were not run
+ * @return adjusted p-values aligned with the input
+ */
+ static double[] holm(double[] pValues) {
+ double[] adjusted = new double[pValues.length];
+ Arrays.fill(adjusted, Double.NaN);
+ Integer[] order = new Integer[pValues.length];
+ int defined = 0;
+ for (int i = 0; i < pValues.length; i++) {
+ if (!Double.isNaN(pValues[i])) {
+ order[defined++] = i;
+ }
+ }
+ Arrays.sort(order, 0, defined, (left, right) -> Double.compare(pValues[left], pValues[right]));
+ double running = 0.0;
+ for (int rank = 0; rank < defined; rank++) {
+ int index = order[rank];
+ running = Math.max(running, Math.min(1.0, (defined - rank) * pValues[index]));
+ adjusted[index] = running;
+ }
+ return adjusted;
+ }
+
+ private static void testWithTables(double[] first,
+ double[] second,
+ double[] firstFlipped,
+ double[] secondFlipped,
+ SignMasks masks,
+ int pair,
+ double[] meanDifferences,
+ double[] pValues) {
+ double observed = 0.0;
+ for (int i = 0; i < first.length; i++) {
+ observed += first[i] - second[i];
+ }
+ double threshold = threshold(observed);
+ int extreme = 0;
+ for (int mask = 0; mask < masks.count(); mask++) {
+ double permuted = observed - 2.0 * (firstFlipped[mask] - secondFlipped[mask]);
+ if (Math.abs(permuted) >= threshold) {
+ extreme++;
+ }
+ }
+ meanDifferences[pair] = observed / first.length;
+ pValues[pair] = masks.count() == 0 ? Double.NaN : masks.pValue(extreme);
+ }
+
+ private static int testDirectly(double[] first,
+ double[] second,
+ SignMasks masks,
+ int pair,
+ double[] meanDifferences,
+ double[] pValues) {
+ double[] differences = new double[first.length];
+ int[] folds = new int[first.length];
+ int paired = 0;
+ double observed = 0.0;
+ for (int i = 0; i < first.length; i++) {
+ double difference = first[i] - second[i];
+ if (!Double.isNaN(difference)) {
+ differences[paired] = difference;
+ folds[paired++] = i;
+ observed += difference;
+ }
+ }
+ if (paired == 0) {
+ return 0;
+ }
+ double threshold = threshold(observed);
+ int extreme = 0;
+ for (int mask = 0; mask < masks.count(); mask++) {
+ double flipped = 0.0;
+ for (int i = 0; i < paired; i++) {
+ if (masks.isFlipped(mask, folds[i])) {
+ flipped += differences[i];
+ }
+ }
+ if (Math.abs(observed - 2.0 * flipped) >= threshold) {
+ extreme++;
+ }
+ }
+ meanDifferences[pair] = observed / paired;
+ pValues[pair] = masks.count() == 0 ? Double.NaN : masks.pValue(extreme);
+ return paired;
+ }
+
+ /**
+ * Sums the values over the flipped folds of every pattern, using one 256-entry subset-sum table per eight-fold
+ * chunk.
+ *
+ * @param values fold values without undefined entries
+ * @param masks sign-flip patterns
+ * @return flipped-fold sum per pattern
+ */
+ static double[] flippedSums(double[] values, SignMasks masks) {
+ int chunks = (values.length + 7) >>> 3;
+ double[] tables = new double[chunks << 8];
+ for (int chunk = 0; chunk < chunks; chunk++) {
+ int base = chunk << 8;
+ for (int subset = 1; subset < 256; subset++) {
+ int fold = (chunk << 3) + Integer.numberOfTrailingZeros(subset);
+ double value = fold < values.length ? values[fold] : 0.0;
+ tables[base + subset] = tables[base + (subset & (subset - 1))] + value;
+ }
+ }
+ double[] sums = new double[masks.count()];
+ for (int mask = 0; mask < sums.length; mask++) {
+ double sum = 0.0;
+ for (int chunk = 0; chunk < chunks; chunk++) {
+ sum += tables[(chunk << 8) + masks.chunk(mask, chunk)];
+ }
+ sums[mask] = sum;
+ }
+ return sums;
+ }
+
+ private static double threshold(double observed) {
+ double magnitude = Math.abs(observed);
+ return magnitude - RELATIVE_TOLERANCE * Math.max(1.0, magnitude);
+ }
+
+ private static long[] keys(FoldSamples samples) {
+ long[] keys = new long[samples.size()];
+ for (int i = 0; i < keys.length; i++) {
+ keys[i] = samples.key(i);
+ }
+ return keys;
+ }
+
+ private static long[] intersect(long[] shared, FoldSamples samples) {
+ long[] kept = new long[shared.length];
+ int count = 0;
+ int position = 0;
+ for (long key : shared) {
+ while (position < samples.size() && samples.key(position) < key) {
+ position++;
+ }
+ if (position < samples.size() && samples.key(position) == key) {
+ kept[count++] = key;
+ }
+ }
+ return Arrays.copyOf(kept, count);
+ }
+}
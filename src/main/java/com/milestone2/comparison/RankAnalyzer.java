@@ -0,0 +1,153 @@
+package com.milestone2.comparison;
+
+import com.milestone2.classifier.Definition;
+import com.milestone2.metric.MetricDefinition;
+import weka.core.Statistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rank-based comparison of the classifiers across datasets, following Demsar's Friedman and Nemenyi procedure
+ * completed with Scott-Knott ESD groups.
+ */
+class RankAnalyzer {
+ private static final int INTEGRATION_STEPS = 400;
+ private static final double INTEGRATION_BOUND = 8.0;
+
+ /**
+ * Ranks the classifiers on one metric, using the datasets where every classifier has an aggregate value.
+ *
+ * @param metric metric to rank
+ * @param datasets comparison views of the analyzed datasets
+ * @param alpha significance level of the Nemenyi and Scott-Knott procedures
+ * @return ranking, or {@code null} when fewer than two classifiers or two complete datasets are available
+ */
+ RankComparison rank(MetricDefinition metric, List<ComparisonDataset> datasets, double alpha) {
+ Map<String, Integer> indexById = new LinkedHashMap<>();
+ List<Definition> classifiers = new ArrayList<>();
+ for (ComparisonDataset dataset : datasets) {
+ for (int c = 0; c < dataset.getClassifierCount(); c++) {
+ Definition definition = dataset.getClassifier(c);
+ if (indexById.putIfAbsent(definition.getId(), classifiers.size()) == null) {
+ classifiers.add(definition);
+ }
+ }
+ }
+ int k = classifiers.size();
+ List<double[]> rankRows = new ArrayList<>();
+ for (ComparisonDataset dataset : datasets) {
+ double[] values = new double[k];
+ Arrays.fill(values, Double.NaN);
+ for (int c = 0; c < dataset.getClassifierCount(); c++) {
+ values[indexById.get(dataset.getClassifier(c).getId())] = dataset.getAggregate(c, metric);
+ }
+ if (Arrays.stream(values).noneMatch(Double::isNaN)) {
+ rankRows.add(ranks(values, metric.isHigherBetter()));
+ }
+ }
+ int n = rankRows.size();
+ if (k < 2 || n < 2) {
+ return null;
+ }
+
+ double[][] ranksByClassifier = new double[k][n];
+ double[] meanRanks = new double[k];
+ for (int d = 0; d < n; d++) {
+ for (int c = 0; c < k; c++) {
+ ranksByClassifier[c][d] = rankRows.get(d)[c];
+ meanRanks[c] += rankRows.get(d)[c] / n;
+ }
+ }
+ double squaredRanks = 0.0;
+ for (double meanRank : meanRanks) {
+ squaredRanks += meanRank * meanRank;
+ }
+ double friedman = 12.0 * n / (k * (k + 1.0)) * (squaredRanks - k * (k + 1.0) * (k + 1.0) / 4.0);
+ friedman = Math.max(0.0, friedman);
+ return new RankComparison(
+ metric,
+ classifiers,
+ n,
+ meanRanks,
+ ScottKnottEsd.groups(ranksByClassifier, alpha),
+ friedman,
+ Statistics.chiSquaredProbability(friedman, k - 1.0),
+ nemenyiCriticalValue(k, alpha) * Math.sqrt(k * (k + 1.0) / (6.0 * n))
+ );
+ }
+
+ /**
+ * Ranks one row of values, 1 being the best; ties share the average of their ranks.
+ *
+ * @param values values to rank
+ * @param higherIsBetter whether larger values are better
+ * @return rank of every value
+ */
+ static double[] ranks(double[] values, boolean higherIsBetter) {
+ Integer[] order = new Integer[values.length];
+ for (int i = 0; i < order.length; i++) {
+ order[i] = i;
+ }
+ Arrays.sort(order, (left, right) -> higherIsBetter
+ ? Double.compare(values[right], values[left])
+ : Double.compare(values[left], values[right]));
+ double[] ranks = new double[values.length];
+ int start = 0;
+ while (start < order.length) {
+ int end = start + 1;
+ while (end < order.length && values[order[end]] == values[order[start]]) {
+ end++;
+ }
+ double averageRank = (start + 1 + end) / 2.0;
+ for (int i = start; i < end; i++) {
+ ranks[order[i]] = averageRank;
+ }
+ start = end;
+ }
+ return ranks;
+ }
+
+ /**
+ * Returns the Nemenyi critical value {@code q_alpha}: the upper {@code alpha} quantile of the studentized range of
+ * {@code k} standard normal variables, divided by the square root of two. The range distribution is integrated
+ * numerically and inverted by bisection, which reproduces the tabulated values for any number of classifiers.
+ *
+ * @param k number of classifiers
+ * @param alpha significance level
+ * @return critical value
+ */
+ static double nemenyiCriticalValue(int k, double alpha) {
+ double low = 0.0;
+ double high = 20.0;
+ for (int iteration = 0; iteration < 60; iteration++) {
+ double middle = (low + high) / 2.0;
+ if (rangeDistribution(middle, k) < 1.0 - alpha) {
+ low = middle;
+ } else {
+ high = middle;
+ }
+ }
+ return (low + high) / 2.0 / Math.sqrt(2.0);
+ }
+
+ /**
+ * Returns {@code P(R <= w)} for the range {@code R} of {@code k} independent standard normal variables, integrating
+ * {@code k * phi(z) * (Phi(z + w) - Phi(z))^(k - 1)} with Simpson's rule.
+ */
+ private static double rangeDistribution(double w, int k) {
+ double step = 2.0 * INTEGRATION_BOUND / INTEGRATION_STEPS;
+ double sum = 0.0;
+ for (int i = 0; i <= INTEGRATION_STEPS; i++) {
+ double z = -INTEGRATION_BOUND + i * step;
+ double density = Math.exp(-z * z / 2.0) / Math.sqrt(2.0 * Math.PI);
+ double inner = Statistics.normalProbability(z + w) - Statistics.normalProbability(z);
+ double weight = i == 0 || i == INTEGRATION_STEPS ? 1.0 : (i % 2 == 1 ? 4.0 : 2.0);
+ sum += weight * density * Math.pow(inner, k - 1.0);
+ }
+ return k * sum * step / 3.0;
+ }
+}
@@ -0,0 +1,113 @@
+package com.milestone2.comparison;
+
+import com.milestone2.classifier.Definition;
+import com.milestone2.metric.MetricDefinition;
+
+import java.util.List;
+
+/**
+ * Ranking of the classifiers on one metric across every dataset where all of them produced a value: Friedman test,
+ * Nemenyi critical difference and Scott-Knott ESD groups of the per-dataset ranks.
+ */
+public class RankComparison {
+ private final MetricDefinition metric;
+ private final List<Definition> classifiers;
+ private final int datasets;
+ private final double[] meanRanks;
+ private final int[] groups;
+ private final double friedmanStatistic;
+ private final double friedmanPValue;
+ private final double criticalDifference;
+
+ public RankComparison(MetricDefinition metric,
+ List<Definition> classifiers,
+ int datasets,
+ double[] meanRanks,
+ int[] groups,
+ double friedmanStatistic,
+ double friedmanPValue,
+ double criticalDifference) {
+ this.metric = metric;
+ this.classifiers = List.copyOf(classifiers);
+ this.datasets = datasets;
+ this.meanRanks = meanRanks.clone();
+ this.groups = groups.clone();
+ this.friedmanStatistic = friedmanStatistic;
+ this.friedmanPValue = friedmanPValue;
+ this.criticalDifference = criticalDifference;
+ }
+
+ /**
+ * Returns the ranked metric.
+ *
+ * @return metric definition
+ */
+ public MetricDefinition getMetric() {
+ return metric;
+ }
+
+ /**
+ * Returns the ranked classifiers in catalog order.
+ *
+ * @return immutable classifier list
+ */
+ public List<Definition> getClassifiers() {
+ return classifiers;
+ }
+
+ /**
+ * Returns how many datasets contributed a complete row of ranks.
+ *
+ * @return dataset count
+ */
+ public int getDatasets() {
+ return datasets;
+ }
+
+ /**
+ * Returns the mean rank of a classifier; rank 1 is the best value on a dataset.
+ *
+ * @param index classifier position
+ * @return mean rank
+ */
+ public double getMeanRank(int index) {
+ return meanRanks[index];
+ }
+
+ /**
+ * Returns the Scott-Knott ESD group of a classifier; group 1 holds the best-ranked classifiers.
+ *
+ * @param index classifier position
+ * @return group number
+ */
+ public int getGroup(int index) {
+ return groups[index];
+ }
+
+ /**
+ * Returns the Friedman chi-squared statistic of the ranks.
+ *
+ * @return Friedman statistic
+ */
+ public double getFriedmanStatistic() {
+ return friedmanStatistic;
+ }
+
+ /**
+ * Returns the p-value of the Friedman statistic.
+ *
+ * @return Friedman p-value
+ */
+ public double getFriedmanPValue() {
+ return friedmanPValue;
+ }
+
+ /**
+ * Returns the Nemenyi critical difference: two mean ranks further apart differ significantly.
+ *
+ * @return critical difference of mean ranks
+ */
+ public double getCriticalDifference() {
+ return criticalDifference;
+ }
+}
@@ -0,0 +1,167 @@
+package com.milestone2.comparison;
+
+import weka.core.Statistics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Scott-Knott effect-size-difference clustering of treatments (Tantithamthavorn et al.).
+ * <p>
+ * Treatments are sorted by mean and recursively split where the between-group sum of squares is largest, as long as
+ * the likelihood-ratio test of the split is significant. Adjacent groups whose Cohen's d is negligible are then
+ * merged. Group 1 holds the treatments with the lowest means, i.e. the best ranks.
+ */
+final class ScottKnottEsd {
+ private static final double NEGLIGIBLE_EFFECT = 0.2;
+
+ private ScottKnottEsd() {
+ }
+
+ /**
+ * Clusters the treatments into statistically distinct groups.
+ *
+ * @param observations observations per treatment, each with the same count
+ * @param alpha significance level of the split test
+ * @return group number per treatment, starting at 1 for the lowest means
+ */
+ static int[] groups(double[][] observations, double alpha) {
+ int k = observations.length;
+ int n = observations[0].length;
+ double[] means = new double[k];
+ double withinSquares = 0.0;
+ for (int t = 0; t < k; t++) {
+ means[t] = Arrays.stream(observations[t]).average().orElse(Double.NaN);
+ for (double value : observations[t]) {
+ withinSquares += (value - means[t]) * (value - means[t]);
+ }
+ }
+ Integer[] order = new Integer[k];
+ for (int t = 0; t < k; t++) {
+ order[t] = t;
+ }
+ Arrays.sort(order, (left, right) -> Double.compare(means[left], means[right]));
+ double[] sortedMeans = new double[k];
+ for (int i = 0; i < k; i++) {
+ sortedMeans[i] = means[order[i]];
+ }
+ double errorDegrees = k * (n - 1.0);
+ double meanVariance = errorDegrees > 0 ? withinSquares / errorDegrees / n : 0.0;
+
+ List<int[]> clusters = new ArrayList<>();
+ split(sortedMeans, 0, k, errorDegrees, meanVariance, alpha, clusters);
+ mergeNegligible(observations, order, clusters);
+
+ int[] groups = new int[k];
+ for (int g = 0; g < clusters.size(); g++) {
+ for (int i = clusters.get(g)[0]; i < clusters.get(g)[1]; i++) {
+ groups[order[i]] = g + 1;
+ }
+ }
+ return groups;
+ }
+
+ private static void split(double[] means,
+ int from,
+ int to,
+ double errorDegrees,
+ double meanVariance,
+ double alpha,
+ List<int[]> clusters) {
+ int size = to - from;
+ if (size < 2) {
+ clusters.add(new int[]{from, to});
+ return;
+ }
+ double total = 0.0;
+ for (int i = from; i < to; i++) {
+ total += means[i];
+ }
+ double grandMean = total / size;
+ double bestSquares = -1.0;
+ int bestCut = -1;
+ double left = 0.0;
+ for (int cut = from + 1; cut < to; cut++) {
+ left += means[cut - 1];
+ double right = total - left;
+ double squares = left * left / (cut - from) + right * right / (to - cut) - total * total / size;
+ if (squares > bestSquares) {
+ bestSquares = squares;
+ bestCut = cut;
+ }
+ }
+ double spread = 0.0;
+ for (int i = from; i < to; i++) {
+ spread += (means[i] - grandMean) * (means[i] - grandMean);
+ }
+ double variance = (spread + errorDegrees * meanVariance) / (size + errorDegrees);
+ boolean significant = false;
+ if (variance > 0.0) {
+ double lambda = Math.PI / (2.0 * (Math.PI - 2.0)) * bestSquares / variance;
+ significant = Statistics.chiSquaredProbability(lambda, size / (Math.PI - 2.0)) < alpha;
+ }
+ if (!significant) {
+ clusters.add(new int[]{from, to});
+ return;
+ }
+ split(means, from, bestCut, errorDegrees, meanVariance, alpha, clusters);
+ split(means, bestCut, to, errorDegrees, meanVariance, alpha, clusters);
+ }
+
+ private static void mergeNegligible(double[][] observations, Integer[] order, List<int[]> clusters) {
+ while (clusters.size() > 1) {
+ int weakest = -1;
+ double weakestEffect = NEGLIGIBLE_EFFECT;
+ for (int g = 0; g + 1 < clusters.size(); g++) {
+ double effect = Math.abs(cohensD(observations, order, clusters.get(g), clusters.get(g + 1)));
+ if (effect < weakestEffect) {
+ weakestEffect = effect;
+ weakest = g;
+ }
+ }
+ if (weakest < 0) {
+ return;
+ }
+ int[] merged = {clusters.get(weakest)[0], clusters.get(weakest + 1)[1]};
+ clusters.remove(weakest + 1);
+ clusters.set(weakest, merged);
+ }
+ }
+
+ private static double cohensD(double[][] observations, Integer[] order, int[] first, int[] second) {
+ double[] firstMoments = moments(observations, order, first);
+ double[] secondMoments = moments(observations, order, second);
+ double degrees = firstMoments[0] + secondMoments[0] - 2.0;
+ double pooled = degrees > 0
+ ? Math.sqrt((firstMoments[2] + secondMoments[2]) / degrees)
+ : 0.0;
+ double difference = secondMoments[1] - firstMoments[1];
+ if (pooled == 0.0) {
+ return difference == 0.0 ? 0.0 : Double.POSITIVE_INFINITY;
+ }
+ return difference / pooled;
+ }
+
+ /**
+ * Returns the count, mean and sum of squared deviations of the pooled observations of a group.
+ */
+ private static double[] moments(double[][] observations, Integer[] order, int[] cluster) {
+ double count = 0.0;
+ double sum = 0.0;
+ for (int i = cluster[0]; i < cluster[1]; i++) {
+ for (double value : observations[order[i]]) {
+ count++;
+ sum += value;
+ }
+ }
+ double mean = sum / count;
+ double squares = 0.0;
+ for (int i = cluster[0]; i < cluster[1]; i++) {
+ for (double value : observations[order[i]]) {
+ squares += (value - mean) * (value - mean);
+ }
+ }
+ return new double[]{count, mean, squares};
+ }
+}
@@ -0,0 +1,94 @@
+package com.milestone2.comparison;
+
+import java.util.SplittableRandom;
+
+/**
+ * Sign-flip patterns shared by every paired permutation test of one dataset.
+ * <p>
+ * Each pattern is a bitmask over the aligned folds, packed in {@code long} words: a set bit flips the sign of that
+ * fold's paired difference. When all {@code 2^folds} patterns fit in the permutation budget they are enumerated and
+ * the test is exact; otherwise patterns are drawn from the supplied random stream and the first pattern is the
+ * identity, so the observed statistic is always part of the reference distribution.
+ */
+final class SignMasks {
+ private final int folds;
+ private final int words;
+ private final int count;
+ private final long[] bits;
+
+ private SignMasks(int folds, int words, int count, long[] bits) {
+ this.folds = folds;
+ this.words = words;
+ this.count = count;
+ this.bits = bits;
+ }
+
+ /**
+ * Creates the sign-flip patterns for a number of aligned folds.
+ *
+ * @param folds number of aligned folds
+ * @param permutations permutation budget
+ * @param random stream the random patterns are drawn from
+ * @return sign-flip patterns
+ */
+ static SignMasks generate(int folds, int permutations, SplittableRandom random) {
+ int words = Math.max(1, (folds + Long.SIZE - 1) / Long.SIZE);
+ if (folds == 0 || permutations <= 0) {
+ return new SignMasks(folds, words, 0, new long[0]);
+ }
+ if (folds < Integer.SIZE - 1 && (1L << folds) <= permutations) {
+ int count = 1 << folds;
+ long[] bits = new long[count];
+ for (int mask = 0; mask < count; mask++) {
+ bits[mask] = mask;
+ }
+ return new SignMasks(folds, 1, count, bits);
+ }
+ int count = permutations + 1;
+ long[] bits = new long[count * words];
+ int tailBits = folds % Long.SIZE;
+ long tailMask = tailBits == 0 ? -1L : (1L << tailBits) - 1;
+ for (int mask = 1; mask < count; mask++) {
+ for (int word = 0; word < words; word++) {
+ bits[mask * words + word] = random.nextLong();
+ }
+ bits[mask * words + words - 1] &= tailMask;
+ }
+ return new SignMasks(folds, words, count, bits);
+ }
+
+ int folds() {
+ return folds;
+ }
+
+ int count() {
+ return count;
+ }
+
+ /**
+ * Returns the eight-fold chunk of a pattern, the unit used by the subset-sum tables.
+ *
+ * @param mask pattern index
+ * @param chunk chunk index, covering folds {@code 8 * chunk} to {@code 8 * chunk + 7}
+ * @return chunk bits in the low byte
+ */
+ int chunk(int mask, int chunk) {
+ long word = bits[mask * words + (chunk >>> 3)];
+ return (int) (word >>> ((chunk & 7) << 3)) & 0xFF;
+ }
+
+ boolean isFlipped(int mask, int fold) {
+ return (bits[mask * words + (fold >>> 6)] & (1L << fold)) != 0;
+ }
+
+ /**
+ * Converts the number of patterns at least as extreme as the observed one into a p-value: the exact tail share
+ * when patterns are enumerated, {@code (extreme + 1) / (permutations + 1)} otherwise.
+ *
+ * @param extreme patterns whose statistic reaches the observed one, identity pattern included
+ * @return p-value
+ */
+ double pValue(int extreme) {
+ return (double) extreme / count;
+ }
+}
@@ -0,0 +1,4 @@
+/**
+ * Statistical comparison of classifiers: paired permutation tests per dataset and rank-based tests across datasets.
+ */
+package com.milestone2.comparison;
@@ -1,14 +1,18 @@
 package com.milestone2.crossValidation;
 
+import com.milestone2.evaluation.CoreBudget;
 import com.milestone2.foldMetadata.FoldResultProducer;
 import com.milestone2.foldMetadata.FoldContext;
 import com.milestone2.foldMetadata.FoldResult;
+import com.milestone2.runMetrics.RunProgress;
 import com.milestone2.startupUtility.RunConfig;
 import com.milestone2.startupUtility.ExecutionSettings;
 import com.milestone2.validationStrategy.ValidationExecutor;
 import com.milestone2.validationStrategy.ValidationStrategy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
 import weka.core.Instances;
 
 import java.util.ArrayList;
@@ -22,19 +26,25 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
 /**
- * Executes deterministic cross-validation folds in parallel.
+ * Executes deterministic cross-validation folds in parallel, reporting the size and usage of its worker pool to the
+ * run progress. The workers occupy their cores in the shared {@link CoreBudget}, so fold scoring only fans out onto
+ * cores the pool leaves idle.
  */
 public class KFoldExecutor implements ValidationExecutor {
  private static final Logger log = LoggerFactory.getLogger(KFoldExecutor.class);
 
  private final ParallelismResolver parallelismResolver;
+ private final RunProgress runProgress;
+ private final CoreBudget coreBudget;
 
  public KFoldExecutor() {
- this(new ParallelismResolver());
+ this(new ParallelismResolver(), RunProgress.global(), CoreBudget.shared());
  }
 
- KFoldExecutor(ParallelismResolver parallelismResolver) {
+ KFoldExecutor(ParallelismResolver parallelismResolver, RunProgress runProgress, CoreBudget coreBudget) {
  this.parallelismResolver = parallelismResolver;
+ this.runProgress = runProgress;
+ this.coreBudget = coreBudget;
  }
 
  /**
@@ -63,6 +73,8 @@ public class KFoldExecutor implements ValidationExecutor {
  ExecutionSettings execution = config.getExecution();
  int workerCount = parallelismResolver.resolve(execution);
  ExecutorService executorService = Executors.newFixedThreadPool(workerCount);
+ runProgress.workerPoolStarted(workerCount);
+ coreBudget.occupy(workerCount);
  CompletionService<FoldResult> completionService = new ExecutorCompletionService<>(executorService);
  List<FoldResult> results = new ArrayList<>(execution.getRuns() * execution.getFolds());
  log.info("Running {}x{}-fold cross-validation with {} fold workers",
@@ -76,7 +88,12 @@ public class KFoldExecutor implements ValidationExecutor {
  collectRunResults(execution.getFolds(), completionService, results);
  }
  } finally {
+ try {
  shutdownExecutor(executorService);
+ } finally {
+ coreBudget.release(workerCount);
+ runProgress.workerPoolStopped(workerCount);
+ }
  }
 
  return results;
@@ -106,6 +123,8 @@ public class KFoldExecutor implements ValidationExecutor {
  if (randomized.classAttribute().isNominal()) {
  randomized.stratify(execution.getFolds());
  }
+ Instances rowIds = shuffledRowIds(data, execution.getSeed() + run, execution.getFolds());
+ producer.scheduled(execution.getFolds());
 
  for (int fold = 0; fold < execution.getFolds(); fold++) {
  final int runIndex = run;
@@ -113,10 +132,61 @@ public class KFoldExecutor implements ValidationExecutor {
  final Instances train = new Instances(randomized.trainCV(execution.getFolds(), fold));
  final Instances test = new Instances(randomized.testCV(execution.getFolds(), fold));
  final FoldContext context =
- FoldContext.crossValidation(runIndex, foldIndex, train.numInstances(), test.numInstances());
+ FoldContext.crossValidation(runIndex, foldIndex, train.numInstances(), test.numInstances())
+ .withTestRowIds(rowIdColumn(rowIds.testCV(execution.getFolds(), fold)));
+
+ completionService.submit(() -> {
+ long busySince = runProgress.workerBusy();
+ try {
+ return producer.produce(train, test, context);
+ } finally {
+ runProgress.workerIdle(busySince);
+ }
+ });
+ }
+ }
+
+ /**
+ * Applies the same randomization and stratification as the evaluated copy to a two-column shadow dataset holding
+ * only the original row index and the class value. Both operations depend only on the random stream and the class
+ * values, so the shadow ends up in exactly the same order and its folds reveal the dataset row of every test
+ * instance without copying the feature columns.
+ *
+ * @param data source dataset
+ * @param seed seed used for the run
+ * @param folds number of folds
+ * @return shuffled shadow dataset
+ */
+ // S2245: same non-cryptographic shuffling as submitRunTasks.
+ @SuppressWarnings("java:S2245")
+ private Instances shuffledRowIds(Instances data, long seed, int folds) {
+ ArrayList<Attribute> attributes = new ArrayList<>(2);
+ attributes.add(new Attribute("rowId"));
+ attributes.add((Attribute) data.classAttribute().copy());
+ Instances shadow = new Instances(data.relationName() + "-rowIds", attributes, data.numInstances());
+ shadow.setClassIndex(1);
+ for (int row = 0; row < data.numInstances(); row++) {
+ shadow.add(new DenseInstance(1.0, new double[]{row, data.instance(row).classValue()}));
+ }
+ shadow.randomize(new Random(seed));
+ if (shadow.classAttribute().isNominal()) {
+ shadow.stratify(folds);
+ }
+ return shadow;
+ }
 
- completionService.submit(() -> producer.produce(train, test, context));
+ /**
+ * Extracts the row index column of a shadow fold.
+ *
+ * @param shadowFold fold of the shadow dataset
+ * @return dataset row ids aligned with the fold
+ */
+ private int[] rowIdColumn(Instances shadowFold) {
+ int[] rowIds = new int[shadowFold.numInstances()];
+ for (int i = 0; i < rowIds.length; i++) {
+ rowIds[i] = (int) shadowFold.instance(i).value(0);
  }
+ return rowIds;
  }
 
  /**
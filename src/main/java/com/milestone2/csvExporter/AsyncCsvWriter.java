@@ -0,0 +1,198 @@
+package com.milestone2.csvExporter;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * CSV writer whose rows are encoded and written by a dedicated I/O thread.
+ * <p>
+ * Callers only enqueue rows on a bounded queue, so analysis threads never wait on the disk; they are slowed down only
+ * when the queue is full. The I/O thread drains the queue in batches and flushes once it catches up, instead of once
+ * per row. Rows that share leading columns can carry that prefix pre-encoded through {@link #encodePrefix(List)}.
+ * <p>
+ * A write failure is kept and rethrown by the next {@link #write} or by {@link #close()}; rows enqueued after the
+ * failure are discarded.
+ */
+public class AsyncCsvWriter implements AutoCloseable {
+ private static final int DEFAULT_QUEUE_CAPACITY = 8_192;
+ private static final int MAX_BATCH_ROWS = 1_024;
+ private static final Row END = new Row(null, new Object[0]);
+
+ private final CSVFormat rowFormat;
+ private final Writer out;
+ private final CSVPrinter printer;
+ private final BlockingQueue<Row> queue;
+ private final Thread ioThread;
+ private volatile IOException failure;
+ private boolean closed;
+
+ public AsyncCsvWriter(Path file, String[] header) throws IOException {
+ this(file, header, DEFAULT_QUEUE_CAPACITY);
+ }
+
+ AsyncCsvWriter(Path file, String[] header, int queueCapacity) throws IOException {
+ rowFormat = CSVFormat.DEFAULT;
+ out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+ printer = new CSVPrinter(out, rowFormat.builder().setHeader(header).get());
+ queue = new ArrayBlockingQueue<>(queueCapacity);
+ ioThread = new Thread(this::drain, "csv-writer-" + file.getFileName());
+ ioThread.setDaemon(true);
+ ioThread.start();
+ }
+
+ /**
+ * Encodes leading column values once, so rows sharing them only carry the resulting text.
+ *
+ * @param values leading column values
+ * @return encoded values followed by the delimiter
+ * @throws IOException when a value cannot be encoded
+ */
+ public String encodePrefix(List<Object> values) throws IOException {
+ StringBuilder encoded = new StringBuilder();
+ try (CSVPrinter prefixPrinter = new CSVPrinter(encoded, rowFormat)) {
+ prefixPrinter.printRecord(values);
+ }
+ encoded.setLength(encoded.length() - rowFormat.getRecordSeparator().length());
+ return encoded.append(rowFormat.getDelimiterString()).toString();
+ }
+
+ /**
+ * Enqueues one complete row. Safe to call from concurrent threads.
+ *
+ * @param values column values
+ * @throws IOException when an earlier row could not be written or the calling thread is interrupted
+ */
+ public void write(List<Object> values) throws IOException {
+ write(null, values);
+ }
+
+ /**
+ * Enqueues one row made of a pre-encoded prefix and the remaining column values. Safe to call from concurrent
+ * threads.
+ *
+ * @param prefix text returned by {@link #encodePrefix(List)}, or {@code null} when the row has no shared prefix
+ * @param values remaining column values
+ * @throws IOException when an earlier row could not be written or the calling thread is interrupted
+ */
+ public void write(String prefix, List<Object> values) throws IOException {
+ throwIfFailed();
+ try {
+ queue.put(new Row(prefix, values.toArray()));
+ } catch (InterruptedException e) {
+ Thread.currentThread().interrupt();
+ throw interrupted(e);
+ }
+ }
+
+ /**
+ * Waits until every enqueued row is on disk, then closes the file.
+ *
+ * @throws IOException when a row could not be written, the file cannot be closed or the wait is interrupted
+ */
+ @Override
+ public synchronized void close() throws IOException {
+ if (closed) {
+ return;
+ }
+ closed = true;
+ try {
+ queue.put(END);
+ ioThread.join();
+ } catch (InterruptedException e) {
+ Thread.currentThread().interrupt();
+ throw interrupted(e);
+ } finally {
+ if (!ioThread.isAlive()) {
+ printer.close();
+ }
+ }
+ throwIfFailed();
+ }
+
+ /**
+ * Body of the I/O thread: writes queued rows in batches until the end marker arrives.
+ */
+ private void drain() {
+ List<Row> batch = new ArrayList<>(MAX_BATCH_ROWS);
+ try {
+ while (true) {
+ batch.add(queue.take());
+ queue.drainTo(batch, MAX_BATCH_ROWS - 1);
+ boolean end = writeBatch(batch);
+ batch.clear();
+ if (end) {
+ return;
+ }
+ }
+ } catch (InterruptedException e) {
+ failure = interrupted(e);
+ }
+ }
+
+ /**
+ * Writes one batch and flushes when the queue has been emptied or the end marker was reached.
+ *
+ * @param batch rows taken from the queue, in submission order
+ * @return {@code true} when the batch contained the end marker
+ */
+ private boolean writeBatch(List<Row> batch) {
+ boolean end = false;
+ try {
+ for (Row row : batch) {
+ if (row == END) {
+ end = true;
+ break;
+ }
+ if (failure == null) {
+ if (row.prefix != null) {
+ out.write(row.prefix);
+ }
+ printer.printRecord(row.values);
+ }
+ }
+ if (failure == null && (end || queue.isEmpty())) {
+ printer.flush();
+ }
+ } catch (IOException e) {
+ failure = e;
+ }
+ return end;
+ }
+
+ private void throwIfFailed() throws IOException {
+ IOException current = failure;
+ if (current != null) {
+ throw new IOException("Asynchronous CSV write failed", current);
+ }
+ }
+
+ private static InterruptedIOException interrupted(InterruptedException cause) {
+ InterruptedIOException exception = new InterruptedIOException("Interrupted while writing CSV rows");
+ exception.initCause(cause);
+ return exception;
+ }
+
+ /**
+ * One queued row: an optional pre-encoded prefix followed by the values still to encode.
+ */
+ private static final class Row {
+ private final String prefix;
+ private final Object[] values;
+
+ private Row(String prefix, Object[] values) {
+ this.prefix = prefix;
+ this.values = values;
+ }
+ }
+}
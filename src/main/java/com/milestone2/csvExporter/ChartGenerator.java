@@ -1,14 +1,28 @@
 package com.milestone2.csvExporter;
 
 import com.milestone2.dataset.AnalysisReport;
+import com.milestone2.featureAnalysis.FeatureMatrix;
+import com.milestone2.featureAnalysis.FeatureMatrixChartData;
 import com.milestone2.foldMetadata.FoldDistributionChart;
 import com.milestone2.metric.MetricChartData;
+import com.milestone2.whatif.WhatIfSensitivityChartData;
+import com.milestone2.whatif.WhatIfSensitivityCurve;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartUtils;
 import org.jfree.chart.JFreeChart;
+import org.jfree.chart.axis.NumberAxis;
+import org.jfree.chart.axis.SymbolAxis;
+import org.jfree.chart.axis.ValueAxis;
+import org.jfree.chart.plot.XYPlot;
+import org.jfree.chart.renderer.LookupPaintScale;
+import org.jfree.chart.renderer.xy.XYBlockRenderer;
+import org.jfree.chart.title.PaintScaleLegend;
+import org.jfree.chart.ui.RectangleEdge;
+import org.jfree.chart.plot.PlotOrientation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.awt.Color;
 import java.io.IOException;
 import java.nio.file.Path;
 
@@ -18,25 +32,38 @@ import java.nio.file.Path;
 public class ChartGenerator {
  private static final Logger log = LoggerFactory.getLogger(ChartGenerator.class);
  private static final String VALUE = "Value";
+ private static final int MAX_LABELLED_FEATURES = 40;
+ private static final int HEATMAP_COLOR_STEPS = 20;
 
  private final Path chartsDir;
  private final MetricChartData categoryDatasetFactory;
  private final FoldDistributionChart foldDistributionDatasetFactory;
+ private final WhatIfSensitivityChartData sensitivityDatasetFactory;
+ private final FeatureMatrixChartData featureMatrixDatasetFactory;
 
  public ChartGenerator(Path chartsDir) {
- this(chartsDir, new MetricChartData(), new FoldDistributionChart());
+ this(chartsDir,
+ new MetricChartData(),
+ new FoldDistributionChart(),
+ new WhatIfSensitivityChartData(),
+ new FeatureMatrixChartData());
  }
 
  ChartGenerator(Path chartsDir,
  MetricChartData categoryDatasetFactory,
- FoldDistributionChart foldDistributionDatasetFactory) {
+ FoldDistributionChart foldDistributionDatasetFactory,
+ WhatIfSensitivityChartData sensitivityDatasetFactory,
+ FeatureMatrixChartData featureMatrixDatasetFactory) {
  this.chartsDir = chartsDir;
  this.categoryDatasetFactory = categoryDatasetFactory;
  this.foldDistributionDatasetFactory = foldDistributionDatasetFactory;
+ this.sensitivityDatasetFactory = sensitivityDatasetFactory;
+ this.featureMatrixDatasetFactory = featureMatrixDatasetFactory;
  }
 
  /**
- * Generates the aggregate bar chart and the per-fold box plot for one dataset report.
+ * Generates the aggregate bar chart and the per-fold box plot for one dataset report, plus the what-if sensitivity
+ * line chart and the feature correlation heatmap when they were computed.
  *
  * @param report dataset analysis report
  * @throws IOException when a chart image cannot be written
@@ -62,6 +89,78 @@ public class ChartGenerator {
  true
  );
  ChartUtils.saveChartAsPNG(chartsDir.resolve(baseName + "_box.png").toFile(), boxChart, 900, 600);
+
+ if (report.hasWhatIfReport() && report.getWhatIfReport().hasSensitivityCurve()) {
+ WhatIfSensitivityCurve curve = report.getWhatIfReport().getSensitivityCurve();
+ JFreeChart lineChart = ChartFactory.createXYLineChart(
+ "What-if sensitivity of " + curve.getFeatureSelection().getFeatureName() + " for "
+ + report.getDatasetName(),
+ curve.getFeatureSelection().getFeatureName() + " scale (% of B+ value)",
+ VALUE,
+ sensitivityDatasetFactory.create(curve),
+ PlotOrientation.VERTICAL,
+ true,
+ false,
+ false
+ );
+ ChartUtils.saveChartAsPNG(chartsDir.resolve(baseName + "_sensitivity.png").toFile(), lineChart, 900, 600);
+ }
+
+ if (report.hasWhatIfReport() && report.getWhatIfReport().hasFeatureMatrix()) {
+ FeatureMatrix matrix = report.getWhatIfReport().getFeatureMatrix();
+ int side = Math.min(2_000, Math.max(600, matrix.size() * 12 + 200));
+ ChartUtils.saveChartAsPNG(chartsDir.resolve(baseName + "_feature_matrix.png").toFile(),
+ createHeatmap(report.getDatasetName(), matrix), side + 120, side);
+ }
+ }
+
+ /**
+ * Builds the feature correlation heatmap, read like the matrix itself with the first feature in the top-left cell.
+ *
+ * @param datasetName dataset name used in the chart title
+ * @param matrix feature correlation matrix
+ * @return heatmap chart
+ */
+ private JFreeChart createHeatmap(String datasetName, FeatureMatrix matrix) {
+ LookupPaintScale paintScale = new LookupPaintScale(-1.0, 1.0, Color.WHITE);
+ for (int step = 0; step < HEATMAP_COLOR_STEPS; step++) {
+ double lower = -1.0 + 2.0 * step / HEATMAP_COLOR_STEPS;
+ double midpoint = lower + 1.0 / HEATMAP_COLOR_STEPS;
+ float fade = (float) (1.0 - Math.abs(midpoint));
+ paintScale.add(lower, midpoint < 0.0 ? new Color(fade, fade, 1.0f) : new Color(1.0f, fade, fade));
+ }
+ XYBlockRenderer renderer = new XYBlockRenderer();
+ renderer.setPaintScale(paintScale);
+
+ ValueAxis xAxis = featureAxis(matrix, "Feature (Spearman above the diagonal)");
+ xAxis.setVerticalTickLabels(true);
+ ValueAxis yAxis = featureAxis(matrix, "Feature (Pearson below the diagonal)");
+ yAxis.setInverted(true);
+ XYPlot plot = new XYPlot(featureMatrixDatasetFactory.create(matrix), xAxis, yAxis, renderer);
+ JFreeChart chart = new JFreeChart("Feature correlations for " + datasetName, plot);
+ chart.removeLegend();
+
+ NumberAxis scaleAxis = new NumberAxis("Correlation");
+ scaleAxis.setRange(-1.0, 1.0);
+ PaintScaleLegend legend = new PaintScaleLegend(paintScale, scaleAxis);
+ legend.setPosition(RectangleEdge.RIGHT);
+ chart.addSubtitle(legend);
+ return chart;
+ }
+
+ /**
+ * Builds a heatmap axis labelled with feature names, or with feature indexes once names would overlap.
+ *
+ * @param matrix feature correlation matrix
+ * @param label axis label
+ * @return heatmap axis covering every feature cell
+ */
+ private ValueAxis featureAxis(FeatureMatrix matrix, String label) {
+ ValueAxis axis = matrix.size() <= MAX_LABELLED_FEATURES
+ ? new SymbolAxis(label, matrix.getFeatureNames().toArray(new String[0]))
+ : new NumberAxis(label + " index");
+ axis.setRange(-0.5, matrix.size() - 0.5);
+ return axis;
  }
 
  /**
@@ -0,0 +1,29 @@
+package com.milestone2.csvExporter;
+
+/**
+ * When the per-dataset charts are rendered.
+ */
+public enum ChartMode {
+ ASYNC("async"),
+ DEFERRED("deferred"),
+ OFF("off");
+
+ private final String cliValue;
+
+ ChartMode(String cliValue) {
+ this.cliValue = cliValue;
+ }
+
+ public String getCliValue() {
+ return cliValue;
+ }
+
+ public static ChartMode from(String value) {
+ for (ChartMode mode : values()) {
+ if (mode.cliValue.equalsIgnoreCase(value)) {
+ return mode;
+ }
+ }
+ throw new IllegalArgumentException("Unknown chart mode: " + value);
+ }
+}
@@ -0,0 +1,146 @@
+package com.milestone2.csvExporter;
+
+import com.milestone2.dataset.AnalysisReport;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Renders dataset charts off the analysis thread according to the configured {@link ChartMode}.
+ * <p>
+ * In {@link ChartMode#ASYNC} mode, charts are rendered on a small bounded pool while the next dataset is evaluated.
+ * When the pool falls behind, the publishing thread renders the chart itself instead of queueing more reports. In
+ * {@link ChartMode#DEFERRED} mode, reports are kept until {@link #close()} and then rendered on every core. In
+ * {@link ChartMode#OFF} mode nothing is rendered. {@link #close()} waits for every chart and rethrows the first
+ * rendering failure.
+ */
+public class ChartScheduler implements AutoCloseable {
+ private final ChartGenerator chartGenerator;
+ private final ChartMode mode;
+ private final IntSupplier availableProcessorsSupplier;
+ private final List<AnalysisReport> deferredReports = new ArrayList<>();
+ private final List<Future<?>> pendingCharts = new ArrayList<>();
+ private ThreadPoolExecutor executor;
+
+ public ChartScheduler(ChartGenerator chartGenerator, ChartMode mode) {
+ this(chartGenerator, mode, () -> Runtime.getRuntime().availableProcessors());
+ }
+
+ ChartScheduler(ChartGenerator chartGenerator, ChartMode mode, IntSupplier availableProcessorsSupplier) {
+ this.chartGenerator = chartGenerator;
+ this.mode = mode;
+ this.availableProcessorsSupplier = availableProcessorsSupplier;
+ }
+
+ /**
+ * Schedules the charts of one dataset report; rendering failures are reported by {@link #close()}.
+ *
+ * @param report dataset analysis report
+ */
+ public synchronized void submit(AnalysisReport report) {
+ switch (mode) {
+ case ASYNC:
+ if (executor == null) {
+ executor = newExecutor(Math.max(1, availableProcessorsSupplier.getAsInt() / 4));
+ }
+ pendingCharts.add(executor.submit(() -> {
+ chartGenerator.generate(report);
+ return null;
+ }));
+ break;
+ case DEFERRED:
+ deferredReports.add(report);
+ break;
+ default:
+ break;
+ }
+ }
+
+ /**
+ * Renders the deferred charts, waits for every scheduled chart and shuts the pool down.
+ *
+ * @throws IOException when a chart cannot be written or the wait is interrupted
+ */
+ @Override
+ public synchronized void close() throws IOException {
+ try {
+ if (!deferredReports.isEmpty()) {
+ if (executor == null) {
+ executor = newExecutor(Math.max(1, Math.min(availableProcessorsSupplier.getAsInt(),
+ deferredReports.size())));
+ }
+ for (AnalysisReport report : deferredReports) {
+ pendingCharts.add(executor.submit(() -> {
+ chartGenerator.generate(report);
+ return null;
+ }));
+ }
+ deferredReports.clear();
+ }
+ awaitCharts();
+ } finally {
+ if (executor != null) {
+ executor.shutdownNow();
+ }
+ }
+ }
+
+ /**
+ * Waits for every scheduled chart, keeping the first failure and suppressing the others.
+ *
+ * @throws IOException when a chart cannot be written or the wait is interrupted
+ */
+ private void awaitCharts() throws IOException {
+ IOException failure = null;
+ for (Future<?> chart : pendingCharts) {
+ try {
+ chart.get();
+ } catch (InterruptedException e) {
+ Thread.currentThread().interrupt();
+ InterruptedIOException interrupted = new InterruptedIOException("Interrupted while rendering charts");
+ interrupted.initCause(e);
+ throw interrupted;
+ } catch (ExecutionException e) {
+ Throwable cause = e.getCause();
+ IOException chartFailure = cause instanceof IOException
+ ? (IOException) cause
+ : new IOException("Failed to render charts", cause);
+ if (failure == null) {
+ failure = chartFailure;
+ } else {
+ failure.addSuppressed(chartFailure);
+ }
+ }
+ }
+ pendingCharts.clear();
+ if (failure != null) {
+ throw failure;
+ }
+ }
+
+ /**
+ * Creates a fixed pool whose small queue makes the submitting thread render the chart itself when the pool is
+ * busy, so finished reports are not piled up in memory.
+ *
+ * @param threads rendering threads
+ * @return chart rendering pool
+ */
+ private static ThreadPoolExecutor newExecutor(int threads) {
+ return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+ new ArrayBlockingQueue<>(threads * 2),
+ runnable -> {
+ Thread thread = new Thread(runnable, "chart-renderer");
+ thread.setDaemon(true);
+ return thread;
+ },
+ new ThreadPoolExecutor.CallerRunsPolicy());
+ }
+}
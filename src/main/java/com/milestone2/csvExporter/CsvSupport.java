@@ -4,6 +4,8 @@ import com.milestone2.startupUtility.RunConfig;
 import com.milestone2.startupUtility.ExecutionSettings;
 import com.milestone2.startupUtility.SelectionSettings;
 import com.milestone2.classifier.Definition;
+import com.milestone2.columnarExport.ColumnSpec;
+import com.milestone2.columnarExport.ColumnType;
 
 import java.util.Collections;
 import java.util.List;
@@ -13,7 +15,7 @@ import java.util.List;
  *
  * <p>Both {@link ResultsWriter} and
  * {@link com.milestone2.foldMetadata.FoldResultsWriter} open their exports with the
- * same thirteen execution-metadata columns. Centralising them here avoids
+ * same fourteen execution-metadata columns. Centralising them here avoids
  * duplication and keeps the two writers in sync automatically.
  */
 public final class CsvSupport {
@@ -25,6 +27,7 @@ public final class CsvSupport {
  "ValidationStrategy",
  "TemporalAttribute",
  "Classifier",
+ "ClassifierId",
  "ClassifierClass",
  "ClassAttribute",
  "PositiveClass",
@@ -38,7 +41,7 @@ public final class CsvSupport {
  }
 
  /**
- * Appends the thirteen shared execution-metadata column names to the
+ * Appends the fourteen shared execution-metadata column names to the
  * supplied header list.
  *
  * @param header mutable header list to extend
@@ -48,7 +51,19 @@ public final class CsvSupport {
  }
 
  /**
- * Appends the thirteen shared execution-metadata values to the supplied
+ * Appends the fourteen shared execution-metadata columns, typed for the columnar export, to the supplied column
+ * list. Only the seed is numeric.
+ *
+ * @param columns mutable column list to extend
+ */
+ public static void addBaseColumnSpecs(List<ColumnSpec> columns) {
+ for (String name : BASE_COLUMNS) {
+ columns.add(new ColumnSpec(name, "Seed".equals(name) ? ColumnType.LONG : ColumnType.STRING));
+ }
+ }
+
+ /**
+ * Appends the fourteen shared execution-metadata values to the supplied
  * CSV row.
  *
  * @param row mutable row list to extend
@@ -72,10 +87,23 @@ public final class CsvSupport {
  row.add(execution.getValidationStrategy().getCliValue());
  row.add(execution.getTemporalAttributeName());
  row.add(definition.getDisplayName());
+ row.add(definition.getId());
  row.add(definition.getClassName());
  row.add(classAttribute);
  row.add(positiveClass);
- row.add(selection.getSizeAttributeName());
+ addConfigurationFields(row, config);
+ }
+
+ /**
+ * Appends the configuration values that, next to the dataset, distinguish the analyses merged into one output: size
+ * attribute, seed, balancing and feature selection.
+ *
+ * @param row mutable row list to extend
+ * @param config immutable analysis configuration
+ */
+ public static void addConfigurationFields(List<Object> row, RunConfig config) {
+ ExecutionSettings execution = config.getExecution();
+ row.add(config.getSelection().getSizeAttributeName());
  row.add(execution.getSeed());
  row.add(execution.getBalancingStrategy().getCliValue());
  row.add(execution.getFeatureSelectionStrategy().getCliValue());
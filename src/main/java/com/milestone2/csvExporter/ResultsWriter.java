@@ -1,15 +1,19 @@
 package com.milestone2.csvExporter;
 
 import com.milestone2.startupUtility.RunConfig;
-import com.milestone2.classifier.Definition;
+import com.milestone2.classifier.EvaluationReport;
+import com.milestone2.columnarExport.ColumnSpec;
+import com.milestone2.columnarExport.ColumnType;
+import com.milestone2.columnarExport.ColumnarWriter;
+import com.milestone2.foldMetadata.FoldPhase;
+import com.milestone2.foldMetadata.FoldResource;
+import com.milestone2.startupUtility.WriterCloseSupport;
+import com.milestone2.metric.ConfidenceInterval;
+import com.milestone2.metric.EffortBudgets;
+import com.milestone2.metric.MetricAccumulator;
 import com.milestone2.metric.MetricDefinition;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVPrinter;
 
 import java.io.IOException;
-import java.io.Writer;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
@@ -17,41 +21,86 @@ import java.util.Map;
 
 /**
  * Writes aggregate results to CSV with execution metadata.
+ * <p>
+ * The bootstrap confidence bounds follow the point estimates as one {@code <Metric>Lower}/{@code <Metric>Upper}
+ * column pair per metric, so the positions of the existing columns do not change. They are followed by the fold
+ * means of NPofB and ACC at the extra {@link EffortBudgets}, which have no confidence bounds. Rows are written by an
+ * {@link AsyncCsvWriter}, so publishing a report does not wait on the disk. The same rows can also, or instead, go
+ * to a compressed {@link ColumnarWriter} table.
+ * <p>
+ * The last columns hold the time the classifier spent in each {@link FoldPhase}, summed over its folds, as
+ * {@code Total<Phase>Nanos}, followed by the thread CPU time and heap allocation of its training and scoring as
+ * {@code Total<Resource>}; they are empty when no fold was trained in this run, as in recompute mode.
  */
 public class ResultsWriter implements AutoCloseable {
- private static final String[] HEADER = buildHeader();
+ private static final String TOTAL_PREFIX = "Total";
+ private static final String CLOSE_MESSAGE = "Failed while closing result exports";
 
- private final CSVPrinter printer;
+ private final EffortBudgets effortBudgets;
+ private final String[] header;
 
- public ResultsWriter(Path file) throws IOException {
- Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
- printer = new CSVPrinter(out, CSVFormat.DEFAULT.builder().setHeader(HEADER).get());
+ private final AsyncCsvWriter writer;
+ private final ColumnarWriter columnarWriter;
+
+ /**
+ * Opens the aggregate result exports.
+ *
+ * @param csvFile CSV export, or {@code null} when the CSV is not written
+ * @param columnarFile columnar export, or {@code null} when the columnar table is not written
+ * @param effortBudgets extra effort budgets that get their own NPofB and ACC columns
+ * @throws IOException when an export cannot be created
+ */
+ public ResultsWriter(Path csvFile, Path columnarFile, EffortBudgets effortBudgets) throws IOException {
+ this.effortBudgets = effortBudgets;
+ header = buildHeader();
+ writer = csvFile == null ? null : new AsyncCsvWriter(csvFile, header);
+ columnarWriter = columnarFile == null ? null : new ColumnarWriter(columnarFile, buildColumns());
  }
 
  /**
- * Writes one aggregate result row for a classifier evaluated on a dataset.
+ * Enqueues one aggregate result row for a classifier evaluated on a dataset.
  *
  * @param config immutable analysis configuration
  * @param datasetName analyzed dataset name
  * @param classAttribute class attribute name
  * @param positiveClass positive class label
- * @param definition classifier definition
- * @param metrics aggregate metric values to serialize
- * @throws IOException when the CSV output cannot be written
+ * @param report classifier evaluation report holding the aggregate metrics and their confidence intervals
+ * @throws IOException when an export cannot be written
  */
  public void write(RunConfig config,
  String datasetName,
  String classAttribute,
  String positiveClass,
- Definition definition,
- Map<MetricDefinition, Double> metrics) throws IOException {
+ EvaluationReport report) throws IOException {
  List<Object> row = new ArrayList<>();
- CsvSupport.addBaseFields(row, config, datasetName, classAttribute, positiveClass, definition);
+ CsvSupport.addBaseFields(row, config, datasetName, classAttribute, positiveClass, report.getDefinition());
+ Map<MetricDefinition, Double> metrics = report.getAggregateMetrics();
  for (MetricDefinition metric : MetricDefinition.values()) {
  row.add(metrics.get(metric));
  }
- printer.printRecord(row);
- printer.flush();
+ for (MetricDefinition metric : MetricDefinition.values()) {
+ ConfidenceInterval interval = report.getConfidenceInterval(metric);
+ row.add(interval.getLower());
+ row.add(interval.getUpper());
+ }
+ MetricAccumulator foldMetrics = report.getFoldMetrics();
+ for (int column = 0; column < effortBudgets.size() * 2; column++) {
+ row.add(foldMetrics == null ? Double.NaN : foldMetrics.meanEffortBudgetValue(column));
+ }
+ boolean timed = foldMetrics != null && foldMetrics.getTimedFoldCount() > 0;
+ for (FoldPhase phase : FoldPhase.values()) {
+ row.add(timed ? foldMetrics.totalNanos(phase) : null);
+ }
+ for (FoldResource resource : FoldResource.values()) {
+ long total = foldMetrics == null ? -1L : foldMetrics.total(resource);
+ row.add(total < 0 ? null : total);
+ }
+ if (writer != null) {
+ writer.write(row);
+ }
+ if (columnarWriter != null) {
+ columnarWriter.write(row);
+ }
  }
 
  /**
@@ -59,22 +108,53 @@ public class ResultsWriter implements AutoCloseable {
  *
  * @return CSV header
  */
- private static String[] buildHeader() {
- List<String> header = new ArrayList<>();
- CsvSupport.addBaseColumns(header);
+ private String[] buildHeader() {
+ List<String> names = new ArrayList<>();
+ CsvSupport.addBaseColumns(names);
  for (MetricDefinition metric : MetricDefinition.values()) {
- header.add(metric.getDisplayName());
+ names.add(metric.getDisplayName());
  }
- return header.toArray(new String[0]);
+ for (MetricDefinition metric : MetricDefinition.values()) {
+ names.add(metric.getDisplayName() + "Lower");
+ names.add(metric.getDisplayName() + "Upper");
+ }
+ names.addAll(effortBudgets.columnNames());
+ for (FoldPhase phase : FoldPhase.values()) {
+ names.add(TOTAL_PREFIX + phase.getColumnName());
+ }
+ for (FoldResource resource : FoldResource.values()) {
+ names.add(TOTAL_PREFIX + resource.getColumnName());
+ }
+ return names.toArray(new String[0]);
  }
 
  /**
- * Closes the underlying CSV printer.
+ * Builds the columnar schema: the shared metadata columns, one double column per header metric and one long column
+ * per phase timing and metered resource.
  *
- * @throws IOException when closing the writer fails
+ * @return columnar column specifications aligned with the CSV header
+ */
+ private List<ColumnSpec> buildColumns() {
+ List<ColumnSpec> columns = new ArrayList<>();
+ CsvSupport.addBaseColumnSpecs(columns);
+ int totalsStart = header.length - FoldPhase.values().length - FoldResource.values().length;
+ for (int index = columns.size(); index < header.length; index++) {
+ columns.add(new ColumnSpec(header[index], index < totalsStart ? ColumnType.DOUBLE : ColumnType.LONG));
+ }
+ return columns;
+ }
+
+ /**
+ * Waits for the queued result rows to reach the disk and closes the exports.
+ *
+ * @throws IOException when a row could not be written or closing an export fails
  */
  @Override
  public void close() throws IOException {
- printer.close();
+ IOException failure = WriterCloseSupport.closeQuietly(writer, null, CLOSE_MESSAGE);
+ failure = WriterCloseSupport.closeQuietly(columnarWriter, failure, CLOSE_MESSAGE);
+ if (failure != null) {
+ throw failure;
+ }
  }
 }
@@ -2,12 +2,22 @@ package com.milestone2.dataset;
 
 import com.milestone2.evaluation.ModelEvaluator;
 import com.milestone2.evaluation.Preprocessor;
-import com.milestone2.foldMetadata.FoldResult;
+import com.milestone2.foldMetadata.FoldPredictionSink;
+import com.milestone2.foldMetadata.FoldResultSink;
+import com.milestone2.foldMetadata.FoldResultsWriter;
 import com.milestone2.startupUtility.RunConfig;
 import com.milestone2.classifier.Catalog;
 import com.milestone2.classifier.Definition;
 import com.milestone2.classifier.EvaluationReport;
+import com.milestone2.metric.BootstrapEstimator;
+import com.milestone2.metric.ConfidenceInterval;
+import com.milestone2.metric.MetricAccumulator;
 import com.milestone2.metric.MetricDefinition;
+import com.milestone2.metric.PooledPredictions;
+import com.milestone2.startupUtility.ReportingOptions;
+import com.milestone2.predictionStore.PredictionStore;
+import com.milestone2.predictionStore.PredictionStoreWriter;
+import com.milestone2.stacking.StackingEvaluator;
 import com.milestone2.whatif.WhatIfAnalysisReport;
 import com.milestone2.whatif.WhatIfAnalyzer;
 import org.slf4j.Logger;
@@ -29,36 +39,47 @@ public class Analyzer {
  private final Preprocessor preprocessor;
  private final ModelEvaluator modelEvaluator;
  private final WhatIfAnalyzer whatIfAnalyzer;
+ private final BootstrapEstimator bootstrapEstimator;
+ private final StackingEvaluator stackingEvaluator;
 
  public Analyzer() {
  this(new DataLoader(),
  new Preprocessor(),
  new ModelEvaluator(),
- new WhatIfAnalyzer());
+ new WhatIfAnalyzer(),
+ new BootstrapEstimator(),
+ new StackingEvaluator());
  }
 
  Analyzer(DataLoader dataLoader,
  Preprocessor preprocessor,
  ModelEvaluator modelEvaluator,
- WhatIfAnalyzer whatIfAnalyzer) {
+ WhatIfAnalyzer whatIfAnalyzer,
+ BootstrapEstimator bootstrapEstimator,
+ StackingEvaluator stackingEvaluator) {
  this.dataLoader = dataLoader;
  this.preprocessor = preprocessor;
  this.modelEvaluator = modelEvaluator;
  this.whatIfAnalyzer = whatIfAnalyzer;
+ this.bootstrapEstimator = bootstrapEstimator;
+ this.stackingEvaluator = stackingEvaluator;
  }
 
  /**
- * Loads one dataset, evaluates all selected classifiers and optionally runs the what-if workflow.
+ * Loads one dataset, evaluates all selected classifiers and optionally runs the what-if workflow. The stacking
+ * pseudo-classifier, when enabled, is added after the what-if study, which needs classifiers it can retrain.
  *
  * @param datasetFile dataset file path
  * @param config immutable analysis configuration
  * @param classifierCatalog classifiers selected for the run
+ * @param foldResultsWriter writer receiving every fold result as soon as it completes
  * @return full dataset analysis report
  * @throws Exception when loading, evaluation or what-if analysis fails
  */
  public AnalysisReport analyze(Path datasetFile,
  RunConfig config,
- Catalog classifierCatalog) throws Exception {
+ Catalog classifierCatalog,
+ FoldResultsWriter foldResultsWriter) throws Exception {
  String datasetName = datasetFile.getFileName().toString();
  Instances dataset = dataLoader.load(datasetFile, config);
  String positiveClass = modelEvaluator.resolvePositiveClassValue(dataset, config);
@@ -70,10 +91,31 @@ public class Analyzer {
 
  List<EvaluationReport> classifierReports = new ArrayList<>();
  for (Definition definition : classifierCatalog.getDefinitions()) {
- classifierReports.add(evaluateClassifier(definition, dataset, config));
+ FoldResultSink resultSink = foldResultsWriter.sinkFor(
+ config,
+ datasetName,
+ dataset.classAttribute().name(),
+ positiveClass,
+ definition
+ );
+ classifierReports.add(
+ evaluateClassifier(definition, datasetName, dataset, positiveClass, config, resultSink));
  }
  WhatIfAnalysisReport whatIfReport =
- whatIfAnalyzer.analyze(dataset, config, classifierReports, preprocessor);
+ whatIfAnalyzer.analyze(datasetName, dataset, config, classifierReports, preprocessor);
+ if (config.getReporting().isStacking()) {
+ EvaluationReport stacked = stackingEvaluator.evaluate(
+ new PredictionStore(config.getPaths().getPredictionsDir()),
+ datasetName,
+ classifierCatalog.getDefinitions(),
+ positiveClass,
+ config,
+ foldResultsWriter
+ );
+ if (stacked != null) {
+ classifierReports.add(stacked);
+ }
+ }
 
  return new AnalysisReport(
  datasetName,
@@ -85,21 +127,53 @@ public class Analyzer {
  }
 
  /**
- * Evaluates one classifier on the dataset and builds the corresponding report.
+ * Evaluates one classifier on the dataset and builds the corresponding report, persisting the out-of-fold
+ * predictions when the prediction store is enabled and pooling them for the bootstrap confidence intervals.
  *
  * @param definition classifier definition to evaluate
+ * @param datasetName dataset file name
  * @param dataset dataset to evaluate
+ * @param positiveClass resolved positive class label
  * @param config immutable analysis configuration
+ * @param resultSink receiver of the fold results as they complete
  * @return classifier evaluation report
  * @throws Exception when evaluation fails
  */
  private EvaluationReport evaluateClassifier(Definition definition,
+ String datasetName,
  Instances dataset,
- RunConfig config) throws Exception {
- List<FoldResult> foldResults =
- modelEvaluator.evaluateWithFolds(definition, dataset, config, preprocessor);
- Map<MetricDefinition, Double> aggregated = modelEvaluator.aggregate(foldResults);
- return new EvaluationReport(definition, aggregated, foldResults);
+ String positiveClass,
+ RunConfig config,
+ FoldResultSink resultSink) throws Exception {
+ ReportingOptions reporting = config.getReporting();
+ PooledPredictions pooled = new PooledPredictions(
+ dataset.classAttribute().indexOfValue(positiveClass),
+ config.getSelection().getSizeAttributeName()
+ );
+ FoldPredictionSink sink = reporting.getBootstrapResamples() > 0 ? pooled : FoldPredictionSink.NONE;
+ MetricAccumulator foldMetrics;
+ if (reporting.isStorePredictions()) {
+ PredictionStore store = new PredictionStore(config.getPaths().getPredictionsDir());
+ try (PredictionStoreWriter writer = store.openWriter(
+ datasetName,
+ definition,
+ dataset,
+ positiveClass,
+ config.getSelection().getSizeAttributeName())) {
+ foldMetrics = modelEvaluator.evaluate(
+ definition, dataset, config, preprocessor, writer.andThen(sink), resultSink);
+ }
+ } else {
+ foldMetrics = modelEvaluator.evaluate(definition, dataset, config, preprocessor, sink, resultSink);
+ }
+ Map<MetricDefinition, Double> aggregated = modelEvaluator.aggregate(foldMetrics);
+ Map<MetricDefinition, ConfidenceInterval> intervals = bootstrapEstimator.estimate(
+ pooled.firstRunFolds(),
+ aggregated,
+ reporting.getBootstrapResamples(),
+ reporting.getConfidenceLevel(),
+ config.getExecution().getSeed()
+ );
+ return new EvaluationReport(definition, aggregated, foldMetrics, intervals);
  }
 }
-
@@ -1,5 +1,6 @@
 package com.milestone2.dataset;
 
+import com.milestone2.flightRecorder.DatasetLoadEvent;
 import com.milestone2.startupUtility.RunConfig;
 import com.milestone2.startupUtility.Defaults;
 import weka.core.Attribute;
@@ -24,6 +25,8 @@ public class DataLoader {
  * @throws IOException when the file format is unsupported or cannot be read
  */
  public Instances load(Path datasetPath, RunConfig config) throws IOException {
+ DatasetLoadEvent event = new DatasetLoadEvent();
+ event.begin();
  String filename = datasetPath.getFileName().toString().toLowerCase();
  Instances data;
 
@@ -40,6 +43,8 @@ public class DataLoader {
  }
 
  data.setClassIndex(resolveClassIndex(data, config.getSelection().getClassAttributeName()));
+ event.end();
+ event.commit(datasetPath.getFileName().toString(), data.numInstances(), data.numAttributes());
  return data;
  }
 
@@ -1,6 +1,7 @@
 package com.milestone2.dataset;
 
-import com.milestone2.csvExporter.ChartGenerator;
+import com.milestone2.csvExporter.ChartScheduler;
+import com.milestone2.flightRecorder.OutputPublishEvent;
 import com.milestone2.startupUtility.RunConfig;
 import com.milestone2.startupUtility.OutputWriters;
 import com.milestone2.classifier.EvaluationReport;
@@ -14,24 +15,24 @@ import java.io.IOException;
  * Publishes one dataset report to CSV outputs, charts and logs.
  */
 public class ReportPublisher {
- private final ChartGenerator chartGenerator;
+ private final ChartScheduler chartScheduler;
  private final BestMetricLogger bestMetricLogger;
  private final SummaryBuilder milestone2SummaryBuilder;
 
- public ReportPublisher(ChartGenerator chartGenerator, BestMetricLogger bestMetricLogger) {
- this(chartGenerator, bestMetricLogger, new SummaryBuilder());
+ public ReportPublisher(ChartScheduler chartScheduler, BestMetricLogger bestMetricLogger) {
+ this(chartScheduler, bestMetricLogger, new SummaryBuilder());
  }
 
- ReportPublisher(ChartGenerator chartGenerator,
+ ReportPublisher(ChartScheduler chartScheduler,
  BestMetricLogger bestMetricLogger,
  SummaryBuilder milestone2SummaryBuilder) {
- this.chartGenerator = chartGenerator;
+ this.chartScheduler = chartScheduler;
  this.bestMetricLogger = bestMetricLogger;
  this.milestone2SummaryBuilder = milestone2SummaryBuilder;
  }
 
  /**
- * Publishes one dataset report to all configured CSV outputs, generated charts and summary logs.
+ * Publishes one dataset report to all configured CSV outputs and summary logs, and schedules its charts.
  *
  * @param config immutable analysis configuration
  * @param report dataset analysis report
@@ -41,6 +42,8 @@ public class ReportPublisher {
  public void publish(RunConfig config,
  AnalysisReport report,
  OutputWriters outputs) throws IOException {
+ OutputPublishEvent event = new OutputPublishEvent();
+ event.begin();
  Summary milestone2Summary = milestone2SummaryBuilder.build(report);
  for (EvaluationReport classifierReport : report.getClassifierReports()) {
  outputs.getResultsWriter().write(
@@ -48,16 +51,7 @@ public class ReportPublisher {
  report.getDatasetName(),
  report.getClassAttributeName(),
  report.getPositiveClassValue(),
- classifierReport.getDefinition(),
- classifierReport.getAggregateMetrics()
- );
- outputs.getFoldResultsWriter().write(
- config,
- report.getDatasetName(),
- report.getClassAttributeName(),
- report.getPositiveClassValue(),
- classifierReport.getDefinition(),
- classifierReport.getFoldResults()
+ classifierReport
  );
  }
 
@@ -65,8 +59,12 @@ public class ReportPublisher {
  if (outputs.hasWhatIfOutputs()) {
  outputs.getWhatIfOutputs().getFeatureCorrelationWriter().write(config, report);
  outputs.getWhatIfOutputs().getWhatIfSummaryWriter().write(config, report);
+ outputs.getWhatIfOutputs().getWhatIfSensitivityWriter().write(config, report);
+ outputs.getWhatIfOutputs().getFeatureMatrixWriter().write(config, report);
  }
- chartGenerator.generate(report);
+ chartScheduler.submit(report);
+ event.end();
+ event.commit(report.getDatasetName(), report.getClassifierReports().size());
  bestMetricLogger.log(report);
  }
 }
@@ -7,7 +7,9 @@ public enum BalancingStrategy {
  NONE("none"),
  SMOTE("smote"),
  UNDERSAMPLING("undersampling"),
- OVERSAMPLING("oversampling");
+ OVERSAMPLING("oversampling"),
+ WEIGHTED_OVERSAMPLING("weighted-oversampling"),
+ WEIGHTED_UNDERSAMPLING("weighted-undersampling");
 
  private final String cliValue;
 
@@ -19,6 +21,15 @@ public enum BalancingStrategy {
  return cliValue;
  }
 
+ /**
+ * Tells whether the strategy balances classes through instance weights rather than by adding or removing rows.
+ *
+ * @return {@code true} for weight-based strategies
+ */
+ public boolean isWeightBased() {
+ return this == WEIGHTED_OVERSAMPLING || this == WEIGHTED_UNDERSAMPLING;
+ }
+
  public static BalancingStrategy from(String value) {
  for (BalancingStrategy strategy : values()) {
  if (strategy.cliValue.equalsIgnoreCase(value)) {
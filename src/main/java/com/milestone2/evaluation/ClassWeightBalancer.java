@@ -0,0 +1,106 @@
+package com.milestone2.evaluation;
+
+import weka.core.Capabilities;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.filters.SimpleBatchFilter;
+import weka.filters.SupervisedFilter;
+
+/**
+ * Balances the class distribution of the training batch by rewriting instance weights instead of adding or
+ * removing rows.
+ * <p>
+ * In {@link Mode#RAISE_MINORITY} every class reaches the total weight of the heaviest class, mirroring
+ * oversampling. In {@link Mode#LOWER_MAJORITY} every class is scaled down to the total weight of the lightest
+ * non-empty class, mirroring undersampling. Instances seen after the first batch (the test rows routed through
+ * {@link weka.classifiers.meta.FilteredClassifier}) pass through unchanged.
+ */
+public class ClassWeightBalancer extends SimpleBatchFilter implements SupervisedFilter {
+ private static final long serialVersionUID = 1L;
+
+ /**
+ * Direction used to equalize class weights.
+ */
+ public enum Mode {
+ RAISE_MINORITY,
+ LOWER_MAJORITY
+ }
+
+ private Mode mode = Mode.RAISE_MINORITY;
+
+ public ClassWeightBalancer() {
+ }
+
+ public ClassWeightBalancer(Mode mode) {
+ this.mode = mode;
+ }
+
+ public Mode getMode() {
+ return mode;
+ }
+
+ public void setMode(Mode mode) {
+ this.mode = mode;
+ }
+
+ @Override
+ public String globalInfo() {
+ return "Reweights training instances so that every class carries the same total weight.";
+ }
+
+ @Override
+ public Capabilities getCapabilities() {
+ Capabilities result = super.getCapabilities();
+ result.disableAll();
+ result.enableAllAttributes();
+ result.enable(Capabilities.Capability.MISSING_VALUES);
+ result.enable(Capabilities.Capability.NOMINAL_CLASS);
+ result.enable(Capabilities.Capability.MISSING_CLASS_VALUES);
+ return result;
+ }
+
+ @Override
+ protected Instances determineOutputFormat(Instances inputFormat) {
+ return new Instances(inputFormat, 0);
+ }
+
+ @Override
+ protected Instances process(Instances instances) {
+ Instances result = new Instances(instances);
+ if (isFirstBatchDone()) {
+ return result;
+ }
+
+ double[] classWeights = new double[result.numClasses()];
+ for (Instance instance : result) {
+ if (!instance.classIsMissing()) {
+ classWeights[(int) instance.classValue()] += instance.weight();
+ }
+ }
+
+ double target = targetWeight(classWeights);
+ if (target <= 0.0) {
+ return result;
+ }
+
+ for (Instance instance : result) {
+ if (instance.classIsMissing()) {
+ continue;
+ }
+ double classWeight = classWeights[(int) instance.classValue()];
+ instance.setWeight(instance.weight() * (target / classWeight));
+ }
+ return result;
+ }
+
+ private double targetWeight(double[] classWeights) {
+ double target = mode == Mode.RAISE_MINORITY ? 0.0 : Double.MAX_VALUE;
+ for (double classWeight : classWeights) {
+ if (classWeight <= 0.0) {
+ continue;
+ }
+ target = mode == Mode.RAISE_MINORITY ? Math.max(target, classWeight) : Math.min(target, classWeight);
+ }
+ return target == Double.MAX_VALUE ? 0.0 : target;
+ }
+}
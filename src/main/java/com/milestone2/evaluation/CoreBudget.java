@@ -0,0 +1,67 @@
+package com.milestone2.evaluation;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * Process-wide count of the cores already busy with fold workers and scoring helpers.
+ * <p>
+ * Fold worker pools {@link #occupy(int) occupy} one core per worker for as long as they run. Scoring helpers are only
+ * {@link #tryAcquire(int) granted} the cores left over, so parallel scoring fans out when a fold runs alone and
+ * degrades to serial scoring when the fold pool already saturates the machine.
+ */
+public final class CoreBudget {
+ private static final CoreBudget SHARED = new CoreBudget(() -> Runtime.getRuntime().availableProcessors());
+
+ private final IntSupplier availableProcessorsSupplier;
+ private final AtomicInteger busyCores = new AtomicInteger();
+
+ CoreBudget(IntSupplier availableProcessorsSupplier) {
+ this.availableProcessorsSupplier = availableProcessorsSupplier;
+ }
+
+ /**
+ * Returns the budget shared by every fold pool and pipeline scorer of the process.
+ *
+ * @return shared core budget
+ */
+ public static CoreBudget shared() {
+ return SHARED;
+ }
+
+ /**
+ * Records cores taken by worker threads that run regardless of the budget.
+ *
+ * @param cores number of worker threads
+ */
+ public void occupy(int cores) {
+ busyCores.addAndGet(cores);
+ }
+
+ /**
+ * Returns cores recorded by {@link #occupy(int)} or granted by {@link #tryAcquire(int)}.
+ *
+ * @param cores number of cores to give back
+ */
+ public void release(int cores) {
+ busyCores.addAndGet(-cores);
+ }
+
+ /**
+ * Grants up to the wanted number of spare cores. The calling thread always counts as busy, even when it does not
+ * belong to an occupying pool.
+ *
+ * @param wanted cores the caller would like to use besides its own
+ * @return granted cores, possibly {@code 0}, to be given back with {@link #release(int)}
+ */
+ public int tryAcquire(int wanted) {
+ while (true) {
+ int busy = busyCores.get();
+ int spare = availableProcessorsSupplier.getAsInt() - Math.max(1, busy);
+ int granted = Math.max(0, Math.min(wanted, spare));
+ if (granted == 0 || busyCores.compareAndSet(busy, busy + granted)) {
+ return granted;
+ }
+ }
+ }
+}
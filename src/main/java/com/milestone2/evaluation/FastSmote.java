@@ -0,0 +1,246 @@
+package com.milestone2.evaluation;
+
+import weka.core.Attribute;
+import weka.core.Capabilities;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.Utils;
+import weka.filters.SimpleBatchFilter;
+import weka.filters.SupervisedFilter;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * SMOTE oversampling of the minority class backed by a KD-tree over the standardized minority instances.
+ * <p>
+ * Neighbour queries run in parallel for large minority classes and write into one shared primitive buffer, while
+ * synthetic rows are generated sequentially from a single seeded {@link Random}, so the output only depends on the
+ * input batch and the seed. Synthetic rows are appended after the original rows. Numeric attributes are interpolated
+ * between a minority instance and a random neighbour; nominal attributes take the most frequent value among the
+ * neighbours. Instances seen after the first batch pass through unchanged.
+ */
+public class FastSmote extends SimpleBatchFilter implements SupervisedFilter {
+ private static final long serialVersionUID = 1L;
+ private static final int PARALLEL_QUERY_THRESHOLD = 1_024;
+
+ private int nearestNeighbors = 5;
+ private double percentage = 100.0;
+ private int randomSeed = 1;
+
+ public int getNearestNeighbors() {
+ return nearestNeighbors;
+ }
+
+ public void setNearestNeighbors(int nearestNeighbors) {
+ this.nearestNeighbors = nearestNeighbors;
+ }
+
+ public double getPercentage() {
+ return percentage;
+ }
+
+ public void setPercentage(double percentage) {
+ this.percentage = percentage;
+ }
+
+ public int getRandomSeed() {
+ return randomSeed;
+ }
+
+ public void setRandomSeed(int randomSeed) {
+ this.randomSeed = randomSeed;
+ }
+
+ @Override
+ public String globalInfo() {
+ return "SMOTE oversampling of the minority class using a KD-tree and parallel neighbour search.";
+ }
+
+ @Override
+ public Capabilities getCapabilities() {
+ Capabilities result = super.getCapabilities();
+ result.disableAll();
+ result.enable(Capabilities.Capability.NUMERIC_ATTRIBUTES);
+ result.enable(Capabilities.Capability.NOMINAL_ATTRIBUTES);
+ result.enable(Capabilities.Capability.MISSING_VALUES);
+ result.enable(Capabilities.Capability.NOMINAL_CLASS);
+ result.enable(Capabilities.Capability.MISSING_CLASS_VALUES);
+ return result;
+ }
+
+ @Override
+ protected Instances determineOutputFormat(Instances inputFormat) {
+ return new Instances(inputFormat, 0);
+ }
+
+ @Override
+ protected Instances process(Instances instances) {
+ Instances result = new Instances(instances);
+ if (isFirstBatchDone()) {
+ return result;
+ }
+
+ int minorityClass = minorityClass(instances);
+ if (minorityClass < 0) {
+ return result;
+ }
+ int[] minorityRows = rowsOfClass(instances, minorityClass);
+ int minoritySize = minorityRows.length;
+ int k = Math.min(nearestNeighbors, minoritySize - 1);
+ if (k < 1 || percentage <= 0.0) {
+ return result;
+ }
+
+ int[] features = featureIndices(instances);
+ double[] points = standardizedPoints(instances, minorityRows, features);
+ MinorityKdTree tree = new MinorityKdTree(points, minoritySize, features.length);
+
+ int[] neighbours = new int[minoritySize * k];
+ int[] neighbourCounts = new int[minoritySize];
+ IntStream queries = IntStream.range(0, minoritySize);
+ if (minoritySize >= PARALLEL_QUERY_THRESHOLD) {
+ queries = queries.parallel();
+ }
+ queries.forEach(i -> neighbourCounts[i] = tree.nearest(i, k, neighbours, i * k));
+
+ Random random = new Random(randomSeed);
+ int[] syntheticPerRow = syntheticCounts(minoritySize, random);
+ int numAttributes = instances.numAttributes();
+ int classIndex = instances.classIndex();
+ for (int i = 0; i < minoritySize; i++) {
+ Instance base = instances.instance(minorityRows[i]);
+ for (int n = 0; n < syntheticPerRow[i]; n++) {
+ Instance neighbour = instances.instance(
+ minorityRows[neighbours[i * k + random.nextInt(neighbourCounts[i])]]);
+ double gap = random.nextDouble();
+ double[] values = new double[numAttributes];
+ for (int a = 0; a < numAttributes; a++) {
+ Attribute attribute = instances.attribute(a);
+ if (a == classIndex) {
+ values[a] = minorityClass;
+ } else if (attribute.isNumeric()) {
+ double from = base.value(a);
+ values[a] = from + gap * (neighbour.value(a) - from);
+ } else if (attribute.isNominal()) {
+ values[a] = majorityNominal(instances, minorityRows, neighbours, neighbourCounts[i], i * k, a,
+ base.value(a));
+ } else {
+ values[a] = base.value(a);
+ }
+ }
+ result.add(new DenseInstance(base.weight(), values));
+ }
+ }
+ return result;
+ }
+
+ private int[] syntheticCounts(int minoritySize, Random random) {
+ int whole = (int) (percentage / 100.0);
+ int extra = (int) Math.round(minoritySize * (percentage / 100.0 - whole));
+ int[] counts = new int[minoritySize];
+ int[] shuffled = new int[minoritySize];
+ for (int i = 0; i < minoritySize; i++) {
+ counts[i] = whole;
+ shuffled[i] = i;
+ }
+ for (int i = minoritySize - 1; i > 0; i--) {
+ int j = random.nextInt(i + 1);
+ int tmp = shuffled[i];
+ shuffled[i] = shuffled[j];
+ shuffled[j] = tmp;
+ }
+ for (int i = 0; i < extra; i++) {
+ counts[shuffled[i]]++;
+ }
+ return counts;
+ }
+
+ private static int minorityClass(Instances instances) {
+ if (instances.classIndex() < 0) {
+ return -1;
+ }
+ int[] counts = new int[instances.numClasses()];
+ for (Instance instance : instances) {
+ if (!instance.classIsMissing()) {
+ counts[(int) instance.classValue()]++;
+ }
+ }
+ int minority = -1;
+ for (int c = 0; c < counts.length; c++) {
+ if (counts[c] > 0 && (minority < 0 || counts[c] < counts[minority])) {
+ minority = c;
+ }
+ }
+ return minority;
+ }
+
+ private static int[] rowsOfClass(Instances instances, int classValue) {
+ return IntStream.range(0, instances.numInstances())
+ .filter(i -> !instances.instance(i).classIsMissing()
+ && (int) instances.instance(i).classValue() == classValue)
+ .toArray();
+ }
+
+ private static int[] featureIndices(Instances instances) {
+ return IntStream.range(0, instances.numAttributes())
+ .filter(a -> a != instances.classIndex())
+ .filter(a -> instances.attribute(a).isNumeric() || instances.attribute(a).isNominal())
+ .toArray();
+ }
+
+ /**
+ * Copies the minority rows into a row-major buffer standardized per feature, so that every feature contributes
+ * to the neighbour distance on a comparable scale. Missing values are placed at the feature mean.
+ */
+ private static double[] standardizedPoints(Instances instances, int[] rows, int[] features) {
+ int dimensions = features.length;
+ double[] points = new double[rows.length * dimensions];
+ for (int d = 0; d < dimensions; d++) {
+ int attribute = features[d];
+ double sum = 0.0;
+ double sumSquares = 0.0;
+ int present = 0;
+ for (int row : rows) {
+ double value = instances.instance(row).value(attribute);
+ if (!Utils.isMissingValue(value)) {
+ sum += value;
+ sumSquares += value * value;
+ present++;
+ }
+ }
+ double mean = present == 0 ? 0.0 : sum / present;
+ double variance = present == 0 ? 0.0 : Math.max(0.0, sumSquares / present - mean * mean);
+ double scale = variance > 0.0 ? 1.0 / Math.sqrt(variance) : 1.0;
+ for (int i = 0; i < rows.length; i++) {
+ double value = instances.instance(rows[i]).value(attribute);
+ points[i * dimensions + d] = Utils.isMissingValue(value) ? 0.0 : (value - mean) * scale;
+ }
+ }
+ return points;
+ }
+
+ private static double majorityNominal(Instances instances,
+ int[] minorityRows,
+ int[] neighbours,
+ int neighbourCount,
+ int offset,
+ int attribute,
+ double fallback) {
+ int[] votes = new int[instances.attribute(attribute).numValues()];
+ for (int j = 0; j < neighbourCount; j++) {
+ double value = instances.instance(minorityRows[neighbours[offset + j]]).value(attribute);
+ if (!Utils.isMissingValue(value)) {
+ votes[(int) value]++;
+ }
+ }
+ int best = -1;
+ for (int v = 0; v < votes.length; v++) {
+ if (votes[v] > 0 && (best < 0 || votes[v] > votes[best])) {
+ best = v;
+ }
+ }
+ return best < 0 ? fallback : best;
+ }
+}
@@ -0,0 +1,170 @@
+package com.milestone2.evaluation;
+
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+ * Read-only view over a subset of the rows of a dataset, optionally with one attribute forced to a constant or scaled
+ * by a factor.
+ * <p>
+ * The view stores row indexes and the override only; the source instances are never copied. The override is applied
+ * when a row is scored, through a scratch instance owned by the scoring thread, see
+ * {@link #copyInto(int, double[])}.
+ */
+public class InstancesView {
+ private static final int NO_OVERRIDE = -1;
+
+ private final Instances source;
+ private final int[] rows;
+ private final int overrideAttribute;
+ private final boolean overrideScales;
+ private final double overrideValue;
+
+ private InstancesView(Instances source,
+ int[] rows,
+ int overrideAttribute,
+ boolean overrideScales,
+ double overrideValue) {
+ this.source = source;
+ this.rows = rows;
+ this.overrideAttribute = overrideAttribute;
+ this.overrideScales = overrideScales;
+ this.overrideValue = overrideValue;
+ }
+
+ /**
+ * Creates a view over every row of the dataset.
+ *
+ * @param source dataset to view
+ * @return full view
+ */
+ public static InstancesView of(Instances source) {
+ return new InstancesView(source, null, NO_OVERRIDE, false, 0.0);
+ }
+
+ /**
+ * Creates a view over the selected rows of the dataset.
+ *
+ * @param source dataset to view
+ * @param rows selected row indexes, in view order
+ * @return row-masked view
+ */
+ public static InstancesView ofRows(Instances source, int[] rows) {
+ return new InstancesView(source, rows, NO_OVERRIDE, false, 0.0);
+ }
+
+ /**
+ * Returns a view over the same rows where one attribute reads as a constant.
+ *
+ * @param attribute attribute to override
+ * @param value value the attribute takes in every row
+ * @return overriding view
+ */
+ public InstancesView withOverride(Attribute attribute, double value) {
+ return new InstancesView(source, rows, attribute.index(), false, value);
+ }
+
+ /**
+ * Returns a view over the same rows where one attribute reads as its source value multiplied by a factor.
+ *
+ * @param attribute attribute to scale
+ * @param factor multiplier applied to every row; missing values stay missing
+ * @return scaling view
+ */
+ public InstancesView withScale(Attribute attribute, double factor) {
+ return new InstancesView(source, rows, attribute.index(), true, factor);
+ }
+
+ /**
+ * Returns the viewed dataset, which also provides the header of every row.
+ *
+ * @return source dataset
+ */
+ public Instances getSource() {
+ return source;
+ }
+
+ /**
+ * Returns the number of rows in the view.
+ *
+ * @return row count
+ */
+ public int size() {
+ return rows == null ? source.numInstances() : rows.length;
+ }
+
+ /**
+ * Indicates whether rows must be copied into a scratch instance before scoring.
+ *
+ * @return {@code true} when an attribute is overridden
+ */
+ public boolean hasOverride() {
+ return overrideAttribute != NO_OVERRIDE;
+ }
+
+ /**
+ * Indicates whether the view covers the whole source unchanged, so the source itself can be scored.
+ *
+ * @return {@code true} for an unmasked view without override
+ */
+ public boolean isIdentity() {
+ return rows == null && !hasOverride();
+ }
+
+ /**
+ * Returns the source instance behind one row of the view, without the override.
+ *
+ * @param index position in the view
+ * @return source instance
+ */
+ public Instance sourceInstance(int index) {
+ return source.instance(rows == null ? index : rows[index]);
+ }
+
+ /**
+ * Copies one row, override included, into a scratch attribute array.
+ *
+ * @param index position in the view
+ * @param values scratch array with one slot per attribute
+ */
+ public void copyInto(int index, double[] values) {
+ Instance instance = sourceInstance(index);
+ for (int a = 0; a < values.length; a++) {
+ values[a] = instance.value(a);
+ }
+ if (hasOverride()) {
+ // a missing value is NaN, so scaling keeps it missing even for a zero factor
+ values[overrideAttribute] = overrideScales ? overrideValue * values[overrideAttribute] : overrideValue;
+ }
+ }
+
+ /**
+ * Creates a scratch instance backed by the given array, bound to the source header. Writing the array through
+ * {@link #copyInto(int, double[])} repositions the scratch instance on another row.
+ *
+ * @param values scratch array with one slot per attribute
+ * @return scratch instance sharing the array
+ */
+ public Instance scratchInstance(double[] values) {
+ DenseInstance scratch = new DenseInstance(1.0, values);
+ scratch.setDataset(source);
+ return scratch;
+ }
+
+ /**
+ * Copies the view into a standalone dataset. Meant for inspection and tests; scoring never needs it.
+ *
+ * @return materialized dataset
+ */
+ public Instances materialize() {
+ Instances copy = new Instances(source, size());
+ for (int i = 0; i < size(); i++) {
+ double[] values = new double[source.numAttributes()];
+ copyInto(i, values);
+ copy.add(new DenseInstance(sourceInstance(i).weight(), values));
+ }
+ return copy;
+ }
+}
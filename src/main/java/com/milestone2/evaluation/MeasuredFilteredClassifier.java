@@ -0,0 +1,62 @@
+package com.milestone2.evaluation;
+
+import com.milestone2.flightRecorder.PreprocessingFitEvent;
+import weka.classifiers.meta.FilteredClassifier;
+import weka.core.Instances;
+
+import java.util.Random;
+
+/**
+ * Filtered classifier that remembers the size of the training set seen by the wrapped classifier after the
+ * preprocessing chain, so balancing modes can be compared by the rows and weight they actually train on, and how long
+ * fitting that chain took.
+ */
+public class MeasuredFilteredClassifier extends FilteredClassifier {
+ private static final long serialVersionUID = 1L;
+
+ private int filteredTrainingRows = -1;
+ private double filteredTrainingWeight = Double.NaN;
+ private long filterFittingNanos = -1L;
+
+ @Override
+ protected Instances setUp(Instances data, Random random) throws Exception {
+ PreprocessingFitEvent event = new PreprocessingFitEvent();
+ event.begin();
+ long start = System.nanoTime();
+ Instances filtered = super.setUp(data, random);
+ filterFittingNanos = System.nanoTime() - start;
+ event.end();
+ filteredTrainingRows = filtered.numInstances();
+ filteredTrainingWeight = filtered.sumOfWeights();
+ event.commit(getClassifier().getClass().getName(), data.numInstances(), filteredTrainingRows,
+ filteredTrainingWeight);
+ return filtered;
+ }
+
+ /**
+ * Returns how many rows reached the base classifier during the last training call.
+ *
+ * @return filtered training row count, or {@code -1} before training
+ */
+ public int getFilteredTrainingRows() {
+ return filteredTrainingRows;
+ }
+
+ /**
+ * Returns the total instance weight that reached the base classifier during the last training call.
+ *
+ * @return filtered training weight, or {@code NaN} before training
+ */
+ public double getFilteredTrainingWeight() {
+ return filteredTrainingWeight;
+ }
+
+ /**
+ * Returns how long fitting and applying the preprocessing chain took during the last training call.
+ *
+ * @return filter fitting time in nanoseconds, or {@code -1} before training
+ */
+ public long getFilterFittingNanos() {
+ return filterFittingNanos;
+ }
+}
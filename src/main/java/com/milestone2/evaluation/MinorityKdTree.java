@@ -0,0 +1,226 @@
+package com.milestone2.evaluation;
+
+/**
+ * Static KD-tree over a row-major block of points used for the k-nearest-neighbour queries of {@link FastSmote}.
+ * <p>
+ * The tree only stores index permutations and split metadata in primitive arrays, and it is safe to query from
+ * several threads once built. Ties on distance are broken by the lower point index so results are deterministic.
+ */
+final class MinorityKdTree {
+ private static final int LEAF_SIZE = 16;
+
+ private final double[] points;
+ private final int dimensions;
+ private final int[] order;
+ private final int[] nodeStart;
+ private final int[] nodeEnd;
+ private final int[] nodeSplitDimension;
+ private final double[] nodeSplitValue;
+ private final int[] nodeLeft;
+ private final int[] nodeRight;
+ private int nodeCount;
+
+ MinorityKdTree(double[] points, int size, int dimensions) {
+ this.points = points;
+ this.dimensions = dimensions;
+ this.order = new int[size];
+ for (int i = 0; i < size; i++) {
+ order[i] = i;
+ }
+ int capacity = 2 * (size / (LEAF_SIZE / 2) + 1);
+ this.nodeStart = new int[capacity];
+ this.nodeEnd = new int[capacity];
+ this.nodeSplitDimension = new int[capacity];
+ this.nodeSplitValue = new double[capacity];
+ this.nodeLeft = new int[capacity];
+ this.nodeRight = new int[capacity];
+ if (size > 0) {
+ build(0, size);
+ }
+ }
+
+ /**
+ * Finds the {@code k} nearest neighbours of one indexed point, excluding the point itself.
+ *
+ * @param query index of the query point
+ * @param k number of neighbours to return
+ * @param neighbours destination buffer
+ * @param offset first position to fill inside {@code neighbours}
+ * @return number of neighbours written
+ */
+ int nearest(int query, int k, int[] neighbours, int offset) {
+ if (k <= 0 || nodeCount == 0) {
+ return 0;
+ }
+ int[] heapIndex = new int[k];
+ double[] heapDistance = new double[k];
+ int found = search(0, query, k, heapIndex, heapDistance, 0);
+
+ // Heap-sort the bounded max-heap into ascending distance order.
+ for (int end = found - 1; end > 0; end--) {
+ swap(heapIndex, heapDistance, 0, end);
+ siftDown(heapIndex, heapDistance, 0, end);
+ }
+ System.arraycopy(heapIndex, 0, neighbours, offset, found);
+ return found;
+ }
+
+ private int build(int start, int end) {
+ int node = nodeCount++;
+ nodeStart[node] = start;
+ nodeEnd[node] = end;
+ nodeLeft[node] = -1;
+ nodeRight[node] = -1;
+ if (end - start <= LEAF_SIZE) {
+ return node;
+ }
+
+ int splitDimension = widestDimension(start, end);
+ int middle = (start + end) >>> 1;
+ select(start, end - 1, middle, splitDimension);
+ nodeSplitDimension[node] = splitDimension;
+ nodeSplitValue[node] = coordinate(order[middle], splitDimension);
+ nodeLeft[node] = build(start, middle);
+ nodeRight[node] = build(middle, end);
+ return node;
+ }
+
+ private int widestDimension(int start, int end) {
+ int best = 0;
+ double bestSpread = -1.0;
+ for (int d = 0; d < dimensions; d++) {
+ double min = Double.POSITIVE_INFINITY;
+ double max = Double.NEGATIVE_INFINITY;
+ for (int i = start; i < end; i++) {
+ double value = coordinate(order[i], d);
+ min = Math.min(min, value);
+ max = Math.max(max, value);
+ }
+ if (max - min > bestSpread) {
+ bestSpread = max - min;
+ best = d;
+ }
+ }
+ return best;
+ }
+
+ private void select(int left, int right, int kth, int dimension) {
+ while (left < right) {
+ double pivot = coordinate(order[(left + right) >>> 1], dimension);
+ int i = left;
+ int j = right;
+ while (i <= j) {
+ while (coordinate(order[i], dimension) < pivot) {
+ i++;
+ }
+ while (coordinate(order[j], dimension) > pivot) {
+ j--;
+ }
+ if (i <= j) {
+ int tmp = order[i];
+ order[i] = order[j];
+ order[j] = tmp;
+ i++;
+ j--;
+ }
+ }
+ if (kth <= j) {
+ right = j;
+ } else if (kth >= i) {
+ left = i;
+ } else {
+ return;
+ }
+ }
+ }
+
+ private int search(int node, int query, int k, int[] heapIndex, double[] heapDistance, int found) {
+ if (nodeLeft[node] < 0) {
+ for (int i = nodeStart[node]; i < nodeEnd[node]; i++) {
+ int candidate = order[i];
+ if (candidate == query) {
+ continue;
+ }
+ double distance = squaredDistance(query, candidate);
+ if (found < k) {
+ heapIndex[found] = candidate;
+ heapDistance[found] = distance;
+ siftUp(heapIndex, heapDistance, found);
+ found++;
+ } else if (isCloser(distance, candidate, heapDistance[0], heapIndex[0])) {
+ heapIndex[0] = candidate;
+ heapDistance[0] = distance;
+ siftDown(heapIndex, heapDistance, 0, found);
+ }
+ }
+ return found;
+ }
+
+ double delta = coordinate(query, nodeSplitDimension[node]) - nodeSplitValue[node];
+ int near = delta < 0 ? nodeLeft[node] : nodeRight[node];
+ int far = delta < 0 ? nodeRight[node] : nodeLeft[node];
+ found = search(near, query, k, heapIndex, heapDistance, found);
+ if (found < k || delta * delta <= heapDistance[0]) {
+ found = search(far, query, k, heapIndex, heapDistance, found);
+ }
+ return found;
+ }
+
+ private double squaredDistance(int a, int b) {
+ int baseA = a * dimensions;
+ int baseB = b * dimensions;
+ double sum = 0.0;
+ for (int d = 0; d < dimensions; d++) {
+ double diff = points[baseA + d] - points[baseB + d];
+ sum += diff * diff;
+ }
+ return sum;
+ }
+
+ private double coordinate(int point, int dimension) {
+ return points[point * dimensions + dimension];
+ }
+
+ private static boolean isCloser(double distance, int index, double otherDistance, int otherIndex) {
+ return distance < otherDistance || (distance == otherDistance && index < otherIndex);
+ }
+
+ private static void siftUp(int[] heapIndex, double[] heapDistance, int position) {
+ while (position > 0) {
+ int parent = (position - 1) >>> 1;
+ if (!isCloser(heapDistance[parent], heapIndex[parent], heapDistance[position], heapIndex[position])) {
+ return;
+ }
+ swap(heapIndex, heapDistance, parent, position);
+ position = parent;
+ }
+ }
+
+ private static void siftDown(int[] heapIndex, double[] heapDistance, int position, int size) {
+ while (true) {
+ int left = 2 * position + 1;
+ if (left >= size) {
+ return;
+ }
+ int largest = left;
+ int right = left + 1;
+ if (right < size && isCloser(heapDistance[left], heapIndex[left], heapDistance[right], heapIndex[right])) {
+ largest = right;
+ }
+ if (!isCloser(heapDistance[position], heapIndex[position], heapDistance[largest], heapIndex[largest])) {
+ return;
+ }
+ swap(heapIndex, heapDistance, position, largest);
+ position = largest;
+ }
+ }
+
+ private static void swap(int[] heapIndex, double[] heapDistance, int a, int b) {
+ int index = heapIndex[a];
+ heapIndex[a] = heapIndex[b];
+ heapIndex[b] = index;
+ double distance = heapDistance[a];
+ heapDistance[a] = heapDistance[b];
+ heapDistance[b] = distance;
+ }
+}
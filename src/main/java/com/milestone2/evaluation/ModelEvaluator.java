@@ -5,9 +5,13 @@ import com.milestone2.startupUtility.ExecutionSettings;
 import com.milestone2.classifier.Definition;
 import com.milestone2.dataset.ValidationService;
 import com.milestone2.foldMetadata.FoldEvaluator;
+import com.milestone2.foldMetadata.FoldPredictionSink;
 import com.milestone2.foldMetadata.FoldResult;
+import com.milestone2.foldMetadata.FoldResultSink;
+import com.milestone2.metric.MetricAccumulator;
 import com.milestone2.metric.MetricAggregator;
 import com.milestone2.metric.MetricDefinition;
+import com.milestone2.runMetrics.RunProgress;
 import com.milestone2.validationStrategy.ValidationExecutor;
 import com.milestone2.validationStrategy.ExecutorSelector;
 import com.milestone2.validationStrategy.ValidationStrategy;
@@ -29,25 +33,29 @@ public class ModelEvaluator {
  private final MetricAggregator metricAggregator;
  private final ExecutorSelector validationExecutorSelector;
  private final FoldEvaluator foldEvaluationService;
+ private final RunProgress runProgress;
 
  public ModelEvaluator() {
  this(new PositiveClassResolver(),
  new ValidationService(),
  new MetricAggregator(),
  new ExecutorSelector(),
- new FoldEvaluator());
+ new FoldEvaluator(),
+ RunProgress.global());
  }
 
  ModelEvaluator(PositiveClassResolver positiveClassResolver,
  ValidationService datasetValidationService,
  MetricAggregator metricAggregator,
  ExecutorSelector validationExecutorSelector,
- FoldEvaluator foldEvaluationService) {
+ FoldEvaluator foldEvaluationService,
+ RunProgress runProgress) {
  this.positiveClassResolver = positiveClassResolver;
  this.datasetValidationService = datasetValidationService;
  this.metricAggregator = metricAggregator;
  this.validationExecutorSelector = validationExecutorSelector;
  this.foldEvaluationService = foldEvaluationService;
+ this.runProgress = runProgress;
  }
 
  /**
@@ -64,6 +72,43 @@ public class ModelEvaluator {
  Instances data,
  RunConfig config,
  Preprocessor preprocessor) throws Exception {
+ return runFolds(definition, data, config, preprocessor, FoldPredictionSink.NONE, FoldResultSink.NONE);
+ }
+
+ /**
+ * Validates the dataset and executes the configured validation strategy, streaming every fold out as soon as it
+ * completes: its per-instance predictions go to the prediction sink, its result to the result sink and its
+ * metrics into the returned accumulator, so no fold result has to be retained by the caller.
+ *
+ * @param definition classifier definition to evaluate
+ * @param data dataset to evaluate
+ * @param config immutable analysis configuration
+ * @param preprocessor preprocessing pipeline builder
+ * @param predictionSink receiver of the per-instance predictions
+ * @param resultSink receiver of the fold results
+ * @return online summary of the fold metrics
+ * @throws Exception when validation, fold evaluation or streaming fails
+ */
+ public MetricAccumulator evaluate(Definition definition,
+ Instances data,
+ RunConfig config,
+ Preprocessor preprocessor,
+ FoldPredictionSink predictionSink,
+ FoldResultSink resultSink) throws Exception {
+ MetricAccumulator accumulator = new MetricAccumulator();
+ runFolds(definition, data, config, preprocessor, predictionSink, result -> {
+ accumulator.add(result);
+ resultSink.accept(result);
+ });
+ return accumulator;
+ }
+
+ private List<FoldResult> runFolds(Definition definition,
+ Instances data,
+ RunConfig config,
+ Preprocessor preprocessor,
+ FoldPredictionSink predictionSink,
+ FoldResultSink resultSink) throws Exception {
  ExecutionSettings execution = config.getExecution();
  datasetValidationService.validate(data, config);
 
@@ -74,14 +119,19 @@ public class ModelEvaluator {
  List<FoldResult> results = validationExecutor.execute(
  data,
  config,
- (train, test, context) -> foldEvaluationService.evaluate(
+ runProgress.track(definition.getDisplayName()).wrap((train, test, context) -> {
+ FoldResult result = foldEvaluationService.evaluate(
  definition,
  config,
  preprocessor,
  train,
  test,
- context
- )
+ context,
+ predictionSink
+ );
+ resultSink.accept(result);
+ return result;
+ })
  );
 
  log.info("Collected {} fold results for {}", results.size(), definition.getDisplayName());
@@ -98,6 +148,16 @@ public class ModelEvaluator {
  return metricAggregator.aggregate(results);
  }
 
+ /**
+ * Reads dataset-level averages from the metrics accumulated while the folds completed.
+ *
+ * @param accumulator online summary of the fold metrics
+ * @return aggregate metrics map
+ */
+ public Map<MetricDefinition, Double> aggregate(MetricAccumulator accumulator) {
+ return metricAggregator.aggregate(accumulator);
+ }
+
  /**
  * Resolves the positive class label that should be used for binary evaluation metrics.
  *
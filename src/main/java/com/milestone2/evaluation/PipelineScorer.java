@@ -0,0 +1,169 @@
+package com.milestone2.evaluation;
+
+import weka.classifiers.AbstractClassifier;
+import weka.classifiers.Classifier;
+import weka.classifiers.meta.FilteredClassifier;
+import weka.core.Instance;
+import weka.core.Instances;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Scores a test set with a trained preprocessing pipeline, returning one class distribution per instance in the
+ * original instance order.
+ * <p>
+ * When the wrapped classifier predicts batches more efficiently, the whole set goes through
+ * {@link FilteredClassifier#distributionsForInstances(Instances)}. Otherwise large sets are split into contiguous
+ * chunks scored concurrently, each on its own deserialized copy of the pipeline because Weka filters keep
+ * per-instance state and are not safe to share between threads. Helper chunks run on one pool shared by every scorer
+ * and only on the spare cores of the {@link CoreBudget}, so folds scored from a saturated fold pool stay serial and
+ * do not copy the model.
+ * <p>
+ * {@link InstancesView} subsets are scored row by row straight from the source dataset; rows with an overridden
+ * attribute go through one scratch instance per chunk, so no derived dataset is materialized.
+ * <p>
+ * Chunks scored on helper threads are metered into the caller's {@link ResourceScope}, if one is open.
+ */
+public class PipelineScorer {
+ private static final int DEFAULT_CHUNK_SIZE = 2_048;
+
+ private static final ExecutorService HELPERS = Executors.newCachedThreadPool(runnable -> {
+ Thread thread = new Thread(runnable, "pipeline-scorer");
+ thread.setDaemon(true);
+ return thread;
+ });
+
+ private final CoreBudget coreBudget;
+ private final int chunkSize;
+
+ public PipelineScorer() {
+ this(CoreBudget.shared(), DEFAULT_CHUNK_SIZE);
+ }
+
+ PipelineScorer(CoreBudget coreBudget, int chunkSize) {
+ this.coreBudget = coreBudget;
+ this.chunkSize = chunkSize;
+ }
+
+ /**
+ * Produces the class distribution of every instance of the dataset.
+ *
+ * @param pipeline trained filtered classifier
+ * @param dataset instances to score
+ * @return distributions aligned with the dataset order
+ * @throws Exception when prediction fails for any instance
+ */
+ public double[][] score(FilteredClassifier pipeline, Instances dataset) throws Exception {
+ return score(pipeline, InstancesView.of(dataset));
+ }
+
+ /**
+ * Produces the class distribution of every row of a dataset view.
+ *
+ * @param pipeline trained filtered classifier
+ * @param view rows to score, possibly with an overridden attribute
+ * @return distributions aligned with the view order
+ * @throws Exception when prediction fails for any instance
+ */
+ public double[][] score(FilteredClassifier pipeline, InstancesView view) throws Exception {
+ int size = view.size();
+ if (size == 0) {
+ return new double[0][];
+ }
+ Instances dataset = view.getSource();
+ if (view.isIdentity() && pipeline.implementsMoreEfficientBatchPrediction()) {
+ return pipeline.distributionsForInstances(dataset);
+ }
+
+ double[][] distributions = new double[size][];
+ int chunks = (size + chunkSize - 1) / chunkSize;
+ int helpers = chunks > 1 ? coreBudget.tryAcquire(chunks - 1) : 0;
+ if (helpers == 0) {
+ scoreRange(pipeline, view, distributions, 0, size);
+ return distributions;
+ }
+ try {
+ scoreInParallel(pipeline, view, distributions, helpers + 1);
+ } finally {
+ coreBudget.release(helpers);
+ }
+ return distributions;
+ }
+
+ /**
+ * Produces the class distribution of every row of a dataset view on the calling thread only, for callers that
+ * already score several views concurrently with their own pipeline copies.
+ *
+ * @param pipeline trained filtered classifier owned by the calling thread
+ * @param view rows to score, possibly with an overridden attribute
+ * @return distributions aligned with the view order
+ * @throws Exception when prediction fails for any instance
+ */
+ public double[][] scoreSerially(FilteredClassifier pipeline, InstancesView view) throws Exception {
+ double[][] distributions = new double[view.size()][];
+ scoreRange(pipeline, view, distributions, 0, distributions.length);
+ return distributions;
+ }
+
+ private void scoreInParallel(FilteredClassifier pipeline,
+ InstancesView view,
+ double[][] distributions,
+ int workers) throws Exception {
+ Classifier[] copies = AbstractClassifier.makeCopies(pipeline, workers - 1);
+ int size = view.size();
+ int rowsPerWorker = (size + workers - 1) / workers;
+ ResourceScope scope = ResourceScope.current();
+ List<Future<Void>> futures = new ArrayList<>();
+ try {
+ for (int worker = 1; worker < workers; worker++) {
+ FilteredClassifier copy = (FilteredClassifier) copies[worker - 1];
+ int start = Math.min(size, worker * rowsPerWorker);
+ int end = Math.min(size, start + rowsPerWorker);
+ Callable<Void> chunk = () -> {
+ scoreRange(copy, view, distributions, start, end);
+ return null;
+ };
+ futures.add(HELPERS.submit(scope == null ? chunk : scope.onHelperThread(chunk)));
+ }
+ scoreRange(pipeline, view, distributions, 0, Math.min(size, rowsPerWorker));
+ for (Future<Void> future : futures) {
+ try {
+ future.get();
+ } catch (ExecutionException e) {
+ Throwable cause = e.getCause();
+ throw cause instanceof Exception ? (Exception) cause : e;
+ }
+ }
+ } finally {
+ for (Future<Void> future : futures) {
+ future.cancel(true);
+ }
+ }
+ }
+
+ private static void scoreRange(FilteredClassifier pipeline,
+ InstancesView view,
+ double[][] distributions,
+ int start,
+ int end) throws Exception {
+ if (!view.hasOverride()) {
+ for (int i = start; i < end; i++) {
+ distributions[i] = pipeline.distributionForInstance(view.sourceInstance(i));
+ }
+ return;
+ }
+ double[] values = new double[view.getSource().numAttributes()];
+ Instance scratch = view.scratchInstance(values);
+ for (int i = start; i < end; i++) {
+ view.copyInto(i, values);
+ scratch.setWeight(view.sourceInstance(i).weight());
+ distributions[i] = pipeline.distributionForInstance(scratch);
+ }
+ }
+}
@@ -9,11 +9,11 @@ import weka.attributeSelection.InfoGainAttributeEval;
 import weka.attributeSelection.Ranker;
 import weka.classifiers.Classifier;
 import weka.classifiers.meta.FilteredClassifier;
+import weka.core.WeightedInstancesHandler;
 import weka.filters.Filter;
 import weka.filters.MultiFilter;
 import weka.filters.supervised.attribute.AttributeSelection;
 import weka.filters.supervised.instance.Resample;
-import weka.filters.supervised.instance.SMOTE;
 import weka.filters.supervised.instance.SpreadSubsample;
 import weka.filters.unsupervised.attribute.NominalToBinary;
 import weka.filters.unsupervised.attribute.RemoveType;
@@ -37,8 +37,13 @@ public class Preprocessor {
  * @return configured filtered classifier
  * @throws Exception when the filter chain cannot be built
  */
- public FilteredClassifier buildPipeline(Classifier baseClassifier, RunConfig config) throws Exception {
- FilteredClassifier pipeline = new FilteredClassifier();
+ public MeasuredFilteredClassifier buildPipeline(Classifier baseClassifier, RunConfig config) throws Exception {
+ BalancingStrategy balancing = config.getExecution().getBalancingStrategy();
+ if (balancing.isWeightBased() && !(baseClassifier instanceof WeightedInstancesHandler)) {
+ log.info("Classifier {} does not handle instance weights: balancing '{}' is applied by weighted resampling",
+ baseClassifier.getClass().getSimpleName(), balancing.getCliValue());
+ }
+ MeasuredFilteredClassifier pipeline = new MeasuredFilteredClassifier();
  pipeline.setFilter(buildFilterChain(config));
  pipeline.setClassifier(baseClassifier);
  return pipeline;
@@ -47,13 +52,15 @@ public class Preprocessor {
  /**
  * Creates the ordered filter chain that removes unsupported attributes, imputes values, normalizes features,
  * optionally applies feature selection (FILTER or WRAPPER) before balancing, and optionally applies a balancing
- * filter (SMOTE, undersampling, or oversampling) on the training set only.
+ * filter (SMOTE, undersampling, oversampling, or their weight-based counterparts) on the training set only.
+ * Callers that fit the chain themselves can share one fitted chain between several classifiers trained on the
+ * same data.
  *
  * @param config immutable analysis configuration
  * @return configured multi-filter chain
  * @throws Exception when a filter cannot be configured
  */
- private Filter buildFilterChain(RunConfig config) throws Exception {
+ public Filter buildFilterChain(RunConfig config) throws Exception {
  List<Filter> filters = new ArrayList<>();
 
  RemoveType removeStringFilter = new RemoveType();
@@ -87,7 +94,7 @@ public class Preprocessor {
 
  switch (config.getExecution().getBalancingStrategy()) {
  case SMOTE:
- filters.add(new SMOTE());
+ filters.add(new FastSmote());
  break;
  case UNDERSAMPLING:
  SpreadSubsample sub = new SpreadSubsample();
@@ -99,6 +106,12 @@ public class Preprocessor {
  resample.setOptions(new String[]{"-B", "1.0", "-Z", "200"});
  filters.add(resample);
  break;
+ case WEIGHTED_OVERSAMPLING:
+ filters.add(new ClassWeightBalancer(ClassWeightBalancer.Mode.RAISE_MINORITY));
+ break;
+ case WEIGHTED_UNDERSAMPLING:
+ filters.add(new ClassWeightBalancer(ClassWeightBalancer.Mode.LOWER_MAJORITY));
+ break;
  default:
  break;
  }
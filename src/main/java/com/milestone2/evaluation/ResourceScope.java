@@ -0,0 +1,137 @@
+package com.milestone2.evaluation;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Meters the CPU time and heap allocation of a block of work through the HotSpot
+ * {@link com.sun.management.ThreadMXBean}.
+ * <p>
+ * A scope measures its opening thread from {@link #open()} to {@link #close()}. Work it hands to helper threads is
+ * counted too when the tasks are wrapped with {@link #onHelperThread(Callable)}: each wrapped task meters its own
+ * thread and adds the amounts to the scope. Threads started by Weka itself, such as the execution slots of a random
+ * forest, are not visible to the scope. Amounts stay {@code -1} when the JVM cannot meter a resource or has metering
+ * disabled.
+ */
+public final class ResourceScope implements AutoCloseable {
+ private static final ThreadLocal<ResourceScope> CURRENT = new ThreadLocal<>();
+ private static final com.sun.management.ThreadMXBean THREADS = resolveThreadBean();
+
+ private final ResourceScope parent;
+ private final long startCpuNanos;
+ private final long startAllocatedBytes;
+ private final LongAdder helperCpuNanos = new LongAdder();
+ private final LongAdder helperAllocatedBytes = new LongAdder();
+ private long cpuNanos = -1L;
+ private long allocatedBytes = -1L;
+
+ private ResourceScope(ResourceScope parent) {
+ this.parent = parent;
+ this.startCpuNanos = threadCpuNanos();
+ this.startAllocatedBytes = threadAllocatedBytes();
+ }
+
+ /**
+ * Opens a scope on the calling thread, which becomes the thread's current scope until it is closed.
+ *
+ * @return opened scope
+ */
+ public static ResourceScope open() {
+ ResourceScope scope = new ResourceScope(CURRENT.get());
+ CURRENT.set(scope);
+ return scope;
+ }
+
+ /**
+ * Returns the innermost scope open on the calling thread.
+ *
+ * @return current scope, or {@code null} when none is open
+ */
+ public static ResourceScope current() {
+ return CURRENT.get();
+ }
+
+ /**
+ * Wraps a task that runs on a helper thread so its CPU time and allocation are added to this scope.
+ *
+ * @param task helper task
+ * @param <T> task result type
+ * @return metered task
+ */
+ public <T> Callable<T> onHelperThread(Callable<T> task) {
+ return () -> {
+ long cpuStart = threadCpuNanos();
+ long allocationStart = threadAllocatedBytes();
+ try {
+ return task.call();
+ } finally {
+ addDelta(helperCpuNanos, cpuStart, threadCpuNanos());
+ addDelta(helperAllocatedBytes, allocationStart, threadAllocatedBytes());
+ }
+ };
+ }
+
+ /**
+ * Stops metering the opening thread, adds the helper amounts and restores the enclosing scope.
+ */
+ @Override
+ public void close() {
+ long cpuEnd = threadCpuNanos();
+ long allocationEnd = threadAllocatedBytes();
+ cpuNanos = startCpuNanos < 0 || cpuEnd < 0 ? -1L : cpuEnd - startCpuNanos + helperCpuNanos.sum();
+ allocatedBytes = startAllocatedBytes < 0 || allocationEnd < 0
+ ? -1L
+ : allocationEnd - startAllocatedBytes + helperAllocatedBytes.sum();
+ if (parent == null) {
+ CURRENT.remove();
+ } else {
+ CURRENT.set(parent);
+ }
+ }
+
+ /**
+ * Returns the CPU time spent in the scope by the opening thread and its metered helpers.
+ *
+ * @return CPU time in nanoseconds, or {@code -1} when unavailable or the scope is still open
+ */
+ public long getCpuNanos() {
+ return cpuNanos;
+ }
+
+ /**
+ * Returns the heap bytes allocated in the scope by the opening thread and its metered helpers.
+ *
+ * @return allocated bytes, or {@code -1} when unavailable or the scope is still open
+ */
+ public long getAllocatedBytes() {
+ return allocatedBytes;
+ }
+
+ private static void addDelta(LongAdder total, long start, long end) {
+ if (start >= 0 && end >= 0) {
+ total.add(end - start);
+ }
+ }
+
+ private static long threadCpuNanos() {
+ if (THREADS == null || !THREADS.isThreadCpuTimeSupported() || !THREADS.isThreadCpuTimeEnabled()) {
+ return -1L;
+ }
+ return THREADS.getCurrentThreadCpuTime();
+ }
+
+ private static long threadAllocatedBytes() {
+ if (THREADS == null
+ || !THREADS.isThreadAllocatedMemorySupported()
+ || !THREADS.isThreadAllocatedMemoryEnabled()) {
+ return -1L;
+ }
+ return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+ }
+
+ private static com.sun.management.ThreadMXBean resolveThreadBean() {
+ java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+ return bean instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) bean : null;
+ }
+}
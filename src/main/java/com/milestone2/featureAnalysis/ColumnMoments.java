@@ -0,0 +1,120 @@
+package com.milestone2.featureAnalysis;
+
+/**
+ * Streaming co-moments between several numeric columns and the binary bug label, kept in primitive arrays indexed by
+ * column slot.
+ * <p>
+ * Observations are folded in with Welford's update, which tracks means and centered sums instead of the raw
+ * {@code sumXX}/{@code sumXY} totals, so large feature values do not cancel catastrophically. Two partial results over
+ * disjoint rows are combined with Chan's pairwise formula, which lets row blocks be accumulated in parallel.
+ */
+class ColumnMoments {
+ private final int[] counts;
+ private final int[] zeroValueCounts;
+ private final int[] positiveValueCounts;
+ private final double[] meanX;
+ private final double[] meanY;
+ private final double[] m2X;
+ private final double[] m2Y;
+ private final double[] coMoment;
+
+ ColumnMoments(int columns) {
+ counts = new int[columns];
+ zeroValueCounts = new int[columns];
+ positiveValueCounts = new int[columns];
+ meanX = new double[columns];
+ meanY = new double[columns];
+ m2X = new double[columns];
+ m2Y = new double[columns];
+ coMoment = new double[columns];
+ }
+
+ /**
+ * Folds one non-missing (feature, label) observation into a column slot.
+ *
+ * @param column column slot
+ * @param x feature value
+ * @param y label, {@code 1.0} for the positive class and {@code 0.0} otherwise
+ */
+ void add(int column, double x, double y) {
+ int n = ++counts[column];
+ if (Double.compare(x, 0.0) == 0) {
+ zeroValueCounts[column]++;
+ }
+ if (x > 0.0) {
+ positiveValueCounts[column]++;
+ }
+ double dx = x - meanX[column];
+ double dy = y - meanY[column];
+ meanX[column] += dx / n;
+ meanY[column] += dy / n;
+ double dyAfter = y - meanY[column];
+ m2X[column] += dx * (x - meanX[column]);
+ m2Y[column] += dy * dyAfter;
+ coMoment[column] += dx * dyAfter;
+ }
+
+ /**
+ * Merges the moments of another accumulator over disjoint rows into this one.
+ *
+ * @param other accumulator with the same column slots
+ */
+ void merge(ColumnMoments other) {
+ for (int column = 0; column < counts.length; column++) {
+ int nb = other.counts[column];
+ if (nb == 0) {
+ continue;
+ }
+ int na = counts[column];
+ zeroValueCounts[column] += other.zeroValueCounts[column];
+ positiveValueCounts[column] += other.positiveValueCounts[column];
+ counts[column] = na + nb;
+ if (na == 0) {
+ meanX[column] = other.meanX[column];
+ meanY[column] = other.meanY[column];
+ m2X[column] = other.m2X[column];
+ m2Y[column] = other.m2Y[column];
+ coMoment[column] = other.coMoment[column];
+ continue;
+ }
+ double n = (double) na + nb;
+ double dx = other.meanX[column] - meanX[column];
+ double dy = other.meanY[column] - meanY[column];
+ double weight = (double) na * nb / n;
+ meanX[column] += dx * nb / n;
+ meanY[column] += dy * nb / n;
+ m2X[column] += other.m2X[column] + dx * dx * weight;
+ m2Y[column] += other.m2Y[column] + dy * dy * weight;
+ coMoment[column] += other.coMoment[column] + dx * dy * weight;
+ }
+ }
+
+ /**
+ * Returns the Pearson correlation of a column slot with the label.
+ *
+ * @param column column slot
+ * @return correlation, or {@code 0.0} with fewer than two observations or a constant column or label
+ */
+ double correlation(int column) {
+ if (counts[column] < 2) {
+ return 0.0;
+ }
+ double denominator = Math.sqrt(m2X[column] * m2Y[column]);
+ if (Double.compare(denominator, 0.0) == 0) {
+ return 0.0;
+ }
+ return coMoment[column] / denominator;
+ }
+
+ int count(int column) {
+ return counts[column];
+ }
+
+ int zeroValueCount(int column) {
+ return zeroValueCounts[column];
+ }
+
+ int positiveValueCount(int column) {
+ return positiveValueCounts[column];
+ }
+}
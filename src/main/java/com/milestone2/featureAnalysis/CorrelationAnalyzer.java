@@ -2,29 +2,42 @@ package com.milestone2.featureAnalysis;
 
 import com.milestone2.evaluation.PositiveClassResolver;
 import com.milestone2.startupUtility.RunConfig;
-import weka.core.Attribute;
 import weka.core.Instance;
 import weka.core.Instances;
 
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntSupplier;
 
 /**
  * Computes point-biserial style correlations for numeric features.
+ * <p>
+ * The dataset is walked once: every row reads its label a single time and feeds all numeric columns into
+ * {@link ColumnMoments}. Large datasets are split into contiguous row blocks accumulated concurrently and merged in
+ * block order, so the result does not depend on the thread count beyond floating-point rounding.
  */
 public class CorrelationAnalyzer {
+ private static final int DEFAULT_BLOCK_ROWS = 65_536;
+
  private final PositiveClassResolver positiveClassResolver;
- private final PearsonCalculator correlationCalculator;
+ private final IntSupplier availableProcessorsSupplier;
+ private final int blockRows;
 
  public CorrelationAnalyzer() {
- this(new PositiveClassResolver(), new PearsonCalculator());
+ this(new PositiveClassResolver(), () -> Runtime.getRuntime().availableProcessors(), DEFAULT_BLOCK_ROWS);
  }
 
  CorrelationAnalyzer(PositiveClassResolver positiveClassResolver,
- PearsonCalculator correlationCalculator) {
+ IntSupplier availableProcessorsSupplier,
+ int blockRows) {
  this.positiveClassResolver = positiveClassResolver;
- this.correlationCalculator = correlationCalculator;
+ this.availableProcessorsSupplier = availableProcessorsSupplier;
+ this.blockRows = blockRows;
  }
 
  /**
@@ -36,13 +49,18 @@ public class CorrelationAnalyzer {
  */
  public List<Correlation> analyze(Instances data, RunConfig config) {
  int positiveClassIndex = positiveClassResolver.resolvePositiveClassIndex(data.classAttribute(), config);
- List<Correlation> correlations = new ArrayList<>();
- for (int index = 0; index < data.numAttributes(); index++) {
- Attribute attribute = data.attribute(index);
- if (attribute.index() == data.classIndex() || !attribute.isNumeric()) {
- continue;
- }
- correlations.add(computeCorrelation(attribute, data, positiveClassIndex));
+ int[] columns = numericFeatureIndexes(data);
+ ColumnMoments moments = accumulate(data, columns, positiveClassIndex);
+
+ List<Correlation> correlations = new ArrayList<>(columns.length);
+ for (int slot = 0; slot < columns.length; slot++) {
+ correlations.add(new Correlation(
+ data.attribute(columns[slot]).name(),
+ moments.correlation(slot),
+ moments.count(slot),
+ moments.zeroValueCount(slot),
+ moments.positiveValueCount(slot)
+ ));
  }
  correlations.sort(Comparator
  .comparingDouble(Correlation::getAbsoluteCorrelation)
@@ -52,53 +70,97 @@ public class CorrelationAnalyzer {
  }
 
  /**
- * Computes the point-biserial style correlation statistics for one numeric feature.
+ * Lists the numeric attributes other than the class, in attribute order.
  *
- * @param attribute numeric feature to analyze
- * @param data dataset containing the feature
- * @param positiveClassIndex positive class index in the nominal class attribute
- * @return computed feature correlation summary
+ * @param data dataset to inspect
+ * @return attribute indexes, one per column slot
  */
- private Correlation computeCorrelation(Attribute attribute,
- Instances data,
- int positiveClassIndex) {
+ private int[] numericFeatureIndexes(Instances data) {
+ int[] columns = new int[data.numAttributes()];
  int count = 0;
- int zeroValueCount = 0;
- int positiveValueCount = 0;
- double sumX = 0.0;
- double sumY = 0.0;
- double sumXX = 0.0;
- double sumYY = 0.0;
- double sumXY = 0.0;
+ for (int index = 0; index < data.numAttributes(); index++) {
+ if (index != data.classIndex() && data.attribute(index).isNumeric()) {
+ columns[count++] = index;
+ }
+ }
+ int[] trimmed = new int[count];
+ System.arraycopy(columns, 0, trimmed, 0, count);
+ return trimmed;
+ }
 
- for (Instance instance : data) {
- if (instance.isMissing(attribute) || instance.classIsMissing()) {
- continue;
+ /**
+ * Accumulates the column moments of the whole dataset, in parallel row blocks when it is large enough.
+ *
+ * @param data dataset to analyze
+ * @param columns attribute index of every column slot
+ * @param positiveClassIndex positive class index in the nominal class attribute
+ * @return merged column moments
+ */
+ private ColumnMoments accumulate(Instances data, int[] columns, int positiveClassIndex) {
+ int rows = data.numInstances();
+ int blocks = Math.max(1, (rows + blockRows - 1) / blockRows);
+ int workers = Math.min(Math.max(1, availableProcessorsSupplier.getAsInt()), blocks);
+ if (workers == 1 || columns.length == 0) {
+ ColumnMoments moments = new ColumnMoments(columns.length);
+ accumulateRange(data, columns, positiveClassIndex, 0, rows, moments);
+ return moments;
  }
 
- double featureValue = instance.value(attribute);
- double bugValue = instance.classValue() == positiveClassIndex ? 1.0 : 0.0;
- count++;
- if (Double.compare(featureValue, 0.0) == 0) {
- zeroValueCount++;
+ ExecutorService executor = Executors.newFixedThreadPool(workers);
+ try {
+ List<Future<ColumnMoments>> futures = new ArrayList<>(blocks);
+ for (int block = 0; block < blocks; block++) {
+ int start = block * blockRows;
+ int end = Math.min(rows, start + blockRows);
+ futures.add(executor.submit(() -> {
+ ColumnMoments partial = new ColumnMoments(columns.length);
+ accumulateRange(data, columns, positiveClassIndex, start, end, partial);
+ return partial;
+ }));
  }
- if (featureValue > 0.0) {
- positiveValueCount++;
+ ColumnMoments moments = new ColumnMoments(columns.length);
+ for (Future<ColumnMoments> future : futures) {
+ moments.merge(future.get());
+ }
+ return moments;
+ } catch (InterruptedException e) {
+ Thread.currentThread().interrupt();
+ throw new IllegalStateException("Interrupted while computing feature correlations", e);
+ } catch (ExecutionException e) {
+ throw new IllegalStateException("Failed to compute feature correlations", e.getCause());
+ } finally {
+ executor.shutdownNow();
  }
-
- sumX += featureValue;
- sumY += bugValue;
- sumXX += featureValue * featureValue;
- sumYY += bugValue * bugValue;
- sumXY += featureValue * bugValue;
  }
 
- return new Correlation(
- attribute.name(),
- correlationCalculator.calculate(count, sumX, sumY, sumXX, sumYY, sumXY),
- count,
- zeroValueCount,
- positiveValueCount
- );
+ /**
+ * Feeds one row range into the accumulator, skipping rows with a missing label and missing feature cells.
+ *
+ * @param data dataset to analyze
+ * @param columns attribute index of every column slot
+ * @param positiveClassIndex positive class index in the nominal class attribute
+ * @param start first row, inclusive
+ * @param end last row, exclusive
+ * @param moments accumulator owned by the calling thread
+ */
+ private static void accumulateRange(Instances data,
+ int[] columns,
+ int positiveClassIndex,
+ int start,
+ int end,
+ ColumnMoments moments) {
+ for (int row = start; row < end; row++) {
+ Instance instance = data.instance(row);
+ if (instance.classIsMissing()) {
+ continue;
+ }
+ double bugValue = instance.classValue() == positiveClassIndex ? 1.0 : 0.0;
+ for (int slot = 0; slot < columns.length; slot++) {
+ double featureValue = instance.value(columns[slot]);
+ if (!Double.isNaN(featureValue)) {
+ moments.add(slot, featureValue, bugValue);
+ }
+ }
+ }
  }
 }
@@ -0,0 +1,69 @@
+package com.milestone2.featureAnalysis;
+
+import java.util.List;
+
+/**
+ * Pairwise Pearson and Spearman correlations between the numeric features of one dataset.
+ */
+public class FeatureMatrix {
+ private final List<String> featureNames;
+ private final double[][] pearson;
+ private final double[][] spearman;
+ private final int rowCount;
+
+ public FeatureMatrix(List<String> featureNames, double[][] pearson, double[][] spearman, int rowCount) {
+ this.featureNames = List.copyOf(featureNames);
+ this.pearson = pearson;
+ this.spearman = spearman;
+ this.rowCount = rowCount;
+ }
+
+ /**
+ * Returns the analyzed feature names in attribute order, which is also the matrix index order.
+ *
+ * @return immutable feature names
+ */
+ public List<String> getFeatureNames() {
+ return featureNames;
+ }
+
+ /**
+ * Returns the number of features on each side of the matrix.
+ *
+ * @return feature count
+ */
+ public int size() {
+ return featureNames.size();
+ }
+
+ /**
+ * Returns the Pearson correlation between two features.
+ *
+ * @param first index of the first feature
+ * @param second index of the second feature
+ * @return Pearson correlation, {@code 0.0} when either feature is constant
+ */
+ public double getPearson(int first, int second) {
+ return pearson[first][second];
+ }
+
+ /**
+ * Returns the Spearman rank correlation between two features.
+ *
+ * @param first index of the first feature
+ * @param second index of the second feature
+ * @return Spearman correlation, {@code 0.0} when either feature is constant
+ */
+ public double getSpearman(int first, int second) {
+ return spearman[first][second];
+ }
+
+ /**
+ * Returns the number of rows with every feature present that the correlations were computed on.
+ *
+ * @return complete row count
+ */
+ public int getRowCount() {
+ return rowCount;
+ }
+}
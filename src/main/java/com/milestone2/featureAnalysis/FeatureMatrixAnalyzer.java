@@ -0,0 +1,262 @@
+package com.milestone2.featureAnalysis;
+
+import weka.core.Instance;
+import weka.core.Instances;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * Computes the pairwise Pearson and Spearman correlation matrices of the numeric features.
+ * <p>
+ * Every feature is copied once into a primitive column and standardized to zero mean and unit norm, so a correlation
+ * is a single dot product; Spearman reuses the same kernel on columns rank-transformed once. The upper triangle is cut
+ * into square tiles of feature blocks, and each tile walks the rows in chunks small enough for both blocks to stay in
+ * cache. Tiles are claimed by the calling thread and a fixed pool from a shared counter.
+ * <p>
+ * Rows with a missing value in any feature are left out, so both matrices describe the same complete rows.
+ */
+public class FeatureMatrixAnalyzer {
+ private static final int DEFAULT_BLOCK_COLUMNS = 32;
+ private static final int DEFAULT_CHUNK_ROWS = 1_024;
+
+ private final IntSupplier availableProcessorsSupplier;
+ private final int blockColumns;
+ private final int chunkRows;
+
+ public FeatureMatrixAnalyzer() {
+ this(() -> Runtime.getRuntime().availableProcessors(), DEFAULT_BLOCK_COLUMNS, DEFAULT_CHUNK_ROWS);
+ }
+
+ FeatureMatrixAnalyzer(IntSupplier availableProcessorsSupplier, int blockColumns, int chunkRows) {
+ this.availableProcessorsSupplier = availableProcessorsSupplier;
+ this.blockColumns = blockColumns;
+ this.chunkRows = chunkRows;
+ }
+
+ /**
+ * Computes both correlation matrices over every numeric non-class attribute of the dataset.
+ *
+ * @param data dataset to analyze
+ * @return feature correlation matrices indexed in attribute order
+ */
+ public FeatureMatrix analyze(Instances data) {
+ List<String> names = new ArrayList<>();
+ List<Integer> attributes = new ArrayList<>();
+ for (int index = 0; index < data.numAttributes(); index++) {
+ if (index != data.classIndex() && data.attribute(index).isNumeric()) {
+ names.add(data.attribute(index).name());
+ attributes.add(index);
+ }
+ }
+
+ double[][] values = completeColumns(data, attributes);
+ double[][] ranked = new double[values.length][];
+ for (int column = 0; column < values.length; column++) {
+ ranked[column] = standardize(rank(values[column]));
+ standardize(values[column]);
+ }
+ int rows = values.length == 0 ? 0 : values[0].length;
+ return new FeatureMatrix(names, correlate(values), correlate(ranked), rows);
+ }
+
+ /**
+ * Copies the features into column-major primitive arrays, keeping only rows where every feature is present.
+ *
+ * @param data dataset to read
+ * @param attributes attribute index of every column
+ * @return one array per feature, all of the same length
+ */
+ private static double[][] completeColumns(Instances data, List<Integer> attributes) {
+ int columns = attributes.size();
+ double[][] values = new double[columns][data.numInstances()];
+ int rows = 0;
+ for (int row = 0; row < data.numInstances(); row++) {
+ Instance instance = data.instance(row);
+ boolean complete = true;
+ for (int column = 0; column < columns && complete; column++) {
+ double value = instance.value(attributes.get(column));
+ complete = !Double.isNaN(value);
+ values[column][rows] = value;
+ }
+ if (complete) {
+ rows++;
+ }
+ }
+ for (int column = 0; column < columns; column++) {
+ values[column] = Arrays.copyOf(values[column], rows);
+ }
+ return values;
+ }
+
+ /**
+ * Computes the average ranks of a column, so ties share the mean of the positions they span.
+ *
+ * @param values column values
+ * @return new array of 1-based ranks aligned with {@code values}
+ */
+ static double[] rank(double[] values) {
+ double[] sorted = values.clone();
+ Arrays.sort(sorted);
+ double[] ranks = new double[values.length];
+ for (int index = 0; index < values.length; index++) {
+ int first = bound(sorted, values[index], false);
+ int last = bound(sorted, values[index], true);
+ ranks[index] = (first + last + 1) / 2.0;
+ }
+ return ranks;
+ }
+
+ /**
+ * Binary-searches the first position whose value is greater than, or at least, the key.
+ *
+ * @param sorted ascending values
+ * @param key value to locate
+ * @param strict {@code true} for the first greater value, {@code false} for the first value not less than the key
+ * @return insertion position in {@code [0, sorted.length]}
+ */
+ private static int bound(double[] sorted, double key, boolean strict) {
+ int low = 0;
+ int high = sorted.length;
+ while (low < high) {
+ int middle = (low + high) >>> 1;
+ int comparison = Double.compare(sorted[middle], key);
+ if (comparison < 0 || strict && comparison == 0) {
+ low = middle + 1;
+ } else {
+ high = middle;
+ }
+ }
+ return low;
+ }
+
+ /**
+ * Centers the column and scales it to unit Euclidean norm in place; a constant column becomes all zeros.
+ *
+ * @param column column values
+ * @return the same array, standardized
+ */
+ static double[] standardize(double[] column) {
+ double mean = 0.0;
+ for (int row = 0; row < column.length; row++) {
+ mean += (column[row] - mean) / (row + 1);
+ }
+ double sumSquares = 0.0;
+ for (int row = 0; row < column.length; row++) {
+ column[row] -= mean;
+ sumSquares += column[row] * column[row];
+ }
+ double scale = sumSquares > 0.0 ? 1.0 / Math.sqrt(sumSquares) : 0.0;
+ for (int row = 0; row < column.length; row++) {
+ column[row] *= scale;
+ }
+ return column;
+ }
+
+ /**
+ * Fills the symmetric correlation matrix of standardized columns, spreading the triangle tiles across threads.
+ *
+ * @param columns standardized columns
+ * @return correlation matrix with a unit diagonal for non-constant columns
+ */
+ private double[][] correlate(double[][] columns) {
+ int size = columns.length;
+ double[][] matrix = new double[size][size];
+ int blocks = (size + blockColumns - 1) / blockColumns;
+ int[] tileRows = new int[blocks * (blocks + 1) / 2];
+ int[] tileColumns = new int[tileRows.length];
+ int tile = 0;
+ for (int first = 0; first < blocks; first++) {
+ for (int second = first; second < blocks; second++) {
+ tileRows[tile] = first;
+ tileColumns[tile++] = second;
+ }
+ }
+
+ AtomicInteger next = new AtomicInteger();
+ int workers = Math.min(Math.max(1, availableProcessorsSupplier.getAsInt()), tileRows.length);
+ if (workers <= 1) {
+ drain(columns, matrix, tileRows, tileColumns, next);
+ return matrix;
+ }
+
+ ExecutorService executor = Executors.newFixedThreadPool(workers - 1);
+ try {
+ List<Future<?>> futures = new ArrayList<>();
+ for (int worker = 1; worker < workers; worker++) {
+ futures.add(executor.submit(() -> drain(columns, matrix, tileRows, tileColumns, next)));
+ }
+ drain(columns, matrix, tileRows, tileColumns, next);
+ for (Future<?> future : futures) {
+ future.get();
+ }
+ } catch (InterruptedException e) {
+ Thread.currentThread().interrupt();
+ throw new IllegalStateException("Interrupted while computing the feature correlation matrix", e);
+ } catch (ExecutionException e) {
+ throw new IllegalStateException("Failed to compute the feature correlation matrix", e.getCause());
+ } finally {
+ executor.shutdownNow();
+ }
+ return matrix;
+ }
+
+ /**
+ * Computes tiles claimed from the shared counter until none is left.
+ *
+ * @param columns standardized columns
+ * @param matrix output matrix; every tile writes a disjoint set of cells
+ * @param tileRows first block index of every tile
+ * @param tileColumns second block index of every tile
+ * @param next shared index of the next unclaimed tile
+ */
+ private void drain(double[][] columns, double[][] matrix, int[] tileRows, int[] tileColumns, AtomicInteger next) {
+ for (int tile = next.getAndIncrement(); tile < tileRows.length; tile = next.getAndIncrement()) {
+ computeTile(columns, matrix, tileRows[tile] * blockColumns, tileColumns[tile] * blockColumns);
+ }
+ }
+
+ /**
+ * Accumulates the dot products of one tile chunk by chunk, then mirrors them into the lower triangle.
+ *
+ * @param columns standardized columns
+ * @param matrix output matrix
+ * @param firstStart first column of the row block
+ * @param secondStart first column of the column block
+ */
+ private void computeTile(double[][] columns, double[][] matrix, int firstStart, int secondStart) {
+ int firstEnd = Math.min(columns.length, firstStart + blockColumns);
+ int secondEnd = Math.min(columns.length, secondStart + blockColumns);
+ int rows = columns.length == 0 ? 0 : columns[0].length;
+ double[][] sums = new double[firstEnd - firstStart][secondEnd - secondStart];
+ for (int chunkStart = 0; chunkStart < rows; chunkStart += chunkRows) {
+ int chunkEnd = Math.min(rows, chunkStart + chunkRows);
+ for (int first = firstStart; first < firstEnd; first++) {
+ double[] left = columns[first];
+ double[] tileSums = sums[first - firstStart];
+ for (int second = Math.max(secondStart, first); second < secondEnd; second++) {
+ double[] right = columns[second];
+ double dot = 0.0;
+ for (int row = chunkStart; row < chunkEnd; row++) {
+ dot += left[row] * right[row];
+ }
+ tileSums[second - secondStart] += dot;
+ }
+ }
+ }
+ for (int first = firstStart; first < firstEnd; first++) {
+ for (int second = Math.max(secondStart, first); second < secondEnd; second++) {
+ double correlation = Math.max(-1.0, Math.min(1.0, sums[first - firstStart][second - secondStart]));
+ matrix[first][second] = correlation;
+ matrix[second][first] = correlation;
+ }
+ }
+ }
+}
@@ -0,0 +1,34 @@
+package com.milestone2.featureAnalysis;
+
+import org.jfree.data.xy.DefaultXYZDataset;
+import org.jfree.data.xy.XYZDataset;
+
+/**
+ * Builds the cell dataset used by the feature correlation heatmap.
+ */
+public class FeatureMatrixChartData {
+ /**
+ * Builds the dataset consumed by the heatmap, with Pearson correlations below the diagonal and Spearman correlations
+ * on and above it, both indexed by feature position.
+ *
+ * @param matrix feature correlation matrix
+ * @return XYZ dataset for chart generation
+ */
+ public XYZDataset create(FeatureMatrix matrix) {
+ int size = matrix.size();
+ double[] x = new double[size * size];
+ double[] y = new double[size * size];
+ double[] z = new double[size * size];
+ int cell = 0;
+ for (int row = 0; row < size; row++) {
+ for (int column = 0; column < size; column++) {
+ x[cell] = column;
+ y[cell] = row;
+ z[cell++] = row > column ? matrix.getPearson(row, column) : matrix.getSpearman(row, column);
+ }
+ }
+ DefaultXYZDataset dataset = new DefaultXYZDataset();
+ dataset.addSeries("Correlation", new double[][]{x, y, z});
+ return dataset;
+ }
+}
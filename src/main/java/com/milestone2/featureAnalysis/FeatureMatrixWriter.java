@@ -0,0 +1,81 @@
+package com.milestone2.featureAnalysis;
+
+import com.milestone2.dataset.AnalysisReport;
+import com.milestone2.startupUtility.RunConfig;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes the pairwise feature correlation matrix, one row per unordered feature pair.
+ */
+public class FeatureMatrixWriter implements AutoCloseable {
+ private static final String[] HEADER = {
+ "RunId",
+ "Granularity",
+ "Dataset",
+ "FeatureA",
+ "FeatureB",
+ "Pearson",
+ "Spearman",
+ "AbsPearson",
+ "AbsSpearman",
+ "CompleteRows"
+ };
+
+ private final CSVPrinter printer;
+
+ public FeatureMatrixWriter(Path file) throws IOException {
+ Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+ printer = new CSVPrinter(out, CSVFormat.DEFAULT.builder().setHeader(HEADER).get());
+ }
+
+ /**
+ * Writes the upper triangle of the dataset feature matrix when it was computed.
+ *
+ * @param config immutable analysis configuration
+ * @param report dataset analysis report
+ * @throws IOException when the CSV output cannot be written
+ */
+ public void write(RunConfig config, AnalysisReport report) throws IOException {
+ if (!report.hasWhatIfReport() || !report.getWhatIfReport().hasFeatureMatrix()) {
+ return;
+ }
+
+ FeatureMatrix matrix = report.getWhatIfReport().getFeatureMatrix();
+ for (int first = 0; first < matrix.size(); first++) {
+ for (int second = first + 1; second < matrix.size(); second++) {
+ double pearson = matrix.getPearson(first, second);
+ double spearman = matrix.getSpearman(first, second);
+ printer.printRecord(
+ config.getExecution().getRunId(),
+ config.getSelection().getGranularity(),
+ report.getDatasetName(),
+ matrix.getFeatureNames().get(first),
+ matrix.getFeatureNames().get(second),
+ pearson,
+ spearman,
+ Math.abs(pearson),
+ Math.abs(spearman),
+ matrix.getRowCount()
+ );
+ }
+ }
+ printer.flush();
+ }
+
+ /**
+ * Closes the underlying CSV printer.
+ *
+ * @throws IOException when closing the writer fails
+ */
+ @Override
+ public void close() throws IOException {
+ printer.close();
+ }
+}
@@ -0,0 +1,42 @@
+package com.milestone2.flightRecorder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Load of one dataset file.
+ */
+@Name("com.milestone2.DatasetLoad")
+@Label("Dataset Load")
+@Category({"Milestone2", "Dataset"})
+@Description("Parsing of one CSV or ARFF dataset")
+public class DatasetLoadEvent extends Event {
+ @Label("Dataset")
+ String dataset;
+
+ @Label("Instances")
+ int instances;
+
+ @Label("Attributes")
+ int attributes;
+
+ /**
+ * Fills the event and commits it, when the event is recorded.
+ *
+ * @param dataset dataset file name
+ * @param instances loaded rows
+ * @param attributes loaded attributes, class included
+ */
+ public void commit(String dataset, int instances, int attributes) {
+ if (!shouldCommit()) {
+ return;
+ }
+ this.dataset = dataset;
+ this.instances = instances;
+ this.attributes = attributes;
+ commit();
+ }
+}
@@ -0,0 +1,71 @@
+package com.milestone2.flightRecorder;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+/**
+ * JDK Flight Recorder recording of one analysis run, written to a file when closed.
+ * <p>
+ * The recording uses the JDK {@code profile} settings, so method samples can be read as flame graphs next to the
+ * {@code com.milestone2.*} events. Without a recording the events are never committed and cost nothing more than the
+ * {@link jdk.jfr.Event#shouldCommit()} checks.
+ */
+public final class FlightRecording implements AutoCloseable {
+ private static final Logger log = LoggerFactory.getLogger(FlightRecording.class);
+ private static final String SETTINGS = "profile";
+
+ private final Recording recording;
+ private final Path file;
+
+ private FlightRecording(Recording recording, Path file) {
+ this.recording = recording;
+ this.file = file;
+ }
+
+ /**
+ * Starts a recording that is written to the file when closed.
+ *
+ * @param file destination of the recording
+ * @return started recording
+ * @throws IOException when the settings cannot be read or the destination cannot be used
+ */
+ public static FlightRecording start(Path file) throws IOException {
+ Configuration settings;
+ try {
+ settings = Configuration.getConfiguration(SETTINGS);
+ } catch (ParseException e) {
+ throw new IOException("Cannot read the '" + SETTINGS + "' flight recorder settings", e);
+ }
+ Recording recording = new Recording(settings);
+ try {
+ recording.setName("milestone2");
+ recording.setToDisk(true);
+ recording.setDestination(file);
+ recording.start();
+ } catch (IOException | RuntimeException e) {
+ recording.close();
+ throw e;
+ }
+ log.info("Flight recording started, writing to '{}'", file);
+ return new FlightRecording(recording, file);
+ }
+
+ /**
+ * Stops the recording, which writes it to its file, and releases its resources.
+ */
+ @Override
+ public void close() {
+ try {
+ recording.stop();
+ log.info("Flight recording written to '{}'", file);
+ } finally {
+ recording.close();
+ }
+ }
+}
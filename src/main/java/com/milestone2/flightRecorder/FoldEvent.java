@@ -0,0 +1,29 @@
+package com.milestone2.flightRecorder;
+
+import com.milestone2.classifier.Definition;
+import com.milestone2.foldMetadata.FoldContext;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Evaluation of one fold, from the creation of its classifier to its metrics. Its start and end mark the start and
+ * end of the fold.
+ */
+@Name("com.milestone2.Fold")
+@Label("Fold")
+@Description("Evaluation of one validation split by one classifier")
+public class FoldEvent extends FoldPhaseEvent {
+ @Label("Training Instances")
+ int trainingInstances;
+
+ @Label("Test Instances")
+ int testInstances;
+
+ @Override
+ public void commit(Definition definition, FoldContext context) {
+ trainingInstances = context.getTrainingInstances();
+ testInstances = context.getTestInstances();
+ super.commit(definition, context);
+ }
+}
@@ -0,0 +1,53 @@
+package com.milestone2.flightRecorder;
+
+import com.milestone2.classifier.Definition;
+import com.milestone2.foldMetadata.FoldContext;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base of the events that time one phase of one fold, labelled with the classifier and the split.
+ * <p>
+ * Callers begin and end the event around the phase and then call {@link #commit(Definition, FoldContext)}, which
+ * fills the labels only when the event is being recorded.
+ */
+@Category({"Milestone2", "Fold"})
+public abstract class FoldPhaseEvent extends Event {
+ @Label("Classifier Id")
+ String classifierId;
+
+ @Label("Classifier")
+ String classifier;
+
+ @Label("Run")
+ int run;
+
+ @Label("Fold")
+ int fold;
+
+ @Label("Training Window")
+ String trainingWindow;
+
+ @Label("Test Window")
+ String testWindow;
+
+ /**
+ * Labels the event with the classifier and the split and commits it, when the event is recorded.
+ *
+ * @param definition evaluated classifier
+ * @param context evaluated split
+ */
+ public void commit(Definition definition, FoldContext context) {
+ if (!shouldCommit()) {
+ return;
+ }
+ classifierId = definition.getId();
+ classifier = definition.getDisplayName();
+ run = context.getRunIndex();
+ fold = context.getFoldIndex();
+ trainingWindow = context.getTrainingWindowLabel();
+ testWindow = context.getTestWindowLabel();
+ commit();
+ }
+}
@@ -0,0 +1,15 @@
+package com.milestone2.flightRecorder;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Fit of the preprocessing pipeline and its classifier on the training split of one fold. The nested
+ * {@link PreprocessingFitEvent} shows the share taken by the filters.
+ */
+@Name("com.milestone2.ModelTraining")
+@Label("Model Training")
+@Description("Fit of the preprocessing pipeline and the classifier on one training split")
+public class ModelTrainingEvent extends FoldPhaseEvent {
+}
@@ -0,0 +1,37 @@
+package com.milestone2.flightRecorder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Publication of one dataset report to the output writers and the chart scheduler.
+ */
+@Name("com.milestone2.OutputPublish")
+@Label("Output Publish")
+@Category({"Milestone2", "Dataset"})
+@Description("Rows of one dataset report handed to the output writers")
+public class OutputPublishEvent extends Event {
+ @Label("Dataset")
+ String dataset;
+
+ @Label("Classifiers")
+ int classifiers;
+
+ /**
+ * Fills the event and commits it, when the event is recorded.
+ *
+ * @param dataset published dataset
+ * @param classifiers classifier reports published
+ */
+ public void commit(String dataset, int classifiers) {
+ if (!shouldCommit()) {
+ return;
+ }
+ this.dataset = dataset;
+ this.classifiers = classifiers;
+ commit();
+ }
+}
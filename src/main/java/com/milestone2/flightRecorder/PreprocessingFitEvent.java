@@ -0,0 +1,48 @@
+package com.milestone2.flightRecorder;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Fit of the preprocessing filters of one pipeline on its training rows. During cross-validation it is nested in the
+ * {@link ModelTrainingEvent} of the fold on the same thread; it is also emitted when the what-if models are trained.
+ */
+@Name("com.milestone2.PreprocessingFit")
+@Label("Preprocessing Fit")
+@Category({"Milestone2", "Fold"})
+@Description("Fit of the balancing and feature selection filters on a training set")
+public class PreprocessingFitEvent extends Event {
+ @Label("Classifier Class")
+ String classifierClass;
+
+ @Label("Input Rows")
+ int inputRows;
+
+ @Label("Filtered Rows")
+ int filteredRows;
+
+ @Label("Filtered Weight")
+ double filteredWeight;
+
+ /**
+ * Fills the event and commits it, when the event is recorded.
+ *
+ * @param classifierClass class of the classifier the filters feed
+ * @param inputRows rows before filtering
+ * @param filteredRows rows after filtering
+ * @param filteredWeight instance weight after filtering
+ */
+ public void commit(String classifierClass, int inputRows, int filteredRows, double filteredWeight) {
+ if (!shouldCommit()) {
+ return;
+ }
+ this.classifierClass = classifierClass;
+ this.inputRows = inputRows;
+ this.filteredRows = filteredRows;
+ this.filteredWeight = filteredWeight;
+ commit();
+ }
+}
@@ -0,0 +1,14 @@
+package com.milestone2.flightRecorder;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Scoring of the test split of one fold by the trained pipeline.
+ */
+@Name("com.milestone2.Scoring")
+@Label("Scoring")
+@Description("Class distributions computed for one test split")
+public class ScoringEvent extends FoldPhaseEvent {
+}
@@ -0,0 +1,52 @@
+package com.milestone2.flightRecorder;
+
+import com.milestone2.classifier.Definition;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Scoring of one what-if scenario by the selected classifier.
+ */
+@Name("com.milestone2.WhatIfScenario")
+@Label("What-If Scenario")
+@Category({"Milestone2", "What-If"})
+@Description("Predictions computed for one what-if scenario view")
+public class WhatIfScenarioEvent extends Event {
+ @Label("Classifier Id")
+ String classifierId;
+
+ @Label("Classifier")
+ String classifier;
+
+ @Label("Feature")
+ String feature;
+
+ @Label("Scenario")
+ String scenario;
+
+ @Label("Instances")
+ int instances;
+
+ /**
+ * Fills the event and commits it, when the event is recorded.
+ *
+ * @param definition scoring classifier
+ * @param feature what-if feature
+ * @param scenario scenario name
+ * @param instances scored rows
+ */
+ public void commit(Definition definition, String feature, String scenario, int instances) {
+ if (!shouldCommit()) {
+ return;
+ }
+ this.classifierId = definition.getId();
+ this.classifier = definition.getDisplayName();
+ this.feature = feature;
+ this.scenario = scenario;
+ this.instances = instances;
+ commit();
+ }
+}
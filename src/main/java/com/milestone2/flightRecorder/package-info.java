@@ -0,0 +1,4 @@
+/**
+ * JDK Flight Recorder events for the analysis lifecycle and the recording started by {@code --jfr}.
+ */
+package com.milestone2.flightRecorder;
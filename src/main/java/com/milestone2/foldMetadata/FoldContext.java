@@ -10,6 +10,7 @@ public class FoldContext {
  private final String testWindowLabel;
  private final int trainingInstances;
  private final int testInstances;
+ private final int[] testRowIds;
 
  public FoldContext(int runIndex,
  int foldIndex,
@@ -17,12 +18,34 @@ public class FoldContext {
  String testWindowLabel,
  int trainingInstances,
  int testInstances) {
+ this(runIndex, foldIndex, trainingWindowLabel, testWindowLabel, trainingInstances, testInstances, null);
+ }
+
+ private FoldContext(int runIndex,
+ int foldIndex,
+ String trainingWindowLabel,
+ String testWindowLabel,
+ int trainingInstances,
+ int testInstances,
+ int[] testRowIds) {
  this.runIndex = runIndex;
  this.foldIndex = foldIndex;
  this.trainingWindowLabel = trainingWindowLabel;
  this.testWindowLabel = testWindowLabel;
  this.trainingInstances = trainingInstances;
  this.testInstances = testInstances;
+ this.testRowIds = testRowIds;
+ }
+
+ /**
+ * Returns a copy of this context that also records the original dataset row of every test instance.
+ *
+ * @param rowIds zero-based dataset row indexes aligned with the test split
+ * @return context carrying the test row ids
+ */
+ public FoldContext withTestRowIds(int[] rowIds) {
+ return new FoldContext(runIndex, foldIndex, trainingWindowLabel, testWindowLabel,
+ trainingInstances, testInstances, rowIds);
  }
 
  /**
@@ -124,4 +147,13 @@ public class FoldContext {
  public int getTestInstances() {
  return testInstances;
  }
+ /**
+ * Returns the original dataset row of the requested test instance.
+ *
+ * @param testIndex position inside the test split
+ * @return dataset row id, or the test position itself when row ids were not recorded
+ */
+ public int getTestRowId(int testIndex) {
+ return testRowIds == null ? testIndex : testRowIds[testIndex];
+ }
 }
@@ -2,19 +2,22 @@ package com.milestone2.foldMetadata;
 
 import com.milestone2.classifier.EvaluationReport;
 import com.milestone2.dataset.AnalysisReport;
+import com.milestone2.metric.MetricAccumulator;
 import com.milestone2.metric.MetricDefinition;
 import org.jfree.data.statistics.BoxAndWhiskerCategoryDataset;
+import org.jfree.data.statistics.BoxAndWhiskerItem;
 import org.jfree.data.statistics.DefaultBoxAndWhiskerCategoryDataset;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Builds the per-fold distribution dataset used by the box plot chart.
  */
 public class FoldDistributionChart {
  /**
- * Builds the box-plot dataset containing normalized per-fold metric values for every classifier.
+ * Builds the box-plot dataset from the streamed fold-metric summary of every classifier: the boxes come from the
+ * fold quartiles, exact for the usual fold counts, and the whiskers span the observed minimum and maximum,
+ * normalized for charting.
  *
  * @param report dataset analysis report
  * @return box-and-whisker dataset for chart generation
@@ -23,18 +26,27 @@ public class FoldDistributionChart {
  DefaultBoxAndWhiskerCategoryDataset dataset = new DefaultBoxAndWhiskerCategoryDataset();
  for (EvaluationReport classifierReport : report.getClassifierReports()) {
  String classifier = classifierReport.getDefinition().getDisplayName();
+ MetricAccumulator foldMetrics = classifierReport.getFoldMetrics();
  for (MetricDefinition metric : MetricDefinition.values()) {
- List<Double> values = classifierReport.getFoldResults().stream()
- .map(result -> metric.extract(result.getMetrics()))
- .filter(value -> !Double.isNaN(value))
- .map(metric::normalizeForChart)
- .collect(Collectors.toList());
- if (!values.isEmpty()) {
- dataset.add(values, classifier, metric.getDisplayName());
+ if (!metric.isCharted() || foldMetrics.count(metric) == 0) {
+ continue;
  }
+ double min = metric.normalizeForChart(foldMetrics.min(metric));
+ double max = metric.normalizeForChart(foldMetrics.max(metric));
+ BoxAndWhiskerItem item = new BoxAndWhiskerItem(
+ metric.normalizeForChart(foldMetrics.mean(metric)),
+ metric.normalizeForChart(foldMetrics.median(metric)),
+ metric.normalizeForChart(foldMetrics.lowerQuartile(metric)),
+ metric.normalizeForChart(foldMetrics.upperQuartile(metric)),
+ min,
+ max,
+ min,
+ max,
+ List.of()
+ );
+ dataset.add(item, classifier, metric.getDisplayName());
  }
  }
  return dataset;
  }
 }
-
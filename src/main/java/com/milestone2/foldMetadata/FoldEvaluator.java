@@ -1,34 +1,56 @@
 package com.milestone2.foldMetadata;
 
+import com.milestone2.evaluation.MeasuredFilteredClassifier;
+import com.milestone2.flightRecorder.FoldEvent;
+import com.milestone2.flightRecorder.ModelTrainingEvent;
+import com.milestone2.flightRecorder.ScoringEvent;
+import com.milestone2.evaluation.PipelineScorer;
 import com.milestone2.evaluation.PositiveClassResolver;
 import com.milestone2.evaluation.Preprocessor;
-import com.milestone2.metric.NPofB20Calculator;
+import com.milestone2.evaluation.ResourceScope;
+import com.milestone2.metric.MetricEngine;
+import com.milestone2.metric.PredictionBuffer;
 import com.milestone2.startupUtility.RunConfig;
 import com.milestone2.startupUtility.ExecutionSettings;
 import com.milestone2.classifier.Definition;
 import com.milestone2.classifier.ClassifierFactory;
 import com.milestone2.metric.Metrics;
 import weka.classifiers.Classifier;
-import weka.classifiers.Evaluation;
-import weka.classifiers.meta.FilteredClassifier;
-import weka.core.Instance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import weka.core.Instances;
 
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Evaluates one train/test fold and computes all metrics for it.
+ * <p>
+ * Every phase is timed with {@link System#nanoTime()}: creating the classifier and its pipeline, fitting the
+ * preprocessing filters, training the base classifier, scoring the test split and computing the metrics. Forwarding
+ * the predictions to the sink is not part of any phase. The fold, its training and its scoring are also emitted as
+ * flight recorder events labelled with the classifier and the split.
+ * <p>
+ * Training and scoring additionally run inside a {@link ResourceScope}, which meters their thread CPU time and heap
+ * allocation, including the scoring chunks handed to helper threads.
  */
 public class FoldEvaluator {
+ private static final Logger log = LoggerFactory.getLogger(FoldEvaluator.class);
+
  private final PositiveClassResolver positiveClassResolver;
- private final NPofB20Calculator npOfB20Calculator;
+ private final MetricEngine metricEngine;
+ private final PipelineScorer pipelineScorer;
 
  public FoldEvaluator() {
- this(new PositiveClassResolver(), new NPofB20Calculator());
+ this(new PositiveClassResolver(), new MetricEngine(), new PipelineScorer());
  }
 
  FoldEvaluator(PositiveClassResolver positiveClassResolver,
- NPofB20Calculator npOfB20Calculator) {
+ MetricEngine metricEngine,
+ PipelineScorer pipelineScorer) {
  this.positiveClassResolver = positiveClassResolver;
- this.npOfB20Calculator = npOfB20Calculator;
+ this.metricEngine = metricEngine;
+ this.pipelineScorer = pipelineScorer;
  }
 
  /**
@@ -49,37 +71,103 @@ public class FoldEvaluator {
  Instances train,
  Instances test,
  FoldContext context) throws Exception {
+ return evaluate(definition, config, preprocessor, train, test, context, FoldPredictionSink.NONE);
+ }
+
+ /**
+ * Trains the classifier on one split, evaluates it on the test partition, forwards the raw predictions to the
+ * sink and computes the full metric bundle.
+ *
+ * @param definition classifier definition to evaluate
+ * @param config immutable analysis configuration
+ * @param preprocessor preprocessing pipeline builder
+ * @param train training subset
+ * @param test test subset
+ * @param context split metadata
+ * @param predictionSink receiver of the per-instance predictions
+ * @return per-fold evaluation result
+ * @throws Exception when classifier training, prediction or persistence fails
+ */
+ public FoldResult evaluate(Definition definition,
+ RunConfig config,
+ Preprocessor preprocessor,
+ Instances train,
+ Instances test,
+ FoldContext context,
+ FoldPredictionSink predictionSink) throws Exception {
  ExecutionSettings execution = config.getExecution();
+ FoldEvent foldEvent = new FoldEvent();
+ foldEvent.begin();
+ long creationStart = System.nanoTime();
  Classifier baseClassifier = ClassifierFactory.createClassifier(
  definition,
  execution.getSeed() + (context.getRunIndex() * 1_000L) + context.getFoldIndex()
  );
- FilteredClassifier pipeline = preprocessor.buildPipeline(baseClassifier, config);
+ MeasuredFilteredClassifier pipeline = preprocessor.buildPipeline(baseClassifier, config);
+ ModelTrainingEvent trainingEvent = new ModelTrainingEvent();
+ trainingEvent.begin();
+ long fitStart = System.nanoTime();
+ ResourceScope trainingResources = ResourceScope.open();
+ try {
  pipeline.buildClassifier(train);
-
- Evaluation evaluation = new Evaluation(train);
- for (Instance instance : test) {
- evaluation.evaluateModelOnceAndRecordPrediction(
- pipeline.distributionForInstance(instance),
- instance
- );
+ } finally {
+ trainingResources.close();
  }
+ long fitNanos = System.nanoTime() - fitStart;
+ trainingEvent.end();
+ trainingEvent.commit(definition, context);
+ log.info("{} run {} fold {}: balancing={} trainRows={} effectiveRows={} effectiveWeight={} fit={} ms",
+ definition.getDisplayName(),
+ context.getRunIndex(),
+ context.getFoldIndex(),
+ execution.getBalancingStrategy().getCliValue(),
+ train.numInstances(),
+ pipeline.getFilteredTrainingRows(),
+ String.format(Locale.ROOT, "%.1f", pipeline.getFilteredTrainingWeight()),
+ TimeUnit.NANOSECONDS.toMillis(fitNanos));
 
  int positiveClassIndex = positiveClassResolver.resolvePositiveClassIndex(train.classAttribute(), config);
- Metrics metrics = new Metrics(
- (1 - evaluation.errorRate()) * 100.0,
- evaluation.precision(positiveClassIndex),
- evaluation.recall(positiveClassIndex),
- evaluation.fMeasure(positiveClassIndex),
- evaluation.kappa(),
- evaluation.areaUnderROC(positiveClassIndex),
- npOfB20Calculator.compute(
- evaluation,
+ ScoringEvent scoringEvent = new ScoringEvent();
+ scoringEvent.begin();
+ long predictionStart = System.nanoTime();
+ double[][] distributions;
+ ResourceScope predictionResources = ResourceScope.open();
+ try {
+ distributions = pipelineScorer.score(pipeline, test);
+ } finally {
+ predictionResources.close();
+ }
+ long predictionNanos = System.nanoTime() - predictionStart;
+ scoringEvent.end();
+ scoringEvent.commit(definition, context);
+ predictionSink.accept(context, test, distributions);
+ long metricStart = System.nanoTime();
+ PredictionBuffer predictions = PredictionBuffer.forTestSet(
  test,
  positiveClassIndex,
  config.getSelection().getSizeAttributeName()
- )
  );
+ for (int i = 0; i < distributions.length; i++) {
+ predictions.record(distributions[i], test.instance(i));
+ }
+ Metrics metrics = metricEngine.compute(predictions, config.getReporting().getEffortBudgets());
+ long metricNanos = System.nanoTime() - metricStart;
+ long filterNanos = Math.max(0L, pipeline.getFilterFittingNanos());
+ FoldTimings timings = FoldTimings.of(
+ fitStart - creationStart,
+ filterNanos,
+ Math.max(0L, fitNanos - filterNanos),
+ predictionNanos,
+ metricNanos
+ );
+ FoldResources resources = FoldResources.of(
+ trainingResources.getCpuNanos(),
+ trainingResources.getAllocatedBytes(),
+ predictionResources.getCpuNanos(),
+ predictionResources.getAllocatedBytes()
+ );
+ foldEvent.end();
+ foldEvent.commit(definition, context);
 
  return new FoldResult(
  context.getRunIndex(),
@@ -88,7 +176,9 @@ public class FoldEvaluator {
  context.getTestWindowLabel(),
  context.getTrainingInstances(),
  context.getTestInstances(),
- metrics
+ metrics,
+ timings,
+ resources
  );
  }
 }
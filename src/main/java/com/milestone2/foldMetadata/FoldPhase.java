@@ -0,0 +1,27 @@
+package com.milestone2.foldMetadata;
+
+/**
+ * Timed phases of one fold evaluation, in execution order.
+ */
+public enum FoldPhase {
+ CLASSIFIER_CREATION("CreateNanos"),
+ FILTER_FITTING("FilterFitNanos"),
+ MODEL_TRAINING("TrainNanos"),
+ PREDICTION("PredictNanos"),
+ METRIC_COMPUTATION("MetricsNanos");
+
+ private final String columnName;
+
+ FoldPhase(String columnName) {
+ this.columnName = columnName;
+ }
+
+ /**
+ * Returns the name of the per-fold export column holding the phase duration.
+ *
+ * @return column name
+ */
+ public String getColumnName() {
+ return columnName;
+ }
+}
@@ -0,0 +1,40 @@
+package com.milestone2.foldMetadata;
+
+import weka.core.Instances;
+
+import java.io.IOException;
+
+/**
+ * Receives the per-instance predictions of every evaluated fold.
+ */
+@FunctionalInterface
+public interface FoldPredictionSink {
+ /**
+ * Sink that discards every prediction.
+ */
+ FoldPredictionSink NONE = (context, test, distributions) -> {
+ };
+
+ /**
+ * Accepts the class distributions predicted for one test split.
+ *
+ * @param context split metadata, including the dataset row ids of the test instances
+ * @param test test subset aligned with the distributions
+ * @param distributions predicted class distributions in test order
+ * @throws IOException when the predictions cannot be persisted
+ */
+ void accept(FoldContext context, Instances test, double[][] distributions) throws IOException;
+
+ /**
+ * Returns a sink that forwards every fold to this sink and then to the next one.
+ *
+ * @param next sink invoked after this one
+ * @return combined sink
+ */
+ default FoldPredictionSink andThen(FoldPredictionSink next) {
+ return (context, test, distributions) -> {
+ accept(context, test, distributions);
+ next.accept(context, test, distributions);
+ };
+ }
+}
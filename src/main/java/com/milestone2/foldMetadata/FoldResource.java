@@ -0,0 +1,26 @@
+package com.milestone2.foldMetadata;
+
+/**
+ * Thread resources metered around the training and scoring phases of one fold evaluation.
+ */
+public enum FoldResource {
+ TRAINING_CPU("TrainCpuNanos"),
+ TRAINING_ALLOCATION("TrainAllocatedBytes"),
+ PREDICTION_CPU("PredictCpuNanos"),
+ PREDICTION_ALLOCATION("PredictAllocatedBytes");
+
+ private final String columnName;
+
+ FoldResource(String columnName) {
+ this.columnName = columnName;
+ }
+
+ /**
+ * Returns the name of the per-fold export column holding the metered amount.
+ *
+ * @return column name
+ */
+ public String getColumnName() {
+ return columnName;
+ }
+}
@@ -0,0 +1,82 @@
+package com.milestone2.foldMetadata;
+
+/**
+ * Thread CPU time, in nanoseconds, and heap bytes allocated by the training and scoring phases of one fold.
+ * <p>
+ * An amount is {@code -1} when the JVM cannot meter it. Folds rebuilt from stored predictions or stacked from other
+ * classifiers do not train anything and carry {@link #NONE}.
+ */
+public final class FoldResources {
+ /**
+ * Resources of a fold whose phases were not metered.
+ */
+ public static final FoldResources NONE = new FoldResources(null);
+
+ private static final FoldResource[] RESOURCES = FoldResource.values();
+
+ private final long[] amounts;
+
+ private FoldResources(long[] amounts) {
+ this.amounts = amounts;
+ }
+
+ /**
+ * Creates the resources of one metered fold.
+ *
+ * @param trainingCpuNanos CPU time spent fitting the pipeline on the training split
+ * @param trainingAllocatedBytes bytes allocated while fitting the pipeline
+ * @param predictionCpuNanos CPU time spent scoring the test split, helper threads included
+ * @param predictionAllocatedBytes bytes allocated while scoring, helper threads included
+ * @return fold resources
+ */
+ public static FoldResources of(long trainingCpuNanos,
+ long trainingAllocatedBytes,
+ long predictionCpuNanos,
+ long predictionAllocatedBytes) {
+ return new FoldResources(new long[]{
+ trainingCpuNanos,
+ trainingAllocatedBytes,
+ predictionCpuNanos,
+ predictionAllocatedBytes
+ });
+ }
+
+ /**
+ * Indicates whether the phases of the fold were metered.
+ *
+ * @return {@code false} for {@link #NONE}
+ */
+ public boolean isMeasured() {
+ return amounts != null;
+ }
+
+ /**
+ * Returns one metered amount.
+ *
+ * @param resource metered resource
+ * @return amount, or {@code -1} when the fold was not metered or the JVM cannot meter the resource
+ */
+ public long get(FoldResource resource) {
+ return amounts == null ? -1L : amounts[resource.ordinal()];
+ }
+
+ /**
+ * Returns a debug-friendly textual representation of the metered amounts.
+ *
+ * @return string representation of the resources
+ */
+ @Override
+ public String toString() {
+ if (amounts == null) {
+ return "FoldResources{}";
+ }
+ StringBuilder text = new StringBuilder("FoldResources{");
+ for (FoldResource resource : RESOURCES) {
+ if (resource.ordinal() > 0) {
+ text.append(", ");
+ }
+ text.append(resource.getColumnName()).append('=').append(amounts[resource.ordinal()]);
+ }
+ return text.append('}').toString();
+ }
+}
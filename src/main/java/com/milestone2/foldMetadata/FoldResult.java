@@ -15,6 +15,8 @@ public class FoldResult {
  private final int trainingInstances;
  private final int testInstances;
  private final Metrics metrics;
+ private final FoldTimings timings;
+ private final FoldResources resources;
 
  public FoldResult(int run,
  int fold,
@@ -29,6 +31,31 @@ public class FoldResult {
  int trainingInstances,
  int testInstances,
  Metrics metrics) {
+ this(run, fold, trainingWindowLabel, testWindowLabel, trainingInstances, testInstances, metrics,
+ FoldTimings.NONE);
+ }
+
+ public FoldResult(int run,
+ int fold,
+ String trainingWindowLabel,
+ String testWindowLabel,
+ int trainingInstances,
+ int testInstances,
+ Metrics metrics,
+ FoldTimings timings) {
+ this(run, fold, trainingWindowLabel, testWindowLabel, trainingInstances, testInstances, metrics, timings,
+ FoldResources.NONE);
+ }
+
+ public FoldResult(int run,
+ int fold,
+ String trainingWindowLabel,
+ String testWindowLabel,
+ int trainingInstances,
+ int testInstances,
+ Metrics metrics,
+ FoldTimings timings,
+ FoldResources resources) {
  this.run = run;
  this.fold = fold;
  this.trainingWindowLabel = trainingWindowLabel;
@@ -36,6 +63,8 @@ public class FoldResult {
  this.trainingInstances = trainingInstances;
  this.testInstances = testInstances;
  this.metrics = metrics;
+ this.timings = timings;
+ this.resources = resources;
  }
 
  /**
@@ -101,6 +130,24 @@ public class FoldResult {
  return metrics;
  }
 
+ /**
+ * Returns the duration of every evaluation phase of this split.
+ *
+ * @return phase timings, or {@link FoldTimings#NONE} when the fold was not trained in this run
+ */
+ public FoldTimings getTimings() {
+ return timings;
+ }
+
+ /**
+ * Returns the thread CPU time and heap allocation of the training and scoring phases of this split.
+ *
+ * @return metered resources, or {@link FoldResources#NONE} when the fold was not trained in this run
+ */
+ public FoldResources getResources() {
+ return resources;
+ }
+
  /**
  * Returns a debug-friendly textual representation of the split result.
  *
@@ -116,11 +163,14 @@ public class FoldResult {
  ", trainingInstances=" + trainingInstances +
  ", testInstances=" + testInstances +
  ", metrics=" + metrics +
+ ", timings=" + timings +
+ ", resources=" + resources +
  '}';
  }
 
  /**
- * Compares this fold result with another object using every stored field.
+ * Compares this fold result with another object using every stored field except the timings and resources, which
+ * are measurements of the evaluation rather than part of its outcome.
  *
  * @param o object to compare with
  * @return {@code true} when both objects represent the same fold result
@@ -18,4 +18,13 @@ public interface FoldResultProducer {
  * @throws Exception when Weka classifier training or evaluation fails
  */
  FoldResult produce(Instances train, Instances test, FoldContext context) throws Exception;
+
+ /**
+ * Announces folds that the executor has prepared and will hand to {@link #produce} next.
+ *
+ * @param folds number of folds scheduled
+ */
+ default void scheduled(int folds) {
+ // Nothing to do unless the producer tracks the queue.
+ }
 }
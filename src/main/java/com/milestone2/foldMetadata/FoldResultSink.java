@@ -0,0 +1,23 @@
+package com.milestone2.foldMetadata;
+
+import java.io.IOException;
+
+/**
+ * Receives every fold result as soon as its split has been evaluated.
+ */
+@FunctionalInterface
+public interface FoldResultSink {
+ /**
+ * Sink that discards every fold result.
+ */
+ FoldResultSink NONE = result -> {
+ };
+
+ /**
+ * Accepts the result of one evaluated split. May be called concurrently by cross-validation workers.
+ *
+ * @param result fold result
+ * @throws IOException when the result cannot be persisted
+ */
+ void accept(FoldResult result) throws IOException;
+}
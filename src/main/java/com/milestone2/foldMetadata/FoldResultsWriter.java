@@ -1,55 +1,158 @@
 package com.milestone2.foldMetadata;
 
+import com.milestone2.columnarExport.ColumnSpec;
+import com.milestone2.columnarExport.ColumnType;
+import com.milestone2.columnarExport.ColumnarWriter;
 import com.milestone2.startupUtility.RunConfig;
+import com.milestone2.startupUtility.WriterCloseSupport;
 import com.milestone2.classifier.Definition;
+import com.milestone2.metric.EffortBudgets;
 import com.milestone2.metric.MetricDefinition;
 import com.milestone2.metric.Metrics;
+import com.milestone2.csvExporter.AsyncCsvWriter;
 import com.milestone2.csvExporter.CsvSupport;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVPrinter;
 
 import java.io.IOException;
-import java.io.Writer;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
  * Writes per-fold metrics with execution metadata.
+ * <p>
+ * Rows are handed to an {@link AsyncCsvWriter}, so fold workers never wait on the disk, and the execution-metadata
+ * prefix of a sink is encoded once per classifier and dataset rather than once per fold. The same rows can also, or
+ * instead, go to a compressed {@link ColumnarWriter} table, whose dictionaries absorb the repeated metadata.
+ * <p>
+ * The metric columns are followed by the NPofB and ACC columns of the extra {@link EffortBudgets}, then by one
+ * nanosecond duration per {@link FoldPhase} and one amount per
+ * {@link FoldResource}, left empty for folds that were not trained in this run or resources the JVM cannot meter.
  */
 public class FoldResultsWriter implements AutoCloseable {
- private static final String[] HEADER = buildHeader();
+ private static final String CLOSE_MESSAGE = "Failed while closing fold exports";
 
- private final CSVPrinter printer;
+ private final EffortBudgets effortBudgets;
+ private final AsyncCsvWriter writer;
+ private final ColumnarWriter columnarWriter;
 
- public FoldResultsWriter(Path file) throws IOException {
- Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
- printer = new CSVPrinter(out, CSVFormat.DEFAULT.builder().setHeader(HEADER).get());
+ /**
+ * Opens the per-fold exports.
+ *
+ * @param csvFile CSV export, or {@code null} when the CSV is not written
+ * @param columnarFile columnar export, or {@code null} when the columnar table is not written
+ * @param effortBudgets extra effort budgets that get their own NPofB and ACC columns
+ * @throws IOException when an export cannot be created
+ */
+ public FoldResultsWriter(Path csvFile, Path columnarFile, EffortBudgets effortBudgets) throws IOException {
+ this.effortBudgets = effortBudgets;
+ writer = csvFile == null ? null : new AsyncCsvWriter(csvFile, buildHeader());
+ columnarWriter = columnarFile == null ? null : new ColumnarWriter(columnarFile, buildColumns());
  }
 
  /**
- * Writes one CSV row per evaluated fold enriched with execution and classifier metadata.
+ * Enqueues the row of one evaluated fold enriched with execution and classifier metadata, so results reach the
+ * disk as folds complete. Safe to call from concurrent fold workers.
  *
  * @param config immutable analysis configuration
  * @param datasetName analyzed dataset name
  * @param classAttribute class attribute name
  * @param positiveClass positive class label
  * @param definition classifier definition
- * @param foldResults fold results to serialize
- * @throws IOException when the CSV output cannot be written
+ * @param result fold result to serialize
+ * @throws IOException when an export cannot be written
  */
  public void write(RunConfig config,
  String datasetName,
  String classAttribute,
  String positiveClass,
  Definition definition,
- List<FoldResult> foldResults) throws IOException {
- for (FoldResult result : foldResults) {
+ FoldResult result) throws IOException {
+ List<Object> base = baseFields(config, datasetName, classAttribute, positiveClass, definition);
+ emit(encodePrefix(base), base, foldFields(result));
+ }
+
+ /**
+ * Creates a sink that writes the folds of one classifier on one dataset as they complete, reusing one encoded
+ * metadata prefix for all of them.
+ *
+ * @param config immutable analysis configuration
+ * @param datasetName analyzed dataset name
+ * @param classAttribute class attribute name
+ * @param positiveClass positive class label
+ * @param definition classifier definition
+ * @return fold result sink backed by this writer
+ * @throws IOException when the metadata prefix cannot be encoded
+ */
+ public FoldResultSink sinkFor(RunConfig config,
+ String datasetName,
+ String classAttribute,
+ String positiveClass,
+ Definition definition) throws IOException {
+ List<Object> base = baseFields(config, datasetName, classAttribute, positiveClass, definition);
+ String prefix = encodePrefix(base);
+ return result -> emit(prefix, base, foldFields(result));
+ }
+
+ /**
+ * Sends one fold row to every open export.
+ *
+ * @param prefix encoded metadata prefix for the CSV, or {@code null} when the CSV is not written
+ * @param base shared execution-metadata values
+ * @param fold fold-specific values
+ * @throws IOException when an export cannot be written
+ */
+ private void emit(String prefix, List<Object> base, List<Object> fold) throws IOException {
+ if (writer != null) {
+ writer.write(prefix, fold);
+ }
+ if (columnarWriter != null) {
+ List<Object> row = new ArrayList<>(base.size() + fold.size());
+ row.addAll(base);
+ row.addAll(fold);
+ columnarWriter.write(row);
+ }
+ }
+
+ /**
+ * Collects the shared execution-metadata values of one classifier on one dataset.
+ *
+ * @param config immutable analysis configuration
+ * @param datasetName analyzed dataset name
+ * @param classAttribute class attribute name
+ * @param positiveClass positive class label
+ * @param definition classifier definition
+ * @return metadata values
+ */
+ private static List<Object> baseFields(RunConfig config,
+ String datasetName,
+ String classAttribute,
+ String positiveClass,
+ Definition definition) {
+ List<Object> base = new ArrayList<>();
+ CsvSupport.addBaseFields(base, config, datasetName, classAttribute, positiveClass, definition);
+ return base;
+ }
+
+ /**
+ * Encodes the metadata values once as the CSV row prefix.
+ *
+ * @param base metadata values
+ * @return encoded row prefix, or {@code null} when the CSV is not written
+ * @throws IOException when the prefix cannot be encoded
+ */
+ private String encodePrefix(List<Object> base) throws IOException {
+ return writer == null ? null : writer.encodePrefix(base);
+ }
+
+ /**
+ * Collects the fold-specific columns that follow the execution metadata.
+ *
+ * @param result fold result to serialize
+ * @return fold column values
+ */
+ private List<Object> foldFields(FoldResult result) {
  Metrics metrics = result.getMetrics();
  List<Object> row = new ArrayList<>();
- CsvSupport.addBaseFields(row, config, datasetName, classAttribute, positiveClass, definition);
  row.add(result.getRun());
  row.add(result.getFold());
  row.add(result.getTrainingWindowLabel());
@@ -59,9 +162,19 @@ public class FoldResultsWriter implements AutoCloseable {
  for (MetricDefinition metric : MetricDefinition.values()) {
  row.add(metric.extract(metrics));
  }
- printer.printRecord(row);
+ for (int column = 0; column < effortBudgets.size() * 2; column++) {
+ row.add(column < metrics.getEffortBudgetValueCount() ? metrics.getEffortBudgetValue(column) : Double.NaN);
  }
- printer.flush();
+ FoldTimings timings = result.getTimings();
+ for (FoldPhase phase : FoldPhase.values()) {
+ row.add(timings.isMeasured() ? timings.getNanos(phase) : null);
+ }
+ FoldResources resources = result.getResources();
+ for (FoldResource resource : FoldResource.values()) {
+ long amount = resources.get(resource);
+ row.add(amount < 0 ? null : amount);
+ }
+ return row;
  }
 
  /**
@@ -69,7 +182,7 @@ public class FoldResultsWriter implements AutoCloseable {
  *
  * @return CSV header
  */
- private static String[] buildHeader() {
+ private String[] buildHeader() {
  List<String> header = new ArrayList<>();
  CsvSupport.addBaseColumns(header);
  header.add("Run");
@@ -81,16 +194,56 @@ public class FoldResultsWriter implements AutoCloseable {
  for (MetricDefinition metric : MetricDefinition.values()) {
  header.add(metric.getDisplayName());
  }
+ header.addAll(effortBudgets.columnNames());
+ for (FoldPhase phase : FoldPhase.values()) {
+ header.add(phase.getColumnName());
+ }
+ for (FoldResource resource : FoldResource.values()) {
+ header.add(resource.getColumnName());
+ }
  return header.toArray(new String[0]);
  }
 
  /**
- * Closes the underlying CSV printer.
+ * Builds the columnar schema aligned with the CSV header.
  *
- * @throws IOException when closing the writer fails
+ * @return columnar column specifications
+ */
+ private List<ColumnSpec> buildColumns() {
+ List<ColumnSpec> columns = new ArrayList<>();
+ CsvSupport.addBaseColumnSpecs(columns);
+ columns.add(new ColumnSpec("Run", ColumnType.LONG));
+ columns.add(new ColumnSpec("Fold", ColumnType.LONG));
+ columns.add(new ColumnSpec("TrainingWindow", ColumnType.STRING));
+ columns.add(new ColumnSpec("TestWindow", ColumnType.STRING));
+ columns.add(new ColumnSpec("TrainingInstances", ColumnType.LONG));
+ columns.add(new ColumnSpec("TestInstances", ColumnType.LONG));
+ for (MetricDefinition metric : MetricDefinition.values()) {
+ columns.add(new ColumnSpec(metric.getDisplayName(), ColumnType.DOUBLE));
+ }
+ for (String budgetColumn : effortBudgets.columnNames()) {
+ columns.add(new ColumnSpec(budgetColumn, ColumnType.DOUBLE));
+ }
+ for (FoldPhase phase : FoldPhase.values()) {
+ columns.add(new ColumnSpec(phase.getColumnName(), ColumnType.LONG));
+ }
+ for (FoldResource resource : FoldResource.values()) {
+ columns.add(new ColumnSpec(resource.getColumnName(), ColumnType.LONG));
+ }
+ return columns;
+ }
+
+ /**
+ * Waits for the queued fold rows to reach the disk and closes the exports.
+ *
+ * @throws IOException when a row could not be written or closing an export fails
  */
  @Override
  public void close() throws IOException {
- printer.close();
+ IOException failure = WriterCloseSupport.closeQuietly(writer, null, CLOSE_MESSAGE);
+ failure = WriterCloseSupport.closeQuietly(columnarWriter, failure, CLOSE_MESSAGE);
+ if (failure != null) {
+ throw failure;
+ }
  }
 }
@@ -0,0 +1,85 @@
+package com.milestone2.foldMetadata;
+
+/**
+ * Wall-clock duration, in nanoseconds, of every phase of one fold evaluation.
+ * <p>
+ * Folds rebuilt from stored predictions or stacked from other classifiers do not train anything and carry
+ * {@link #NONE}.
+ */
+public final class FoldTimings {
+ /**
+ * Timings of a fold whose phases were not measured.
+ */
+ public static final FoldTimings NONE = new FoldTimings(null);
+
+ private static final FoldPhase[] PHASES = FoldPhase.values();
+
+ private final long[] nanos;
+
+ private FoldTimings(long[] nanos) {
+ this.nanos = nanos;
+ }
+
+ /**
+ * Creates the timings of one measured fold.
+ *
+ * @param creationNanos time spent creating the classifier and its preprocessing pipeline
+ * @param filterFittingNanos time spent fitting the preprocessing filters on the training split
+ * @param trainingNanos time spent training the base classifier on the filtered split
+ * @param predictionNanos time spent scoring the test split
+ * @param metricNanos time spent computing the fold metrics
+ * @return fold timings
+ */
+ public static FoldTimings of(long creationNanos,
+ long filterFittingNanos,
+ long trainingNanos,
+ long predictionNanos,
+ long metricNanos) {
+ return new FoldTimings(new long[]{
+ creationNanos,
+ filterFittingNanos,
+ trainingNanos,
+ predictionNanos,
+ metricNanos
+ });
+ }
+
+ /**
+ * Indicates whether the phases of the fold were measured.
+ *
+ * @return {@code false} for {@link #NONE}
+ */
+ public boolean isMeasured() {
+ return nanos != null;
+ }
+
+ /**
+ * Returns the duration of one phase.
+ *
+ * @param phase fold phase
+ * @return duration in nanoseconds, or {@code -1} when the fold was not measured
+ */
+ public long getNanos(FoldPhase phase) {
+ return nanos == null ? -1L : nanos[phase.ordinal()];
+ }
+
+ /**
+ * Returns a debug-friendly textual representation of the phase durations.
+ *
+ * @return string representation of the timings
+ */
+ @Override
+ public String toString() {
+ if (nanos == null) {
+ return "FoldTimings{}";
+ }
+ StringBuilder text = new StringBuilder("FoldTimings{");
+ for (FoldPhase phase : PHASES) {
+ if (phase.ordinal() > 0) {
+ text.append(", ");
+ }
+ text.append(phase.getColumnName()).append('=').append(nanos[phase.ordinal()]);
+ }
+ return text.append('}').toString();
+ }
+}
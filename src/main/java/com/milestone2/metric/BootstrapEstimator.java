@@ -0,0 +1,193 @@
+package com.milestone2.metric;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Estimates percentile bootstrap confidence intervals of the reported fold-mean metrics.
+ * <p>
+ * A resample redraws the rows of every test fold of one run with replacement, computes the fold metrics on the
+ * redrawn folds and averages them, skipping undefined values, as {@link MetricAccumulator} does for the reported
+ * means. Only one run is resampled because the other runs of a repeated cross-validation score the same rows again;
+ * their reported mean averages over several partitions of the data, so the bounds are shifted by the difference
+ * between the reported mean and the mean of the resampled run. The interval thus keeps the width of the resampled
+ * run and is positioned on the reported value.
+ * <p>
+ * Draws are tallied into reusable multiplicity arrays, so no prediction is copied and the row orders needed by AUC
+ * and the effort curve are sorted once per fold for all resamples. Resamples are split into fixed blocks, each with
+ * its own {@link SplittableRandom} stream split from the run seed in block order; the intervals are therefore
+ * identical whatever the number of worker threads.
+ */
+public class BootstrapEstimator {
+ private static final Logger log = LoggerFactory.getLogger(BootstrapEstimator.class);
+ private static final int RESAMPLES_PER_BLOCK = 64;
+
+ private final MetricEngine metricEngine;
+ private final IntSupplier availableProcessorsSupplier;
+
+ public BootstrapEstimator() {
+ this(new MetricEngine(), () -> Runtime.getRuntime().availableProcessors());
+ }
+
+ BootstrapEstimator(MetricEngine metricEngine, IntSupplier availableProcessorsSupplier) {
+ this.metricEngine = metricEngine;
+ this.availableProcessorsSupplier = availableProcessorsSupplier;
+ }
+
+ /**
+ * Resamples the test folds of one run with replacement and returns the percentile interval of every reported
+ * fold-mean metric.
+ *
+ * @param folds recorded predictions of the test folds of one run, see {@link PooledPredictions#firstRunFolds()}
+ * @param reported reported fold-mean metrics the intervals are positioned on
+ * @param resamples number of bootstrap resamples; {@code 0} disables the estimate
+ * @param confidenceLevel two-sided confidence level in {@code (0, 1)}
+ * @param seed run seed the resampling streams are derived from
+ * @return interval per metric, {@link ConfidenceInterval#UNAVAILABLE} when it cannot be estimated
+ */
+ public Map<MetricDefinition, ConfidenceInterval> estimate(List<PredictionBuffer> folds,
+ Map<MetricDefinition, Double> reported,
+ int resamples,
+ double confidenceLevel,
+ long seed) {
+ Map<MetricDefinition, ConfidenceInterval> intervals = new EnumMap<>(MetricDefinition.class);
+ for (MetricDefinition metric : MetricDefinition.values()) {
+ intervals.put(metric, ConfidenceInterval.UNAVAILABLE);
+ }
+ int rows = folds.stream().mapToInt(PredictionBuffer::size).sum();
+ if (rows == 0 || resamples <= 0) {
+ return intervals;
+ }
+ if (!(confidenceLevel > 0.0 && confidenceLevel < 1.0)) {
+ throw new IllegalArgumentException("Confidence level must be in (0, 1): " + confidenceLevel);
+ }
+
+ long start = System.nanoTime();
+ List<RankedRows> ranked = new ArrayList<>(folds.size());
+ MetricAccumulator observed = new MetricAccumulator();
+ for (PredictionBuffer fold : folds) {
+ RankedRows foldRows = RankedRows.of(fold);
+ ranked.add(foldRows);
+ if (fold.size() > 0) {
+ observed.add(metricEngine.compute(fold, foldRows, null));
+ }
+ }
+ MetricDefinition[] metrics = MetricDefinition.values();
+ double[][] samples = new double[metrics.length][resamples];
+ SplittableRandom seedStream = new SplittableRandom(seed);
+ List<Runnable> blocks = new ArrayList<>();
+ for (int from = 0; from < resamples; from += RESAMPLES_PER_BLOCK) {
+ int to = Math.min(resamples, from + RESAMPLES_PER_BLOCK);
+ int first = from;
+ SplittableRandom random = seedStream.split();
+ blocks.add(() -> resampleBlock(folds, ranked, random, first, to, samples));
+ }
+ runBlocks(blocks);
+
+ double alpha = 1.0 - confidenceLevel;
+ for (int m = 0; m < metrics.length; m++) {
+ double shift = reported.getOrDefault(metrics[m], Double.NaN) - observed.mean(metrics[m]);
+ intervals.put(metrics[m], percentileInterval(samples[m], alpha / 2.0, 1.0 - alpha / 2.0, shift));
+ }
+ log.debug("Computed {} bootstrap resamples over {} folds and {} predictions in {} ms",
+ resamples,
+ folds.size(),
+ rows,
+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+ return intervals;
+ }
+
+ private void resampleBlock(List<PredictionBuffer> folds,
+ List<RankedRows> ranked,
+ SplittableRandom random,
+ int from,
+ int to,
+ double[][] samples) {
+ int[][] multiplicities = new int[folds.size()][];
+ for (int f = 0; f < multiplicities.length; f++) {
+ multiplicities[f] = new int[folds.get(f).size()];
+ }
+ MetricDefinition[] metrics = MetricDefinition.values();
+ for (int resample = from; resample < to; resample++) {
+ MetricAccumulator foldMeans = new MetricAccumulator();
+ for (int f = 0; f < multiplicities.length; f++) {
+ int[] multiplicity = multiplicities[f];
+ if (multiplicity.length == 0) {
+ continue;
+ }
+ Arrays.fill(multiplicity, 0);
+ for (int draw = 0; draw < multiplicity.length; draw++) {
+ multiplicity[random.nextInt(multiplicity.length)]++;
+ }
+ foldMeans.add(metricEngine.compute(folds.get(f), ranked.get(f), multiplicity));
+ }
+ for (int m = 0; m < metrics.length; m++) {
+ samples[m][resample] = foldMeans.mean(metrics[m]);
+ }
+ }
+ }
+
+ private void runBlocks(List<Runnable> blocks) {
+ int workers = Math.min(Math.max(1, availableProcessorsSupplier.getAsInt()), blocks.size());
+ if (workers <= 1) {
+ blocks.forEach(Runnable::run);
+ return;
+ }
+ ExecutorService executor = Executors.newFixedThreadPool(workers);
+ try {
+ List<Future<?>> futures = new ArrayList<>();
+ for (Runnable block : blocks) {
+ futures.add(executor.submit(block));
+ }
+ for (Future<?> future : futures) {
+ future.get();
+ }
+ } catch (InterruptedException e) {
+ Thread.currentThread().interrupt();
+ throw new IllegalStateException("Bootstrap resampling was interrupted", e);
+ } catch (ExecutionException e) {
+ Throwable cause = e.getCause();
+ if (cause instanceof RuntimeException) {
+ throw (RuntimeException) cause;
+ }
+ throw new IllegalStateException("Bootstrap resampling failed", cause);
+ } finally {
+ executor.shutdownNow();
+ }
+ }
+
+ /**
+ * Reads the interval bounds from the sorted defined samples, interpolating linearly between order statistics, and
+ * moves them by the given shift.
+ */
+ private static ConfidenceInterval percentileInterval(double[] samples,
+ double lowerQuantile,
+ double upperQuantile,
+ double shift) {
+ double[] defined = Arrays.stream(samples).filter(value -> !Double.isNaN(value)).sorted().toArray();
+ if (defined.length == 0 || Double.isNaN(shift)) {
+ return ConfidenceInterval.UNAVAILABLE;
+ }
+ return new ConfidenceInterval(quantile(defined, lowerQuantile) + shift, quantile(defined, upperQuantile) + shift);
+ }
+
+ private static double quantile(double[] sorted, double quantile) {
+ double position = quantile * (sorted.length - 1);
+ int below = (int) Math.floor(position);
+ int above = Math.min(sorted.length - 1, below + 1);
+ return sorted[below] + (position - below) * (sorted[above] - sorted[below]);
+ }
+}
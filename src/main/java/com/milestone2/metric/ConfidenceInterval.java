@@ -0,0 +1,42 @@
+package com.milestone2.metric;
+
+/**
+ * Two-sided bootstrap confidence interval of one aggregate metric.
+ */
+public class ConfidenceInterval {
+ /**
+ * Interval reported when no bootstrap was run or the metric is undefined on every resample.
+ */
+ public static final ConfidenceInterval UNAVAILABLE = new ConfidenceInterval(Double.NaN, Double.NaN);
+
+ private final double lower;
+ private final double upper;
+
+ public ConfidenceInterval(double lower, double upper) {
+ this.lower = lower;
+ this.upper = upper;
+ }
+
+ /**
+ * Returns the lower bound of the interval.
+ *
+ * @return lower bound, or {@link Double#NaN} when unavailable
+ */
+ public double getLower() {
+ return lower;
+ }
+
+ /**
+ * Returns the upper bound of the interval.
+ *
+ * @return upper bound, or {@link Double#NaN} when unavailable
+ */
+ public double getUpper() {
+ return upper;
+ }
+
+ @Override
+ public String toString() {
+ return "[" + lower + ", " + upper + "]";
+ }
+}
@@ -0,0 +1,99 @@
+package com.milestone2.metric;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Extra inspection budgets, as fractions of the total size, at which NPofB and ACC are reported next to the fixed
+ * 20% budget of {@link MetricDefinition#NPOFB20} and {@link MetricDefinition#ACC}.
+ * <p>
+ * Every budget is read off the same {@link EffortCurve}, so a fold is still sorted once however many budgets are
+ * requested. Each budget yields an {@code NPofB<percent>} and an {@code ACC<percent>} value, in that order.
+ */
+public final class EffortBudgets {
+ /**
+ * No extra budget.
+ */
+ public static final EffortBudgets NONE = new EffortBudgets(new double[0]);
+
+ private final double[] ratios;
+
+ private EffortBudgets(double[] ratios) {
+ this.ratios = ratios;
+ }
+
+ /**
+ * Parses a comma-separated list of budgets, sorted and de-duplicated. The fixed
+ * {@link MetricDefinition#EFFORT_BUDGET_RATIO} budget is skipped, since it is already reported as
+ * {@link MetricDefinition#NPOFB20} and {@link MetricDefinition#ACC} and would otherwise yield a second
+ * {@code NPofB20} column.
+ *
+ * @param raw raw CLI value, empty for no extra budget
+ * @return parsed budgets
+ * @throws IllegalArgumentException when a budget is not a number in {@code (0, 1]}
+ */
+ public static EffortBudgets parse(String raw) {
+ List<Double> parsed = new ArrayList<>();
+ for (String token : raw.split(",")) {
+ if (token.isBlank()) {
+ continue;
+ }
+ double ratio = Double.parseDouble(token.trim());
+ if (!(ratio > 0.0 && ratio <= 1.0)) {
+ throw new IllegalArgumentException("Effort budget '" + token.trim() + "' must be in (0, 1]");
+ }
+ if (ratio != MetricDefinition.EFFORT_BUDGET_RATIO && !parsed.contains(ratio)) {
+ parsed.add(ratio);
+ }
+ }
+ Collections.sort(parsed);
+ return new EffortBudgets(parsed.stream().mapToDouble(Double::doubleValue).toArray());
+ }
+
+ /**
+ * Returns how many budgets are requested.
+ *
+ * @return budget count
+ */
+ public int size() {
+ return ratios.length;
+ }
+
+ /**
+ * Returns one budget.
+ *
+ * @param index budget index, in ascending budget order
+ * @return budget as a fraction of the total size
+ */
+ public double getRatio(int index) {
+ return ratios[index];
+ }
+
+ /**
+ * Returns the export column names of the budget values, aligned with {@link Metrics#getEffortBudgetValue(int)}.
+ *
+ * @return one {@code NPofB<percent>} and one {@code ACC<percent>} column per budget
+ */
+ public List<String> columnNames() {
+ List<String> names = new ArrayList<>(ratios.length * 2);
+ for (double ratio : ratios) {
+ String percent = BigDecimal.valueOf(ratio).movePointRight(2).stripTrailingZeros().toPlainString();
+ names.add("NPofB" + percent);
+ names.add("ACC" + percent);
+ }
+ return names;
+ }
+
+ /**
+ * Returns a debug-friendly textual representation of the budgets.
+ *
+ * @return string representation of the budgets
+ */
+ @Override
+ public String toString() {
+ return "EffortBudgets" + Arrays.toString(ratios);
+ }
+}
@@ -0,0 +1,297 @@
+package com.milestone2.metric;
+
+import java.util.Arrays;
+
+/**
+ * Cumulative effort curve of one ranked test partition.
+ * <p>
+ * Rows are ranked once by decreasing predicted bug density, P(bug) / max(size, 1), keeping test-set order on ties.
+ * The curve keeps prefix sums of inspected size and found positives, so every budget query afterwards costs a binary
+ * search. Popt compares the area under the model curve with the optimal and worst rankings, which only need the
+ * sizes of the positive rows sorted once.
+ * <p>
+ * Ranked entries carry an occurrence count so that a bootstrap resample, in which one row may be drawn several
+ * times, is represented by the drawn rows only; a run of identical entities contributes to the areas in closed form.
+ */
+public class EffortCurve {
+ private final int[] rankedSizes;
+ private final boolean[] rankedPositives;
+ private final int[] rankedCounts;
+ private final int entries;
+ private final long[] cumulativeSize;
+ private final long[] cumulativePositives;
+ private final int[] positiveSizesAscending;
+ private final int[] positiveCountsAscending;
+ private final int positiveEntries;
+ private final long totalSize;
+ private final long totalPositives;
+ private final long falseAlarmsBeforeFirstHit;
+
+ EffortCurve(int[] order, int[] sizes, boolean[] positives) {
+ this(rankSizes(order, sizes), rankPositives(order, positives), ones(order.length), order.length,
+ sortedPositiveSizes(sizes, positives), null, -1);
+ }
+
+ private EffortCurve(int[] rankedSizes,
+ boolean[] rankedPositives,
+ int[] rankedCounts,
+ int entries,
+ int[] positiveSizesAscending,
+ int[] positiveCountsAscending,
+ int positiveEntries) {
+ this.rankedSizes = rankedSizes;
+ this.rankedPositives = rankedPositives;
+ this.rankedCounts = rankedCounts;
+ this.entries = entries;
+ this.positiveSizesAscending = positiveSizesAscending;
+ this.positiveCountsAscending = positiveCountsAscending == null
+ ? ones(positiveSizesAscending.length)
+ : positiveCountsAscending;
+ this.positiveEntries = positiveEntries < 0 ? positiveSizesAscending.length : positiveEntries;
+ cumulativeSize = new long[entries + 1];
+ cumulativePositives = new long[entries + 1];
+ long firstHit = -1;
+ long falseAlarms = 0;
+ for (int rank = 0; rank < entries; rank++) {
+ int count = rankedCounts[rank];
+ cumulativeSize[rank + 1] = cumulativeSize[rank] + (long) rankedSizes[rank] * count;
+ cumulativePositives[rank + 1] = cumulativePositives[rank] + (rankedPositives[rank] ? count : 0);
+ if (firstHit < 0) {
+ if (rankedPositives[rank]) {
+ firstHit = rank;
+ } else {
+ falseAlarms += count;
+ }
+ }
+ }
+ totalSize = cumulativeSize[entries];
+ totalPositives = cumulativePositives[entries];
+ falseAlarmsBeforeFirstHit = firstHit < 0 ? -1 : falseAlarms;
+ }
+
+ /**
+ * Builds the effort curve of the recorded predictions.
+ *
+ * @param buffer recorded predictions of one test partition
+ * @return effort curve, or {@code null} when no inspection sizes were recorded
+ */
+ public static EffortCurve from(PredictionBuffer buffer) {
+ return buffer.hasSizes() ? from(RankedRows.of(buffer), null) : null;
+ }
+
+ /**
+ * Builds the effort curve of a resample of the recorded predictions from the pre-sorted row orders, so no
+ * resample has to be sorted again. Rows drawn several times become one ranked entry with a count, and rows not
+ * drawn are left out.
+ *
+ * @param ranked row orders of the recorded predictions
+ * @param multiplicity occurrences of every row, or {@code null} to take each row once
+ * @return effort curve, or {@code null} when no inspection sizes were recorded
+ */
+ static EffortCurve from(RankedRows ranked, int[] multiplicity) {
+ int[] byDensity = ranked.byDensity();
+ if (byDensity == null) {
+ return null;
+ }
+ int[] densitySizes = ranked.densitySizes();
+ boolean[] densityPositives = ranked.densityPositives();
+ int[] sizes = new int[byDensity.length];
+ boolean[] positives = new boolean[byDensity.length];
+ int[] counts = new int[byDensity.length];
+ int length = 0;
+ for (int rank = 0; rank < byDensity.length; rank++) {
+ int count = multiplicity == null ? 1 : multiplicity[byDensity[rank]];
+ if (count > 0) {
+ sizes[length] = densitySizes[rank];
+ positives[length] = densityPositives[rank];
+ counts[length++] = count;
+ }
+ }
+
+ int[] positivesBySize = ranked.positivesBySize();
+ int[] positiveSizes = ranked.positiveSizesAscending();
+ int[] keptSizes = new int[positivesBySize.length];
+ int[] keptCounts = new int[positivesBySize.length];
+ int kept = 0;
+ for (int i = 0; i < positivesBySize.length; i++) {
+ int count = multiplicity == null ? 1 : multiplicity[positivesBySize[i]];
+ if (count > 0) {
+ keptSizes[kept] = positiveSizes[i];
+ keptCounts[kept++] = count;
+ }
+ }
+ return new EffortCurve(sizes, positives, counts, length, keptSizes, keptCounts, kept);
+ }
+
+ /**
+ * Computes NPofB at the requested budget: the share of positives found by inspecting ranked entities in full
+ * until the next one would exceed the budget.
+ *
+ * @param budgetRatio inspection budget as a fraction of the total size
+ * @return fraction of positives found within the budget, or {@code 0} when undefined
+ */
+ public double npOfB(double budgetRatio) {
+ if (totalPositives == 0 || totalSize == 0) {
+ return 0.0;
+ }
+ long budget = (long) (totalSize * budgetRatio);
+ int rank = fullyInspectedWithin(budget);
+ long found = cumulativePositives[rank];
+ if (rank < entries && rankedPositives[rank]) {
+ found += copiesWithin(rank, budget);
+ }
+ return (double) found / totalPositives;
+ }
+
+ /**
+ * Computes the effort-aware recall at the requested budget (ACC), interpolating linearly inside the entity that
+ * crosses the budget.
+ *
+ * @param budgetRatio inspection budget as a fraction of the total size
+ * @return recall of positives at the budget, or {@code 0} when undefined
+ */
+ public double recallAtEffort(double budgetRatio) {
+ if (totalPositives == 0 || totalSize == 0) {
+ return 0.0;
+ }
+ double budget = totalSize * budgetRatio;
+ long wholeBudget = (long) Math.floor(budget);
+ int rank = fullyInspectedWithin(wholeBudget);
+ double found = cumulativePositives[rank];
+ if (rank < entries && rankedPositives[rank] && rankedSizes[rank] > 0) {
+ long copies = copiesWithin(rank, wholeBudget);
+ double share = (budget - cumulativeSize[rank] - copies * rankedSizes[rank]) / rankedSizes[rank];
+ found += copies + Math.max(0.0, Math.min(1.0, share));
+ }
+ return found / totalPositives;
+ }
+
+ /**
+ * Computes Popt, the normalized area between the model curve and the optimal ranking.
+ *
+ * @return Popt value, or {@link Double#NaN} when optimal and worst rankings coincide
+ */
+ public double popt() {
+ if (totalPositives == 0 || totalSize == 0) {
+ return Double.NaN;
+ }
+ double optimal = optimalArea();
+ double worst = worstArea();
+ if (optimal - worst == 0.0) {
+ return Double.NaN;
+ }
+ return 1.0 - (optimal - modelArea()) / (optimal - worst);
+ }
+
+ /**
+ * Returns how many negatives are inspected before the first positive (IFA).
+ *
+ * @return initial false alarms, or {@link Double#NaN} when the partition has no positives
+ */
+ public double initialFalseAlarms() {
+ return falseAlarmsBeforeFirstHit < 0 ? Double.NaN : falseAlarmsBeforeFirstHit;
+ }
+
+ /**
+ * Returns the number of ranked entries whose copies all fit within the budget.
+ */
+ private int fullyInspectedWithin(long budget) {
+ int low = 0;
+ int high = cumulativeSize.length - 1;
+ while (low < high) {
+ int middle = (low + high + 1) >>> 1;
+ if (cumulativeSize[middle] <= budget) {
+ low = middle;
+ } else {
+ high = middle - 1;
+ }
+ }
+ return low;
+ }
+
+ /**
+ * Returns how many copies of the first entry that does not fit entirely still fit within the budget.
+ */
+ private long copiesWithin(int rank, long budget) {
+ return (budget - cumulativeSize[rank]) / rankedSizes[rank];
+ }
+
+ private double modelArea() {
+ double area = 0.0;
+ for (int rank = 0; rank < entries; rank++) {
+ area += runArea(rankedSizes[rank], rankedCounts[rank], cumulativePositives[rank], rankedPositives[rank]);
+ }
+ return area / ((double) totalSize * totalPositives);
+ }
+
+ private double optimalArea() {
+ double area = 0.0;
+ long found = 0;
+ long inspected = 0L;
+ for (int i = 0; i < positiveEntries; i++) {
+ area += runArea(positiveSizesAscending[i], positiveCountsAscending[i], found, true);
+ found += positiveCountsAscending[i];
+ inspected += (long) positiveSizesAscending[i] * positiveCountsAscending[i];
+ }
+ area += (double) (totalSize - inspected) * totalPositives;
+ return area / ((double) totalSize * totalPositives);
+ }
+
+ private double worstArea() {
+ double area = 0.0;
+ long found = 0;
+ for (int i = positiveEntries - 1; i >= 0; i--) {
+ area += runArea(positiveSizesAscending[i], positiveCountsAscending[i], found, true);
+ found += positiveCountsAscending[i];
+ }
+ return area / ((double) totalSize * totalPositives);
+ }
+
+ /**
+ * Sums the trapezoids of {@code count} consecutive copies of one entity: each copy adds {@code width} of
+ * inspected size, and a positive copy raises the found count by one across its width.
+ */
+ private static double runArea(int width, int count, long foundBefore, boolean positive) {
+ return positive
+ ? width * (count * (double) foundBefore + count * (double) count / 2.0)
+ : width * (count * (double) foundBefore);
+ }
+
+ private static int[] ones(int length) {
+ int[] ones = new int[length];
+ Arrays.fill(ones, 1);
+ return ones;
+ }
+
+ private static int[] rankSizes(int[] order, int[] sizes) {
+ int[] ranked = new int[order.length];
+ for (int rank = 0; rank < order.length; rank++) {
+ ranked[rank] = sizes[order[rank]];
+ }
+ return ranked;
+ }
+
+ private static boolean[] rankPositives(int[] order, boolean[] positives) {
+ boolean[] ranked = new boolean[order.length];
+ for (int rank = 0; rank < order.length; rank++) {
+ ranked[rank] = positives[order[rank]];
+ }
+ return ranked;
+ }
+
+ private static int[] sortedPositiveSizes(int[] sizes, boolean[] positives) {
+ int count = 0;
+ for (boolean positive : positives) {
+ count += positive ? 1 : 0;
+ }
+ int[] positiveSizes = new int[count];
+ int next = 0;
+ for (int row = 0; row < sizes.length; row++) {
+ if (positives[row]) {
+ positiveSizes[next++] = sizes[row];
+ }
+ }
+ Arrays.sort(positiveSizes);
+ return positiveSizes;
+ }
+}
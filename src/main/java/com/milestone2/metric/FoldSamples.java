@@ -0,0 +1,47 @@
+package com.milestone2.metric;
+
+/**
+ * Immutable snapshot of the raw fold values of one classifier on one dataset, ordered by run and fold.
+ * <p>
+ * Values are stored column-wise per metric, aligned with the fold keys, so paired comparisons can walk two
+ * classifiers' folds with primitive arrays.
+ */
+public class FoldSamples {
+ private final long[] keys;
+ private final double[][] values;
+
+ FoldSamples(long[] keys, double[][] values) {
+ this.keys = keys;
+ this.values = values;
+ }
+
+ /**
+ * Returns the number of folds in the snapshot.
+ *
+ * @return fold count
+ */
+ public int size() {
+ return keys.length;
+ }
+
+ /**
+ * Returns the key identifying the run and fold at the given position.
+ *
+ * @param index fold position
+ * @return fold key, ascending with the position
+ */
+ public long key(int index) {
+ return keys[index];
+ }
+
+ /**
+ * Returns the value of the metric at the given fold position.
+ *
+ * @param metric metric to read
+ * @param index fold position
+ * @return fold value, or {@link Double#NaN} when the metric was undefined on that fold
+ */
+ public double value(MetricDefinition metric, int index) {
+ return values[metric.ordinal()][index];
+ }
+}
@@ -0,0 +1,49 @@
+package com.milestone2.metric;
+
+/**
+ * Stable merge sort of row indexes by a primitive key, used instead of sorting boxed prediction objects.
+ */
+final class IndexSort {
+ private IndexSort() {
+ }
+
+ /**
+ * Returns the row indexes ordered by descending key. Rows with equal keys keep their original order, and
+ * {@code NaN} keys rank first, as with {@link Double#compare(double, double)} in reversed order.
+ *
+ * @param keys sort keys indexed by row
+ * @param length number of rows to sort
+ * @return row indexes in descending key order
+ */
+ static int[] descending(double[] keys, int length) {
+ int[] order = new int[length];
+ for (int i = 0; i < length; i++) {
+ order[i] = i;
+ }
+ int[] buffer = new int[length];
+ for (int width = 1; width < length; width <<= 1) {
+ for (int start = 0; start < length; start += width << 1) {
+ int middle = Math.min(start + width, length);
+ int end = Math.min(start + (width << 1), length);
+ int left = start;
+ int right = middle;
+ int out = start;
+ while (left < middle && right < end) {
+ buffer[out++] = Double.compare(keys[order[left]], keys[order[right]]) >= 0
+ ? order[left++]
+ : order[right++];
+ }
+ while (left < middle) {
+ buffer[out++] = order[left++];
+ }
+ while (right < end) {
+ buffer[out++] = order[right++];
+ }
+ }
+ int[] swap = order;
+ order = buffer;
+ buffer = swap;
+ }
+ return order;
+ }
+}
@@ -0,0 +1,352 @@
+package com.milestone2.metric;
+
+import com.milestone2.foldMetadata.FoldPhase;
+import com.milestone2.foldMetadata.FoldResource;
+import com.milestone2.foldMetadata.FoldResources;
+import com.milestone2.foldMetadata.FoldResult;
+import com.milestone2.foldMetadata.FoldTimings;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Online summary of the fold metrics of one classifier on one dataset.
+ * <p>
+ * Every metric owns one slot of primitive arrays holding its count, running sum, Welford mean and squared deviation,
+ * minimum and maximum, plus P-square sketches of the quartiles. The sketches are only accurate after a few hundred
+ * values, so up to {@value #EXACT_QUARTILE_LIMIT} defined values the quartiles are computed exactly from the raw
+ * fold values instead. Folds are added as they complete, so the fold
+ * results themselves do not have to be retained. The reported mean is the running sum divided by the count, which
+ * keeps the aggregates identical to a plain average; Welford's update is used for the variance only. Missing values,
+ * represented as {@link Double#NaN}, are skipped per metric.
+ * <p>
+ * The raw fold values are also kept in growable primitive columns keyed by run and fold, so paired tests between
+ * classifiers evaluated on the same splits can be run once the evaluation is over; see {@link #foldSamples()}.
+ * <p>
+ * The NPofB and ACC values at the extra {@link EffortBudgets} are averaged per column, see
+ * {@link #meanEffortBudgetValue(int)}.
+ * <p>
+ * The phase timings of measured folds are summed per phase, see {@link #totalNanos(FoldPhase)}, and their metered
+ * thread resources per resource, see {@link #total(FoldResource)}.
+ */
+public class MetricAccumulator {
+ private static final MetricDefinition[] METRICS = MetricDefinition.values();
+ private static final FoldPhase[] PHASES = FoldPhase.values();
+ private static final FoldResource[] RESOURCES = FoldResource.values();
+ private static final int EXACT_QUARTILE_LIMIT = 500;
+
+ private final long[] counts = new long[METRICS.length];
+ private final double[] sums = new double[METRICS.length];
+ private final double[] welfordMeans = new double[METRICS.length];
+ private final double[] squaredDeviations = new double[METRICS.length];
+ private final double[] minimums = new double[METRICS.length];
+ private final double[] maximums = new double[METRICS.length];
+ private final P2Quantile[] lowerQuartiles = new P2Quantile[METRICS.length];
+ private final P2Quantile[] medians = new P2Quantile[METRICS.length];
+ private final P2Quantile[] upperQuartiles = new P2Quantile[METRICS.length];
+ private long[] sampleKeys = new long[16];
+ private double[][] sampleValues = new double[METRICS.length][16];
+ private int folds;
+ private long[] effortBudgetCounts = new long[0];
+ private double[] effortBudgetSums = new double[0];
+ private final long[] phaseNanos = new long[PHASES.length];
+ private int timedFolds;
+ private final long[] resourceTotals = new long[RESOURCES.length];
+ private final int[] meteredFolds = new int[RESOURCES.length];
+
+ public MetricAccumulator() {
+ for (int m = 0; m < METRICS.length; m++) {
+ minimums[m] = Double.POSITIVE_INFINITY;
+ maximums[m] = Double.NEGATIVE_INFINITY;
+ lowerQuartiles[m] = new P2Quantile(0.25);
+ medians[m] = new P2Quantile(0.50);
+ upperQuartiles[m] = new P2Quantile(0.75);
+ }
+ }
+
+ /**
+ * Adds one completed fold, keyed by its run and fold index. Safe to call from concurrent fold workers.
+ *
+ * @param result fold result
+ */
+ public synchronized void add(FoldResult result) {
+ add(sampleKey(result.getRun(), result.getFold()), result.getMetrics());
+ FoldTimings timings = result.getTimings();
+ if (timings.isMeasured()) {
+ timedFolds++;
+ for (FoldPhase phase : PHASES) {
+ phaseNanos[phase.ordinal()] += timings.getNanos(phase);
+ }
+ }
+ FoldResources resources = result.getResources();
+ for (FoldResource resource : RESOURCES) {
+ long amount = resources.get(resource);
+ if (amount >= 0) {
+ meteredFolds[resource.ordinal()]++;
+ resourceTotals[resource.ordinal()] += amount;
+ }
+ }
+ }
+
+ /**
+ * Adds the metric bundle of one completed fold, keyed by its arrival order. Safe to call from concurrent fold
+ * workers.
+ *
+ * @param metrics fold metrics
+ */
+ public synchronized void add(Metrics metrics) {
+ add(folds, metrics);
+ }
+
+ private synchronized void add(long key, Metrics metrics) {
+ if (folds == sampleKeys.length) {
+ int capacity = folds * 2;
+ sampleKeys = Arrays.copyOf(sampleKeys, capacity);
+ for (int m = 0; m < METRICS.length; m++) {
+ sampleValues[m] = Arrays.copyOf(sampleValues[m], capacity);
+ }
+ }
+ sampleKeys[folds] = key;
+ folds++;
+ for (int m = 0; m < METRICS.length; m++) {
+ double value = METRICS[m].extract(metrics);
+ sampleValues[m][folds - 1] = value;
+ if (Double.isNaN(value)) {
+ continue;
+ }
+ long count = ++counts[m];
+ sums[m] += value;
+ double delta = value - welfordMeans[m];
+ welfordMeans[m] += delta / count;
+ squaredDeviations[m] += delta * (value - welfordMeans[m]);
+ minimums[m] = Math.min(minimums[m], value);
+ maximums[m] = Math.max(maximums[m], value);
+ lowerQuartiles[m].add(value);
+ medians[m].add(value);
+ upperQuartiles[m].add(value);
+ }
+ int budgetValues = metrics.getEffortBudgetValueCount();
+ if (budgetValues > effortBudgetSums.length) {
+ effortBudgetCounts = Arrays.copyOf(effortBudgetCounts, budgetValues);
+ effortBudgetSums = Arrays.copyOf(effortBudgetSums, budgetValues);
+ }
+ for (int column = 0; column < budgetValues; column++) {
+ double value = metrics.getEffortBudgetValue(column);
+ if (!Double.isNaN(value)) {
+ effortBudgetCounts[column]++;
+ effortBudgetSums[column] += value;
+ }
+ }
+ }
+
+ /**
+ * Returns how many folds were added, including folds where some metrics were missing.
+ *
+ * @return number of folds
+ */
+ public synchronized int getFoldCount() {
+ return folds;
+ }
+
+ /**
+ * Returns how many of the added folds carried measured phase timings.
+ *
+ * @return number of timed folds
+ */
+ public synchronized int getTimedFoldCount() {
+ return timedFolds;
+ }
+
+ /**
+ * Returns the time spent in one phase, summed over the timed folds.
+ *
+ * @param phase fold phase
+ * @return total duration in nanoseconds, or {@code -1} when no fold was timed
+ */
+ public synchronized long totalNanos(FoldPhase phase) {
+ return timedFolds == 0 ? -1L : phaseNanos[phase.ordinal()];
+ }
+
+ /**
+ * Returns one thread resource summed over the folds that metered it.
+ *
+ * @param resource metered resource
+ * @return total amount, or {@code -1} when no fold metered the resource
+ */
+ public synchronized long total(FoldResource resource) {
+ return meteredFolds[resource.ordinal()] == 0 ? -1L : resourceTotals[resource.ordinal()];
+ }
+
+ /**
+ * Returns how many folds produced a defined value for the metric.
+ *
+ * @param metric metric to inspect
+ * @return number of defined values
+ */
+ public synchronized long count(MetricDefinition metric) {
+ return counts[metric.ordinal()];
+ }
+
+ /**
+ * Returns the average of the defined values of the metric.
+ *
+ * @param metric metric to inspect
+ * @return mean, or {@link Double#NaN} when no value was defined
+ */
+ public synchronized double mean(MetricDefinition metric) {
+ int m = metric.ordinal();
+ return counts[m] == 0 ? Double.NaN : sums[m] / counts[m];
+ }
+
+ /**
+ * Returns the sample variance of the defined values of the metric.
+ *
+ * @param metric metric to inspect
+ * @return sample variance, or {@link Double#NaN} with fewer than two values
+ */
+ public synchronized double variance(MetricDefinition metric) {
+ int m = metric.ordinal();
+ return counts[m] < 2 ? Double.NaN : squaredDeviations[m] / (counts[m] - 1);
+ }
+
+ /**
+ * Returns the sample standard deviation of the defined values of the metric.
+ *
+ * @param metric metric to inspect
+ * @return standard deviation, or {@link Double#NaN} with fewer than two values
+ */
+ public double standardDeviation(MetricDefinition metric) {
+ return Math.sqrt(variance(metric));
+ }
+
+ /**
+ * Returns the smallest defined value of the metric.
+ *
+ * @param metric metric to inspect
+ * @return minimum, or {@link Double#NaN} when no value was defined
+ */
+ public synchronized double min(MetricDefinition metric) {
+ int m = metric.ordinal();
+ return counts[m] == 0 ? Double.NaN : minimums[m];
+ }
+
+ /**
+ * Returns the largest defined value of the metric.
+ *
+ * @param metric metric to inspect
+ * @return maximum, or {@link Double#NaN} when no value was defined
+ */
+ public synchronized double max(MetricDefinition metric) {
+ int m = metric.ordinal();
+ return counts[m] == 0 ? Double.NaN : maximums[m];
+ }
+
+ /**
+ * Returns the first quartile of the metric, exact up to {@value #EXACT_QUARTILE_LIMIT} defined values and estimated by
+ * the streaming sketch beyond.
+ *
+ * @param metric metric to inspect
+ * @return first quartile, or {@link Double#NaN} when no value was defined
+ */
+ public synchronized double lowerQuartile(MetricDefinition metric) {
+ return quartile(metric.ordinal(), lowerQuartiles, 0.25);
+ }
+
+ /**
+ * Returns the median of the metric, exact up to {@value #EXACT_QUARTILE_LIMIT} defined values and estimated by
+ * the streaming sketch beyond.
+ *
+ * @param metric metric to inspect
+ * @return median, or {@link Double#NaN} when no value was defined
+ */
+ public synchronized double median(MetricDefinition metric) {
+ return quartile(metric.ordinal(), medians, 0.50);
+ }
+
+ /**
+ * Returns the third quartile of the metric, exact up to {@value #EXACT_QUARTILE_LIMIT} defined values and estimated by
+ * the streaming sketch beyond.
+ *
+ * @param metric metric to inspect
+ * @return third quartile, or {@link Double#NaN} when no value was defined
+ */
+ public synchronized double upperQuartile(MetricDefinition metric) {
+ return quartile(metric.ordinal(), upperQuartiles, 0.75);
+ }
+
+ /**
+ * Returns the average of one extra effort budget value over the folds where it was defined.
+ *
+ * @param column index aligned with {@link EffortBudgets#columnNames()}
+ * @return mean, or {@link Double#NaN} when no fold defined the value
+ */
+ public synchronized double meanEffortBudgetValue(int column) {
+ if (column >= effortBudgetCounts.length || effortBudgetCounts[column] == 0) {
+ return Double.NaN;
+ }
+ return effortBudgetSums[column] / effortBudgetCounts[column];
+ }
+
+ private double quartile(int m, P2Quantile[] sketches, double probability) {
+ if (counts[m] == 0 || counts[m] > EXACT_QUARTILE_LIMIT) {
+ return sketches[m].value();
+ }
+ double[] defined = new double[(int) counts[m]];
+ int next = 0;
+ for (int i = 0; i < folds; i++) {
+ if (!Double.isNaN(sampleValues[m][i])) {
+ defined[next++] = sampleValues[m][i];
+ }
+ }
+ Arrays.sort(defined);
+ return P2Quantile.exact(defined, probability);
+ }
+
+ /**
+ * Returns a snapshot of the raw fold values ordered by run and fold.
+ *
+ * @return fold samples
+ */
+ public synchronized FoldSamples foldSamples() {
+ Integer[] order = new Integer[folds];
+ for (int i = 0; i < folds; i++) {
+ order[i] = i;
+ }
+ Arrays.sort(order, (left, right) -> Long.compare(sampleKeys[left], sampleKeys[right]));
+ long[] keys = new long[folds];
+ double[][] values = new double[METRICS.length][folds];
+ for (int i = 0; i < folds; i++) {
+ keys[i] = sampleKeys[order[i]];
+ for (int m = 0; m < METRICS.length; m++) {
+ values[m][i] = sampleValues[m][order[i]];
+ }
+ }
+ return new FoldSamples(keys, values);
+ }
+
+ /**
+ * Returns the mean of every metric in the stable metric order.
+ *
+ * @return immutable metric-to-mean map
+ */
+ public Map<MetricDefinition, Double> means() {
+ Map<MetricDefinition, Double> means = new EnumMap<>(MetricDefinition.class);
+ for (MetricDefinition metric : METRICS) {
+ means.put(metric, mean(metric));
+ }
+ return Collections.unmodifiableMap(means);
+ }
+
+ /**
+ * Packs a run and fold index into one sortable key.
+ *
+ * @param run zero-based run index
+ * @param fold zero-based fold index
+ * @return fold key
+ */
+ private static long sampleKey(int run, int fold) {
+ return ((long) run << 32) | (fold & 0xFFFFFFFFL);
+ }
+}
@@ -21,69 +21,22 @@ public class MetricAggregator {
  * @return aggregate metrics map
  */
  public Map<MetricDefinition, Double> aggregate(List<FoldResult> results) {
- Map<MetricDefinition, Double> sums = initializeNumericMap();
- Map<MetricDefinition, Integer> counts = initializeCounterMap();
-
+ MetricAccumulator accumulator = new MetricAccumulator();
  for (FoldResult result : results) {
- Metrics metrics = result.getMetrics();
- for (MetricDefinition metric : MetricDefinition.values()) {
- addMetricValue(sums, counts, metric, metric.extract(metrics));
- }
- }
-
- Map<MetricDefinition, Double> averages = new EnumMap<>(MetricDefinition.class);
- for (MetricDefinition metric : MetricDefinition.values()) {
- int count = counts.get(metric);
- averages.put(metric, count == 0 ? Double.NaN : sums.get(metric) / count);
- }
-
- log.debug("Aggregated metrics: {}", averages);
- return averages;
- }
-
- /**
- * Initializes a numeric accumulator map with one zero entry per supported metric.
- *
- * @return metric sum accumulator
- */
- private Map<MetricDefinition, Double> initializeNumericMap() {
- Map<MetricDefinition, Double> sums = new EnumMap<>(MetricDefinition.class);
- for (MetricDefinition metric : MetricDefinition.values()) {
- sums.put(metric, 0.0);
+ accumulator.add(result);
  }
- return sums;
+ return aggregate(accumulator);
  }
 
  /**
- * Initializes a counter map with one zero entry per supported metric.
+ * Reads the average value of every supported metric from an online accumulator.
  *
- * @return metric counter accumulator
- */
- private Map<MetricDefinition, Integer> initializeCounterMap() {
- Map<MetricDefinition, Integer> counts = new EnumMap<>(MetricDefinition.class);
- for (MetricDefinition metric : MetricDefinition.values()) {
- counts.put(metric, 0);
- }
- return counts;
- }
-
- /**
- * Adds one metric value to the accumulators, ignoring missing values represented as {@link Double#NaN}.
- *
- * @param sums metric sum accumulator
- * @param counts metric counter accumulator
- * @param metric metric being updated
- * @param value metric value to add
+ * @param accumulator metrics accumulated while the folds completed
+ * @return aggregate metrics map
  */
- private void addMetricValue(Map<MetricDefinition, Double> sums,
- Map<MetricDefinition, Integer> counts,
- MetricDefinition metric,
- double value) {
- if (Double.isNaN(value)) {
- return;
- }
- sums.put(metric, sums.get(metric) + value);
- counts.put(metric, counts.get(metric) + 1);
+ public Map<MetricDefinition, Double> aggregate(MetricAccumulator accumulator) {
+ Map<MetricDefinition, Double> averages = new EnumMap<>(accumulator.means());
+ log.debug("Aggregated metrics over {} folds: {}", accumulator.getFoldCount(), averages);
+ return averages;
  }
 }
-
@@ -19,6 +19,9 @@ public class MetricChartData {
  DefaultCategoryDataset dataset = new DefaultCategoryDataset();
  for (EvaluationReport classifierReport : report.getClassifierReports()) {
  for (MetricDefinition metric : MetricDefinition.values()) {
+ if (!metric.isCharted()) {
+ continue;
+ }
  Double value = classifierReport.getAggregateMetrics().get(metric);
  if (value != null && !Double.isNaN(value)) {
  dataset.addValue(
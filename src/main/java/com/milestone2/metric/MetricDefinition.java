@@ -10,14 +10,30 @@ public enum MetricDefinition {
  F1("F1", false),
  KAPPA("Kappa", false),
  AUC("AUC", false),
- NPOFB20("NPofB20", false);
+ NPOFB20("NPofB20", false),
+ POPT("Popt", false),
+ ACC("ACC", false),
+ IFA("IFA", false, false, false);
+
+ /**
+ * Inspection budget, as a fraction of the total size, used by NPofB20 and ACC.
+ */
+ public static final double EFFORT_BUDGET_RATIO = 0.20;
 
  private final String displayName;
  private final boolean percentageBased;
+ private final boolean higherIsBetter;
+ private final boolean charted;
 
  MetricDefinition(String displayName, boolean percentageBased) {
+ this(displayName, percentageBased, true, true);
+ }
+
+ MetricDefinition(String displayName, boolean percentageBased, boolean higherIsBetter, boolean charted) {
  this.displayName = displayName;
  this.percentageBased = percentageBased;
+ this.higherIsBetter = higherIsBetter;
+ this.charted = charted;
  }
 
  /**
@@ -29,6 +45,35 @@ public enum MetricDefinition {
  return displayName;
  }
 
+ /**
+ * Tells whether larger values of the metric are better.
+ *
+ * @return {@code true} for ratio-style metrics, {@code false} for cost-style metrics such as IFA
+ */
+ public boolean isHigherBetter() {
+ return higherIsBetter;
+ }
+
+ /**
+ * Tells whether the metric is drawn on the shared [0,1] chart axes.
+ *
+ * @return {@code false} for unbounded counts such as IFA
+ */
+ public boolean isCharted() {
+ return charted;
+ }
+
+ /**
+ * Compares two metric values according to the metric direction.
+ *
+ * @param candidate candidate value
+ * @param incumbent current best value
+ * @return {@code true} when the candidate is strictly better than the incumbent
+ */
+ public boolean isBetter(double candidate, double incumbent) {
+ return higherIsBetter ? candidate > incumbent : candidate < incumbent;
+ }
+
  /**
  * Extracts the metric value from the metric bundle.
  *
@@ -0,0 +1,185 @@
+package com.milestone2.metric;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Computes the fold metric bundle directly from a {@link PredictionBuffer}.
+ * <p>
+ * Accuracy, precision, recall, F1 and Kappa come from one weighted confusion-matrix pass; AUC walks the row indexes
+ * sorted once by score and the effort-aware metrics (NPofB20, Popt, ACC, IFA, and NPofB/ACC at any extra
+ * {@link EffortBudgets}) share one {@link EffortCurve}. The
+ * formulas follow Weka's {@code Evaluation} and {@code ThresholdCurve} semantics: unclassified rows count towards
+ * the class total but not as errors, precision and recall are {@code 0} when their denominator is empty, and AUC
+ * gives half credit to tied scores.
+ */
+public class MetricEngine {
+ /**
+ * Computes the full metric bundle for the recorded predictions.
+ *
+ * @param buffer recorded predictions of one test partition
+ * @return metric bundle
+ */
+ public Metrics compute(PredictionBuffer buffer) {
+ return compute(buffer, EffortBudgets.NONE);
+ }
+
+ /**
+ * Computes the full metric bundle for the recorded predictions, adding NPofB and ACC at the extra budgets read off
+ * the same effort curve.
+ *
+ * @param buffer recorded predictions of one test partition
+ * @param budgets extra effort budgets
+ * @return metric bundle
+ */
+ public Metrics compute(PredictionBuffer buffer, EffortBudgets budgets) {
+ return compute(buffer, RankedRows.of(buffer), null, budgets);
+ }
+
+ /**
+ * Computes the metric bundle of a resample of the recorded predictions, given as the number of times each row
+ * was drawn, walking the row orders sorted once for the whole buffer.
+ *
+ * @param buffer recorded predictions
+ * @param ranked row orders of the buffer
+ * @param multiplicity occurrences of every row, or {@code null} to take each row once
+ * @return metric bundle of the resample
+ */
+ Metrics compute(PredictionBuffer buffer, RankedRows ranked, int[] multiplicity) {
+ return compute(buffer, ranked, multiplicity, EffortBudgets.NONE);
+ }
+
+ private Metrics compute(PredictionBuffer buffer, RankedRows ranked, int[] multiplicity, EffortBudgets budgets) {
+ int numClasses = buffer.getNumClasses();
+ int positive = buffer.getPositiveClassIndex();
+ double[] confusion = new double[numClasses * numClasses];
+ double withClass = 0.0;
+ double incorrect = 0.0;
+
+ for (int row = 0; row < buffer.size(); row++) {
+ int actual = buffer.actualClass(row);
+ if (actual == PredictionBuffer.NO_CLASS || (multiplicity != null && multiplicity[row] == 0)) {
+ continue;
+ }
+ double weight = buffer.weight(row) * (multiplicity == null ? 1 : multiplicity[row]);
+ withClass += weight;
+ int predicted = buffer.predictedClass(row);
+ if (predicted == PredictionBuffer.NO_CLASS) {
+ continue;
+ }
+ confusion[actual * numClasses + predicted] += weight;
+ if (predicted != actual) {
+ incorrect += weight;
+ }
+ }
+
+ double precision = precision(confusion, numClasses, positive);
+ double recall = recall(confusion, numClasses, positive);
+ Map<MetricDefinition, Double> values = new EnumMap<>(MetricDefinition.class);
+ values.put(MetricDefinition.ACCURACY, (1 - incorrect / withClass) * 100.0);
+ values.put(MetricDefinition.PRECISION, precision);
+ values.put(MetricDefinition.RECALL, recall);
+ values.put(MetricDefinition.F1, precision + recall == 0 ? 0 : 2 * precision * recall / (precision + recall));
+ values.put(MetricDefinition.KAPPA, kappa(confusion, numClasses));
+ values.put(MetricDefinition.AUC, areaUnderRoc(ranked, positive, multiplicity));
+
+ // Effort-aware metrics stay NaN when the size attribute is missing.
+ EffortCurve curve = EffortCurve.from(ranked, multiplicity);
+ double[] budgetValues = new double[budgets.size() * 2];
+ Arrays.fill(budgetValues, Double.NaN);
+ if (curve != null) {
+ values.put(MetricDefinition.NPOFB20, curve.npOfB(MetricDefinition.EFFORT_BUDGET_RATIO));
+ values.put(MetricDefinition.POPT, curve.popt());
+ values.put(MetricDefinition.ACC, curve.recallAtEffort(MetricDefinition.EFFORT_BUDGET_RATIO));
+ values.put(MetricDefinition.IFA, curve.initialFalseAlarms());
+ for (int b = 0; b < budgets.size(); b++) {
+ budgetValues[2 * b] = curve.npOfB(budgets.getRatio(b));
+ budgetValues[2 * b + 1] = curve.recallAtEffort(budgets.getRatio(b));
+ }
+ }
+ return new Metrics(values, budgetValues);
+ }
+
+ private static double precision(double[] confusion, int numClasses, int positive) {
+ double total = 0.0;
+ for (int actual = 0; actual < numClasses; actual++) {
+ total += confusion[actual * numClasses + positive];
+ }
+ return total == 0 ? 0 : confusion[positive * numClasses + positive] / total;
+ }
+
+ private static double recall(double[] confusion, int numClasses, int positive) {
+ double total = 0.0;
+ for (int predicted = 0; predicted < numClasses; predicted++) {
+ total += confusion[positive * numClasses + predicted];
+ }
+ return total == 0 ? 0 : confusion[positive * numClasses + positive] / total;
+ }
+
+ private static double kappa(double[] confusion, int numClasses) {
+ double[] sumRows = new double[numClasses];
+ double[] sumColumns = new double[numClasses];
+ double sumOfWeights = 0.0;
+ for (int i = 0; i < numClasses; i++) {
+ for (int j = 0; j < numClasses; j++) {
+ double cell = confusion[i * numClasses + j];
+ sumRows[i] += cell;
+ sumColumns[j] += cell;
+ sumOfWeights += cell;
+ }
+ }
+ double correct = 0.0;
+ double chanceAgreement = 0.0;
+ for (int i = 0; i < numClasses; i++) {
+ chanceAgreement += sumRows[i] * sumColumns[i];
+ correct += confusion[i * numClasses + i];
+ }
+ chanceAgreement /= sumOfWeights * sumOfWeights;
+ correct /= sumOfWeights;
+ return chanceAgreement < 1 ? (correct - chanceAgreement) / (1 - chanceAgreement) : 1;
+ }
+
+ /**
+ * Computes the weighted Mann-Whitney form of the ROC area for the positive class, walking tie groups from the
+ * highest score down.
+ */
+ private static double areaUnderRoc(RankedRows ranked, int positive, int[] multiplicity) {
+ int[] order = ranked.byScore();
+ double[] scores = ranked.scores();
+ int[] classes = ranked.scoreClasses();
+ double[] weights = ranked.scoreWeights();
+ int size = order.length;
+
+ double area = 0.0;
+ double positivesAbove = 0.0;
+ double totalPositive = 0.0;
+ double totalNegative = 0.0;
+ int start = 0;
+ while (start < size) {
+ double score = scores[start];
+ double groupPositive = 0.0;
+ double groupNegative = 0.0;
+ int end = start;
+ while (end < size && Double.compare(scores[end], score) == 0) {
+ int actual = classes[end];
+ double weight = weights[end] * (multiplicity == null ? 1 : multiplicity[order[end]]);
+ end++;
+ if (actual == PredictionBuffer.NO_CLASS || weight < 0) {
+ continue;
+ }
+ if (actual == positive) {
+ groupPositive += weight;
+ } else {
+ groupNegative += weight;
+ }
+ }
+ area += groupNegative * (positivesAbove + 0.5 * groupPositive);
+ positivesAbove += groupPositive;
+ totalPositive += groupPositive;
+ totalNegative += groupNegative;
+ start = end;
+ }
+ return area / (totalPositive * totalNegative);
+ }
+}
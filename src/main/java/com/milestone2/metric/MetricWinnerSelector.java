@@ -31,17 +31,17 @@ public class MetricWinnerSelector {
  /**
  * Selects the classifier with the best aggregate value for the requested metric.
  *
- * @param metric metric to maximize
+ * @param metric metric to optimize, in its own direction
  * @param report dataset analysis report
  * @return metric winner, or {@code null} when no valid value is available
  */
  public MetricWinner select(MetricDefinition metric, AnalysisReport report) {
  Definition bestClassifier = null;
- double bestValue = Double.NEGATIVE_INFINITY;
+ double bestValue = metric.isHigherBetter() ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
 
  for (EvaluationReport classifierReport : report.getClassifierReports()) {
  Double currentValue = classifierReport.getAggregateMetrics().get(metric);
- if (currentValue != null && !Double.isNaN(currentValue) && currentValue > bestValue) {
+ if (currentValue != null && !Double.isNaN(currentValue) && metric.isBetter(currentValue, bestValue)) {
  bestValue = currentValue;
  bestClassifier = classifierReport.getDefinition();
  }
@@ -1,5 +1,6 @@
 package com.milestone2.metric;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.Map;
@@ -9,7 +10,10 @@ import java.util.Objects;
  * Immutable metric values for one evaluation result.
  */
 public class Metrics {
+ private static final double[] NO_BUDGET_VALUES = new double[0];
+
  private final Map<MetricDefinition, Double> values;
+ private final double[] effortBudgetValues;
 
  public Metrics(double accuracy,
  double precision,
@@ -26,7 +30,37 @@ public class Metrics {
  map.put(MetricDefinition.KAPPA, kappa);
  map.put(MetricDefinition.AUC, auc);
  map.put(MetricDefinition.NPOFB20, npOfb20);
- values = Collections.unmodifiableMap(map);
+ values = Collections.unmodifiableMap(withMissingAsNaN(map));
+ effortBudgetValues = NO_BUDGET_VALUES;
+ }
+
+ /**
+ * Creates a metric bundle from explicit values; metrics absent from the map are stored as {@link Double#NaN}.
+ *
+ * @param values metric values
+ */
+ public Metrics(Map<MetricDefinition, Double> values) {
+ this(values, NO_BUDGET_VALUES);
+ }
+
+ /**
+ * Creates a metric bundle from explicit values and the NPofB/ACC values of the extra effort budgets.
+ *
+ * @param values metric values
+ * @param effortBudgetValues values aligned with {@link EffortBudgets#columnNames()}
+ */
+ public Metrics(Map<MetricDefinition, Double> values, double[] effortBudgetValues) {
+ EnumMap<MetricDefinition, Double> map = new EnumMap<>(MetricDefinition.class);
+ map.putAll(values);
+ this.values = Collections.unmodifiableMap(withMissingAsNaN(map));
+ this.effortBudgetValues = effortBudgetValues.clone();
+ }
+
+ private static EnumMap<MetricDefinition, Double> withMissingAsNaN(EnumMap<MetricDefinition, Double> map) {
+ for (MetricDefinition metric : MetricDefinition.values()) {
+ map.putIfAbsent(metric, Double.NaN);
+ }
+ return map;
  }
 
  /**
@@ -39,6 +73,25 @@ public class Metrics {
  return values.get(metric);
  }
 
+ /**
+ * Returns how many extra effort budget values the bundle holds.
+ *
+ * @return two values per extra budget
+ */
+ public int getEffortBudgetValueCount() {
+ return effortBudgetValues.length;
+ }
+
+ /**
+ * Returns one extra effort budget value.
+ *
+ * @param column index aligned with {@link EffortBudgets#columnNames()}
+ * @return NPofB or ACC at the budget, {@link Double#NaN} when the size attribute is missing
+ */
+ public double getEffortBudgetValue(int column) {
+ return effortBudgetValues[column];
+ }
+
  /**
  * Returns a debug-friendly textual representation of the metric bundle.
  *
@@ -46,11 +99,11 @@ public class Metrics {
  */
  @Override
  public String toString() {
- return "Metrics{" + "values=" + values + '}';
+ return "Metrics{" + "values=" + values + ", effortBudgetValues=" + Arrays.toString(effortBudgetValues) + '}';
  }
 
  /**
- * Compares this metric bundle with another object using the stored metric map.
+ * Compares this metric bundle with another object using the stored metric map and effort budget values.
  *
  * @param o object to compare with
  * @return {@code true} when both objects contain the same metric values
@@ -61,7 +114,7 @@ public class Metrics {
  if (o == null || getClass() != o.getClass()) return false;
 
  Metrics metrics = (Metrics) o;
- return Objects.equals(values, metrics.values);
+ return Objects.equals(values, metrics.values) && Arrays.equals(effortBudgetValues, metrics.effortBudgetValues);
  }
 
  /**
@@ -71,7 +124,7 @@ public class Metrics {
  */
  @Override
  public int hashCode() {
- return Objects.hash(values);
+ return 31 * Objects.hash(values) + Arrays.hashCode(effortBudgetValues);
  }
 }
 
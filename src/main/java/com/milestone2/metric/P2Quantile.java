@@ -0,0 +1,119 @@
+package com.milestone2.metric;
+
+import java.util.Arrays;
+
+/**
+ * Streaming estimate of one quantile with the P-square algorithm of Jain and Chlamtac.
+ * <p>
+ * Five marker heights and positions are kept in primitive arrays whatever the number of observations; markers are
+ * moved with piecewise-parabolic interpolation as values arrive. Up to five values the quantile is computed exactly
+ * from them.
+ */
+final class P2Quantile {
+ private static final int MARKERS = 5;
+
+ private final double probability;
+ private final double[] heights = new double[MARKERS];
+ private final double[] positions = new double[MARKERS];
+ private final double[] desiredPositions = new double[MARKERS];
+ private final double[] increments;
+ private int count;
+
+ P2Quantile(double probability) {
+ this.probability = probability;
+ this.increments = new double[]{0.0, probability / 2.0, probability, (1.0 + probability) / 2.0, 1.0};
+ }
+
+ /**
+ * Adds one observation.
+ *
+ * @param value observed value
+ */
+ void add(double value) {
+ if (count < MARKERS) {
+ heights[count++] = value;
+ if (count == MARKERS) {
+ Arrays.sort(heights);
+ for (int i = 0; i < MARKERS; i++) {
+ positions[i] = i + 1.0;
+ desiredPositions[i] = 1.0 + 4.0 * increments[i];
+ }
+ }
+ return;
+ }
+
+ int cell;
+ if (value < heights[0]) {
+ heights[0] = value;
+ cell = 0;
+ } else if (value >= heights[MARKERS - 1]) {
+ heights[MARKERS - 1] = value;
+ cell = MARKERS - 2;
+ } else {
+ cell = 0;
+ while (value >= heights[cell + 1]) {
+ cell++;
+ }
+ }
+ for (int i = cell + 1; i < MARKERS; i++) {
+ positions[i]++;
+ }
+ for (int i = 0; i < MARKERS; i++) {
+ desiredPositions[i] += increments[i];
+ }
+ for (int i = 1; i < MARKERS - 1; i++) {
+ double offset = desiredPositions[i] - positions[i];
+ if ((offset >= 1.0 && positions[i + 1] - positions[i] > 1.0)
+ || (offset <= -1.0 && positions[i - 1] - positions[i] < -1.0)) {
+ int step = offset >= 0 ? 1 : -1;
+ double candidate = parabolic(i, step);
+ heights[i] = heights[i - 1] < candidate && candidate < heights[i + 1] ? candidate : linear(i, step);
+ positions[i] += step;
+ }
+ }
+ count++;
+ }
+
+ /**
+ * Returns the current quantile estimate.
+ *
+ * @return estimated quantile, or {@link Double#NaN} when nothing was observed
+ */
+ double value() {
+ if (count == 0) {
+ return Double.NaN;
+ }
+ if (count <= MARKERS) {
+ double[] observed = Arrays.copyOf(heights, count);
+ Arrays.sort(observed);
+ return exact(observed, probability);
+ }
+ return heights[2];
+ }
+
+ /**
+ * Reads a quantile from sorted values, interpolating linearly between the order statistics.
+ *
+ * @param sorted values in ascending order, at least one
+ * @param probability quantile probability in {@code [0, 1]}
+ * @return exact quantile
+ */
+ static double exact(double[] sorted, double probability) {
+ double position = probability * (sorted.length - 1);
+ int below = (int) Math.floor(position);
+ int above = Math.min(sorted.length - 1, below + 1);
+ return sorted[below] + (position - below) * (sorted[above] - sorted[below]);
+ }
+
+ private double parabolic(int i, int step) {
+ double left = positions[i] - positions[i - 1];
+ double right = positions[i + 1] - positions[i];
+ return heights[i] + step / (positions[i + 1] - positions[i - 1])
+ * ((left + step) * (heights[i + 1] - heights[i]) / right
+ + (right - step) * (heights[i] - heights[i - 1]) / left);
+ }
+
+ private double linear(int i, int step) {
+ return heights[i] + step * (heights[i + step] - heights[i]) / (positions[i + step] - positions[i]);
+ }
+}
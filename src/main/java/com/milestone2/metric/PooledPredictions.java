@@ -0,0 +1,92 @@
+package com.milestone2.metric;
+
+import com.milestone2.foldMetadata.FoldContext;
+import com.milestone2.foldMetadata.FoldPredictionSink;
+import weka.core.Attribute;
+import weka.core.Instances;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Collects the out-of-fold predictions of every split of one classifier so the test folds of one run can be
+ * resampled together.
+ * <p>
+ * Every run of a repeated cross-validation scores each row once, so only the folds of the first run are handed out:
+ * pooling all runs would count each row once per run. Folds may arrive concurrently and in any order; they are
+ * always handed out by fold index, so anything derived from them, such as bootstrap resamples, does not depend on
+ * thread scheduling.
+ */
+public class PooledPredictions implements FoldPredictionSink {
+ private final int positiveClassIndex;
+ private final String sizeAttributeName;
+ private final List<PooledFold> folds = new ArrayList<>();
+
+ public PooledPredictions(int positiveClassIndex, String sizeAttributeName) {
+ this.positiveClassIndex = positiveClassIndex;
+ this.sizeAttributeName = sizeAttributeName;
+ }
+
+ /**
+ * Records the predictions of one scored test partition.
+ *
+ * @param context split metadata
+ * @param test scored test partition
+ * @param distributions class distributions aligned with the test rows
+ */
+ @Override
+ public void accept(FoldContext context, Instances test, double[][] distributions) {
+ Attribute sizeAttribute = test.attribute(sizeAttributeName);
+ PredictionBuffer buffer = new PredictionBuffer(
+ distributions.length,
+ test.numClasses(),
+ positiveClassIndex,
+ sizeAttribute == null ? -1 : sizeAttribute.index()
+ );
+ for (int i = 0; i < distributions.length; i++) {
+ buffer.record(distributions[i], test.instance(i));
+ }
+ add(context, buffer);
+ }
+
+ /**
+ * Adds the already recorded predictions of one split.
+ *
+ * @param context split metadata
+ * @param buffer recorded predictions of the split
+ */
+ public synchronized void add(FoldContext context, PredictionBuffer buffer) {
+ folds.add(new PooledFold(context.getRunIndex(), context.getFoldIndex(), buffer));
+ }
+
+ /**
+ * Returns the test folds of the first collected run in fold order. Under walk-forward validation every window
+ * belongs to that run.
+ *
+ * @return recorded predictions per fold, empty when no fold was collected
+ */
+ public synchronized List<PredictionBuffer> firstRunFolds() {
+ folds.sort(Comparator.comparingInt((PooledFold fold) -> fold.run).thenComparingInt(fold -> fold.fold));
+ List<PredictionBuffer> firstRun = new ArrayList<>();
+ for (PooledFold fold : folds) {
+ if (fold.run != folds.get(0).run) {
+ break;
+ }
+ firstRun.add(fold.buffer);
+ }
+ return firstRun;
+ }
+
+ private static final class PooledFold {
+ private final int run;
+ private final int fold;
+ private final PredictionBuffer buffer;
+
+ private PooledFold(int run, int fold, PredictionBuffer buffer) {
+ this.run = run;
+ this.fold = fold;
+ this.buffer = buffer;
+ }
+ }
+}
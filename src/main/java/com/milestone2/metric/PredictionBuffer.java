@@ -0,0 +1,163 @@
+package com.milestone2.metric;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import weka.core.Attribute;
+import weka.core.Instance;
+import weka.core.Instances;
+
+/**
+ * Primitive column buffers holding the predictions of one test partition.
+ * <p>
+ * Only the values needed by the metric engine are kept per row: actual and predicted class, probability of the
+ * positive class, instance weight and inspection size, so large test windows do not allocate one prediction object
+ * per instance.
+ */
+public class PredictionBuffer {
+ private static final Logger log = LoggerFactory.getLogger(PredictionBuffer.class);
+
+ /**
+ * Marker stored for rows whose actual class is missing or whose distribution assigns no class.
+ */
+ public static final int NO_CLASS = -1;
+
+ private final int numClasses;
+ private final int positiveClassIndex;
+ private final int sizeAttributeIndex;
+ private final int[] actualClasses;
+ private final int[] predictedClasses;
+ private final double[] positiveProbabilities;
+ private final double[] weights;
+ private final int[] sizes;
+ private int count;
+
+ public PredictionBuffer(int capacity, int numClasses, int positiveClassIndex, int sizeAttributeIndex) {
+ this.numClasses = numClasses;
+ this.positiveClassIndex = positiveClassIndex;
+ this.sizeAttributeIndex = sizeAttributeIndex;
+ this.actualClasses = new int[capacity];
+ this.predictedClasses = new int[capacity];
+ this.positiveProbabilities = new double[capacity];
+ this.weights = new double[capacity];
+ this.sizes = sizeAttributeIndex >= 0 ? new int[capacity] : null;
+ }
+
+ /**
+ * Creates a buffer filled from raw columns rather than Weka instances, e.g. from persisted predictions.
+ *
+ * @param capacity number of rows to hold
+ * @param numClasses number of class values
+ * @param positiveClassIndex positive class index
+ * @param withSizes whether inspection sizes are available
+ */
+ public PredictionBuffer(int capacity, int numClasses, int positiveClassIndex, boolean withSizes) {
+ this(capacity, numClasses, positiveClassIndex, withSizes ? 0 : -1);
+ }
+
+ /**
+ * Creates a buffer sized for one test partition, resolving the inspection-size attribute by name.
+ *
+ * @param test test partition to be scored
+ * @param positiveClassIndex positive class index
+ * @param sizeAttributeName name of the attribute used as inspection cost
+ * @return empty prediction buffer
+ */
+ public static PredictionBuffer forTestSet(Instances test, int positiveClassIndex, String sizeAttributeName) {
+ Attribute sizeAttribute = test.attribute(sizeAttributeName);
+ if (sizeAttribute == null) {
+ log.warn("Size attribute '{}' not found in '{}'; NPofB20 will be NaN",
+ sizeAttributeName,
+ test.relationName());
+ }
+ return new PredictionBuffer(
+ test.numInstances(),
+ test.numClasses(),
+ positiveClassIndex,
+ sizeAttribute == null ? -1 : sizeAttribute.index()
+ );
+ }
+
+ /**
+ * Records one prediction using the same class-assignment rule as Weka's {@code Evaluation}: the predicted class
+ * is the first class with the strictly highest positive probability.
+ *
+ * @param distribution predicted class distribution
+ * @param instance scored instance
+ */
+ public void record(double[] distribution, Instance instance) {
+ record(
+ distribution,
+ instance.classIsMissing() ? NO_CLASS : (int) instance.classValue(),
+ instance.weight(),
+ sizes != null ? (int) instance.value(sizeAttributeIndex) : 0
+ );
+ }
+
+ /**
+ * Records one prediction from raw column values.
+ *
+ * @param distribution predicted class distribution
+ * @param actualClass actual class index, or {@link #NO_CLASS} when missing
+ * @param weight instance weight
+ * @param size inspection size, ignored when sizes are not tracked
+ */
+ public void record(double[] distribution, int actualClass, double weight, int size) {
+ int row = count++;
+ actualClasses[row] = actualClass;
+ int predicted = NO_CLASS;
+ double best = 0.0;
+ for (int c = 0; c < distribution.length; c++) {
+ if (distribution[c] > best) {
+ predicted = c;
+ best = distribution[c];
+ }
+ }
+ predictedClasses[row] = predicted;
+ positiveProbabilities[row] = distribution[positiveClassIndex];
+ weights[row] = weight;
+ if (sizes != null) {
+ sizes[row] = size;
+ }
+ }
+
+ public int size() {
+ return count;
+ }
+
+ public int getNumClasses() {
+ return numClasses;
+ }
+
+ public int getPositiveClassIndex() {
+ return positiveClassIndex;
+ }
+
+ /**
+ * Tells whether inspection sizes were recorded, which is required for effort-aware metrics.
+ *
+ * @return {@code true} when the size attribute exists in the test partition
+ */
+ public boolean hasSizes() {
+ return sizes != null;
+ }
+
+ int actualClass(int row) {
+ return actualClasses[row];
+ }
+
+ int predictedClass(int row) {
+ return predictedClasses[row];
+ }
+
+ double positiveProbability(int row) {
+ return positiveProbabilities[row];
+ }
+
+ double weight(int row) {
+ return weights[row];
+ }
+
+ int inspectionSize(int row) {
+ return sizes[row];
+ }
+}
@@ -0,0 +1,130 @@
+package com.milestone2.metric;
+
+/**
+ * Row orders of one prediction buffer that every metric pass walks: by positive-class score for AUC, by predicted
+ * bug density for the effort curve and the positive rows by inspection size for the optimal Popt ranking.
+ * <p>
+ * A bootstrap resample only changes how many times each row occurs, never the relative order of the rows, so the
+ * orders are sorted once per buffer and reused by every resample. The values each pass reads are also copied into
+ * rank order, so the passes scan them sequentially and only look rows up in the multiplicity array.
+ */
+final class RankedRows {
+ private final int[] byScore;
+ private final double[] scores;
+ private final int[] scoreClasses;
+ private final double[] scoreWeights;
+ private final int[] byDensity;
+ private final int[] densitySizes;
+ private final boolean[] densityPositives;
+ private final int[] positivesBySize;
+ private final int[] positiveSizesAscending;
+
+ private RankedRows(PredictionBuffer buffer, int[] byScore, int[] byDensity, int[] positivesBySize) {
+ this.byScore = byScore;
+ this.byDensity = byDensity;
+ this.positivesBySize = positivesBySize;
+ int size = byScore.length;
+ scores = new double[size];
+ scoreClasses = new int[size];
+ scoreWeights = new double[size];
+ for (int rank = 0; rank < size; rank++) {
+ int row = byScore[rank];
+ scores[rank] = buffer.positiveProbability(row);
+ scoreClasses[rank] = buffer.actualClass(row);
+ scoreWeights[rank] = buffer.weight(row);
+ }
+ if (byDensity == null) {
+ densitySizes = null;
+ densityPositives = null;
+ positiveSizesAscending = null;
+ return;
+ }
+ int positiveClassIndex = buffer.getPositiveClassIndex();
+ densitySizes = new int[size];
+ densityPositives = new boolean[size];
+ for (int rank = 0; rank < size; rank++) {
+ int row = byDensity[rank];
+ densitySizes[rank] = buffer.inspectionSize(row);
+ densityPositives[rank] = buffer.actualClass(row) == positiveClassIndex;
+ }
+ positiveSizesAscending = new int[positivesBySize.length];
+ for (int i = 0; i < positivesBySize.length; i++) {
+ positiveSizesAscending[i] = buffer.inspectionSize(positivesBySize[i]);
+ }
+ }
+
+ /**
+ * Sorts the rows of the buffer once.
+ *
+ * @param buffer recorded predictions
+ * @return row orders, without the effort orders when no inspection sizes were recorded
+ */
+ static RankedRows of(PredictionBuffer buffer) {
+ int size = buffer.size();
+ double[] scores = new double[size];
+ for (int row = 0; row < size; row++) {
+ scores[row] = buffer.positiveProbability(row);
+ }
+ int[] byScore = IndexSort.descending(scores, size);
+ if (!buffer.hasSizes()) {
+ return new RankedRows(buffer, byScore, null, null);
+ }
+
+ int positiveClassIndex = buffer.getPositiveClassIndex();
+ double[] densities = new double[size];
+ int[] positiveRows = new int[size];
+ int positives = 0;
+ for (int row = 0; row < size; row++) {
+ densities[row] = buffer.positiveProbability(row) / Math.max(buffer.inspectionSize(row), 1);
+ if (buffer.actualClass(row) == positiveClassIndex) {
+ positiveRows[positives++] = row;
+ }
+ }
+ double[] negatedSizes = new double[positives];
+ for (int i = 0; i < positives; i++) {
+ negatedSizes[i] = -buffer.inspectionSize(positiveRows[i]);
+ }
+ int[] bySize = IndexSort.descending(negatedSizes, positives);
+ int[] positivesBySize = new int[positives];
+ for (int i = 0; i < positives; i++) {
+ positivesBySize[i] = positiveRows[bySize[i]];
+ }
+ return new RankedRows(buffer, byScore, IndexSort.descending(densities, size), positivesBySize);
+ }
+
+ int[] byScore() {
+ return byScore;
+ }
+
+ double[] scores() {
+ return scores;
+ }
+
+ int[] scoreClasses() {
+ return scoreClasses;
+ }
+
+ double[] scoreWeights() {
+ return scoreWeights;
+ }
+
+ int[] byDensity() {
+ return byDensity;
+ }
+
+ int[] densitySizes() {
+ return densitySizes;
+ }
+
+ boolean[] densityPositives() {
+ return densityPositives;
+ }
+
+ int[] positivesBySize() {
+ return positivesBySize;
+ }
+
+ int[] positiveSizesAscending() {
+ return positiveSizesAscending;
+ }
+}
@@ -0,0 +1,394 @@
+package com.milestone2.outputMerge;
+
+import com.milestone2.columnarExport.ColumnSpec;
+import com.milestone2.columnarExport.ColumnarBlock;
+import com.milestone2.columnarExport.ColumnarReader;
+import com.milestone2.columnarExport.ColumnarWriter;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVPrinter;
+import org.apache.commons.csv.CSVRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Merges the outputs of one run into the outputs left by earlier runs.
+ * <p>
+ * Writers opened in merge mode write to a staging file next to their target. {@link #commit()} then indexes the keys
+ * of the staged rows, streams the existing target while dropping the rows whose key was recomputed, appends the staged
+ * rows and atomically replaces the target with the result. Only the key index is held in memory. A target that does
+ * not exist yet is replaced by its staged file as is. Each file is replaced atomically, but a failure while merging
+ * one output leaves the outputs merged before it in place.
+ * <p>
+ * Outputs computed from other outputs, such as the summary chosen among all aggregate results, are not merged row by
+ * row: they are registered with {@link #derive(Path, DerivedOutput)} and rebuilt once every staged output has been
+ * merged.
+ */
+public class OutputMerger {
+ /**
+ * Columns identifying one classifier evaluated on one dataset under one configuration.
+ */
+ public static final List<String> CELL_KEY = List.of(
+ "Granularity",
+ "Dataset",
+ "ValidationStrategy",
+ "TemporalAttribute",
+ "Classifier",
+ "ClassifierId",
+ "ClassifierClass",
+ "ClassAttribute",
+ "PositiveClass",
+ "SizeAttribute",
+ "Seed",
+ "Balancing",
+ "FeatureSelection"
+ );
+ /**
+ * Columns identifying one dataset analysis under one configuration.
+ */
+ public static final List<String> DATASET_KEY = List.of(
+ "Granularity",
+ "Dataset",
+ "ValidationStrategy",
+ "TemporalAttribute",
+ "ClassAttribute",
+ "PositiveClass",
+ "SizeAttribute",
+ "Seed",
+ "Balancing",
+ "FeatureSelection"
+ );
+
+ private static final Logger log = LoggerFactory.getLogger(OutputMerger.class);
+ private static final String STAGED_SUFFIX = ".staged";
+ private static final String MERGING_SUFFIX = ".merging";
+ private static final CSVFormat READ_FORMAT = CSVFormat.DEFAULT.builder()
+ .setHeader()
+ .setSkipHeaderRecord(true)
+ .get();
+
+ private final List<StagedOutput> outputs = new ArrayList<>();
+ private final List<DerivedTarget> derivedOutputs = new ArrayList<>();
+
+ /**
+ * Registers a CSV output to merge and returns the file its writer should write to.
+ *
+ * @param target merged CSV file
+ * @param keyColumns columns identifying the rows replaced by this run
+ * @return staging file next to the target
+ */
+ public Path stageCsv(Path target, List<String> keyColumns) {
+ return stage(target, keyColumns, false);
+ }
+
+ /**
+ * Registers a columnar output to merge and returns the file its writer should write to.
+ *
+ * @param target merged columnar file
+ * @param keyColumns columns identifying the rows replaced by this run
+ * @return staging file next to the target
+ */
+ public Path stageColumnar(Path target, List<String> keyColumns) {
+ return stage(target, keyColumns, true);
+ }
+
+ /**
+ * Registers an output rebuilt from the merged outputs on commit, after every staged output has been merged.
+ *
+ * @param target rebuilt file
+ * @param output writes the rebuilt content
+ */
+ public void derive(Path target, DerivedOutput output) {
+ derivedOutputs.add(new DerivedTarget(target, output));
+ }
+
+ /**
+ * Merges every staged output into its target, in registration order, then rebuilds the derived outputs and deletes
+ * the staging files. The writers of the staged outputs must be closed.
+ *
+ * @throws IOException when an output cannot be merged or rebuilt, or a staging file cannot be deleted
+ */
+ public void commit() throws IOException {
+ IOException failure = null;
+ for (StagedOutput output : outputs) {
+ if (failure == null) {
+ try {
+ merge(output);
+ } catch (IOException e) {
+ failure = e;
+ }
+ }
+ }
+ for (DerivedTarget derived : derivedOutputs) {
+ if (failure == null) {
+ try {
+ derived.output.writeTo(derived.merging);
+ replace(derived.merging, derived.target);
+ log.info("Rebuilt '{}' from the merged outputs", derived.target);
+ } catch (IOException e) {
+ failure = e;
+ }
+ }
+ }
+ failure = deleteStaged(failure);
+ if (failure != null) {
+ throw failure;
+ }
+ }
+
+ /**
+ * Deletes the staging files and leaves every target untouched, for runs that failed.
+ *
+ * @throws IOException when a staging file cannot be deleted
+ */
+ public void discard() throws IOException {
+ IOException failure = deleteStaged(null);
+ if (failure != null) {
+ throw failure;
+ }
+ }
+
+ private Path stage(Path target, List<String> keyColumns, boolean columnar) {
+ StagedOutput output = new StagedOutput(target, keyColumns, columnar);
+ outputs.add(output);
+ return output.staged;
+ }
+
+ /**
+ * Merges one staged output into its target.
+ *
+ * @param output staged output
+ * @throws IOException when a file cannot be read or written, or the staged columns differ from the target's
+ */
+ private void merge(StagedOutput output) throws IOException {
+ if (!Files.exists(output.target)) {
+ replace(output.staged, output.target);
+ log.info("Created '{}' from this run's rows", output.target);
+ return;
+ }
+ long kept = output.columnar ? mergeColumnar(output) : mergeCsv(output);
+ replace(output.merging, output.target);
+ log.info("Merged this run's rows into '{}', keeping {} earlier rows", output.target, kept);
+ }
+
+ /**
+ * Writes the surviving rows of the existing CSV and then the staged rows to the merging file.
+ *
+ * @param output staged CSV output
+ * @return number of earlier rows kept
+ * @throws IOException when a file cannot be read or written, or the headers differ
+ */
+ private static long mergeCsv(StagedOutput output) throws IOException {
+ List<String> header;
+ RowKeys keys;
+ Set<List<String>> replaced = new HashSet<>();
+ try (CSVParser staged = parse(output.staged)) {
+ header = staged.getHeaderNames();
+ keys = RowKeys.resolve(output.target, header, output.keyColumns);
+ for (CSVRecord record : staged) {
+ replaced.add(keys.of(record::get));
+ }
+ }
+ CSVFormat writeFormat = CSVFormat.DEFAULT.builder().setHeader(header.toArray(new String[0])).get();
+ long kept = 0;
+ try (CSVParser existing = parse(output.target);
+ CSVParser staged = parse(output.staged);
+ CSVPrinter printer = new CSVPrinter(
+ Files.newBufferedWriter(output.merging, StandardCharsets.UTF_8), writeFormat)) {
+ requireSameColumns(output.target, existing.getHeaderNames(), header);
+ for (CSVRecord record : existing) {
+ if (!replaced.contains(keys.of(record::get))) {
+ printer.printRecord(record);
+ kept++;
+ }
+ }
+ for (CSVRecord record : staged) {
+ printer.printRecord(record);
+ }
+ }
+ return kept;
+ }
+
+ private static CSVParser parse(Path file) throws IOException {
+ return READ_FORMAT.parse(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+ }
+
+ /**
+ * Writes the surviving rows of the existing columnar table and then the staged rows to the merging file.
+ *
+ * @param output staged columnar output
+ * @return number of earlier rows kept
+ * @throws IOException when a file cannot be read or written, or the schemas differ
+ */
+ private static long mergeColumnar(StagedOutput output) throws IOException {
+ List<ColumnSpec> columns;
+ RowKeys keys;
+ Set<List<String>> replaced = new HashSet<>();
+ try (ColumnarReader staged = new ColumnarReader(output.staged)) {
+ columns = staged.getColumns();
+ keys = RowKeys.resolve(output.target, signature(columns, false), output.keyColumns);
+ for (ColumnarBlock block = staged.next(); block != null; block = staged.next()) {
+ for (int row = 0; row < block.getRowCount(); row++) {
+ replaced.add(keys.of(cells(block, row)));
+ }
+ }
+ }
+ long kept;
+ try (ColumnarReader existing = new ColumnarReader(output.target);
+ ColumnarReader staged = new ColumnarReader(output.staged);
+ ColumnarWriter writer = new ColumnarWriter(output.merging, columns)) {
+ requireSameColumns(output.target, signature(existing.getColumns(), true), signature(columns, true));
+ kept = copyRows(existing, writer, keys, replaced);
+ copyRows(staged, writer, keys, Set.of());
+ }
+ return kept;
+ }
+
+ /**
+ * Copies the rows of a columnar table whose key is not in the skipped set.
+ *
+ * @param reader source table
+ * @param writer destination table
+ * @param keys key columns
+ * @param skipped keys of the rows not to copy
+ * @return number of copied rows
+ * @throws IOException when a table cannot be read or written
+ */
+ private static long copyRows(ColumnarReader reader,
+ ColumnarWriter writer,
+ RowKeys keys,
+ Set<List<String>> skipped) throws IOException {
+ long copied = 0;
+ int columnCount = reader.getColumns().size();
+ for (ColumnarBlock block = reader.next(); block != null; block = reader.next()) {
+ for (int row = 0; row < block.getRowCount(); row++) {
+ if (!skipped.isEmpty() && skipped.contains(keys.of(cells(block, row)))) {
+ continue;
+ }
+ List<Object> values = new ArrayList<>(columnCount);
+ for (int column = 0; column < columnCount; column++) {
+ values.add(block.getValue(column, row));
+ }
+ writer.write(values);
+ copied++;
+ }
+ }
+ return copied;
+ }
+
+ private static RowKeys.RowValues cells(ColumnarBlock block, int row) {
+ return column -> String.valueOf(block.getValue(column, row));
+ }
+
+ private static List<String> signature(List<ColumnSpec> columns, boolean withTypes) {
+ List<String> signature = new ArrayList<>(columns.size());
+ for (ColumnSpec column : columns) {
+ signature.add(withTypes ? column.getName() + ":" + column.getType() : column.getName());
+ }
+ return signature;
+ }
+
+ private static void requireSameColumns(Path target, List<String> existing, List<String> staged) throws IOException {
+ if (!existing.equals(staged)) {
+ throw new IOException("Cannot merge into '" + target + "': its columns differ from this run's. "
+ + "Move it away or rerun with --output-mode=overwrite");
+ }
+ }
+
+ /**
+ * Moves a file over the target, atomically when the file system supports it.
+ *
+ * @param source file to move
+ * @param target file to replace
+ * @throws IOException when the file cannot be moved
+ */
+ private static void replace(Path source, Path target) throws IOException {
+ try {
+ Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+ } catch (AtomicMoveNotSupportedException e) {
+ Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+ }
+ }
+
+ private IOException deleteStaged(IOException failure) {
+ List<Path> files = new ArrayList<>();
+ for (StagedOutput output : outputs) {
+ files.add(output.staged);
+ files.add(output.merging);
+ }
+ for (DerivedTarget derived : derivedOutputs) {
+ files.add(derived.merging);
+ }
+ for (Path file : files) {
+ try {
+ Files.deleteIfExists(file);
+ } catch (IOException e) {
+ if (failure == null) {
+ failure = e;
+ } else {
+ failure.addSuppressed(e);
+ }
+ }
+ }
+ return failure;
+ }
+
+ /**
+ * Writes the content of an output derived from the merged outputs.
+ */
+ @FunctionalInterface
+ public interface DerivedOutput {
+ /**
+ * Writes the rebuilt content.
+ *
+ * @param file file to write, moved over the target afterwards
+ * @throws IOException when the content cannot be computed or written
+ */
+ void writeTo(Path file) throws IOException;
+ }
+
+ /**
+ * One output written to a staging file and merged into its target on commit.
+ */
+ private static final class StagedOutput {
+ private final Path target;
+ private final Path staged;
+ private final Path merging;
+ private final List<String> keyColumns;
+ private final boolean columnar;
+
+ private StagedOutput(Path target, List<String> keyColumns, boolean columnar) {
+ this.target = target;
+ this.staged = target.resolveSibling(target.getFileName() + STAGED_SUFFIX);
+ this.merging = target.resolveSibling(target.getFileName() + MERGING_SUFFIX);
+ this.keyColumns = keyColumns;
+ this.columnar = columnar;
+ }
+ }
+
+ /**
+ * One output rebuilt from the merged outputs on commit.
+ */
+ private static final class DerivedTarget {
+ private final Path target;
+ private final Path merging;
+ private final DerivedOutput output;
+
+ private DerivedTarget(Path target, DerivedOutput output) {
+ this.target = target;
+ this.merging = target.resolveSibling(target.getFileName() + MERGING_SUFFIX);
+ this.output = output;
+ }
+ }
+}
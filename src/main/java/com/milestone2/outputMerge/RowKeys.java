@@ -0,0 +1,62 @@
+package com.milestone2.outputMerge;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Positions of the key columns of one output, used to tell which rows of an earlier run are replaced.
+ */
+final class RowKeys {
+ private final int[] positions;
+
+ private RowKeys(int[] positions) {
+ this.positions = positions;
+ }
+
+ /**
+ * Resolves the key columns present in a header. Outputs that do not record every key column are keyed on the ones
+ * they have.
+ *
+ * @param file output being merged, used in error messages
+ * @param header column names of the output
+ * @param keyColumns candidate key columns
+ * @return key column positions
+ * @throws IOException when the header contains none of the key columns
+ */
+ static RowKeys resolve(Path file, List<String> header, List<String> keyColumns) throws IOException {
+ List<Integer> found = new ArrayList<>();
+ for (String column : keyColumns) {
+ int position = header.indexOf(column);
+ if (position >= 0) {
+ found.add(position);
+ }
+ }
+ if (found.isEmpty()) {
+ throw new IOException("Cannot merge '" + file + "': none of the key columns " + keyColumns + " is present");
+ }
+ return new RowKeys(found.stream().mapToInt(Integer::intValue).toArray());
+ }
+
+ /**
+ * Extracts the key of one row.
+ *
+ * @param row row values by column position
+ * @return key values in key column order
+ */
+ List<String> of(RowValues row) {
+ List<String> key = new ArrayList<>(positions.length);
+ for (int position : positions) {
+ key.add(row.get(position));
+ }
+ return key;
+ }
+
+ /**
+ * Read access to the cells of one row, as text.
+ */
+ interface RowValues {
+ String get(int column);
+ }
+}
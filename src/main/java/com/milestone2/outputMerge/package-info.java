@@ -0,0 +1,4 @@
+/**
+ * Merge of a run's outputs into the outputs of earlier runs, replacing only the recomputed rows.
+ */
+package com.milestone2.outputMerge;
@@ -0,0 +1,85 @@
+package com.milestone2.predictionStore;
+
+import com.milestone2.classifier.Definition;
+import weka.core.Attribute;
+import weka.core.Instances;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Locates prediction store files: one directory per dataset and one file per classifier inside it.
+ */
+public class PredictionStore {
+ private final Path rootDir;
+
+ public PredictionStore(Path rootDir) {
+ this.rootDir = rootDir;
+ }
+
+ /**
+ * Creates, or truncates, the store file of one dataset/classifier pair and writes its header.
+ *
+ * @param datasetName dataset file name
+ * @param definition evaluated classifier
+ * @param dataset dataset being evaluated
+ * @param positiveClassValue resolved positive class label
+ * @param sizeAttributeName configured size attribute name
+ * @return writer accepting fold segments
+ * @throws IOException when the file cannot be created
+ */
+ public PredictionStoreWriter openWriter(String datasetName,
+ Definition definition,
+ Instances dataset,
+ String positiveClassValue,
+ String sizeAttributeName) throws IOException {
+ Attribute classAttribute = dataset.classAttribute();
+ List<String> labels = new ArrayList<>(classAttribute.numValues());
+ for (int i = 0; i < classAttribute.numValues(); i++) {
+ labels.add(classAttribute.value(i));
+ }
+ StoreHeader header = new StoreHeader(
+ datasetName,
+ definition.getId(),
+ classAttribute.name(),
+ positiveClassValue,
+ labels,
+ dataset.attribute(sizeAttributeName) == null ? null : sizeAttributeName
+ );
+ return new PredictionStoreWriter(file(datasetName, definition.getId()), header);
+ }
+
+ /**
+ * Resolves the store file of one dataset/classifier pair.
+ *
+ * @param datasetName dataset file name
+ * @param classifierId classifier identifier
+ * @return store file path
+ */
+ public Path file(String datasetName, String classifierId) {
+ return rootDir.resolve(datasetName).resolve(classifierId + PredictionStoreFormat.FILE_EXTENSION);
+ }
+
+ /**
+ * Lists the datasets that have at least one stored classifier.
+ *
+ * @return dataset names in lexicographic order
+ * @throws IOException when the store directory cannot be listed
+ */
+ public List<String> listDatasets() throws IOException {
+ if (!Files.isDirectory(rootDir)) {
+ return List.of();
+ }
+ try (Stream<Path> entries = Files.list(rootDir)) {
+ return entries.filter(Files::isDirectory)
+ .map(path -> path.getFileName().toString())
+ .sorted()
+ .collect(Collectors.toList());
+ }
+ }
+}
@@ -0,0 +1,18 @@
+package com.milestone2.predictionStore;
+
+/**
+ * Constants of the binary prediction store layout.
+ * <p>
+ * A file starts with a header (magic, version, dataset, classifier, class attribute, positive class, class labels
+ * and optional size attribute) followed by one segment per evaluated fold. Each segment carries the fold metadata
+ * and then whole columns: row ids, actual classes, weights, optional sizes and one probability column per class.
+ */
+final class PredictionStoreFormat {
+ static final int MAGIC = 0x4D325053;
+ static final int VERSION = 1;
+ static final int SEGMENT_MARKER = 0x53454731;
+ static final String FILE_EXTENSION = ".preds";
+
+ private PredictionStoreFormat() {
+ }
+}
@@ -0,0 +1,131 @@
+package com.milestone2.predictionStore;
+
+import com.milestone2.foldMetadata.FoldContext;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads a prediction store file segment by segment.
+ */
+public class PredictionStoreReader implements Closeable {
+ private final Path file;
+ private final DataInputStream input;
+ private final StoreHeader header;
+
+ public PredictionStoreReader(Path file) throws IOException {
+ this.file = file;
+ this.input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+ this.header = readHeader();
+ }
+
+ public StoreHeader getHeader() {
+ return header;
+ }
+
+ /**
+ * Reads the next fold segment.
+ *
+ * @return next stored fold, or {@code null} at the end of the file
+ * @throws IOException when the file is truncated or corrupted
+ */
+ public StoredFold next() throws IOException {
+ int marker;
+ try {
+ marker = input.readInt();
+ } catch (EOFException endOfStore) {
+ return null;
+ }
+ if (marker != PredictionStoreFormat.SEGMENT_MARKER) {
+ throw new IOException("Corrupted prediction store segment in " + file);
+ }
+
+ int run = input.readInt();
+ int fold = input.readInt();
+ String trainingLabel = readNullableString();
+ String testLabel = readNullableString();
+ int trainingInstances = input.readInt();
+ int rows = input.readInt();
+
+ int[] rowIds = readInts(rows);
+ int[] actualClasses = readInts(rows);
+ double[] weights = readDoubles(rows);
+ int[] sizes = header.hasSizes() ? readInts(rows) : null;
+ double[][] classProbabilities = new double[header.getClassLabels().size()][];
+ for (int c = 0; c < classProbabilities.length; c++) {
+ classProbabilities[c] = readDoubles(rows);
+ }
+
+ FoldContext context = new FoldContext(run, fold, trainingLabel, testLabel, trainingInstances, rows)
+ .withTestRowIds(rowIds);
+ return new StoredFold(context, rowIds, actualClasses, weights, sizes, classProbabilities);
+ }
+
+ /**
+ * Reads every remaining fold segment.
+ *
+ * @return stored folds in file order
+ * @throws IOException when the file is truncated or corrupted
+ */
+ public List<StoredFold> readAll() throws IOException {
+ List<StoredFold> folds = new ArrayList<>();
+ for (StoredFold fold = next(); fold != null; fold = next()) {
+ folds.add(fold);
+ }
+ return folds;
+ }
+
+ @Override
+ public void close() throws IOException {
+ input.close();
+ }
+
+ private StoreHeader readHeader() throws IOException {
+ if (input.readInt() != PredictionStoreFormat.MAGIC) {
+ throw new IOException("Not a prediction store file: " + file);
+ }
+ int version = input.readInt();
+ if (version != PredictionStoreFormat.VERSION) {
+ throw new IOException("Unsupported prediction store version " + version + " in " + file);
+ }
+ String datasetName = input.readUTF();
+ String classifierId = input.readUTF();
+ String classAttributeName = input.readUTF();
+ String positiveClassValue = input.readUTF();
+ int numClasses = input.readInt();
+ List<String> labels = new ArrayList<>(numClasses);
+ for (int c = 0; c < numClasses; c++) {
+ labels.add(input.readUTF());
+ }
+ String sizeAttributeName = readNullableString();
+ return new StoreHeader(datasetName, classifierId, classAttributeName, positiveClassValue, labels,
+ sizeAttributeName);
+ }
+
+ private String readNullableString() throws IOException {
+ return input.readBoolean() ? input.readUTF() : null;
+ }
+
+ private int[] readInts(int count) throws IOException {
+ int[] values = new int[count];
+ for (int i = 0; i < count; i++) {
+ values[i] = input.readInt();
+ }
+ return values;
+ }
+
+ private double[] readDoubles(int count) throws IOException {
+ double[] values = new double[count];
+ for (int i = 0; i < count; i++) {
+ values[i] = input.readDouble();
+ }
+ return values;
+ }
+}
@@ -0,0 +1,102 @@
+package com.milestone2.predictionStore;
+
+import com.milestone2.foldMetadata.FoldContext;
+import com.milestone2.foldMetadata.FoldPredictionSink;
+import weka.core.Attribute;
+import weka.core.Instance;
+import weka.core.Instances;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Appends fold segments to one dataset/classifier prediction store file.
+ * <p>
+ * Folds evaluated concurrently share the writer, so segment appends are serialized and each segment is flushed as a
+ * whole.
+ */
+public class PredictionStoreWriter implements FoldPredictionSink, Closeable {
+ private final StoreHeader header;
+ private final DataOutputStream output;
+
+ PredictionStoreWriter(Path file, StoreHeader header) throws IOException {
+ Files.createDirectories(file.getParent());
+ this.header = header;
+ this.output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+ writeHeader();
+ }
+
+ /**
+ * Appends the predictions of one fold as a columnar segment.
+ *
+ * @param context split metadata, including the dataset row ids of the test instances
+ * @param test test subset aligned with the distributions
+ * @param distributions predicted class distributions in test order
+ * @throws IOException when the segment cannot be written
+ */
+ @Override
+ public synchronized void accept(FoldContext context, Instances test, double[][] distributions) throws IOException {
+ int rows = distributions.length;
+ output.writeInt(PredictionStoreFormat.SEGMENT_MARKER);
+ output.writeInt(context.getRunIndex());
+ output.writeInt(context.getFoldIndex());
+ writeNullableString(context.getTrainingWindowLabel());
+ writeNullableString(context.getTestWindowLabel());
+ output.writeInt(context.getTrainingInstances());
+ output.writeInt(rows);
+
+ for (int i = 0; i < rows; i++) {
+ output.writeInt(context.getTestRowId(i));
+ }
+ for (int i = 0; i < rows; i++) {
+ Instance instance = test.instance(i);
+ output.writeInt(instance.classIsMissing() ? -1 : (int) instance.classValue());
+ }
+ for (int i = 0; i < rows; i++) {
+ output.writeDouble(test.instance(i).weight());
+ }
+ if (header.hasSizes()) {
+ Attribute sizeAttribute = test.attribute(header.getSizeAttributeName());
+ for (int i = 0; i < rows; i++) {
+ output.writeInt((int) test.instance(i).value(sizeAttribute));
+ }
+ }
+ for (int c = 0; c < header.getClassLabels().size(); c++) {
+ for (int i = 0; i < rows; i++) {
+ output.writeDouble(distributions[i][c]);
+ }
+ }
+ output.flush();
+ }
+
+ @Override
+ public synchronized void close() throws IOException {
+ output.close();
+ }
+
+ private void writeHeader() throws IOException {
+ output.writeInt(PredictionStoreFormat.MAGIC);
+ output.writeInt(PredictionStoreFormat.VERSION);
+ output.writeUTF(header.getDatasetName());
+ output.writeUTF(header.getClassifierId());
+ output.writeUTF(header.getClassAttributeName());
+ output.writeUTF(header.getPositiveClassValue());
+ output.writeInt(header.getClassLabels().size());
+ for (String label : header.getClassLabels()) {
+ output.writeUTF(label);
+ }
+ writeNullableString(header.getSizeAttributeName());
+ output.flush();
+ }
+
+ private void writeNullableString(String value) throws IOException {
+ output.writeBoolean(value != null);
+ if (value != null) {
+ output.writeUTF(value);
+ }
+ }
+}
@@ -0,0 +1,67 @@
+package com.milestone2.predictionStore;
+
+import java.util.List;
+
+/**
+ * Dataset and classifier metadata written once at the start of every prediction store file.
+ */
+public class StoreHeader {
+ private final String datasetName;
+ private final String classifierId;
+ private final String classAttributeName;
+ private final String positiveClassValue;
+ private final List<String> classLabels;
+ private final String sizeAttributeName;
+
+ public StoreHeader(String datasetName,
+ String classifierId,
+ String classAttributeName,
+ String positiveClassValue,
+ List<String> classLabels,
+ String sizeAttributeName) {
+ this.datasetName = datasetName;
+ this.classifierId = classifierId;
+ this.classAttributeName = classAttributeName;
+ this.positiveClassValue = positiveClassValue;
+ this.classLabels = List.copyOf(classLabels);
+ this.sizeAttributeName = sizeAttributeName;
+ }
+
+ public String getDatasetName() {
+ return datasetName;
+ }
+
+ public String getClassifierId() {
+ return classifierId;
+ }
+
+ public String getClassAttributeName() {
+ return classAttributeName;
+ }
+
+ public String getPositiveClassValue() {
+ return positiveClassValue;
+ }
+
+ public List<String> getClassLabels() {
+ return classLabels;
+ }
+
+ /**
+ * Returns the attribute whose values were stored as inspection sizes.
+ *
+ * @return size attribute name, or {@code null} when the dataset had no size attribute
+ */
+ public String getSizeAttributeName() {
+ return sizeAttributeName;
+ }
+
+ /**
+ * Tells whether the store carries an inspection-size column.
+ *
+ * @return {@code true} when sizes were stored
+ */
+ public boolean hasSizes() {
+ return sizeAttributeName != null;
+ }
+}
@@ -0,0 +1,195 @@
+package com.milestone2.predictionStore;
+
+import com.milestone2.classifier.Catalog;
+import com.milestone2.classifier.Definition;
+import com.milestone2.classifier.EvaluationReport;
+import com.milestone2.dataset.AnalysisReport;
+import com.milestone2.evaluation.PositiveClassResolver;
+import com.milestone2.foldMetadata.FoldContext;
+import com.milestone2.foldMetadata.FoldResult;
+import com.milestone2.foldMetadata.FoldResultsWriter;
+import com.milestone2.metric.BootstrapEstimator;
+import com.milestone2.metric.MetricAccumulator;
+import com.milestone2.metric.MetricAggregator;
+import com.milestone2.metric.MetricDefinition;
+import com.milestone2.metric.MetricEngine;
+import com.milestone2.metric.PooledPredictions;
+import com.milestone2.metric.PredictionBuffer;
+import com.milestone2.stacking.StackingEvaluator;
+import com.milestone2.startupUtility.ReportingOptions;
+import com.milestone2.startupUtility.RunConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import weka.core.Attribute;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rebuilds dataset reports from persisted out-of-fold predictions without retraining any classifier.
+ */
+public class StoreRecomputer {
+ private static final Logger log = LoggerFactory.getLogger(StoreRecomputer.class);
+
+ private final MetricEngine metricEngine;
+ private final MetricAggregator metricAggregator;
+ private final PositiveClassResolver positiveClassResolver;
+ private final BootstrapEstimator bootstrapEstimator;
+ private final StackingEvaluator stackingEvaluator;
+
+ public StoreRecomputer() {
+ this(new MetricEngine(),
+ new MetricAggregator(),
+ new PositiveClassResolver(),
+ new BootstrapEstimator(),
+ new StackingEvaluator());
+ }
+
+ StoreRecomputer(MetricEngine metricEngine,
+ MetricAggregator metricAggregator,
+ PositiveClassResolver positiveClassResolver,
+ BootstrapEstimator bootstrapEstimator,
+ StackingEvaluator stackingEvaluator) {
+ this.metricEngine = metricEngine;
+ this.metricAggregator = metricAggregator;
+ this.positiveClassResolver = positiveClassResolver;
+ this.bootstrapEstimator = bootstrapEstimator;
+ this.stackingEvaluator = stackingEvaluator;
+ }
+
+ /**
+ * Recomputes the report of one dataset from the stored predictions of every catalog classifier.
+ *
+ * @param store prediction store
+ * @param datasetName dataset file name
+ * @param config immutable analysis configuration
+ * @param classifierCatalog classifiers selected for the run
+ * @param foldResultsWriter writer receiving every rebuilt fold result
+ * @return rebuilt dataset report without what-if results, or {@code null} when nothing was stored
+ * @throws IOException when a store file cannot be read
+ */
+ public AnalysisReport recompute(PredictionStore store,
+ String datasetName,
+ RunConfig config,
+ Catalog classifierCatalog,
+ FoldResultsWriter foldResultsWriter) throws IOException {
+ List<EvaluationReport> classifierReports = new ArrayList<>();
+ StoreHeader lastHeader = null;
+ String positiveClass = null;
+ for (Definition definition : classifierCatalog.getDefinitions()) {
+ Path file = store.file(datasetName, definition.getId());
+ if (!Files.isRegularFile(file)) {
+ log.warn("No stored predictions for {} on '{}'; skipping", definition.getDisplayName(), datasetName);
+ continue;
+ }
+ try (PredictionStoreReader reader = new PredictionStoreReader(file)) {
+ StoreHeader header = reader.getHeader();
+ int positiveClassIndex = resolvePositiveClassIndex(header, config);
+ String positiveClassValue = header.getClassLabels().get(positiveClassIndex);
+ MetricAccumulator foldMetrics = new MetricAccumulator();
+ PooledPredictions pooled = new PooledPredictions(positiveClassIndex, header.getSizeAttributeName());
+ for (StoredFold fold = reader.next(); fold != null; fold = reader.next()) {
+ FoldResult result = recomputeFold(header, fold, positiveClassIndex, pooled, config);
+ foldMetrics.add(result);
+ foldResultsWriter.write(
+ config,
+ datasetName,
+ header.getClassAttributeName(),
+ positiveClassValue,
+ definition,
+ result
+ );
+ }
+ ReportingOptions reporting = config.getReporting();
+ Map<MetricDefinition, Double> aggregated = metricAggregator.aggregate(foldMetrics);
+ classifierReports.add(new EvaluationReport(
+ definition,
+ aggregated,
+ foldMetrics,
+ bootstrapEstimator.estimate(
+ pooled.firstRunFolds(),
+ aggregated,
+ reporting.getBootstrapResamples(),
+ reporting.getConfidenceLevel(),
+ config.getExecution().getSeed()
+ )
+ ));
+ lastHeader = header;
+ positiveClass = positiveClassValue;
+ }
+ }
+
+ if (lastHeader == null) {
+ return null;
+ }
+ if (config.getReporting().isStacking()) {
+ EvaluationReport stacked = stackingEvaluator.evaluate(
+ store,
+ datasetName,
+ classifierCatalog.getDefinitions(),
+ positiveClass,
+ config,
+ foldResultsWriter
+ );
+ if (stacked != null) {
+ classifierReports.add(stacked);
+ }
+ }
+ log.info("Recomputed {} classifier reports for dataset '{}' from the prediction store",
+ classifierReports.size(), datasetName);
+ return new AnalysisReport(datasetName, lastHeader.getClassAttributeName(), positiveClass, classifierReports);
+ }
+
+ /**
+ * Rebuilds the metric bundle of one stored fold and adds its predictions to the pool.
+ *
+ * @param header store header
+ * @param fold stored fold
+ * @param positiveClassIndex positive class index to evaluate
+ * @param pooled pooled predictions of the classifier
+ * @param config run configuration
+ * @return fold result equivalent to the one produced during training
+ */
+ private FoldResult recomputeFold(StoreHeader header,
+ StoredFold fold,
+ int positiveClassIndex,
+ PooledPredictions pooled,
+ RunConfig config) {
+ PredictionBuffer buffer = new PredictionBuffer(
+ fold.size(),
+ header.getClassLabels().size(),
+ positiveClassIndex,
+ header.hasSizes()
+ );
+ for (int i = 0; i < fold.size(); i++) {
+ buffer.record(fold.getDistribution(i), fold.getActualClass(i), fold.getWeight(i), fold.getSize(i));
+ }
+ FoldContext context = fold.getContext();
+ pooled.add(context, buffer);
+ return new FoldResult(
+ context.getRunIndex(),
+ context.getFoldIndex(),
+ context.getTrainingWindowLabel(),
+ context.getTestWindowLabel(),
+ context.getTrainingInstances(),
+ context.getTestInstances(),
+ metricEngine.compute(buffer, config.getReporting().getEffortBudgets())
+ );
+ }
+
+ /**
+ * Uses the positive class requested on the command line when present, otherwise the one stored with the
+ * predictions.
+ */
+ private int resolvePositiveClassIndex(StoreHeader header, RunConfig config) {
+ if (config.getSelection().getPositiveClassValue() != null) {
+ Attribute classAttribute = new Attribute(header.getClassAttributeName(), header.getClassLabels());
+ return positiveClassResolver.resolvePositiveClassIndex(classAttribute, config);
+ }
+ return header.getClassLabels().indexOf(header.getPositiveClassValue());
+ }
+}
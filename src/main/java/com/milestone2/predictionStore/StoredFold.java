@@ -0,0 +1,95 @@
+package com.milestone2.predictionStore;
+
+import com.milestone2.foldMetadata.FoldContext;
+
+/**
+ * Column arrays of one persisted fold segment.
+ */
+public class StoredFold {
+ private final FoldContext context;
+ private final int[] rowIds;
+ private final int[] actualClasses;
+ private final double[] weights;
+ private final int[] sizes;
+ private final double[][] classProbabilities;
+
+ StoredFold(FoldContext context,
+ int[] rowIds,
+ int[] actualClasses,
+ double[] weights,
+ int[] sizes,
+ double[][] classProbabilities) {
+ this.context = context;
+ this.rowIds = rowIds;
+ this.actualClasses = actualClasses;
+ this.weights = weights;
+ this.sizes = sizes;
+ this.classProbabilities = classProbabilities;
+ }
+
+ /**
+ * Returns the split metadata, including the test row ids.
+ *
+ * @return fold context
+ */
+ public FoldContext getContext() {
+ return context;
+ }
+
+ public int size() {
+ return rowIds.length;
+ }
+
+ public int getRowId(int index) {
+ return rowIds[index];
+ }
+
+ /**
+ * Returns the actual class index of one test row.
+ *
+ * @param index position inside the fold
+ * @return class index, or {@code -1} when the class was missing
+ */
+ public int getActualClass(int index) {
+ return actualClasses[index];
+ }
+
+ public double getWeight(int index) {
+ return weights[index];
+ }
+
+ /**
+ * Returns the stored inspection size of one test row.
+ *
+ * @param index position inside the fold
+ * @return inspection size, or {@code 0} when sizes were not stored
+ */
+ public int getSize(int index) {
+ return sizes == null ? 0 : sizes[index];
+ }
+
+ /**
+ * Returns the stored probability of one class for one test row, without rebuilding the whole distribution.
+ *
+ * @param classIndex class index
+ * @param index position inside the fold
+ * @return predicted class probability
+ */
+ public double getProbability(int classIndex, int index) {
+ return classProbabilities[classIndex][index];
+ }
+
+ /**
+ * Rebuilds the predicted class distribution of one test row.
+ *
+ * @param index position inside the fold
+ * @return class distribution
+ */
+ public double[] getDistribution(int index) {
+ double[] distribution = new double[classProbabilities.length];
+ for (int c = 0; c < distribution.length; c++) {
+ distribution[c] = classProbabilities[c][index];
+ }
+ return distribution;
+ }
+}
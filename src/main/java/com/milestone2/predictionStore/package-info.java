@@ -0,0 +1,4 @@
+/**
+ * Persistent binary store of out-of-fold predictions and the recompute workflow built on top of it.
+ */
+package com.milestone2.predictionStore;
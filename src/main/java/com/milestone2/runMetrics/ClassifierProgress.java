@@ -0,0 +1,14 @@
+package com.milestone2.runMetrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fold counters of one classifier, accumulated over every evaluation of the run.
+ */
+class ClassifierProgress {
+ final AtomicLong queued = new AtomicLong();
+ final AtomicLong running = new AtomicLong();
+ final AtomicLong completed = new AtomicLong();
+ final AtomicLong failed = new AtomicLong();
+ final LatencyHistogram latency = new LatencyHistogram();
+}
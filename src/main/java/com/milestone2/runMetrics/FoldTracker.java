@@ -0,0 +1,58 @@
+package com.milestone2.runMetrics;
+
+import com.milestone2.foldMetadata.FoldContext;
+import com.milestone2.foldMetadata.FoldResult;
+import com.milestone2.foldMetadata.FoldResultProducer;
+import weka.core.Instances;
+
+/**
+ * Counts the folds of one classifier evaluation as they are scheduled, started and finished.
+ */
+public class FoldTracker {
+ private final RunProgress progress;
+ private final ClassifierProgress classifier;
+
+ FoldTracker(RunProgress progress, ClassifierProgress classifier) {
+ this.progress = progress;
+ this.classifier = classifier;
+ }
+
+ /**
+ * Wraps a fold producer so that every fold it produces is counted and timed.
+ *
+ * @param producer fold evaluator callback
+ * @return tracking producer delegating to the given one
+ */
+ public FoldResultProducer wrap(FoldResultProducer producer) {
+ return new FoldResultProducer() {
+ @Override
+ public void scheduled(int folds) {
+ classifier.queued.addAndGet(folds);
+ progress.foldsScheduled(folds);
+ producer.scheduled(folds);
+ }
+
+ @Override
+ public FoldResult produce(Instances train, Instances test, FoldContext context) throws Exception {
+ classifier.queued.updateAndGet(queued -> Math.max(0L, queued - 1));
+ classifier.running.incrementAndGet();
+ long start = progress.nanoTime();
+ boolean completed = false;
+ try {
+ FoldResult result = producer.produce(train, test, context);
+ completed = true;
+ return result;
+ } finally {
+ classifier.running.decrementAndGet();
+ if (completed) {
+ classifier.completed.incrementAndGet();
+ classifier.latency.record(progress.nanoTime() - start);
+ progress.foldCompleted();
+ } else {
+ classifier.failed.incrementAndGet();
+ }
+ }
+ }
+ };
+ }
+}
@@ -0,0 +1,54 @@
+package com.milestone2.runMetrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-bucket histogram of fold durations, safe for concurrent recording.
+ */
+class LatencyHistogram {
+ static final double[] BUCKET_BOUNDS_SECONDS = {0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60, 120, 300, 600};
+
+ private final AtomicLongArray bucketCounts = new AtomicLongArray(BUCKET_BOUNDS_SECONDS.length + 1);
+ private final LongAdder sumNanos = new LongAdder();
+
+ /**
+ * Records one observation in the first bucket whose upper bound it does not exceed.
+ *
+ * @param nanos observed duration
+ */
+ void record(long nanos) {
+ double seconds = nanos / (double) TimeUnit.SECONDS.toNanos(1);
+ int bucket = 0;
+ while (bucket < BUCKET_BOUNDS_SECONDS.length && seconds > BUCKET_BOUNDS_SECONDS[bucket]) {
+ bucket++;
+ }
+ bucketCounts.incrementAndGet(bucket);
+ sumNanos.add(nanos);
+ }
+
+ /**
+ * Returns the cumulative counts in Prometheus order, the last entry being the {@code +Inf} bucket.
+ *
+ * @return cumulative count of every bucket
+ */
+ long[] cumulativeCounts() {
+ long[] cumulative = new long[bucketCounts.length()];
+ long running = 0;
+ for (int i = 0; i < cumulative.length; i++) {
+ running += bucketCounts.get(i);
+ cumulative[i] = running;
+ }
+ return cumulative;
+ }
+
+ /**
+ * Returns the total observed time.
+ *
+ * @return sum of the observations in seconds
+ */
+ double sumSeconds() {
+ return sumNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1);
+ }
+}
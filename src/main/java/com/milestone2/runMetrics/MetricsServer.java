@@ -0,0 +1,95 @@
+package com.milestone2.runMetrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Embedded HTTP endpoint serving the run progress to a local Prometheus scraper or {@code curl}.
+ * <p>
+ * The server listens on the loopback interface only and answers {@code GET /metrics}; every scrape renders the
+ * counters afresh on the server's single dispatcher thread, so the evaluation threads never wait on it.
+ */
+public final class MetricsServer implements AutoCloseable {
+ private static final Logger log = LoggerFactory.getLogger(MetricsServer.class);
+ private static final String PATH = "/metrics";
+
+ private final HttpServer server;
+
+ private MetricsServer(HttpServer server) {
+ this.server = server;
+ }
+
+ /**
+ * Binds the endpoint and starts serving.
+ *
+ * @param port loopback port, or {@code 0} for an ephemeral port
+ * @param progress run progress to expose
+ * @return started server
+ * @throws IOException when the port cannot be bound
+ */
+ public static MetricsServer start(int port, RunProgress progress) throws IOException {
+ HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+ MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+ server.createContext(PATH, exchange -> {
+ try {
+ respond(exchange, progress, memory);
+ } finally {
+ exchange.close();
+ }
+ });
+ server.start();
+ MetricsServer metricsServer = new MetricsServer(server);
+ log.info("Serving run metrics on http://{}:{}{}",
+ server.getAddress().getHostString(),
+ metricsServer.getPort(),
+ PATH);
+ return metricsServer;
+ }
+
+ /**
+ * Returns the port the endpoint is bound to.
+ *
+ * @return bound port
+ */
+ public int getPort() {
+ return server.getAddress().getPort();
+ }
+
+ /**
+ * Stops serving and releases the port.
+ */
+ @Override
+ public void close() {
+ server.stop(0);
+ }
+
+ private static void respond(HttpExchange exchange, RunProgress progress, MemoryMXBean memory) throws IOException {
+ String method = exchange.getRequestMethod();
+ if (!"GET".equals(method) && !"HEAD".equals(method)) {
+ exchange.getResponseHeaders().set("Allow", "GET, HEAD");
+ exchange.sendResponseHeaders(405, -1);
+ return;
+ }
+ byte[] body = PrometheusExposition.render(progress, memory.getHeapMemoryUsage())
+ .getBytes(StandardCharsets.UTF_8);
+ exchange.getResponseHeaders().set("Content-Type", PrometheusExposition.CONTENT_TYPE);
+ if ("HEAD".equals(method)) {
+ exchange.sendResponseHeaders(200, -1);
+ return;
+ }
+ exchange.sendResponseHeaders(200, body.length);
+ try (OutputStream out = exchange.getResponseBody()) {
+ out.write(body);
+ }
+ }
+}
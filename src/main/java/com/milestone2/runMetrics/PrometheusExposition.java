@@ -0,0 +1,137 @@
+package com.milestone2.runMetrics;
+
+import java.lang.management.MemoryUsage;
+import java.util.Map;
+
+/**
+ * Renders the run progress and the heap usage in the Prometheus text exposition format, version 0.0.4.
+ */
+final class PrometheusExposition {
+ static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+ private final StringBuilder text = new StringBuilder(4_096);
+
+ private PrometheusExposition() {
+ }
+
+ /**
+ * Renders one scrape.
+ *
+ * @param progress run progress to expose
+ * @param heap current heap usage
+ * @return exposition text
+ */
+ static String render(RunProgress progress, MemoryUsage heap) {
+ PrometheusExposition exposition = new PrometheusExposition();
+ exposition.classifiers(progress.classifiers());
+ exposition.workerPool(progress);
+ exposition.datasets(progress);
+ exposition.heap(heap);
+ return exposition.text.toString();
+ }
+
+ private void classifiers(Map<String, ClassifierProgress> classifiers) {
+ header("milestone2_folds_completed_total", "counter", "Folds evaluated successfully.");
+ classifiers.forEach((name, counters) ->
+ sample("milestone2_folds_completed_total", classifierLabel(name), counters.completed.get()));
+ header("milestone2_folds_failed_total", "counter", "Folds whose evaluation threw an exception.");
+ classifiers.forEach((name, counters) ->
+ sample("milestone2_folds_failed_total", classifierLabel(name), counters.failed.get()));
+ header("milestone2_folds_queued", "gauge", "Folds scheduled by an executor but not started yet.");
+ classifiers.forEach((name, counters) ->
+ sample("milestone2_folds_queued", classifierLabel(name), counters.queued.get()));
+ header("milestone2_folds_running", "gauge", "Folds being evaluated.");
+ classifiers.forEach((name, counters) ->
+ sample("milestone2_folds_running", classifierLabel(name), counters.running.get()));
+
+ header("milestone2_fold_duration_seconds", "histogram", "Wall-clock duration of the successful folds.");
+ classifiers.forEach((name, counters) -> {
+ long[] cumulative = counters.latency.cumulativeCounts();
+ double[] bounds = LatencyHistogram.BUCKET_BOUNDS_SECONDS;
+ for (int i = 0; i < cumulative.length; i++) {
+ String le = i < bounds.length ? number(bounds[i]) : "+Inf";
+ sample("milestone2_fold_duration_seconds_bucket",
+ classifierLabel(name) + ",le=\"" + le + "\"",
+ cumulative[i]);
+ }
+ sample("milestone2_fold_duration_seconds_sum", classifierLabel(name), counters.latency.sumSeconds());
+ sample("milestone2_fold_duration_seconds_count", classifierLabel(name), cumulative[cumulative.length - 1]);
+ });
+ }
+
+ private void workerPool(RunProgress progress) {
+ int workers = progress.workers();
+ int busy = progress.busyWorkers();
+ header("milestone2_fold_workers", "gauge", "Threads of the running cross-validation worker pools.");
+ sample("milestone2_fold_workers", null, workers);
+ header("milestone2_fold_workers_busy", "gauge", "Cross-validation workers evaluating a fold.");
+ sample("milestone2_fold_workers_busy", null, busy);
+ header("milestone2_fold_worker_utilization", "gauge", "Share of the cross-validation workers that are busy.");
+ sample("milestone2_fold_worker_utilization", null, workers == 0 ? 0.0 : (double) busy / workers);
+ header("milestone2_fold_worker_busy_seconds_total", "counter", "Time cross-validation workers spent on folds.");
+ sample("milestone2_fold_worker_busy_seconds_total", null, progress.busySeconds());
+ }
+
+ private void datasets(RunProgress progress) {
+ header("milestone2_datasets_total", "gauge", "Datasets the run processes.");
+ sample("milestone2_datasets_total", null, progress.totalDatasets());
+ header("milestone2_datasets_completed", "gauge", "Datasets fully processed.");
+ sample("milestone2_datasets_completed", null, progress.completedDatasets());
+ String current = progress.currentDataset();
+ header("milestone2_dataset_in_progress", "gauge", "Dataset being processed.");
+ if (current != null) {
+ sample("milestone2_dataset_in_progress", "dataset=\"" + escape(current) + "\"", 1);
+ }
+ header("milestone2_run_progress_ratio", "gauge", "Estimated completed share of the run.");
+ sample("milestone2_run_progress_ratio", null, progress.progressRatio());
+ header("milestone2_run_elapsed_seconds", "gauge", "Time since the run started.");
+ sample("milestone2_run_elapsed_seconds", null, progress.elapsedSeconds());
+ header("milestone2_run_eta_seconds", "gauge", "Estimated remaining time of the run, NaN until a fold completes.");
+ sample("milestone2_run_eta_seconds", null, progress.etaSeconds());
+ }
+
+ private void heap(MemoryUsage heap) {
+ header("jvm_memory_heap_used_bytes", "gauge", "Used heap memory.");
+ sample("jvm_memory_heap_used_bytes", null, heap.getUsed());
+ header("jvm_memory_heap_committed_bytes", "gauge", "Committed heap memory.");
+ sample("jvm_memory_heap_committed_bytes", null, heap.getCommitted());
+ header("jvm_memory_heap_max_bytes", "gauge", "Maximum heap memory, -1 when undefined.");
+ sample("jvm_memory_heap_max_bytes", null, heap.getMax());
+ }
+
+ private void header(String name, String type, String help) {
+ text.append("# HELP ").append(name).append(' ').append(help).append('\n');
+ text.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+ }
+
+ private void sample(String name, String labels, long value) {
+ sample(name, labels, Long.toString(value));
+ }
+
+ private void sample(String name, String labels, double value) {
+ sample(name, labels, number(value));
+ }
+
+ private void sample(String name, String labels, String value) {
+ text.append(name);
+ if (labels != null) {
+ text.append('{').append(labels).append('}');
+ }
+ text.append(' ').append(value).append('\n');
+ }
+
+ private static String classifierLabel(String classifier) {
+ return "classifier=\"" + escape(classifier) + "\"";
+ }
+
+ private static String number(double value) {
+ if (value == Math.rint(value) && !Double.isInfinite(value)) {
+ return Long.toString((long) value);
+ }
+ return Double.toString(value);
+ }
+
+ private static String escape(String labelValue) {
+ return labelValue.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+ }
+}
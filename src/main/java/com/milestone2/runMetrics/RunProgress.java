@@ -0,0 +1,215 @@
+package com.milestone2.runMetrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Live progress of the run: fold counters and latencies per classifier, fold worker pool usage and dataset progress.
+ * <p>
+ * The counters are updated by the evaluation code whether or not anything reads them, so they cost a few atomic
+ * increments per fold. The remaining time is extrapolated from the elapsed time and the completed share of the run,
+ * where the share of the dataset in progress is estimated from its completed folds and the average number of folds
+ * scheduled per classifier evaluation so far.
+ */
+public class RunProgress {
+ private static final RunProgress GLOBAL = new RunProgress(System::nanoTime);
+
+ private final LongSupplier clock;
+ private final ConcurrentMap<String, ClassifierProgress> classifiers = new ConcurrentHashMap<>();
+ private final AtomicInteger workers = new AtomicInteger();
+ private final AtomicInteger busyWorkers = new AtomicInteger();
+ private final LongAdder busyNanos = new LongAdder();
+ private final AtomicInteger completedDatasets = new AtomicInteger();
+ private final AtomicInteger datasetEvaluations = new AtomicInteger();
+ private final AtomicLong datasetScheduledFolds = new AtomicLong();
+ private final AtomicLong datasetCompletedFolds = new AtomicLong();
+ private volatile int totalDatasets;
+ private volatile int classifiersPerDataset;
+ private volatile String currentDataset;
+ private volatile long runStartNanos;
+ private volatile boolean runStarted;
+
+ RunProgress(LongSupplier clock) {
+ this.clock = clock;
+ }
+
+ /**
+ * Returns the progress shared by the whole process, which the metrics endpoint exposes.
+ *
+ * @return process-wide run progress
+ */
+ public static RunProgress global() {
+ return GLOBAL;
+ }
+
+ /**
+ * Starts tracking a run over the given datasets and resets the dataset progress. Fold counters keep accumulating.
+ *
+ * @param datasets number of datasets the run will process
+ * @param classifiers number of classifiers evaluated on every dataset
+ */
+ public void runStarted(int datasets, int classifiers) {
+ totalDatasets = datasets;
+ classifiersPerDataset = classifiers;
+ completedDatasets.set(0);
+ currentDataset = null;
+ runStartNanos = clock.getAsLong();
+ runStarted = true;
+ }
+
+ /**
+ * Marks a dataset as being processed.
+ *
+ * @param dataset dataset name
+ */
+ public void datasetStarted(String dataset) {
+ datasetEvaluations.set(0);
+ datasetScheduledFolds.set(0);
+ datasetCompletedFolds.set(0);
+ currentDataset = dataset;
+ }
+
+ /**
+ * Marks the dataset in progress as done.
+ */
+ public void datasetFinished() {
+ currentDataset = null;
+ completedDatasets.incrementAndGet();
+ }
+
+ /**
+ * Starts tracking one classifier evaluation.
+ *
+ * @param classifier classifier display name
+ * @return tracker of the evaluation's folds
+ */
+ public FoldTracker track(String classifier) {
+ datasetEvaluations.incrementAndGet();
+ return new FoldTracker(this, classifiers.computeIfAbsent(classifier, ignored -> new ClassifierProgress()));
+ }
+
+ /**
+ * Registers a fold worker pool that has just been started.
+ *
+ * @param poolSize number of worker threads
+ */
+ public void workerPoolStarted(int poolSize) {
+ workers.addAndGet(poolSize);
+ }
+
+ /**
+ * Unregisters a fold worker pool that is shutting down.
+ *
+ * @param poolSize number of worker threads
+ */
+ public void workerPoolStopped(int poolSize) {
+ workers.addAndGet(-poolSize);
+ }
+
+ /**
+ * Marks a fold worker as busy.
+ *
+ * @return start of the busy period, to pass to {@link #workerIdle(long)}
+ */
+ public long workerBusy() {
+ busyWorkers.incrementAndGet();
+ return clock.getAsLong();
+ }
+
+ /**
+ * Marks a fold worker as idle again.
+ *
+ * @param busySince value returned by {@link #workerBusy()}
+ */
+ public void workerIdle(long busySince) {
+ busyNanos.add(clock.getAsLong() - busySince);
+ busyWorkers.decrementAndGet();
+ }
+
+ long nanoTime() {
+ return clock.getAsLong();
+ }
+
+ void foldsScheduled(int folds) {
+ datasetScheduledFolds.addAndGet(folds);
+ }
+
+ void foldCompleted() {
+ datasetCompletedFolds.incrementAndGet();
+ }
+
+ Map<String, ClassifierProgress> classifiers() {
+ return new TreeMap<>(classifiers);
+ }
+
+ int workers() {
+ return workers.get();
+ }
+
+ int busyWorkers() {
+ return busyWorkers.get();
+ }
+
+ double busySeconds() {
+ return busyNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1);
+ }
+
+ int totalDatasets() {
+ return totalDatasets;
+ }
+
+ int completedDatasets() {
+ return completedDatasets.get();
+ }
+
+ String currentDataset() {
+ return currentDataset;
+ }
+
+ double elapsedSeconds() {
+ return runStarted ? (clock.getAsLong() - runStartNanos) / (double) TimeUnit.SECONDS.toNanos(1) : 0.0;
+ }
+
+ /**
+ * Returns the completed share of the run, including the estimated share of the dataset in progress.
+ *
+ * @return progress in {@code [0, 1]}
+ */
+ double progressRatio() {
+ int total = totalDatasets;
+ if (total == 0) {
+ return 0.0;
+ }
+ return Math.min(1.0, (completedDatasets.get() + currentDatasetShare()) / total);
+ }
+
+ /**
+ * Extrapolates the remaining time from the elapsed time and the completed share of the run.
+ *
+ * @return estimated remaining seconds, or {@code NaN} while nothing has completed yet
+ */
+ double etaSeconds() {
+ double progress = progressRatio();
+ if (progress <= 0.0) {
+ return Double.NaN;
+ }
+ return elapsedSeconds() * (1.0 - progress) / progress;
+ }
+
+ private double currentDatasetShare() {
+ int evaluations = datasetEvaluations.get();
+ long scheduled = datasetScheduledFolds.get();
+ if (currentDataset == null || evaluations == 0 || scheduled == 0) {
+ return 0.0;
+ }
+ double expectedFolds = Math.max(scheduled, (double) scheduled / evaluations * classifiersPerDataset);
+ return Math.min(1.0, datasetCompletedFolds.get() / expectedFolds);
+ }
+}
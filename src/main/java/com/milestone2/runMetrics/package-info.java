@@ -0,0 +1,5 @@
+/**
+ * Live progress and throughput counters of a run and the local Prometheus endpoint started by
+ * {@code --metrics-port}.
+ */
+package com.milestone2.runMetrics;
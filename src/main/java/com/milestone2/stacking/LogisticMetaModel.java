@@ -0,0 +1,148 @@
+package com.milestone2.stacking;
+
+import java.util.Arrays;
+
+/**
+ * Ridge-penalized logistic regression over the member log-odds, fitted with Newton-Raphson on primitive arrays.
+ * <p>
+ * The design matrix is row-major with one column per member; the intercept is implicit and not penalized. With a
+ * handful of members the Hessian is tiny, so each iteration costs one pass over the training rows.
+ */
+public final class LogisticMetaModel {
+ private static final int MAX_ITERATIONS = 25;
+ private static final double CONVERGENCE = 1e-8;
+
+ private LogisticMetaModel() {
+ }
+
+ /**
+ * Fits the meta-model on a subset of rows.
+ *
+ * @param features row-major member log-odds
+ * @param columns number of members
+ * @param labels {@code 1} for positive rows, {@code 0} otherwise
+ * @param weights row weights
+ * @param rows indexes of the training rows
+ * @param rowCount number of valid entries in {@code rows}
+ * @param ridge L2 penalty on the member coefficients
+ * @return intercept followed by one coefficient per member
+ */
+ static double[] fit(double[] features,
+ int columns,
+ int[] labels,
+ double[] weights,
+ int[] rows,
+ int rowCount,
+ double ridge) {
+ int dimension = columns + 1;
+ double[] coefficients = new double[dimension];
+ double[] gradient = new double[dimension];
+ double[] hessian = new double[dimension * dimension];
+ double[] step = new double[dimension];
+ for (int iteration = 0; iteration < MAX_ITERATIONS; iteration++) {
+ Arrays.fill(gradient, 0.0);
+ Arrays.fill(hessian, 0.0);
+ for (int r = 0; r < rowCount; r++) {
+ int row = rows[r];
+ int offset = row * columns;
+ double probability = sigmoid(linear(coefficients, features, offset, columns));
+ double residual = weights[row] * (labels[row] - probability);
+ double curvature = weights[row] * probability * (1.0 - probability);
+ for (int i = 0; i < dimension; i++) {
+ double xi = i == 0 ? 1.0 : features[offset + i - 1];
+ gradient[i] += residual * xi;
+ for (int j = 0; j <= i; j++) {
+ double xj = j == 0 ? 1.0 : features[offset + j - 1];
+ hessian[i * dimension + j] += curvature * xi * xj;
+ }
+ }
+ }
+ for (int i = 1; i < dimension; i++) {
+ gradient[i] -= ridge * coefficients[i];
+ hessian[i * dimension + i] += ridge;
+ }
+ for (int i = 0; i < dimension; i++) {
+ for (int j = i + 1; j < dimension; j++) {
+ hessian[i * dimension + j] = hessian[j * dimension + i];
+ }
+ }
+ if (!solve(hessian, gradient, step, dimension)) {
+ break;
+ }
+ double largest = 0.0;
+ for (int i = 0; i < dimension; i++) {
+ coefficients[i] += step[i];
+ largest = Math.max(largest, Math.abs(step[i]));
+ }
+ if (largest < CONVERGENCE) {
+ break;
+ }
+ }
+ return coefficients;
+ }
+
+ /**
+ * Returns the positive-class probability of one row.
+ *
+ * @param coefficients intercept followed by one coefficient per member
+ * @param features row-major member log-odds
+ * @param row row index
+ * @param columns number of members
+ * @return predicted positive-class probability
+ */
+ static double predict(double[] coefficients, double[] features, int row, int columns) {
+ return sigmoid(linear(coefficients, features, row * columns, columns));
+ }
+
+ static double sigmoid(double value) {
+ return 1.0 / (1.0 + Math.exp(-value));
+ }
+
+ private static double linear(double[] coefficients, double[] features, int offset, int columns) {
+ double value = coefficients[0];
+ for (int c = 0; c < columns; c++) {
+ value += coefficients[c + 1] * features[offset + c];
+ }
+ return value;
+ }
+
+ /**
+ * Solves {@code matrix * solution = vector} by Cholesky decomposition of the symmetric positive-definite Hessian.
+ *
+ * @return {@code false} when the matrix is not positive definite
+ */
+ private static boolean solve(double[] matrix, double[] vector, double[] solution, int dimension) {
+ double[] lower = new double[dimension * dimension];
+ for (int i = 0; i < dimension; i++) {
+ for (int j = 0; j <= i; j++) {
+ double sum = matrix[i * dimension + j];
+ for (int k = 0; k < j; k++) {
+ sum -= lower[i * dimension + k] * lower[j * dimension + k];
+ }
+ if (i == j) {
+ if (sum <= 0.0) {
+ return false;
+ }
+ lower[i * dimension + i] = Math.sqrt(sum);
+ } else {
+ lower[i * dimension + j] = sum / lower[j * dimension + j];
+ }
+ }
+ }
+ for (int i = 0; i < dimension; i++) {
+ double sum = vector[i];
+ for (int k = 0; k < i; k++) {
+ sum -= lower[i * dimension + k] * solution[k];
+ }
+ solution[i] = sum / lower[i * dimension + i];
+ }
+ for (int i = dimension - 1; i >= 0; i--) {
+ double sum = solution[i];
+ for (int k = i + 1; k < dimension; k++) {
+ sum -= lower[k * dimension + i] * solution[k];
+ }
+ solution[i] = sum / lower[i * dimension + i];
+ }
+ return true;
+ }
+}
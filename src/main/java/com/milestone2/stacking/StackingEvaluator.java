@@ -0,0 +1,223 @@
+package com.milestone2.stacking;
+
+import com.milestone2.classifier.Definition;
+import com.milestone2.classifier.EvaluationReport;
+import com.milestone2.foldMetadata.FoldContext;
+import com.milestone2.foldMetadata.FoldResult;
+import com.milestone2.foldMetadata.FoldResultSink;
+import com.milestone2.foldMetadata.FoldResultsWriter;
+import com.milestone2.metric.BootstrapEstimator;
+import com.milestone2.metric.MetricAccumulator;
+import com.milestone2.metric.MetricAggregator;
+import com.milestone2.metric.MetricDefinition;
+import com.milestone2.metric.MetricEngine;
+import com.milestone2.metric.PooledPredictions;
+import com.milestone2.metric.PredictionBuffer;
+import com.milestone2.predictionStore.PredictionStore;
+import com.milestone2.startupUtility.ReportingOptions;
+import com.milestone2.startupUtility.RunConfig;
+import com.milestone2.validationStrategy.ValidationStrategy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates a stacking pseudo-classifier from the stored out-of-fold predictions of the catalog members, without
+ * retraining any of them.
+ * <p>
+ * For every split, a {@link LogisticMetaModel} is fitted on the member log-odds of the other splits of the same run
+ * and scores the split's rows. Under cross-validation all other folds are used; under walk-forward and ordered
+ * holdout only earlier splits are, so the meta-model never learns from the future. A split with no usable training
+ * rows, such as the first walk-forward window, falls back to the mean of the member probabilities. The member
+ * predictions of the training splits come from models that saw the scored split, a small optimism that Weka's
+ * {@code Stacking} avoids by nesting a second cross-validation, at the price of retraining every member once per
+ * inner fold.
+ */
+public class StackingEvaluator {
+ public static final String STACKING_ID = "STACK";
+ private static final Logger log = LoggerFactory.getLogger(StackingEvaluator.class);
+ private static final double RIDGE = 1.0;
+
+ private final MetricEngine metricEngine;
+ private final MetricAggregator metricAggregator;
+ private final BootstrapEstimator bootstrapEstimator;
+
+ public StackingEvaluator() {
+ this(new MetricEngine(), new MetricAggregator(), new BootstrapEstimator());
+ }
+
+ StackingEvaluator(MetricEngine metricEngine,
+ MetricAggregator metricAggregator,
+ BootstrapEstimator bootstrapEstimator) {
+ this.metricEngine = metricEngine;
+ this.metricAggregator = metricAggregator;
+ this.bootstrapEstimator = bootstrapEstimator;
+ }
+
+ /**
+ * Stacks the stored predictions of the catalog members on one dataset and reports the result as an extra
+ * classifier.
+ *
+ * @param store prediction store holding the member predictions
+ * @param datasetName dataset file name
+ * @param members catalog classifiers to stack
+ * @param positiveClass positive class label
+ * @param config immutable analysis configuration
+ * @param foldResultsWriter writer receiving every stacked fold result
+ * @return stacked classifier report, or {@code null} when fewer than two members were stored
+ * @throws IOException when a store file cannot be read or a fold result cannot be written
+ */
+ public EvaluationReport evaluate(PredictionStore store,
+ String datasetName,
+ List<Definition> members,
+ String positiveClass,
+ RunConfig config,
+ FoldResultsWriter foldResultsWriter) throws IOException {
+ long start = System.nanoTime();
+ StackingFolds folds = StackingFolds.read(store, datasetName, members, positiveClass);
+ if (folds == null || folds.getMembers().size() < 2) {
+ log.warn("Stacking on '{}' needs the stored predictions of at least two classifiers; skipping", datasetName);
+ return null;
+ }
+ Definition definition = definitionFor(folds.getMembers());
+ FoldResultSink resultSink = foldResultsWriter.sinkFor(
+ config,
+ datasetName,
+ folds.getHeader().getClassAttributeName(),
+ positiveClass,
+ definition
+ );
+ boolean temporal = config.getExecution().getValidationStrategy() != ValidationStrategy.CROSS_VALIDATION;
+ MetricAccumulator foldMetrics = new MetricAccumulator();
+ PooledPredictions pooled = new PooledPredictions(
+ folds.getPositiveClassIndex(),
+ folds.getHeader().getSizeAttributeName()
+ );
+ int[] trainingRows = new int[folds.labels().length];
+ for (int fold = 0; fold < folds.foldCount(); fold++) {
+ int trainingCount = collectTrainingRows(folds, fold, temporal, trainingRows);
+ double[] coefficients = hasBothClasses(folds.labels(), trainingRows, trainingCount)
+ ? LogisticMetaModel.fit(folds.logOdds(), folds.getMembers().size(), folds.labels(), folds.weights(),
+ trainingRows, trainingCount, RIDGE)
+ : null;
+ PredictionBuffer buffer = score(folds, fold, coefficients);
+ FoldContext context = folds.context(fold);
+ pooled.add(context, buffer);
+ FoldResult result = new FoldResult(
+ context.getRunIndex(),
+ context.getFoldIndex(),
+ context.getTrainingWindowLabel(),
+ context.getTestWindowLabel(),
+ trainingCount,
+ buffer.size(),
+ metricEngine.compute(buffer, config.getReporting().getEffortBudgets())
+ );
+ foldMetrics.add(result);
+ resultSink.accept(result);
+ }
+
+ ReportingOptions reporting = config.getReporting();
+ Map<MetricDefinition, Double> aggregated = metricAggregator.aggregate(foldMetrics);
+ EvaluationReport report = new EvaluationReport(
+ definition,
+ aggregated,
+ foldMetrics,
+ bootstrapEstimator.estimate(
+ pooled.firstRunFolds(),
+ aggregated,
+ reporting.getBootstrapResamples(),
+ reporting.getConfidenceLevel(),
+ config.getExecution().getSeed()
+ )
+ );
+ log.info("Stacked {} on '{}' over {} splits in {} ms",
+ definition.getOptions(),
+ datasetName,
+ folds.foldCount(),
+ TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+ return report;
+ }
+
+ /**
+ * Builds the pseudo-classifier definition that identifies the stack in the reports.
+ *
+ * @param members stacked classifiers
+ * @return stacking definition
+ */
+ static Definition definitionFor(List<Definition> members) {
+ return new Definition(
+ STACKING_ID,
+ members.stream().map(Definition::getDisplayName).collect(Collectors.joining(" + ", "Stacking (", ")")),
+ LogisticMetaModel.class.getName(),
+ members.stream().map(Definition::getId).collect(Collectors.joining(",", "members=", ""))
+ );
+ }
+
+ private static int collectTrainingRows(StackingFolds folds, int target, boolean temporal, int[] rows) {
+ FoldContext targetContext = folds.context(target);
+ int count = 0;
+ for (int fold = 0; fold < folds.foldCount(); fold++) {
+ FoldContext context = folds.context(fold);
+ boolean usable = context.getRunIndex() == targetContext.getRunIndex()
+ && (temporal ? context.getFoldIndex() < targetContext.getFoldIndex() : fold != target);
+ if (!usable) {
+ continue;
+ }
+ for (int row = folds.foldStart(fold); row < folds.foldEnd(fold); row++) {
+ if (folds.actualClass(row) >= 0) {
+ rows[count++] = row;
+ }
+ }
+ }
+ return count;
+ }
+
+ private static boolean hasBothClasses(int[] labels, int[] rows, int count) {
+ boolean positive = false;
+ boolean negative = false;
+ for (int r = 0; r < count && !(positive && negative); r++) {
+ positive |= labels[rows[r]] == 1;
+ negative |= labels[rows[r]] == 0;
+ }
+ return positive && negative;
+ }
+
+ /**
+ * Scores the rows of one split, spreading the negative mass evenly over the non-positive classes.
+ */
+ private static PredictionBuffer score(StackingFolds folds, int fold, double[] coefficients) {
+ int columns = folds.getMembers().size();
+ int numClasses = folds.getHeader().getClassLabels().size();
+ int positiveClassIndex = folds.getPositiveClassIndex();
+ PredictionBuffer buffer = new PredictionBuffer(
+ folds.foldEnd(fold) - folds.foldStart(fold),
+ numClasses,
+ positiveClassIndex,
+ folds.getHeader().hasSizes()
+ );
+ double[] distribution = new double[numClasses];
+ for (int row = folds.foldStart(fold); row < folds.foldEnd(fold); row++) {
+ double probability = coefficients != null
+ ? LogisticMetaModel.predict(coefficients, folds.logOdds(), row, columns)
+ : meanProbability(folds.logOdds(), row, columns);
+ for (int c = 0; c < numClasses; c++) {
+ distribution[c] = c == positiveClassIndex ? probability : (1.0 - probability) / (numClasses - 1);
+ }
+ buffer.record(distribution, folds.actualClass(row), folds.weights()[row], folds.size(row));
+ }
+ return buffer;
+ }
+
+ private static double meanProbability(double[] logOdds, int row, int columns) {
+ double sum = 0.0;
+ for (int c = 0; c < columns; c++) {
+ sum += LogisticMetaModel.sigmoid(logOdds[row * columns + c]);
+ }
+ return sum / columns;
+ }
+}
@@ -0,0 +1,288 @@
+package com.milestone2.stacking;
+
+import com.milestone2.classifier.Definition;
+import com.milestone2.foldMetadata.FoldContext;
+import com.milestone2.predictionStore.PredictionStore;
+import com.milestone2.predictionStore.PredictionStoreReader;
+import com.milestone2.predictionStore.StoreHeader;
+import com.milestone2.predictionStore.StoredFold;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Out-of-fold predictions of the stacking members, aligned by run, fold and dataset row.
+ * <p>
+ * All rows of all folds share one row-major array of member log-odds, so the meta-model can be fitted on any
+ * subset of folds by index without copying. Rows that are missing from one member's store are dropped.
+ */
+final class StackingFolds {
+ private static final Logger log = LoggerFactory.getLogger(StackingFolds.class);
+ private static final double PROBABILITY_FLOOR = 1e-6;
+
+ private final List<Definition> members;
+ private final StoreHeader header;
+ private final int positiveClassIndex;
+ private final List<FoldContext> contexts;
+ private final int[] foldStarts;
+ private final int[] labels;
+ private final int[] actualClasses;
+ private final double[] weights;
+ private final int[] sizes;
+ private final double[] logOdds;
+
+ private StackingFolds(List<Definition> members,
+ StoreHeader header,
+ int positiveClassIndex,
+ List<FoldContext> contexts,
+ int[] foldStarts,
+ int[] actualClasses,
+ double[] weights,
+ int[] sizes,
+ double[] logOdds) {
+ this.members = List.copyOf(members);
+ this.header = header;
+ this.positiveClassIndex = positiveClassIndex;
+ this.contexts = List.copyOf(contexts);
+ this.foldStarts = foldStarts;
+ this.actualClasses = actualClasses;
+ this.weights = weights;
+ this.sizes = sizes;
+ this.logOdds = logOdds;
+ this.labels = new int[actualClasses.length];
+ for (int row = 0; row < actualClasses.length; row++) {
+ labels[row] = actualClasses[row] == positiveClassIndex ? 1 : 0;
+ }
+ }
+
+ /**
+ * Reads and aligns the stored predictions of the members found in the store.
+ *
+ * @param store prediction store
+ * @param datasetName dataset file name
+ * @param candidates catalog classifiers that may contribute
+ * @param positiveClass positive class label
+ * @return aligned folds, or {@code null} when no member could be read
+ * @throws IOException when a store file cannot be read
+ */
+ static StackingFolds read(PredictionStore store,
+ String datasetName,
+ List<Definition> candidates,
+ String positiveClass) throws IOException {
+ List<Definition> members = new ArrayList<>();
+ List<Map<Long, StoredFold>> memberFolds = new ArrayList<>();
+ List<Integer> positiveIndexes = new ArrayList<>();
+ List<StoredFold> reference = null;
+ StoreHeader header = null;
+ for (Definition candidate : candidates) {
+ Path file = store.file(datasetName, candidate.getId());
+ if (!Files.isRegularFile(file)) {
+ log.warn("No stored predictions for {} on '{}'; it is left out of the stack",
+ candidate.getDisplayName(), datasetName);
+ continue;
+ }
+ try (PredictionStoreReader reader = new PredictionStoreReader(file)) {
+ int positiveIndex = reader.getHeader().getClassLabels().indexOf(positiveClass);
+ if (positiveIndex < 0) {
+ log.warn("Stored predictions of {} on '{}' do not know class '{}'; it is left out of the stack",
+ candidate.getDisplayName(), datasetName, positiveClass);
+ continue;
+ }
+ List<StoredFold> folds = reader.readAll();
+ Map<Long, StoredFold> byKey = new HashMap<>();
+ for (StoredFold fold : folds) {
+ byKey.put(key(fold.getContext()), fold);
+ }
+ if (reference == null) {
+ reference = new ArrayList<>(folds);
+ header = reader.getHeader();
+ }
+ members.add(candidate);
+ memberFolds.add(byKey);
+ positiveIndexes.add(positiveIndex);
+ }
+ }
+ if (reference == null) {
+ return null;
+ }
+ reference.sort(Comparator.comparingLong((StoredFold fold) -> key(fold.getContext())));
+ return align(members, memberFolds, positiveIndexes, reference, header);
+ }
+
+ private static StackingFolds align(List<Definition> members,
+ List<Map<Long, StoredFold>> memberFolds,
+ List<Integer> positiveIndexes,
+ List<StoredFold> reference,
+ StoreHeader header) {
+ int columns = members.size();
+ int capacity = 0;
+ for (StoredFold fold : reference) {
+ capacity += fold.size();
+ }
+ int[] actualClasses = new int[capacity];
+ double[] weights = new double[capacity];
+ int[] sizes = new int[capacity];
+ double[] logOdds = new double[capacity * columns];
+ List<FoldContext> contexts = new ArrayList<>();
+ List<Integer> starts = new ArrayList<>();
+ int row = 0;
+ for (StoredFold fold : reference) {
+ long key = key(fold.getContext());
+ int[][] positions = new int[columns][];
+ boolean complete = true;
+ for (int m = 0; m < columns && complete; m++) {
+ StoredFold memberFold = memberFolds.get(m).get(key);
+ complete = memberFold != null;
+ positions[m] = complete ? positions(fold, memberFold) : null;
+ }
+ if (!complete) {
+ log.warn("Fold {} of run {} is missing from a member store; it is left out of the stack",
+ fold.getContext().getFoldIndex(), fold.getContext().getRunIndex());
+ continue;
+ }
+ int start = row;
+ int[] rowIds = new int[fold.size()];
+ for (int i = 0; i < fold.size(); i++) {
+ if (!isAligned(positions, i)) {
+ continue;
+ }
+ actualClasses[row] = fold.getActualClass(i);
+ weights[row] = fold.getWeight(i);
+ sizes[row] = fold.getSize(i);
+ for (int m = 0; m < columns; m++) {
+ StoredFold memberFold = memberFolds.get(m).get(key);
+ double probability = memberFold.getProbability(positiveIndexes.get(m), positions[m][i]);
+ logOdds[row * columns + m] = logOdds(probability);
+ }
+ rowIds[row - start] = fold.getRowId(i);
+ row++;
+ }
+ FoldContext context = fold.getContext();
+ contexts.add(new FoldContext(
+ context.getRunIndex(),
+ context.getFoldIndex(),
+ context.getTrainingWindowLabel(),
+ context.getTestWindowLabel(),
+ context.getTrainingInstances(),
+ row - start
+ ).withTestRowIds(Arrays.copyOf(rowIds, row - start)));
+ starts.add(start);
+ }
+ int[] foldStarts = new int[starts.size() + 1];
+ for (int f = 0; f < starts.size(); f++) {
+ foldStarts[f] = starts.get(f);
+ }
+ foldStarts[starts.size()] = row;
+ return new StackingFolds(
+ members,
+ header,
+ positiveIndexes.get(0),
+ contexts,
+ foldStarts,
+ Arrays.copyOf(actualClasses, row),
+ Arrays.copyOf(weights, row),
+ Arrays.copyOf(sizes, row),
+ Arrays.copyOf(logOdds, row * columns)
+ );
+ }
+
+ /**
+ * Maps every row of the reference fold to its position in a member's fold, or {@code -1} when it is missing.
+ */
+ private static int[] positions(StoredFold reference, StoredFold member) {
+ int[] positions = new int[reference.size()];
+ boolean sameOrder = reference.size() == member.size();
+ for (int i = 0; i < reference.size() && sameOrder; i++) {
+ sameOrder = reference.getRowId(i) == member.getRowId(i);
+ }
+ if (sameOrder) {
+ for (int i = 0; i < positions.length; i++) {
+ positions[i] = i;
+ }
+ return positions;
+ }
+ Map<Integer, Integer> byRowId = new HashMap<>();
+ for (int i = 0; i < member.size(); i++) {
+ byRowId.put(member.getRowId(i), i);
+ }
+ for (int i = 0; i < positions.length; i++) {
+ positions[i] = byRowId.getOrDefault(reference.getRowId(i), -1);
+ }
+ return positions;
+ }
+
+ private static boolean isAligned(int[][] positions, int row) {
+ for (int[] memberPositions : positions) {
+ if (memberPositions[row] < 0) {
+ return false;
+ }
+ }
+ return true;
+ }
+
+ private static double logOdds(double probability) {
+ double clipped = Math.min(1.0 - PROBABILITY_FLOOR, Math.max(PROBABILITY_FLOOR, probability));
+ return Math.log(clipped / (1.0 - clipped));
+ }
+
+ private static long key(FoldContext context) {
+ return ((long) context.getRunIndex() << 32) | (context.getFoldIndex() & 0xFFFFFFFFL);
+ }
+
+ List<Definition> getMembers() {
+ return members;
+ }
+
+ StoreHeader getHeader() {
+ return header;
+ }
+
+ int getPositiveClassIndex() {
+ return positiveClassIndex;
+ }
+
+ int foldCount() {
+ return contexts.size();
+ }
+
+ FoldContext context(int fold) {
+ return contexts.get(fold);
+ }
+
+ int foldStart(int fold) {
+ return foldStarts[fold];
+ }
+
+ int foldEnd(int fold) {
+ return foldStarts[fold + 1];
+ }
+
+ int[] labels() {
+ return labels;
+ }
+
+ int actualClass(int row) {
+ return actualClasses[row];
+ }
+
+ double[] weights() {
+ return weights;
+ }
+
+ int size(int row) {
+ return sizes[row];
+ }
+
+ double[] logOdds() {
+ return logOdds;
+ }
+}
@@ -0,0 +1,4 @@
+/**
+ * Stacking of the catalog classifiers from their stored out-of-fold predictions.
+ */
+package com.milestone2.stacking;
@@ -1,9 +1,14 @@
 package com.milestone2.startupUtility;
 
 import com.milestone2.classifier.Catalog;
+import com.milestone2.flightRecorder.FlightRecording;
+import com.milestone2.runMetrics.MetricsServer;
+import com.milestone2.runMetrics.RunProgress;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Path;
+
 /**
  * Bootstraps and runs a full analysis execution.
  */
@@ -53,8 +58,22 @@ public class Application {
  );
  analysisStartupValidator.validate(config, classifierCatalog);
 
+ Path jfrFile = config.getReporting().getJfrFile();
+ int metricsPort = config.getReporting().getMetricsPort();
+ FlightRecording recording = jfrFile == null ? null : FlightRecording.start(jfrFile);
+ try {
+ MetricsServer metricsServer = metricsPort < 0 ? null : MetricsServer.start(metricsPort, RunProgress.global());
  try (OutputWriters outputs = OutputWriters.open(config)) {
  analysisRunner.run(config, classifierCatalog, outputs);
+ } finally {
+ if (metricsServer != null) {
+ metricsServer.close();
+ }
+ }
+ } finally {
+ if (recording != null) {
+ recording.close();
+ }
  }
 
  log.info("Analysis run '{}' completed successfully", execution.getRunId());
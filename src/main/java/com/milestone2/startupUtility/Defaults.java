@@ -1,9 +1,13 @@
 package com.milestone2.startupUtility;
 
+import com.milestone2.csvExporter.ChartMode;
 import com.milestone2.evaluation.BalancingStrategy;
 import com.milestone2.evaluation.FeatureSelectionStrategy;
+import com.milestone2.metric.EffortBudgets;
 import com.milestone2.validationStrategy.ValidationStrategy;
 
+import java.util.List;
+
 /**
  * Configuration with design constants.
  */
@@ -17,10 +21,17 @@ public class Defaults {
  public static final String OUTPUT_DIR = "output";
  public static final String RESULTS_CSV = "results.csv";
  public static final String FOLD_CSV = "fold_metrics.csv";
+ public static final String RESULTS_COLUMNAR = "results.m2c";
+ public static final String FOLD_COLUMNAR = "fold_metrics.m2c";
  public static final String MILESTONE2_SUMMARY_CSV = "milestone2_summary.csv";
  public static final String FEATURE_CORRELATIONS_CSV = "feature_correlations.csv";
+ public static final String FEATURE_MATRIX_CSV = "feature_correlation_matrix.csv";
  public static final String WHAT_IF_SUMMARY_CSV = "what_if_summary.csv";
+ public static final String WHAT_IF_SENSITIVITY_CSV = "what_if_sensitivity.csv";
+ public static final String CLASSIFIER_COMPARISON_CSV = "classifier_comparison.csv";
  public static final String CHARTS_DIR = "charts";
+ public static final String PREDICTIONS_DIR = "predictions";
+ public static final String MODELS_DIR = "models";
  public static final String CLASSIFIERS_CONFIG = "classifiers.properties";
  public static final String DEFAULT_SIZE_ATTRIBUTE = "LOC";
  public static final String DEFAULT_WHAT_IF_FEATURE = "NSmells";
@@ -33,6 +44,24 @@ public class Defaults {
  public static final int DEFAULT_MAX_PARALLELISM = 0;
  public static final BalancingStrategy DEFAULT_BALANCING_STRATEGY = BalancingStrategy.NONE;
  public static final boolean DEFAULT_WHAT_IF_ENABLED = true;
+ public static final boolean DEFAULT_WHAT_IF_SWEEP_ENABLED = false;
+ public static final boolean DEFAULT_WHAT_IF_ALL_CLASSIFIERS = false;
+ public static final boolean DEFAULT_WHAT_IF_SENSITIVITY_ENABLED = false;
+ public static final boolean DEFAULT_WHAT_IF_MODEL_CACHE = true;
+ public static final boolean DEFAULT_FEATURE_MATRIX_ENABLED = false;
+ public static final List<Double> DEFAULT_WHAT_IF_SENSITIVITY_LEVELS =
+ List.of(0.0, 0.25, 0.5, 0.75, 1.0, 1.25, 1.5, 1.75, 2.0);
+ public static final boolean DEFAULT_STORE_PREDICTIONS = true;
+ public static final int DEFAULT_BOOTSTRAP_RESAMPLES = 1_000;
+ public static final double DEFAULT_CONFIDENCE_LEVEL = 0.95;
+ public static final int DEFAULT_PERMUTATIONS = 5_000;
+ public static final double DEFAULT_SIGNIFICANCE_LEVEL = 0.05;
+ public static final boolean DEFAULT_STACKING_ENABLED = false;
+ public static final OutputFormat DEFAULT_OUTPUT_FORMAT = OutputFormat.CSV;
+ public static final ChartMode DEFAULT_CHART_MODE = ChartMode.ASYNC;
+ public static final OutputMode DEFAULT_OUTPUT_MODE = OutputMode.OVERWRITE;
+ public static final int DEFAULT_METRICS_PORT = -1;
+ public static final EffortBudgets DEFAULT_EFFORT_BUDGETS = EffortBudgets.NONE;
  public static final int DEFAULT_MINIMUM_TRAINING_PERIODS = 1;
  public static final ValidationStrategy DEFAULT_VALIDATION_STRATEGY = ValidationStrategy.CROSS_VALIDATION;
  public static final FeatureSelectionStrategy DEFAULT_FEATURE_SELECTION_STRATEGY = FeatureSelectionStrategy.NONE;
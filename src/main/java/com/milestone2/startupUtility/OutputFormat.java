@@ -0,0 +1,47 @@
+package com.milestone2.startupUtility;
+
+/**
+ * File formats used for the aggregate and per-fold result exports.
+ */
+public enum OutputFormat {
+ CSV("csv"),
+ COLUMNAR("columnar"),
+ BOTH("both");
+
+ private final String cliValue;
+
+ OutputFormat(String cliValue) {
+ this.cliValue = cliValue;
+ }
+
+ public String getCliValue() {
+ return cliValue;
+ }
+
+ /**
+ * Tells whether the CSV exports are written.
+ *
+ * @return {@code true} for {@link #CSV} and {@link #BOTH}
+ */
+ public boolean writesCsv() {
+ return this != COLUMNAR;
+ }
+
+ /**
+ * Tells whether the compressed columnar exports are written.
+ *
+ * @return {@code true} for {@link #COLUMNAR} and {@link #BOTH}
+ */
+ public boolean writesColumnar() {
+ return this != CSV;
+ }
+
+ public static OutputFormat from(String value) {
+ for (OutputFormat format : values()) {
+ if (format.cliValue.equalsIgnoreCase(value)) {
+ return format;
+ }
+ }
+ throw new IllegalArgumentException("Unknown output format: " + value);
+ }
+}
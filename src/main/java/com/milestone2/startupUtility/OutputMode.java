@@ -0,0 +1,28 @@
+package com.milestone2.startupUtility;
+
+/**
+ * How a run treats the outputs left in the output directory by earlier runs.
+ */
+public enum OutputMode {
+ OVERWRITE("overwrite"),
+ MERGE("merge");
+
+ private final String cliValue;
+
+ OutputMode(String cliValue) {
+ this.cliValue = cliValue;
+ }
+
+ public String getCliValue() {
+ return cliValue;
+ }
+
+ public static OutputMode from(String value) {
+ for (OutputMode mode : values()) {
+ if (mode.cliValue.equalsIgnoreCase(value)) {
+ return mode;
+ }
+ }
+ throw new IllegalArgumentException("Unknown output mode: " + value);
+ }
+}
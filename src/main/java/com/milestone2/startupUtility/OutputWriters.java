@@ -1,14 +1,24 @@
 package com.milestone2.startupUtility;
 
+import com.milestone2.comparison.ComparisonWriter;
 import com.milestone2.foldMetadata.FoldResultsWriter;
+import com.milestone2.metric.EffortBudgets;
+import com.milestone2.outputMerge.OutputMerger;
+import com.milestone2.summary.SummaryRegenerator;
 import com.milestone2.summary.SummaryWriter;
 import com.milestone2.csvExporter.ResultsWriter;
 import com.milestone2.whatif.WhatIfOutputs;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
 
 /**
  * Opens and closes the CSV writers used by one analysis execution.
+ * <p>
+ * In {@link OutputMode#MERGE} the writers write to staging files, which are merged into the outputs of earlier runs
+ * once the run is marked complete and every writer closed cleanly. The classifier comparison covers only the datasets
+ * of the current run and is always overwritten.
  */
 public class OutputWriters implements AutoCloseable {
  private static final String CLOSE_MESSAGE = "Failed while closing analysis outputs";
@@ -16,16 +26,23 @@ public class OutputWriters implements AutoCloseable {
  private final ResultsWriter resultsWriter;
  private final FoldResultsWriter foldResultsWriter;
  private final SummaryWriter milestone2SummaryWriter;
+ private final ComparisonWriter comparisonWriter;
  private final WhatIfOutputs whatIfOutputs;
+ private final OutputMerger outputMerger;
+ private boolean complete;
 
  private OutputWriters(ResultsWriter resultsWriter,
  FoldResultsWriter foldResultsWriter,
  SummaryWriter milestone2SummaryWriter,
- WhatIfOutputs whatIfOutputs) {
+ ComparisonWriter comparisonWriter,
+ WhatIfOutputs whatIfOutputs,
+ OutputMerger outputMerger) {
  this.resultsWriter = resultsWriter;
  this.foldResultsWriter = foldResultsWriter;
  this.milestone2SummaryWriter = milestone2SummaryWriter;
+ this.comparisonWriter = comparisonWriter;
  this.whatIfOutputs = whatIfOutputs;
+ this.outputMerger = outputMerger;
  }
 
  /**
@@ -37,14 +54,55 @@ public class OutputWriters implements AutoCloseable {
  */
  public static OutputWriters open(RunConfig config) throws IOException {
  ResolvedPaths paths = config.getPaths();
+ OutputFormat format = config.getReporting().getOutputFormat();
+ OutputMerger merger = config.getReporting().getOutputMode() == OutputMode.MERGE ? new OutputMerger() : null;
+ EffortBudgets effortBudgets = config.getReporting().getEffortBudgets();
+ if (merger != null) {
+ // The summary compares every classifier of a dataset, so it is rebuilt from the merged results.
+ SummaryRegenerator regenerator = new SummaryRegenerator();
+ merger.derive(paths.getMilestone2SummaryCsv(), format.writesCsv()
+ ? file -> regenerator.regenerateFromCsv(paths.getResultsCsv(), file)
+ : file -> regenerator.regenerateFromColumnar(paths.getResultsColumnar(), file));
+ }
  return new OutputWriters(
- new ResultsWriter(paths.getResultsCsv()),
- new FoldResultsWriter(paths.getFoldCsv()),
- new SummaryWriter(paths.getMilestone2SummaryCsv()),
- config.getWhatIfOptions().isEnabled() ? WhatIfOutputs.open(paths) : null
+ new ResultsWriter(format.writesCsv() ? csv(merger, paths.getResultsCsv(), OutputMerger.CELL_KEY) : null,
+ format.writesColumnar() ? columnar(merger, paths.getResultsColumnar()) : null,
+ effortBudgets),
+ new FoldResultsWriter(format.writesCsv() ? csv(merger, paths.getFoldCsv(), OutputMerger.CELL_KEY) : null,
+ format.writesColumnar() ? columnar(merger, paths.getFoldColumnar()) : null,
+ effortBudgets),
+ new SummaryWriter(merger == null ? paths.getMilestone2SummaryCsv() : null),
+ new ComparisonWriter(paths.getClassifierComparisonCsv()),
+ config.getWhatIfOptions().isEnabled() && !config.getReporting().isRecompute()
+ ? WhatIfOutputs.open(paths, file -> csv(merger, file, OutputMerger.DATASET_KEY))
+ : null,
+ merger
  );
  }
 
+ /**
+ * Chooses the file a CSV writer writes to: the output itself, or its staging file in merge mode.
+ *
+ * @param merger output merger, or {@code null} when outputs are overwritten
+ * @param target CSV output path
+ * @param keyColumns columns identifying the rows replaced by this run
+ * @return file to write
+ */
+ private static Path csv(OutputMerger merger, Path target, List<String> keyColumns) {
+ return merger == null ? target : merger.stageCsv(target, keyColumns);
+ }
+
+ /**
+ * Chooses the file a columnar writer writes to: the output itself, or its staging file in merge mode.
+ *
+ * @param merger output merger, or {@code null} when outputs are overwritten
+ * @param target columnar output path
+ * @return file to write
+ */
+ private static Path columnar(OutputMerger merger, Path target) {
+ return merger == null ? target : merger.stageColumnar(target, OutputMerger.CELL_KEY);
+ }
+
  /**
  * Returns the CSV writer for aggregate evaluation results.
  *
@@ -72,6 +130,15 @@ public class OutputWriters implements AutoCloseable {
  return milestone2SummaryWriter;
  }
 
+ /**
+ * Returns the CSV writer for the statistical classifier comparison.
+ *
+ * @return classifier comparison writer
+ */
+ public ComparisonWriter getComparisonWriter() {
+ return comparisonWriter;
+ }
+
  /**
  * Indicates whether optional what-if writers were opened for the current run.
  *
@@ -95,7 +162,16 @@ public class OutputWriters implements AutoCloseable {
  }
 
  /**
- * Closes every opened writer, preserving the first failure and suppressing the rest.
+ * Marks the run as complete, so that closing merges the staged outputs in merge mode. Outputs of a run that is not
+ * marked complete are discarded in merge mode and left as written otherwise.
+ */
+ public void markComplete() {
+ complete = true;
+ }
+
+ /**
+ * Closes every opened writer, preserving the first failure and suppressing the rest. In merge mode the staged
+ * outputs are then merged, or discarded when the run did not complete or a writer failed.
  *
  * @throws IOException when one or more outputs fail to close
  */
@@ -105,9 +181,35 @@ public class OutputWriters implements AutoCloseable {
  failure = WriterCloseSupport.closeQuietly(resultsWriter, failure, CLOSE_MESSAGE);
  failure = WriterCloseSupport.closeQuietly(foldResultsWriter, failure, CLOSE_MESSAGE);
  failure = WriterCloseSupport.closeQuietly(milestone2SummaryWriter, failure, CLOSE_MESSAGE);
+ failure = WriterCloseSupport.closeQuietly(comparisonWriter, failure, CLOSE_MESSAGE);
  failure = WriterCloseSupport.closeQuietly(whatIfOutputs, failure, CLOSE_MESSAGE);
+ if (outputMerger != null) {
+ failure = finishMerge(failure);
+ }
  if (failure != null) {
  throw failure;
  }
  }
+
+ /**
+ * Merges the staged outputs when the run completed and every writer closed cleanly, and discards them otherwise.
+ *
+ * @param failure failure raised while closing the writers, if any
+ * @return updated failure accumulator
+ */
+ private IOException finishMerge(IOException failure) {
+ try {
+ if (complete && failure == null) {
+ outputMerger.commit();
+ } else {
+ outputMerger.discard();
+ }
+ } catch (IOException e) {
+ if (failure == null) {
+ return e;
+ }
+ failure.addSuppressed(e);
+ }
+ return failure;
+ }
 }
@@ -0,0 +1,169 @@
+package com.milestone2.startupUtility;
+
+import com.milestone2.csvExporter.ChartMode;
+import com.milestone2.metric.EffortBudgets;
+
+import java.nio.file.Path;
+
+/**
+ * Configuration switches that control how evaluation results are persisted and reported.
+ */
+public class ReportingOptions {
+ private final boolean storePredictions;
+ private final boolean recompute;
+ private final int bootstrapResamples;
+ private final double confidenceLevel;
+ private final int permutations;
+ private final double significanceLevel;
+ private final boolean stacking;
+ private final OutputFormat outputFormat;
+ private final ChartMode chartMode;
+ private final OutputMode outputMode;
+ private final Path jfrFile;
+ private final int metricsPort;
+ private final EffortBudgets effortBudgets;
+
+ public ReportingOptions(boolean storePredictions,
+ boolean recompute,
+ int bootstrapResamples,
+ double confidenceLevel,
+ int permutations,
+ double significanceLevel,
+ boolean stacking,
+ OutputFormat outputFormat,
+ ChartMode chartMode,
+ OutputMode outputMode,
+ Path jfrFile,
+ int metricsPort,
+ EffortBudgets effortBudgets) {
+ this.storePredictions = storePredictions;
+ this.recompute = recompute;
+ this.bootstrapResamples = bootstrapResamples;
+ this.confidenceLevel = confidenceLevel;
+ this.permutations = permutations;
+ this.significanceLevel = significanceLevel;
+ this.stacking = stacking;
+ this.outputFormat = outputFormat;
+ this.chartMode = chartMode;
+ this.outputMode = outputMode;
+ this.jfrFile = jfrFile;
+ this.metricsPort = metricsPort;
+ this.effortBudgets = effortBudgets;
+ }
+
+ /**
+ * Indicates whether per-instance out-of-fold predictions are persisted to the prediction store.
+ *
+ * @return {@code true} when predictions are stored
+ */
+ public boolean isStorePredictions() {
+ return storePredictions;
+ }
+
+ /**
+ * Indicates whether reports are rebuilt from the prediction store instead of retraining the classifiers.
+ *
+ * @return {@code true} in recompute mode
+ */
+ public boolean isRecompute() {
+ return recompute;
+ }
+ /**
+ * Returns how many bootstrap resamples of the pooled out-of-fold predictions back each confidence interval.
+ *
+ * @return resample count, or {@code 0} when confidence intervals are disabled
+ */
+ public int getBootstrapResamples() {
+ return bootstrapResamples;
+ }
+
+ /**
+ * Returns the two-sided confidence level of the bootstrap intervals.
+ *
+ * @return confidence level in {@code (0, 1)}
+ */
+ public double getConfidenceLevel() {
+ return confidenceLevel;
+ }
+
+ /**
+ * Returns the permutation budget of each paired classifier test in the comparison stage.
+ *
+ * @return permutations per test, or {@code 0} when the pairwise tests are disabled
+ */
+ public int getPermutations() {
+ return permutations;
+ }
+
+ /**
+ * Returns the significance level of the classifier comparison tests.
+ *
+ * @return significance level in {@code (0, 1)}
+ */
+ public double getSignificanceLevel() {
+ return significanceLevel;
+ }
+
+ /**
+ * Indicates whether a stacking pseudo-classifier is built from the stored out-of-fold predictions of the catalog.
+ *
+ * @return {@code true} when stacking is enabled
+ */
+ public boolean isStacking() {
+ return stacking;
+ }
+
+ /**
+ * Returns the file format of the aggregate and per-fold result exports.
+ *
+ * @return output format
+ */
+ public OutputFormat getOutputFormat() {
+ return outputFormat;
+ }
+
+ /**
+ * Returns when the per-dataset charts are rendered.
+ *
+ * @return chart rendering mode
+ */
+ public ChartMode getChartMode() {
+ return chartMode;
+ }
+
+ /**
+ * Returns whether the outputs of earlier runs are overwritten or merged with this run's rows.
+ *
+ * @return output mode
+ */
+ public OutputMode getOutputMode() {
+ return outputMode;
+ }
+
+ /**
+ * Returns the file a flight recording of the run is written to.
+ *
+ * @return recording file, or {@code null} when no recording is started
+ */
+ public Path getJfrFile() {
+ return jfrFile;
+ }
+
+ /**
+ * Returns the loopback port of the Prometheus endpoint that exposes the run progress.
+ *
+ * @return metrics port, {@code 0} for an ephemeral port, or a negative value when no endpoint is started
+ */
+ public int getMetricsPort() {
+ return metricsPort;
+ }
+
+ /**
+ * Returns the extra effort budgets at which NPofB and ACC are reported next to the fixed 20% budget.
+ *
+ * @return extra effort budgets, possibly {@link EffortBudgets#NONE}
+ */
+ public EffortBudgets getEffortBudgets() {
+ return effortBudgets;
+ }
+}
@@ -0,0 +1,109 @@
+package com.milestone2.startupUtility;
+
+import com.milestone2.csvExporter.ChartMode;
+import com.milestone2.metric.EffortBudgets;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Collects CLI values that control result persistence and reporting.
+ */
+public class ReportingOptionsBuilder {
+ private boolean storePredictions = Defaults.DEFAULT_STORE_PREDICTIONS;
+ private boolean recompute;
+ private int bootstrapResamples = Defaults.DEFAULT_BOOTSTRAP_RESAMPLES;
+ private double confidenceLevel = Defaults.DEFAULT_CONFIDENCE_LEVEL;
+ private int permutations = Defaults.DEFAULT_PERMUTATIONS;
+ private double significanceLevel = Defaults.DEFAULT_SIGNIFICANCE_LEVEL;
+ private boolean stacking = Defaults.DEFAULT_STACKING_ENABLED;
+ private OutputFormat outputFormat = Defaults.DEFAULT_OUTPUT_FORMAT;
+ private ChartMode chartMode = Defaults.DEFAULT_CHART_MODE;
+ private OutputMode outputMode = Defaults.DEFAULT_OUTPUT_MODE;
+ private Path jfrFile;
+ private int metricsPort = Defaults.DEFAULT_METRICS_PORT;
+ private EffortBudgets effortBudgets = Defaults.DEFAULT_EFFORT_BUDGETS;
+
+ /**
+ * Applies one reporting-related CLI argument.
+ *
+ * @param argument parsed CLI argument
+ * @return {@code true} when the argument belongs to this builder, {@code false} otherwise
+ */
+ public boolean apply(CliArgument argument) {
+ switch (argument.getKey()) {
+ case "store-predictions":
+ storePredictions = Boolean.parseBoolean(argument.getValue());
+ return true;
+ case "recompute":
+ recompute = argument.getValue().isEmpty() || Boolean.parseBoolean(argument.getValue());
+ return true;
+ case "bootstrap":
+ bootstrapResamples = Integer.parseInt(argument.getValue());
+ return true;
+ case "confidence":
+ confidenceLevel = Double.parseDouble(argument.getValue());
+ return true;
+ case "permutations":
+ permutations = Integer.parseInt(argument.getValue());
+ return true;
+ case "alpha":
+ significanceLevel = Double.parseDouble(argument.getValue());
+ return true;
+ case "stacking":
+ stacking = argument.getValue().isEmpty() || Boolean.parseBoolean(argument.getValue());
+ return true;
+ case "output-format":
+ outputFormat = OutputFormat.from(argument.getValue());
+ return true;
+ case "charts":
+ chartMode = ChartMode.from(argument.getValue());
+ return true;
+ case "output-mode":
+ outputMode = OutputMode.from(argument.getValue());
+ return true;
+ case "jfr":
+ jfrFile = argument.getValue().isEmpty() ? null : Paths.get(argument.getValue());
+ return true;
+ case "metrics-port":
+ metricsPort = Integer.parseInt(argument.getValue());
+ return true;
+ case "effort-budgets":
+ effortBudgets = EffortBudgets.parse(argument.getValue());
+ return true;
+ default:
+ return false;
+ }
+ }
+
+ /**
+ * Creates the immutable reporting options.
+ *
+ * @return reporting options snapshot
+ * @throws IllegalArgumentException when stacking is requested without stored predictions to stack, or when the
+ * metrics port is out of range
+ */
+ public ReportingOptions build() {
+ if (stacking && !storePredictions && !recompute) {
+ throw new IllegalArgumentException("--stacking requires --store-predictions=true or --recompute");
+ }
+ if (metricsPort > 65_535) {
+ throw new IllegalArgumentException("--metrics-port must be at most 65535");
+ }
+ return new ReportingOptions(
+ storePredictions,
+ recompute,
+ bootstrapResamples,
+ confidenceLevel,
+ permutations,
+ significanceLevel,
+ stacking,
+ outputFormat,
+ chartMode,
+ outputMode,
+ jfrFile,
+ metricsPort,
+ effortBudgets
+ );
+ }
+}
@@ -10,10 +10,17 @@ public class ResolvedPaths {
  private final Path outputDir;
  private final Path resultsCsv;
  private final Path foldCsv;
+ private final Path resultsColumnar;
+ private final Path foldColumnar;
  private final Path milestone2SummaryCsv;
  private final Path featureCorrelationsCsv;
+ private final Path featureMatrixCsv;
  private final Path whatIfSummaryCsv;
+ private final Path whatIfSensitivityCsv;
+ private final Path classifierComparisonCsv;
  private final Path chartsDir;
+ private final Path predictionsDir;
+ private final Path modelsDir;
  private final Path classifierConfigPath;
 
  public ResolvedPaths(Path dataDir, Path outputDir, Path classifierConfigPath) {
@@ -21,10 +28,17 @@ public class ResolvedPaths {
  this.outputDir = outputDir.normalize();
  this.resultsCsv = outputDir.resolve(Defaults.RESULTS_CSV).normalize();
  this.foldCsv = outputDir.resolve(Defaults.FOLD_CSV).normalize();
+ this.resultsColumnar = outputDir.resolve(Defaults.RESULTS_COLUMNAR).normalize();
+ this.foldColumnar = outputDir.resolve(Defaults.FOLD_COLUMNAR).normalize();
  this.milestone2SummaryCsv = outputDir.resolve(Defaults.MILESTONE2_SUMMARY_CSV).normalize();
  this.featureCorrelationsCsv = outputDir.resolve(Defaults.FEATURE_CORRELATIONS_CSV).normalize();
+ this.featureMatrixCsv = outputDir.resolve(Defaults.FEATURE_MATRIX_CSV).normalize();
  this.whatIfSummaryCsv = outputDir.resolve(Defaults.WHAT_IF_SUMMARY_CSV).normalize();
+ this.whatIfSensitivityCsv = outputDir.resolve(Defaults.WHAT_IF_SENSITIVITY_CSV).normalize();
+ this.classifierComparisonCsv = outputDir.resolve(Defaults.CLASSIFIER_COMPARISON_CSV).normalize();
  this.chartsDir = outputDir.resolve(Defaults.CHARTS_DIR).normalize();
+ this.predictionsDir = outputDir.resolve(Defaults.PREDICTIONS_DIR).normalize();
+ this.modelsDir = outputDir.resolve(Defaults.MODELS_DIR).normalize();
  this.classifierConfigPath = classifierConfigPath.normalize();
  }
 
@@ -64,6 +78,24 @@ public class ResolvedPaths {
  return foldCsv;
  }
 
+ /**
+ * Returns the path of the aggregate results columnar export.
+ *
+ * @return aggregate results columnar path
+ */
+ public Path getResultsColumnar() {
+ return resultsColumnar;
+ }
+
+ /**
+ * Returns the path of the per-fold results columnar export.
+ *
+ * @return fold results columnar path
+ */
+ public Path getFoldColumnar() {
+ return foldColumnar;
+ }
+
  /**
  * Returns the path of the milestone summary CSV export.
  *
@@ -82,6 +114,15 @@ public class ResolvedPaths {
  return featureCorrelationsCsv;
  }
 
+ /**
+ * Returns the path of the pairwise feature correlation matrix CSV export.
+ *
+ * @return feature matrix CSV path
+ */
+ public Path getFeatureMatrixCsv() {
+ return featureMatrixCsv;
+ }
+
  /**
  * Returns the path of the what-if summary CSV export.
  *
@@ -91,6 +132,24 @@ public class ResolvedPaths {
  return whatIfSummaryCsv;
  }
 
+ /**
+ * Returns the path of the what-if sensitivity curve CSV export.
+ *
+ * @return what-if sensitivity CSV path
+ */
+ public Path getWhatIfSensitivityCsv() {
+ return whatIfSensitivityCsv;
+ }
+
+ /**
+ * Returns the path of the classifier comparison CSV export.
+ *
+ * @return classifier comparison CSV path
+ */
+ public Path getClassifierComparisonCsv() {
+ return classifierComparisonCsv;
+ }
+
  /**
  * Returns the directory where charts are generated.
  *
@@ -100,6 +159,24 @@ public class ResolvedPaths {
  return chartsDir;
  }
 
+ /**
+ * Returns the directory holding the persisted out-of-fold predictions.
+ *
+ * @return prediction store directory
+ */
+ public Path getPredictionsDir() {
+ return predictionsDir;
+ }
+
+ /**
+ * Returns the directory holding the cached what-if models.
+ *
+ * @return what-if model cache directory
+ */
+ public Path getModelsDir() {
+ return modelsDir;
+ }
+
  /**
  * Returns the classifier catalog configuration file.
  *
@@ -10,15 +10,25 @@ public class RunConfig {
  private final SelectionSettings selection;
  private final ExecutionSettings execution;
  private final WhatIfOptions whatIfOptions;
+ private final ReportingOptions reporting;
 
  RunConfig(ResolvedPaths paths,
  SelectionSettings selection,
  ExecutionSettings execution,
  WhatIfOptions whatIfOptions) {
+ this(paths, selection, execution, whatIfOptions, new ReportingOptionsBuilder().build());
+ }
+
+ RunConfig(ResolvedPaths paths,
+ SelectionSettings selection,
+ ExecutionSettings execution,
+ WhatIfOptions whatIfOptions,
+ ReportingOptions reporting) {
  this.paths = paths;
  this.selection = selection;
  this.execution = execution;
  this.whatIfOptions = whatIfOptions;
+ this.reporting = reporting;
  }
 
  /**
@@ -66,5 +76,12 @@ public class RunConfig {
  public WhatIfOptions getWhatIfOptions() {
  return whatIfOptions;
  }
+ /**
+ * Returns the persistence and reporting switches associated with the run.
+ *
+ * @return reporting options
+ */
+ public ReportingOptions getReporting() {
+ return reporting;
+ }
 }
-
@@ -18,6 +18,7 @@ public class RunConfigBuilder {
  private final SelectionSettingsBuilder selectionBuilder = new SelectionSettingsBuilder(new IdParser());
  private final ExecutionSettingsBuilder executionBuilder = new ExecutionSettingsBuilder();
  private final WhatIfOptionsBuilder whatIfOptionsBuilder = new WhatIfOptionsBuilder();
+ private final ReportingOptionsBuilder reportingOptionsBuilder = new ReportingOptionsBuilder();
 
  /**
  * Applies one parsed CLI argument to the first builder that recognizes it.
@@ -28,7 +29,8 @@ public class RunConfigBuilder {
  if (pathsBuilder.apply(argument)
  || selectionBuilder.apply(argument)
  || executionBuilder.apply(argument)
- || whatIfOptionsBuilder.apply(argument)) {
+ || whatIfOptionsBuilder.apply(argument)
+ || reportingOptionsBuilder.apply(argument)) {
  return;
  }
  throw new IllegalArgumentException("Unknown argument: --" + argument.getKey());
@@ -44,7 +46,8 @@ public class RunConfigBuilder {
  pathsBuilder.build(),
  selectionBuilder.build(),
  executionBuilder.build(RUN_ID_FORMAT.format(ZonedDateTime.now(ZoneId.systemDefault()))),
- whatIfOptionsBuilder.build()
+ whatIfOptionsBuilder.build(),
+ reportingOptionsBuilder.build()
  );
  }
 }
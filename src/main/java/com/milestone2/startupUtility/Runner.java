@@ -1,20 +1,30 @@
 package com.milestone2.startupUtility;
 
 import com.milestone2.csvExporter.ChartGenerator;
+import com.milestone2.csvExporter.ChartScheduler;
 import com.milestone2.classifier.Catalog;
+import com.milestone2.comparison.ClassifierComparator;
+import com.milestone2.comparison.ComparisonDataset;
 import com.milestone2.dataset.AnalysisReport;
 import com.milestone2.dataset.Analyzer;
 import com.milestone2.dataset.Discovery;
 import com.milestone2.dataset.ReportPublisher;
 import com.milestone2.metric.BestMetricLogger;
+import com.milestone2.predictionStore.PredictionStore;
+import com.milestone2.predictionStore.StoreRecomputer;
+import com.milestone2.runMetrics.RunProgress;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Coordinates dataset discovery, evaluation, reporting and chart generation.
+ * Coordinates dataset discovery, evaluation, reporting and chart generation, and closes the run with the statistical
+ * comparison of the classifiers across all analyzed datasets. Dataset progress is reported to the run progress exposed
+ * by the metrics endpoint.
  */
 public class Runner {
  private static final Logger log = LoggerFactory.getLogger(Runner.class);
@@ -22,23 +32,36 @@ public class Runner {
  private final Discovery datasetDiscovery;
  private final Analyzer datasetAnalyzer;
  private final BestMetricLogger bestMetricLogger;
+ private final StoreRecomputer storeRecomputer;
+ private final ClassifierComparator classifierComparator;
+ private final RunProgress runProgress;
 
  public Runner() {
  this(new Discovery(),
  new Analyzer(),
- new BestMetricLogger());
+ new BestMetricLogger(),
+ new StoreRecomputer(),
+ new ClassifierComparator(),
+ RunProgress.global());
  }
 
  Runner(Discovery datasetDiscovery,
  Analyzer datasetAnalyzer,
- BestMetricLogger bestMetricLogger) {
+ BestMetricLogger bestMetricLogger,
+ StoreRecomputer storeRecomputer,
+ ClassifierComparator classifierComparator,
+ RunProgress runProgress) {
  this.datasetDiscovery = datasetDiscovery;
  this.datasetAnalyzer = datasetAnalyzer;
  this.bestMetricLogger = bestMetricLogger;
+ this.storeRecomputer = storeRecomputer;
+ this.classifierComparator = classifierComparator;
+ this.runProgress = runProgress;
  }
 
  /**
- * Discovers datasets, analyzes each one and publishes the resulting reports.
+ * Discovers datasets, analyzes each one and publishes the resulting reports, returning once every chart is rendered
+ * and the outputs are marked complete.
  *
  * @param config immutable analysis configuration
  * @param classifierCatalog classifiers selected for the run
@@ -49,20 +72,114 @@ public class Runner {
  Catalog classifierCatalog,
  OutputWriters outputs) throws Exception {
  ResolvedPaths paths = config.getPaths();
+ try (ChartScheduler chartScheduler = new ChartScheduler(
+ new ChartGenerator(paths.getChartsDir()),
+ config.getReporting().getChartMode()
+ )) {
+ ReportPublisher reportPublisher = new ReportPublisher(chartScheduler, bestMetricLogger);
+ if (config.getReporting().isRecompute()) {
+ recompute(config, classifierCatalog, outputs, reportPublisher);
+ } else {
+ analyze(config, classifierCatalog, outputs, reportPublisher);
+ }
+ }
+ outputs.markComplete();
+ }
+
+ /**
+ * Analyzes every discovered dataset and publishes its report.
+ *
+ * @param config immutable analysis configuration
+ * @param classifierCatalog classifiers selected for the run
+ * @param outputs opened output writers bundle
+ * @param reportPublisher publisher of the dataset reports
+ * @throws Exception when dataset discovery, analysis or publishing fails
+ */
+ private void analyze(RunConfig config,
+ Catalog classifierCatalog,
+ OutputWriters outputs,
+ ReportPublisher reportPublisher) throws Exception {
+ ResolvedPaths paths = config.getPaths();
  List<Path> datasetFiles = datasetDiscovery.list(paths.getDataDir());
  if (datasetFiles.isEmpty()) {
  log.warn("No CSV/ARFF dataset found in '{}'", paths.getDataDir());
  return;
  }
 
- ReportPublisher reportPublisher = new ReportPublisher(
- new ChartGenerator(paths.getChartsDir()),
- bestMetricLogger
- );
+ List<ComparisonDataset> comparisonDatasets = new ArrayList<>();
+ runProgress.runStarted(datasetFiles.size(), classifierCatalog.getDefinitions().size());
  for (Path datasetFile : datasetFiles) {
- AnalysisReport report = datasetAnalyzer.analyze(datasetFile, config, classifierCatalog);
+ runProgress.datasetStarted(datasetFile.getFileName().toString());
+ AnalysisReport report = datasetAnalyzer.analyze(
+ datasetFile,
+ config,
+ classifierCatalog,
+ outputs.getFoldResultsWriter()
+ );
  reportPublisher.publish(config, report, outputs);
+ comparisonDatasets.add(ComparisonDataset.from(report));
+ runProgress.datasetFinished();
  }
+ compareClassifiers(config, comparisonDatasets, outputs);
+ }
+
+ /**
+ * Rebuilds and publishes the reports of every dataset found in the prediction store, without loading the datasets
+ * or retraining any classifier.
+ *
+ * @param config immutable analysis configuration
+ * @param classifierCatalog classifiers selected for the run
+ * @param outputs opened output writers bundle
+ * @param reportPublisher publisher of the rebuilt reports
+ * @throws Exception when the store cannot be read or publishing fails
+ */
+ private void recompute(RunConfig config,
+ Catalog classifierCatalog,
+ OutputWriters outputs,
+ ReportPublisher reportPublisher) throws Exception {
+ PredictionStore store = new PredictionStore(config.getPaths().getPredictionsDir());
+ List<String> datasetNames = store.listDatasets();
+ if (datasetNames.isEmpty()) {
+ log.warn("No stored predictions found in '{}'", config.getPaths().getPredictionsDir());
+ return;
+ }
+ List<ComparisonDataset> comparisonDatasets = new ArrayList<>();
+ runProgress.runStarted(datasetNames.size(), classifierCatalog.getDefinitions().size());
+ for (String datasetName : datasetNames) {
+ runProgress.datasetStarted(datasetName);
+ AnalysisReport report = storeRecomputer.recompute(
+ store,
+ datasetName,
+ config,
+ classifierCatalog,
+ outputs.getFoldResultsWriter()
+ );
+ if (report != null) {
+ reportPublisher.publish(config, report, outputs);
+ comparisonDatasets.add(ComparisonDataset.from(report));
+ }
+ runProgress.datasetFinished();
+ }
+ compareClassifiers(config, comparisonDatasets, outputs);
  }
-}
 
+ /**
+ * Runs the paired permutation tests and cross-dataset rankings and writes them to the comparison CSV.
+ *
+ * @param config immutable analysis configuration
+ * @param comparisonDatasets comparison views of the analyzed datasets, in run order
+ * @param outputs opened output writers bundle
+ * @throws IOException when the comparison CSV cannot be written
+ */
+ private void compareClassifiers(RunConfig config,
+ List<ComparisonDataset> comparisonDatasets,
+ OutputWriters outputs) throws IOException {
+ ReportingOptions reporting = config.getReporting();
+ outputs.getComparisonWriter().write(config, classifierComparator.compare(
+ comparisonDatasets,
+ reporting.getPermutations(),
+ reporting.getSignificanceLevel(),
+ config.getExecution().getSeed()
+ ));
+ }
+}
@@ -1,6 +1,7 @@
 package com.milestone2.summary;
 
 import com.milestone2.classifier.OverallWinner;
+import com.milestone2.csvExporter.CsvSupport;
 import com.milestone2.startupUtility.RunConfig;
 import com.milestone2.dataset.AnalysisReport;
 import com.milestone2.metric.MetricWinner;
@@ -23,7 +24,18 @@ public class SummaryRecordFactory {
  public List<Object> metricWinnerRecord(RunConfig config,
  AnalysisReport report,
  MetricWinner winner) {
- List<Object> row = baseRecord(config, report);
+ return metricWinnerRecord(baseRecord(config, report), winner);
+ }
+
+ /**
+ * Builds one CSV record describing the winner for a specific metric after an explicit metadata prefix.
+ *
+ * @param base metadata prefix, see {@link #baseRecord(RunConfig, AnalysisReport)}
+ * @param winner metric winner to serialize
+ * @return CSV record values
+ */
+ List<Object> metricWinnerRecord(List<Object> base, MetricWinner winner) {
+ List<Object> row = new ArrayList<>(base);
  row.add("METRIC_WINNER");
  row.add(winner.getMetric().getDisplayName());
  row.add(winner.getClassifierDefinition().getDisplayName());
@@ -47,7 +59,18 @@ public class SummaryRecordFactory {
  public List<Object> overallWinnerRecord(RunConfig config,
  AnalysisReport report,
  OverallWinner winner) {
- List<Object> row = baseRecord(config, report);
+ return overallWinnerRecord(baseRecord(config, report), winner);
+ }
+
+ /**
+ * Builds one CSV record describing the overall milestone winner after an explicit metadata prefix.
+ *
+ * @param base metadata prefix, see {@link #baseRecord(RunConfig, AnalysisReport)}
+ * @param winner overall classifier winner
+ * @return CSV record values
+ */
+ List<Object> overallWinnerRecord(List<Object> base, OverallWinner winner) {
+ List<Object> row = new ArrayList<>(base);
  row.add("OVERALL_WINNER");
  row.add("Kappa/AUC");
  row.add(winner.getClassifierDefinition().getDisplayName());
@@ -67,7 +90,7 @@ public class SummaryRecordFactory {
  * @param report dataset analysis report
  * @return base CSV record values
  */
- private List<Object> baseRecord(RunConfig config, AnalysisReport report) {
+ List<Object> baseRecord(RunConfig config, AnalysisReport report) {
  List<Object> row = new ArrayList<>();
  row.add(config.getExecution().getRunId());
  row.add(config.getSelection().getGranularity());
@@ -76,6 +99,7 @@ public class SummaryRecordFactory {
  row.add(config.getExecution().getTemporalAttributeName());
  row.add(report.getClassAttributeName());
  row.add(report.getPositiveClassValue());
+ CsvSupport.addConfigurationFields(row, config);
  return row;
  }
 }
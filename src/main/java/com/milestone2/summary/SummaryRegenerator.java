@@ -0,0 +1,171 @@
+package com.milestone2.summary;
+
+import com.milestone2.classifier.Definition;
+import com.milestone2.classifier.EvaluationReport;
+import com.milestone2.columnarExport.ColumnSpec;
+import com.milestone2.columnarExport.ColumnarBlock;
+import com.milestone2.columnarExport.ColumnarReader;
+import com.milestone2.dataset.AnalysisReport;
+import com.milestone2.metric.MetricDefinition;
+import com.milestone2.outputMerge.OutputMerger;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rebuilds the milestone summary from an aggregate results table, so that after a merge the winners are chosen among
+ * every classifier the merged table holds and not only among the classifiers of the last run.
+ * <p>
+ * Result rows are grouped by dataset and configuration, see {@link OutputMerger#DATASET_KEY}. Each group becomes one
+ * dataset report whose classifiers carry the aggregate metrics of their rows, and its winners are selected by the same
+ * {@link SummaryBuilder} as in a normal run. A summary row carries the run id of the result row of its winner.
+ */
+public class SummaryRegenerator {
+ private static final String RUN_ID = "RunId";
+ private static final CSVFormat READ_FORMAT = CSVFormat.DEFAULT.builder()
+ .setHeader()
+ .setSkipHeaderRecord(true)
+ .get();
+
+ private final SummaryBuilder summaryBuilder;
+
+ public SummaryRegenerator() {
+ this(new SummaryBuilder());
+ }
+
+ SummaryRegenerator(SummaryBuilder summaryBuilder) {
+ this.summaryBuilder = summaryBuilder;
+ }
+
+ /**
+ * Rebuilds the summary from the aggregate results CSV.
+ *
+ * @param results aggregate results CSV
+ * @param summary summary CSV to write
+ * @throws IOException when the results cannot be read or the summary cannot be written
+ */
+ public void regenerateFromCsv(Path results, Path summary) throws IOException {
+ List<Map<String, String>> rows = new ArrayList<>();
+ try (CSVParser parser = READ_FORMAT.parse(Files.newBufferedReader(results, StandardCharsets.UTF_8))) {
+ for (CSVRecord record : parser) {
+ rows.add(record.toMap());
+ }
+ }
+ regenerate(rows, summary);
+ }
+
+ /**
+ * Rebuilds the summary from the aggregate results columnar table.
+ *
+ * @param results aggregate results columnar table
+ * @param summary summary CSV to write
+ * @throws IOException when the results cannot be read or the summary cannot be written
+ */
+ public void regenerateFromColumnar(Path results, Path summary) throws IOException {
+ List<Map<String, String>> rows = new ArrayList<>();
+ try (ColumnarReader reader = new ColumnarReader(results)) {
+ List<ColumnSpec> columns = reader.getColumns();
+ for (ColumnarBlock block = reader.next(); block != null; block = reader.next()) {
+ for (int row = 0; row < block.getRowCount(); row++) {
+ Map<String, String> values = new HashMap<>();
+ for (int column = 0; column < columns.size(); column++) {
+ Object value = block.getValue(column, row);
+ values.put(columns.get(column).getName(), value == null ? "" : String.valueOf(value));
+ }
+ rows.add(values);
+ }
+ }
+ }
+ regenerate(rows, summary);
+ }
+
+ private void regenerate(List<Map<String, String>> rows, Path summary) throws IOException {
+ Map<List<String>, DatasetGroup> groups = new LinkedHashMap<>();
+ for (Map<String, String> row : rows) {
+ List<String> key = new ArrayList<>(OutputMerger.DATASET_KEY.size());
+ for (String column : OutputMerger.DATASET_KEY) {
+ key.add(row.get(column));
+ }
+ groups.computeIfAbsent(key, ignored -> new DatasetGroup(row)).add(row);
+ }
+ try (SummaryWriter writer = new SummaryWriter(summary)) {
+ for (DatasetGroup group : groups.values()) {
+ writer.write(summaryBuilder.build(group.report()), group::baseRecord);
+ }
+ }
+ }
+
+ private static double metricValue(String raw) {
+ return raw == null || raw.isEmpty() ? Double.NaN : Double.parseDouble(raw);
+ }
+
+ /**
+ * Result rows of one dataset analysed under one configuration.
+ */
+ private static final class DatasetGroup {
+ private final Map<String, String> first;
+ private final List<EvaluationReport> classifierReports = new ArrayList<>();
+ private final Map<String, String> runIds = new HashMap<>();
+
+ private DatasetGroup(Map<String, String> first) {
+ this.first = first;
+ }
+
+ private void add(Map<String, String> row) {
+ Definition definition = new Definition(
+ row.get("ClassifierId"),
+ row.get("Classifier"),
+ row.get("ClassifierClass"),
+ ""
+ );
+ Map<MetricDefinition, Double> metrics = new EnumMap<>(MetricDefinition.class);
+ for (MetricDefinition metric : MetricDefinition.values()) {
+ metrics.put(metric, metricValue(row.get(metric.getDisplayName())));
+ }
+ classifierReports.add(new EvaluationReport(definition, metrics, List.of()));
+ runIds.put(definition.getId(), row.get(RUN_ID));
+ }
+
+ private AnalysisReport report() {
+ return new AnalysisReport(
+ first.get("Dataset"),
+ first.get("ClassAttribute"),
+ first.get("PositiveClass"),
+ classifierReports
+ );
+ }
+
+ /**
+ * Builds the summary metadata prefix of the rows won by a classifier of the group.
+ *
+ * @param winner winning classifier
+ * @return metadata values in summary column order
+ */
+ private List<Object> baseRecord(Definition winner) {
+ List<Object> row = new ArrayList<>();
+ row.add(runIds.get(winner.getId()));
+ row.add(first.get("Granularity"));
+ row.add(first.get("Dataset"));
+ row.add(first.get("ValidationStrategy"));
+ row.add(first.get("TemporalAttribute"));
+ row.add(first.get("ClassAttribute"));
+ row.add(first.get("PositiveClass"));
+ row.add(first.get("SizeAttribute"));
+ row.add(first.get("Seed"));
+ row.add(first.get("Balancing"));
+ row.add(first.get("FeatureSelection"));
+ return row;
+ }
+ }
+}
@@ -1,5 +1,7 @@
 package com.milestone2.summary;
 
+import com.milestone2.classifier.Definition;
+import com.milestone2.classifier.OverallWinner;
 import com.milestone2.startupUtility.RunConfig;
 import com.milestone2.dataset.AnalysisReport;
 import com.milestone2.metric.MetricWinner;
@@ -7,13 +9,17 @@ import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 
 import java.io.IOException;
-import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  * Writes the milestone winners per metric plus the overall winner.
+ * <p>
+ * In merge mode no summary is written while the run progresses: it is rebuilt from the merged aggregate results by
+ * {@link SummaryRegenerator} instead, so this writer is opened without a file and ignores the rows it receives.
  */
 public class SummaryWriter implements AutoCloseable {
  private static final String[] HEADER = {
@@ -24,6 +30,10 @@ public class SummaryWriter implements AutoCloseable {
  "TemporalAttribute",
  "ClassAttribute",
  "PositiveClass",
+ "SizeAttribute",
+ "Seed",
+ "Balancing",
+ "FeatureSelection",
  "RowType",
  "Metric",
  "Classifier",
@@ -38,9 +48,18 @@ public class SummaryWriter implements AutoCloseable {
  private final CSVPrinter printer;
  private final SummaryRecordFactory recordFactory;
 
+ /**
+ * Opens the summary export.
+ *
+ * @param file summary CSV, or {@code null} when the summary is not written by this writer
+ * @throws IOException when the export cannot be created
+ */
  public SummaryWriter(Path file) throws IOException {
- Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
- printer = new CSVPrinter(out, CSVFormat.DEFAULT.builder().setHeader(HEADER).get());
+ printer = file == null
+ ? null
+ : new CSVPrinter(
+ Files.newBufferedWriter(file, StandardCharsets.UTF_8),
+ CSVFormat.DEFAULT.builder().setHeader(HEADER).get());
  recordFactory = new SummaryRecordFactory();
  }
 
@@ -55,11 +74,29 @@ public class SummaryWriter implements AutoCloseable {
  public void write(RunConfig config,
  AnalysisReport report,
  Summary summary) throws IOException {
+ List<Object> base = recordFactory.baseRecord(config, report);
+ write(summary, definition -> base);
+ }
+
+ /**
+ * Writes the per-metric winners and the overall winner, each after the metadata prefix of its classifier.
+ *
+ * @param summary milestone summary to serialize
+ * @param baseRecords metadata prefix of the rows won by a classifier
+ * @throws IOException when the CSV output cannot be written
+ */
+ void write(Summary summary, Function<Definition, List<Object>> baseRecords) throws IOException {
+ if (printer == null) {
+ return;
+ }
  for (MetricWinner winner : summary.getMetricWinners()) {
- printer.printRecord(recordFactory.metricWinnerRecord(config, report, winner));
+ printer.printRecord(recordFactory.metricWinnerRecord(
+ baseRecords.apply(winner.getClassifierDefinition()), winner));
  }
- if (summary.getOverallWinner() != null) {
- printer.printRecord(recordFactory.overallWinnerRecord(config, report, summary.getOverallWinner()));
+ OverallWinner overallWinner = summary.getOverallWinner();
+ if (overallWinner != null) {
+ printer.printRecord(recordFactory.overallWinnerRecord(
+ baseRecords.apply(overallWinner.getClassifierDefinition()), overallWinner));
  }
  printer.flush();
  }
@@ -71,7 +108,9 @@ public class SummaryWriter implements AutoCloseable {
  */
  @Override
  public void close() throws IOException {
+ if (printer != null) {
  printer.close();
  }
+ }
 }
 
@@ -43,7 +43,12 @@ public class HoldoutExecutor implements ValidationExecutor {
 
  log.info("Running ordered 80/20 holdout: {} train, {} test instances", trainSize, testSize);
 
- FoldContext context = FoldContext.orderedHoldout(trainSize, testSize);
+ int[] testRowIds = new int[testSize];
+ for (int i = 0; i < testSize; i++) {
+ testRowIds[i] = trainSize + i;
+ }
+ FoldContext context = FoldContext.orderedHoldout(trainSize, testSize).withTestRowIds(testRowIds);
+ producer.scheduled(1);
  FoldResult result = producer.produce(train, test, context);
  return Collections.singletonList(result);
  }
@@ -68,20 +68,38 @@ public class WalkForwardExecutor implements ValidationExecutor {
  windows.size(),
  execution.getTemporalAttributeName());
 
+ producer.scheduled(windows.size());
  for (WalkForwardWindow window : windows) {
+ // Buckets are contiguous, so the test window starts right after the accumulated training rows.
+ int firstTestRow = window.getTrainingData().numInstances();
  FoldContext context = FoldContext.walkForward(
  window.getFoldIndex(),
  window.getTrainingWindowLabel(),
  window.getTestWindowLabel(),
  window.getTrainingData().numInstances(),
  window.getTestData().numInstances()
- );
+ ).withTestRowIds(consecutiveRowIds(firstTestRow, window.getTestData().numInstances()));
  results.add(producer.produce(window.getTrainingData(), window.getTestData(), context));
  }
 
  return results;
  }
 
+ /**
+ * Builds consecutive dataset row ids for a contiguous test window.
+ *
+ * @param firstRow first dataset row of the window
+ * @param count number of rows in the window
+ * @return consecutive row ids
+ */
+ private static int[] consecutiveRowIds(int firstRow, int count) {
+ int[] rowIds = new int[count];
+ for (int i = 0; i < count; i++) {
+ rowIds[i] = firstRow + i;
+ }
+ return rowIds;
+ }
+
  /**
  * Verifies that the dataset exposes enough temporal periods for the requested minimum training window.
  *
@@ -1,6 +1,7 @@
 package com.milestone2.whatif;
 
 import com.milestone2.featureAnalysis.Correlation;
+import com.milestone2.featureAnalysis.FeatureMatrix;
 
 import java.util.List;
 
@@ -10,11 +11,28 @@ import java.util.List;
 public class WhatIfAnalysisReport {
  private final List<Correlation> featureCorrelations;
  private final WhatIfScenarioReport scenarioReport;
+ private final List<WhatIfFeatureImpact> featureImpacts;
+ private final WhatIfMultiClassifierReport multiClassifierReport;
+ private final WhatIfSensitivityCurve sensitivityCurve;
+ private final FeatureMatrix featureMatrix;
 
  public WhatIfAnalysisReport(List<Correlation> featureCorrelations,
  WhatIfScenarioReport scenarioReport) {
+ this(featureCorrelations, scenarioReport, List.of(), null, null, null);
+ }
+
+ public WhatIfAnalysisReport(List<Correlation> featureCorrelations,
+ WhatIfScenarioReport scenarioReport,
+ List<WhatIfFeatureImpact> featureImpacts,
+ WhatIfMultiClassifierReport multiClassifierReport,
+ WhatIfSensitivityCurve sensitivityCurve,
+ FeatureMatrix featureMatrix) {
  this.featureCorrelations = List.copyOf(featureCorrelations);
  this.scenarioReport = scenarioReport;
+ this.featureImpacts = List.copyOf(featureImpacts);
+ this.multiClassifierReport = multiClassifierReport;
+ this.sensitivityCurve = sensitivityCurve;
+ this.featureMatrix = featureMatrix;
  }
 
  /**
@@ -43,5 +61,67 @@ public class WhatIfAnalysisReport {
  public boolean hasScenarioReport() {
  return scenarioReport != null;
  }
-}
 
+ /**
+ * Returns the B+/B impact of every zeroable feature measured by the optional feature sweep.
+ *
+ * @return immutable feature impacts in correlation ranking order, empty when the sweep did not run
+ */
+ public List<WhatIfFeatureImpact> getFeatureImpacts() {
+ return featureImpacts;
+ }
+
+ /**
+ * Returns the optional all-classifier study, whose reports include the selected classifier's one.
+ *
+ * @return all-classifier report, or {@code null} when the study did not run
+ */
+ public WhatIfMultiClassifierReport getMultiClassifierReport() {
+ return multiClassifierReport;
+ }
+
+ /**
+ * Indicates whether the all-classifier study ran.
+ *
+ * @return {@code true} when every catalog classifier was evaluated on the scenarios
+ */
+ public boolean hasMultiClassifierReport() {
+ return multiClassifierReport != null;
+ }
+
+ /**
+ * Returns the optional dose-response curve of the selected feature.
+ *
+ * @return sensitivity curve, or {@code null} when it was not computed
+ */
+ public WhatIfSensitivityCurve getSensitivityCurve() {
+ return sensitivityCurve;
+ }
+
+ /**
+ * Indicates whether a sensitivity curve is available.
+ *
+ * @return {@code true} when the sensitivity curve was computed
+ */
+ public boolean hasSensitivityCurve() {
+ return sensitivityCurve != null;
+ }
+
+ /**
+ * Returns the optional pairwise Pearson and Spearman feature correlation matrix.
+ *
+ * @return feature matrix, or {@code null} when it was not computed
+ */
+ public FeatureMatrix getFeatureMatrix() {
+ return featureMatrix;
+ }
+
+ /**
+ * Indicates whether a feature correlation matrix is available.
+ *
+ * @return {@code true} when the feature matrix was computed
+ */
+ public boolean hasFeatureMatrix() {
+ return featureMatrix != null;
+ }
+}
@@ -5,8 +5,11 @@ import com.milestone2.startupUtility.RunConfig;
 import com.milestone2.classifier.EvaluationReport;
 import com.milestone2.featureAnalysis.Correlation;
 import com.milestone2.featureAnalysis.CorrelationAnalyzer;
+import com.milestone2.featureAnalysis.FeatureMatrix;
+import com.milestone2.featureAnalysis.FeatureMatrixAnalyzer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import weka.classifiers.meta.FilteredClassifier;
 import weka.core.Instances;
 
 import java.util.List;
@@ -22,30 +25,47 @@ public class WhatIfAnalyzer {
  private final WhatIfClassifierSelector classifierSelector;
  private final WhatIfDatasetBuilder datasetBuilder;
  private final WhatIfPredictionService predictionService;
+ private final WhatIfFeatureSweep featureSweep;
+ private final WhatIfMultiClassifierService multiClassifierService;
+ private final WhatIfSensitivityService sensitivityService;
+ private final FeatureMatrixAnalyzer featureMatrixAnalyzer;
 
  public WhatIfAnalyzer() {
  this(new CorrelationAnalyzer(),
  new WhatIfFeatureSelector(),
  new WhatIfClassifierSelector(),
  new WhatIfDatasetBuilder(),
- new WhatIfPredictionService());
+ new WhatIfPredictionService(),
+ new WhatIfFeatureSweep(),
+ new WhatIfMultiClassifierService(),
+ new WhatIfSensitivityService(),
+ new FeatureMatrixAnalyzer());
  }
 
  WhatIfAnalyzer(CorrelationAnalyzer featureCorrelationAnalyzer,
  WhatIfFeatureSelector featureSelector,
  WhatIfClassifierSelector classifierSelector,
  WhatIfDatasetBuilder datasetBuilder,
- WhatIfPredictionService predictionService) {
+ WhatIfPredictionService predictionService,
+ WhatIfFeatureSweep featureSweep,
+ WhatIfMultiClassifierService multiClassifierService,
+ WhatIfSensitivityService sensitivityService,
+ FeatureMatrixAnalyzer featureMatrixAnalyzer) {
  this.featureCorrelationAnalyzer = featureCorrelationAnalyzer;
  this.featureSelector = featureSelector;
  this.classifierSelector = classifierSelector;
  this.datasetBuilder = datasetBuilder;
  this.predictionService = predictionService;
+ this.featureSweep = featureSweep;
+ this.multiClassifierService = multiClassifierService;
+ this.sensitivityService = sensitivityService;
+ this.featureMatrixAnalyzer = featureMatrixAnalyzer;
  }
 
  /**
  * Runs the complete what-if workflow for one dataset, from correlation study to scenario prediction summaries.
  *
+ * @param datasetName dataset file name
  * @param data dataset to analyze
  * @param config immutable analysis configuration
  * @param classifierReports evaluated classifier reports
@@ -53,40 +73,91 @@ public class WhatIfAnalyzer {
  * @return what-if analysis report, or {@code null} when the workflow is disabled
  * @throws Exception when feature selection or scenario evaluation fails
  */
- public WhatIfAnalysisReport analyze(Instances data,
+ public WhatIfAnalysisReport analyze(String datasetName,
+ Instances data,
  RunConfig config,
  List<EvaluationReport> classifierReports,
  Preprocessor preprocessor) throws Exception {
- if (!config.getWhatIfOptions().isEnabled()) {
+ WhatIfOptions options = config.getWhatIfOptions();
+ if (!options.isEnabled()) {
  return null;
  }
 
  List<Correlation> correlations = featureCorrelationAnalyzer.analyze(data, config);
+ FeatureMatrix featureMatrix = options.isFeatureMatrix() ? featureMatrixAnalyzer.analyze(data) : null;
+ if (featureMatrix != null) {
+ log.info("Feature correlation matrix for '{}' covers {} features over {} complete rows",
+ data.relationName(),
+ featureMatrix.size(),
+ featureMatrix.getRowCount());
+ }
  WhatIfFeatureSelection featureSelection =
- featureSelector.select(data, config.getWhatIfOptions(), correlations);
+ featureSelector.select(data, options, correlations);
  if (featureSelection == null) {
  log.warn("Skipping what-if scenario for dataset '{}' because no zeroable numeric feature was found",
  data.relationName());
- return new WhatIfAnalysisReport(correlations, null);
+ return new WhatIfAnalysisReport(correlations, null, List.of(), null, null, featureMatrix);
  }
 
  WhatIfClassifierSelection classifierSelection =
- classifierSelector.select(config.getWhatIfOptions(), classifierReports);
+ classifierSelector.select(options, classifierReports);
  WhatIfDatasetSet datasetSet = datasetBuilder.build(data, featureSelection);
- WhatIfScenarioReport scenarioReport = predictionService.evaluate(
+ WhatIfMultiClassifierReport multiClassifierReport = null;
+ WhatIfScenarioReport scenarioReport = null;
+ if (options.isAllClassifiers()) {
+ multiClassifierReport = multiClassifierService.evaluate(
  data,
  datasetSet,
  featureSelection,
  classifierSelection,
+ classifierReports,
  config,
  preprocessor
  );
+ scenarioReport = multiClassifierReport.findScenarioReport(classifierSelection.getDefinition().getId());
+ }
+ FilteredClassifier pipeline = scenarioReport == null || options.isFeatureSweep() || options.isSensitivity()
+ ? predictionService.trainOrLoad(datasetName, data, classifierSelection, config, preprocessor)
+ : null;
+ if (scenarioReport == null) {
+ scenarioReport = predictionService.evaluate(
+ data,
+ datasetSet,
+ featureSelection,
+ classifierSelection,
+ config,
+ pipeline
+ );
+ }
+ List<WhatIfFeatureImpact> featureImpacts = options.isFeatureSweep()
+ ? featureSweep.sweep(data, correlations, pipeline, config)
+ : List.of();
+ WhatIfSensitivityCurve sensitivityCurve = options.isSensitivity()
+ ? sensitivityService.evaluate(datasetSet, featureSelection, classifierSelection, pipeline, config)
+ : null;
 
  log.info("What-if analysis for '{}' will manipulate feature '{}' using classifier '{}'",
  data.relationName(),
  featureSelection.getFeatureName(),
  classifierSelection.getDefinition().getDisplayName());
- return new WhatIfAnalysisReport(correlations, scenarioReport);
+ if (!featureImpacts.isEmpty()) {
+ log.info("What-if feature sweep for '{}' measured the B+ -> B impact of {} zeroable features",
+ data.relationName(),
+ featureImpacts.size());
+ }
+ if (multiClassifierReport != null) {
+ log.info("What-if analysis for '{}' also ran {} classifiers on a shared preprocessing chain",
+ data.relationName(),
+ multiClassifierReport.getScenarioReports().size());
+ }
+ return new WhatIfAnalysisReport(
+ correlations,
+ scenarioReport,
+ featureImpacts,
+ multiClassifierReport,
+ sensitivityCurve,
+ featureMatrix
+ );
  }
 }
 
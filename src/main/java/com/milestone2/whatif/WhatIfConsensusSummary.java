@@ -0,0 +1,141 @@
+package com.milestone2.whatif;
+
+/**
+ * Spread and majority consensus of the paired B+/B impact across every classifier of the all-classifier study.
+ */
+public class WhatIfConsensusSummary {
+ private final int classifierCount;
+ private final int pairedInstanceCount;
+ private final int actualBuggyCount;
+ private final int majorityRelievedCount;
+ private final int majorityAvoidableBuggyCount;
+ private final double majorityAvoidableBuggyShare;
+ private final double averagePositiveProbabilityReduction;
+ private final double minimumAvoidableBuggyShare;
+ private final double maximumAvoidableBuggyShare;
+ private final double minimumProbabilityReduction;
+ private final double maximumProbabilityReduction;
+
+ public WhatIfConsensusSummary(int classifierCount,
+ int pairedInstanceCount,
+ int actualBuggyCount,
+ int majorityRelievedCount,
+ int majorityAvoidableBuggyCount,
+ double majorityAvoidableBuggyShare,
+ double averagePositiveProbabilityReduction,
+ double minimumAvoidableBuggyShare,
+ double maximumAvoidableBuggyShare,
+ double minimumProbabilityReduction,
+ double maximumProbabilityReduction) {
+ this.classifierCount = classifierCount;
+ this.pairedInstanceCount = pairedInstanceCount;
+ this.actualBuggyCount = actualBuggyCount;
+ this.majorityRelievedCount = majorityRelievedCount;
+ this.majorityAvoidableBuggyCount = majorityAvoidableBuggyCount;
+ this.majorityAvoidableBuggyShare = majorityAvoidableBuggyShare;
+ this.averagePositiveProbabilityReduction = averagePositiveProbabilityReduction;
+ this.minimumAvoidableBuggyShare = minimumAvoidableBuggyShare;
+ this.maximumAvoidableBuggyShare = maximumAvoidableBuggyShare;
+ this.minimumProbabilityReduction = minimumProbabilityReduction;
+ this.maximumProbabilityReduction = maximumProbabilityReduction;
+ }
+
+ /**
+ * Returns how many classifiers contributed to the consensus.
+ *
+ * @return classifier count
+ */
+ public int getClassifierCount() {
+ return classifierCount;
+ }
+
+ /**
+ * Returns how many B+/B prediction pairs each classifier compared.
+ *
+ * @return paired instance count
+ */
+ public int getPairedInstanceCount() {
+ return pairedInstanceCount;
+ }
+
+ /**
+ * Returns how many paired instances are actually buggy.
+ *
+ * @return actual buggy count
+ */
+ public int getActualBuggyCount() {
+ return actualBuggyCount;
+ }
+
+ /**
+ * Returns how many instances a strict majority of the classifiers relieves from predicted buggy to clean.
+ *
+ * @return majority relieved count
+ */
+ public int getMajorityRelievedCount() {
+ return majorityRelievedCount;
+ }
+
+ /**
+ * Returns how many actually buggy instances are among the majority-relieved ones.
+ *
+ * @return majority avoidable buggy count
+ */
+ public int getMajorityAvoidableBuggyCount() {
+ return majorityAvoidableBuggyCount;
+ }
+
+ /**
+ * Returns the share of actual buggy instances that a strict majority of the classifiers considers avoidable.
+ *
+ * @return majority avoidable buggy share
+ */
+ public double getMajorityAvoidableBuggyShare() {
+ return majorityAvoidableBuggyShare;
+ }
+
+ /**
+ * Returns the mean positive-probability reduction averaged over the classifiers.
+ *
+ * @return average probability reduction
+ */
+ public double getAveragePositiveProbabilityReduction() {
+ return averagePositiveProbabilityReduction;
+ }
+
+ /**
+ * Returns the smallest avoidable buggy share reported by a single classifier.
+ *
+ * @return minimum avoidable buggy share
+ */
+ public double getMinimumAvoidableBuggyShare() {
+ return minimumAvoidableBuggyShare;
+ }
+
+ /**
+ * Returns the largest avoidable buggy share reported by a single classifier.
+ *
+ * @return maximum avoidable buggy share
+ */
+ public double getMaximumAvoidableBuggyShare() {
+ return maximumAvoidableBuggyShare;
+ }
+
+ /**
+ * Returns the smallest mean probability reduction reported by a single classifier.
+ *
+ * @return minimum probability reduction
+ */
+ public double getMinimumProbabilityReduction() {
+ return minimumProbabilityReduction;
+ }
+
+ /**
+ * Returns the largest mean probability reduction reported by a single classifier.
+ *
+ * @return maximum probability reduction
+ */
+ public double getMaximumProbabilityReduction() {
+ return maximumProbabilityReduction;
+ }
+}
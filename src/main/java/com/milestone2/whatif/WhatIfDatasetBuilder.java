@@ -1,11 +1,15 @@
 package com.milestone2.whatif;
 
+import com.milestone2.evaluation.InstancesView;
 import weka.core.Attribute;
 import weka.core.Instance;
 import weka.core.Instances;
 
+import java.util.Arrays;
+
 /**
- * Builds the A, B+, B and C datasets required by the exam workflow.
+ * Builds the A, B+, B and C datasets required by the exam workflow as views over the source dataset: A covers every
+ * row, B+ and C are row masks, and B is the B+ mask with the selected feature read as zero. No row is copied.
  */
 public class WhatIfDatasetBuilder {
  /**
@@ -17,51 +21,28 @@ public class WhatIfDatasetBuilder {
  */
  public WhatIfDatasetSet build(Instances source, WhatIfFeatureSelection featureSelection) {
  Attribute feature = source.attribute(featureSelection.getFeatureName());
- Instances originalDataset = new Instances(source);
- Instances bPlusDataset = subset(source, feature, true);
- Instances cDataset = subset(source, feature, false);
- Instances bDataset = zeroedCopy(bPlusDataset, feature.name());
- return new WhatIfDatasetSet(originalDataset, bPlusDataset, bDataset, cDataset);
- }
-
- /**
- * Extracts the subset of instances whose selected feature is either strictly positive or exactly zero.
- *
- * @param source source dataset
- * @param feature selected feature
- * @param strictlyPositive {@code true} for B+, {@code false} for C
- * @return derived subset
- */
- private Instances subset(Instances source, Attribute feature, boolean strictlyPositive) {
- Instances subset = new Instances(source, 0);
- for (Instance instance : source) {
+ int[] positiveRows = new int[source.numInstances()];
+ int[] zeroRows = new int[source.numInstances()];
+ int positives = 0;
+ int zeros = 0;
+ for (int row = 0; row < source.numInstances(); row++) {
+ Instance instance = source.instance(row);
  if (instance.isMissing(feature)) {
  continue;
  }
-
  double value = instance.value(feature);
- boolean matches = strictlyPositive ? value > 0.0 : Double.compare(value, 0.0) == 0;
- if (matches) {
- subset.add((Instance) instance.copy());
+ if (value > 0.0) {
+ positiveRows[positives++] = row;
+ } else if (Double.compare(value, 0.0) == 0) {
+ zeroRows[zeros++] = row;
  }
  }
- return subset;
- }
-
- /**
- * Creates a copy of the dataset where the selected feature is forced to zero in every instance.
- *
- * @param source source dataset
- * @param featureName feature to zero out
- * @return zeroed dataset copy
- */
- private Instances zeroedCopy(Instances source, String featureName) {
- Instances copy = new Instances(source);
- Attribute feature = copy.attribute(featureName);
- for (Instance instance : copy) {
- instance.setValue(feature, 0.0);
- }
- return copy;
+ InstancesView bPlusView = InstancesView.ofRows(source, Arrays.copyOf(positiveRows, positives));
+ return new WhatIfDatasetSet(
+ InstancesView.of(source),
+ bPlusView,
+ bPlusView.withOverride(feature, 0.0),
+ InstancesView.ofRows(source, Arrays.copyOf(zeroRows, zeros))
+ );
  }
 }
-
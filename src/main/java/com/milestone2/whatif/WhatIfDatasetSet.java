@@ -1,60 +1,84 @@
 package com.milestone2.whatif;
 
+import com.milestone2.evaluation.InstancesView;
 import weka.core.Instances;
 
 /**
- * Scenario datasets derived from the original dataset.
+ * Scenario datasets derived from the original dataset, held as row-mask views over it.
+ * <p>
+ * The {@code get*Dataset} accessors materialize a copy of the view on every call and exist for inspection; the
+ * prediction flow scores the views directly.
  */
 public class WhatIfDatasetSet {
- private final Instances originalDataset;
- private final Instances bPlusDataset;
- private final Instances bDataset;
- private final Instances cDataset;
-
- public WhatIfDatasetSet(Instances originalDataset,
- Instances bPlusDataset,
- Instances bDataset,
- Instances cDataset) {
- this.originalDataset = originalDataset;
- this.bPlusDataset = bPlusDataset;
- this.bDataset = bDataset;
- this.cDataset = cDataset;
+ private final InstancesView originalView;
+ private final InstancesView bPlusView;
+ private final InstancesView bView;
+ private final InstancesView cView;
+
+ public WhatIfDatasetSet(InstancesView originalView,
+ InstancesView bPlusView,
+ InstancesView bView,
+ InstancesView cView) {
+ this.originalView = originalView;
+ this.bPlusView = bPlusView;
+ this.bView = bView;
+ this.cView = cView;
+ }
+
+ /**
+ * Returns the view of one scenario.
+ *
+ * @param scenario what-if scenario
+ * @return scenario view over the original dataset
+ */
+ public InstancesView getView(WhatIfScenario scenario) {
+ switch (scenario) {
+ case A:
+ return originalView;
+ case B_PLUS:
+ return bPlusView;
+ case B:
+ return bView;
+ case C:
+ return cView;
+ default:
+ throw new IllegalArgumentException("Unsupported what-if scenario: " + scenario);
+ }
  }
 
  /**
  * Returns dataset A, namely the original dataset.
  *
- * @return original dataset
+ * @return materialized original dataset
  */
  public Instances getOriginalDataset() {
- return originalDataset;
+ return originalView.materialize();
  }
 
  /**
  * Returns dataset B+, containing instances where the selected feature is strictly positive.
  *
- * @return B+ dataset
+ * @return materialized B+ dataset
  */
  public Instances getBPlusDataset() {
- return bPlusDataset;
+ return bPlusView.materialize();
  }
 
  /**
  * Returns dataset B, derived from B+ by forcing the selected feature to zero.
  *
- * @return B dataset
+ * @return materialized B dataset
  */
  public Instances getBDataset() {
- return bDataset;
+ return bView.materialize();
  }
 
  /**
  * Returns dataset C, containing instances where the selected feature is already zero.
  *
- * @return C dataset
+ * @return materialized C dataset
  */
  public Instances getCDataset() {
- return cDataset;
+ return cView.materialize();
  }
 }
-
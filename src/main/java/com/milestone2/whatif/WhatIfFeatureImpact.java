@@ -0,0 +1,43 @@
+package com.milestone2.whatif;
+
+import com.milestone2.featureAnalysis.Correlation;
+
+/**
+ * Paired B+/B impact measured for one zeroable feature during the feature sweep.
+ */
+public class WhatIfFeatureImpact {
+ private final Correlation correlation;
+ private final WhatIfImpactSummary impactSummary;
+
+ public WhatIfFeatureImpact(Correlation correlation, WhatIfImpactSummary impactSummary) {
+ this.correlation = correlation;
+ this.impactSummary = impactSummary;
+ }
+
+ /**
+ * Returns the correlation entry of the swept feature.
+ *
+ * @return feature correlation
+ */
+ public Correlation getCorrelation() {
+ return correlation;
+ }
+
+ /**
+ * Returns the swept feature name.
+ *
+ * @return feature name
+ */
+ public String getFeatureName() {
+ return correlation.getFeatureName();
+ }
+
+ /**
+ * Returns the paired impact of zeroing the feature on its B+ rows.
+ *
+ * @return impact summary
+ */
+ public WhatIfImpactSummary getImpactSummary() {
+ return impactSummary;
+ }
+}
@@ -0,0 +1,145 @@
+package com.milestone2.whatif;
+
+import com.milestone2.evaluation.InstancesView;
+import com.milestone2.evaluation.PipelineScorer;
+import com.milestone2.evaluation.PositiveClassResolver;
+import com.milestone2.featureAnalysis.Correlation;
+import com.milestone2.startupUtility.RunConfig;
+import weka.classifiers.AbstractClassifier;
+import weka.classifiers.Classifier;
+import weka.classifiers.meta.FilteredClassifier;
+import weka.core.Instances;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * Measures the B+/B impact of every zeroable feature with the pipeline already trained on A.
+ * <p>
+ * Features are handed out one at a time to a small worker pool. Every worker scores on its own deserialized copy of
+ * the pipeline, because Weka filters are not safe to share between threads, and the scenarios are views over the
+ * source dataset, so the sweep never retrains the classifier nor copies a row.
+ */
+public class WhatIfFeatureSweep {
+ private static final String SWEEP_REASON = "zeroable feature sweep";
+
+ private final PositiveClassResolver positiveClassResolver;
+ private final WhatIfDatasetBuilder datasetBuilder;
+ private final WhatIfScenarioSummarizer scenarioSummarizer;
+ private final PipelineScorer pipelineScorer;
+ private final IntSupplier availableProcessorsSupplier;
+
+ public WhatIfFeatureSweep() {
+ this(new PositiveClassResolver(),
+ new WhatIfDatasetBuilder(),
+ new WhatIfScenarioSummarizer(),
+ new PipelineScorer(),
+ () -> Runtime.getRuntime().availableProcessors());
+ }
+
+ WhatIfFeatureSweep(PositiveClassResolver positiveClassResolver,
+ WhatIfDatasetBuilder datasetBuilder,
+ WhatIfScenarioSummarizer scenarioSummarizer,
+ PipelineScorer pipelineScorer,
+ IntSupplier availableProcessorsSupplier) {
+ this.positiveClassResolver = positiveClassResolver;
+ this.datasetBuilder = datasetBuilder;
+ this.scenarioSummarizer = scenarioSummarizer;
+ this.pipelineScorer = pipelineScorer;
+ this.availableProcessorsSupplier = availableProcessorsSupplier;
+ }
+
+ /**
+ * Evaluates the paired B+/B impact of every zeroable feature, keeping the correlation ranking order.
+ *
+ * @param data original dataset the pipeline was trained on
+ * @param correlations ranked feature correlations
+ * @param pipeline filtered classifier already trained on {@code data}
+ * @param config immutable analysis configuration
+ * @return one impact per zeroable feature
+ * @throws Exception when scoring fails for any feature
+ */
+ public List<WhatIfFeatureImpact> sweep(Instances data,
+ List<Correlation> correlations,
+ FilteredClassifier pipeline,
+ RunConfig config) throws Exception {
+ List<Correlation> zeroable = new ArrayList<>();
+ for (Correlation correlation : correlations) {
+ if (correlation.isZeroable()) {
+ zeroable.add(correlation);
+ }
+ }
+ if (zeroable.isEmpty()) {
+ return List.of();
+ }
+
+ int positiveClassIndex = positiveClassResolver.resolvePositiveClassIndex(data.classAttribute(), config);
+ WhatIfFeatureImpact[] impacts = new WhatIfFeatureImpact[zeroable.size()];
+ AtomicInteger next = new AtomicInteger();
+ int workers = Math.min(Math.max(1, availableProcessorsSupplier.getAsInt()), zeroable.size());
+ if (workers == 1) {
+ drain(pipeline, data, zeroable, positiveClassIndex, next, impacts);
+ return Arrays.asList(impacts);
+ }
+
+ Classifier[] copies = AbstractClassifier.makeCopies(pipeline, workers - 1);
+ ExecutorService executor = Executors.newFixedThreadPool(workers - 1);
+ try {
+ List<Future<Void>> futures = new ArrayList<>();
+ for (Classifier copy : copies) {
+ futures.add(executor.submit(() -> {
+ drain((FilteredClassifier) copy, data, zeroable, positiveClassIndex, next, impacts);
+ return null;
+ }));
+ }
+ drain(pipeline, data, zeroable, positiveClassIndex, next, impacts);
+ for (Future<Void> future : futures) {
+ try {
+ future.get();
+ } catch (ExecutionException e) {
+ Throwable cause = e.getCause();
+ throw cause instanceof Exception ? (Exception) cause : e;
+ }
+ }
+ } finally {
+ executor.shutdownNow();
+ }
+ return Arrays.asList(impacts);
+ }
+
+ /**
+ * Evaluates features claimed from the shared counter until none is left.
+ *
+ * @param pipeline pipeline copy owned by the calling thread
+ * @param data original dataset
+ * @param zeroable zeroable features in ranking order
+ * @param positiveClassIndex positive class index
+ * @param next shared index of the next unclaimed feature
+ * @param impacts output slots aligned with {@code zeroable}
+ * @throws Exception when scoring fails
+ */
+ private void drain(FilteredClassifier pipeline,
+ Instances data,
+ List<Correlation> zeroable,
+ int positiveClassIndex,
+ AtomicInteger next,
+ WhatIfFeatureImpact[] impacts) throws Exception {
+ for (int index = next.getAndIncrement(); index < impacts.length; index = next.getAndIncrement()) {
+ Correlation correlation = zeroable.get(index);
+ WhatIfDatasetSet datasetSet = datasetBuilder.build(data, new WhatIfFeatureSelection(correlation, SWEEP_REASON));
+ InstancesView bPlus = datasetSet.getView(WhatIfScenario.B_PLUS);
+ InstancesView b = datasetSet.getView(WhatIfScenario.B);
+ impacts[index] = new WhatIfFeatureImpact(correlation, scenarioSummarizer.summarizeImpact(
+ WhatIfPredictionService.toRecords(bPlus, pipelineScorer.scoreSerially(pipeline, bPlus), positiveClassIndex),
+ WhatIfPredictionService.toRecords(b, pipelineScorer.scoreSerially(pipeline, b), positiveClassIndex)
+ ));
+ }
+ }
+}
@@ -0,0 +1,164 @@
+package com.milestone2.whatif;
+
+import com.milestone2.classifier.Definition;
+import com.milestone2.startupUtility.ExecutionSettings;
+import com.milestone2.startupUtility.RunConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import weka.classifiers.meta.FilteredClassifier;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.Version;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Persists the pipeline trained on dataset A so later runs can reuse it: one file per dataset and classifier, holding
+ * a SHA-256 fingerprint of everything that shapes the fitted model followed by the serialized pipeline.
+ * <p>
+ * The fingerprint covers the dataset header and every row value and weight, the classifier definition, the seed and
+ * the preprocessing settings, plus the Weka version that serialized the model. Scenario parameters such as the
+ * manipulated feature, the sweep or the sensitivity levels are left out on purpose, so changing them still hits the
+ * cache. A missing, stale or unreadable file is a plain cache miss.
+ */
+public class WhatIfModelCache {
+ private static final Logger log = LoggerFactory.getLogger(WhatIfModelCache.class);
+ private static final String FILE_EXTENSION = ".model";
+ private static final String FORMAT = "what-if-model/1";
+ private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+ private final Path rootDir;
+
+ public WhatIfModelCache(Path rootDir) {
+ this.rootDir = rootDir;
+ }
+
+ /**
+ * Computes the fingerprint identifying the pipeline trained with the given inputs.
+ *
+ * @param dataset training dataset A
+ * @param definition classifier definition
+ * @param config immutable analysis configuration
+ * @return lowercase hexadecimal SHA-256 fingerprint
+ */
+ public String fingerprint(Instances dataset, Definition definition, RunConfig config) {
+ MessageDigest digest = sha256();
+ ExecutionSettings execution = config.getExecution();
+ update(digest, FORMAT);
+ update(digest, Version.VERSION);
+ update(digest, definition.getId());
+ update(digest, definition.getClassName());
+ update(digest, definition.getOptions() == null ? "" : definition.getOptions());
+ update(digest, Long.toString(execution.getSeed()));
+ update(digest, execution.getBalancingStrategy().name());
+ update(digest, execution.getFeatureSelectionStrategy().name());
+ update(digest, new Instances(dataset, 0).toString());
+ update(digest, dataset.classIndex() + "/" + dataset.numInstances());
+
+ ByteBuffer row = ByteBuffer.allocate(Double.BYTES * (dataset.numAttributes() + 1));
+ for (Instance instance : dataset) {
+ row.clear();
+ row.putDouble(instance.weight());
+ for (int a = 0; a < dataset.numAttributes(); a++) {
+ row.putDouble(instance.value(a));
+ }
+ digest.update(row.array(), 0, row.position());
+ }
+ return hex(digest.digest());
+ }
+
+ /**
+ * Loads the cached pipeline of one dataset/classifier pair when its fingerprint still matches.
+ *
+ * @param datasetName dataset file name
+ * @param classifierId classifier identifier
+ * @param fingerprint expected fingerprint
+ * @return cached pipeline, or {@code null} on a cache miss
+ */
+ public FilteredClassifier load(String datasetName, String classifierId, String fingerprint) {
+ Path file = file(datasetName, classifierId);
+ if (!Files.isRegularFile(file)) {
+ return null;
+ }
+ try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+ if (!fingerprint.equals(in.readUTF())) {
+ log.info("Cached what-if model {} is stale and will be retrained", file);
+ return null;
+ }
+ return (FilteredClassifier) in.readObject();
+ } catch (IOException | ClassNotFoundException | ClassCastException e) {
+ log.warn("Ignoring unreadable what-if model cache {}: {}", file, e.getMessage());
+ return null;
+ }
+ }
+
+ /**
+ * Stores a trained pipeline, replacing the previous file atomically. Failures are logged and otherwise ignored
+ * because the cache only saves time.
+ *
+ * @param datasetName dataset file name
+ * @param classifierId classifier identifier
+ * @param fingerprint fingerprint of the training inputs
+ * @param pipeline trained pipeline
+ */
+ public void store(String datasetName, String classifierId, String fingerprint, FilteredClassifier pipeline) {
+ Path file = file(datasetName, classifierId);
+ try {
+ Files.createDirectories(file.getParent());
+ Path temporary = Files.createTempFile(file.getParent(), classifierId, ".tmp");
+ try (ObjectOutputStream out =
+ new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+ out.writeUTF(fingerprint);
+ out.writeObject(pipeline);
+ }
+ Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+ } catch (IOException e) {
+ log.warn("Unable to cache what-if model {}: {}", file, e.getMessage());
+ }
+ }
+
+ /**
+ * Resolves the cache file of one dataset/classifier pair.
+ *
+ * @param datasetName dataset file name
+ * @param classifierId classifier identifier
+ * @return cache file path
+ */
+ public Path file(String datasetName, String classifierId) {
+ return rootDir.resolve(datasetName).resolve(classifierId + FILE_EXTENSION);
+ }
+
+ private static void update(MessageDigest digest, String value) {
+ byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+ digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(bytes.length).array());
+ digest.update(bytes);
+ }
+
+ private static MessageDigest sha256() {
+ try {
+ return MessageDigest.getInstance("SHA-256");
+ } catch (NoSuchAlgorithmException e) {
+ throw new IllegalStateException("SHA-256 is not available in this JVM", e);
+ }
+ }
+
+ private static String hex(byte[] bytes) {
+ char[] chars = new char[bytes.length * 2];
+ for (int i = 0; i < bytes.length; i++) {
+ chars[2 * i] = HEX[(bytes[i] >> 4) & 0xF];
+ chars[2 * i + 1] = HEX[bytes[i] & 0xF];
+ }
+ return new String(chars);
+ }
+}
@@ -0,0 +1,50 @@
+package com.milestone2.whatif;
+
+import java.util.List;
+
+/**
+ * Scenario reports of every catalog classifier plus their B+/B impact consensus.
+ */
+public class WhatIfMultiClassifierReport {
+ private final List<WhatIfScenarioReport> scenarioReports;
+ private final WhatIfConsensusSummary consensusSummary;
+
+ public WhatIfMultiClassifierReport(List<WhatIfScenarioReport> scenarioReports,
+ WhatIfConsensusSummary consensusSummary) {
+ this.scenarioReports = List.copyOf(scenarioReports);
+ this.consensusSummary = consensusSummary;
+ }
+
+ /**
+ * Returns one scenario report per classifier, in catalog order.
+ *
+ * @return immutable scenario reports list
+ */
+ public List<WhatIfScenarioReport> getScenarioReports() {
+ return scenarioReports;
+ }
+
+ /**
+ * Returns the spread and majority consensus of the per-classifier impacts.
+ *
+ * @return consensus summary
+ */
+ public WhatIfConsensusSummary getConsensusSummary() {
+ return consensusSummary;
+ }
+
+ /**
+ * Returns the scenario report of the given classifier.
+ *
+ * @param classifierId catalog classifier identifier
+ * @return matching scenario report, or {@code null} when the classifier was not part of the study
+ */
+ public WhatIfScenarioReport findScenarioReport(String classifierId) {
+ for (WhatIfScenarioReport report : scenarioReports) {
+ if (report.getClassifierSelection().getDefinition().getId().equals(classifierId)) {
+ return report;
+ }
+ }
+ return null;
+ }
+}
@@ -0,0 +1,214 @@
+package com.milestone2.whatif;
+
+import com.milestone2.flightRecorder.WhatIfScenarioEvent;
+import com.milestone2.classifier.ClassifierFactory;
+import com.milestone2.classifier.Definition;
+import com.milestone2.classifier.EvaluationReport;
+import com.milestone2.evaluation.InstancesView;
+import com.milestone2.evaluation.PositiveClassResolver;
+import com.milestone2.evaluation.Preprocessor;
+import com.milestone2.prediction.PredictionRecord;
+import com.milestone2.prediction.ScenarioSummary;
+import com.milestone2.startupUtility.RunConfig;
+import weka.classifiers.Classifier;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.filters.Filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntSupplier;
+
+/**
+ * Runs the what-if scenarios with every catalog classifier at once.
+ * <p>
+ * The preprocessing chain is fitted a single time on A and every scenario view is pushed through it once; the
+ * classifiers are then trained on the shared filtered A and score the shared filtered scenarios concurrently, one
+ * task per classifier, so the wall time stays close to the slowest single classifier. The filtered datasets are only
+ * read by the tasks, while each classifier instance stays confined to its own task.
+ */
+public class WhatIfMultiClassifierService {
+ private static final String STUDY_REASON = "all-classifier what-if study";
+
+ private final PositiveClassResolver positiveClassResolver;
+ private final WhatIfScenarioSummarizer scenarioSummarizer;
+ private final IntSupplier availableProcessorsSupplier;
+
+ public WhatIfMultiClassifierService() {
+ this(new PositiveClassResolver(),
+ new WhatIfScenarioSummarizer(),
+ () -> Runtime.getRuntime().availableProcessors());
+ }
+
+ WhatIfMultiClassifierService(PositiveClassResolver positiveClassResolver,
+ WhatIfScenarioSummarizer scenarioSummarizer,
+ IntSupplier availableProcessorsSupplier) {
+ this.positiveClassResolver = positiveClassResolver;
+ this.scenarioSummarizer = scenarioSummarizer;
+ this.availableProcessorsSupplier = availableProcessorsSupplier;
+ }
+
+ /**
+ * Trains every evaluated classifier on dataset A behind one shared preprocessing chain and summarizes the
+ * scenarios and the B+/B impact of each, plus their consensus.
+ *
+ * @param originalDataset original dataset used for training
+ * @param datasetSet derived what-if datasets
+ * @param featureSelection selected feature information
+ * @param primarySelection classifier selected for the single-classifier study, keeping its selection reason
+ * @param classifierReports evaluated classifier reports providing the catalog definitions
+ * @param config immutable analysis configuration
+ * @param preprocessor preprocessing pipeline builder
+ * @return per-classifier scenario reports and their consensus
+ * @throws Exception when preprocessing, training or prediction fails
+ */
+ public WhatIfMultiClassifierReport evaluate(Instances originalDataset,
+ WhatIfDatasetSet datasetSet,
+ WhatIfFeatureSelection featureSelection,
+ WhatIfClassifierSelection primarySelection,
+ List<EvaluationReport> classifierReports,
+ RunConfig config,
+ Preprocessor preprocessor) throws Exception {
+ int positiveClassIndex = positiveClassResolver.resolvePositiveClassIndex(originalDataset.classAttribute(), config);
+ Filter filterChain = preprocessor.buildFilterChain(config);
+ filterChain.setInputFormat(originalDataset);
+ Instances trainingSet = Filter.useFilter(originalDataset, filterChain);
+
+ WhatIfScenario[] scenarios = WhatIfScenario.values();
+ InstancesView[] views = new InstancesView[scenarios.length];
+ Instances[] filteredScenarios = new Instances[scenarios.length];
+ for (int s = 0; s < scenarios.length; s++) {
+ views[s] = datasetSet.getView(scenarios[s]);
+ filteredScenarios[s] = filter(filterChain, views[s]);
+ }
+
+ List<WhatIfClassifierSelection> selections = new ArrayList<>();
+ for (EvaluationReport report : classifierReports) {
+ Definition definition = report.getDefinition();
+ selections.add(definition.getId().equals(primarySelection.getDefinition().getId())
+ ? primarySelection
+ : new WhatIfClassifierSelection(definition, STUDY_REASON));
+ }
+
+ List<List<List<PredictionRecord>>> predictions = new ArrayList<>();
+ int workers = Math.min(Math.max(1, availableProcessorsSupplier.getAsInt()), Math.max(1, selections.size()));
+ ExecutorService executor = Executors.newFixedThreadPool(workers);
+ try {
+ List<Future<List<List<PredictionRecord>>>> futures = new ArrayList<>();
+ for (WhatIfClassifierSelection selection : selections) {
+ futures.add(executor.submit(() -> trainAndScore(selection.getDefinition(), featureSelection.getFeatureName(),
+ config, trainingSet, views, filteredScenarios, positiveClassIndex)));
+ }
+ for (Future<List<List<PredictionRecord>>> future : futures) {
+ try {
+ predictions.add(future.get());
+ } catch (ExecutionException e) {
+ Throwable cause = e.getCause();
+ throw cause instanceof Exception ? (Exception) cause : e;
+ }
+ }
+ } finally {
+ executor.shutdownNow();
+ }
+
+ int bPlus = WhatIfScenario.B_PLUS.ordinal();
+ int b = WhatIfScenario.B.ordinal();
+ List<WhatIfScenarioReport> reports = new ArrayList<>();
+ List<List<PredictionRecord>> bPlusPredictions = new ArrayList<>();
+ List<List<PredictionRecord>> bPredictions = new ArrayList<>();
+ List<WhatIfImpactSummary> impacts = new ArrayList<>();
+ for (int c = 0; c < selections.size(); c++) {
+ List<List<PredictionRecord>> classifierPredictions = predictions.get(c);
+ List<ScenarioSummary> summaries = new ArrayList<>();
+ for (int s = 0; s < scenarios.length; s++) {
+ summaries.add(scenarioSummarizer.summarize(scenarios[s], classifierPredictions.get(s)));
+ }
+ WhatIfImpactSummary impact =
+ scenarioSummarizer.summarizeImpact(classifierPredictions.get(bPlus), classifierPredictions.get(b));
+ reports.add(new WhatIfScenarioReport(featureSelection, selections.get(c), summaries, impact));
+ bPlusPredictions.add(classifierPredictions.get(bPlus));
+ bPredictions.add(classifierPredictions.get(b));
+ impacts.add(impact);
+ }
+ return new WhatIfMultiClassifierReport(
+ reports,
+ scenarioSummarizer.summarizeConsensus(bPlusPredictions, bPredictions, impacts)
+ );
+ }
+
+ /**
+ * Trains one classifier on the shared filtered A and scores every shared filtered scenario, timing each scenario as
+ * a flight recorder event.
+ *
+ * @param definition classifier definition
+ * @param feature what-if feature name
+ * @param config immutable analysis configuration
+ * @param trainingSet filtered training set, only read
+ * @param views scenario views providing the actual labels
+ * @param filteredScenarios filtered scenario rows aligned with {@code views}, only read
+ * @param positiveClassIndex positive class index
+ * @return prediction records per scenario, in scenario order
+ * @throws Exception when training or prediction fails
+ */
+ private List<List<PredictionRecord>> trainAndScore(Definition definition,
+ String feature,
+ RunConfig config,
+ Instances trainingSet,
+ InstancesView[] views,
+ Instances[] filteredScenarios,
+ int positiveClassIndex) throws Exception {
+ Classifier classifier = ClassifierFactory.createClassifier(definition, config.getExecution().getSeed());
+ classifier.buildClassifier(new Instances(trainingSet));
+ List<List<PredictionRecord>> predictions = new ArrayList<>(views.length);
+ WhatIfScenario[] scenarios = WhatIfScenario.values();
+ for (int s = 0; s < views.length; s++) {
+ WhatIfScenarioEvent event = new WhatIfScenarioEvent();
+ event.begin();
+ Instances rows = filteredScenarios[s];
+ double[][] distributions = new double[rows.numInstances()][];
+ for (int i = 0; i < distributions.length; i++) {
+ distributions[i] = classifier.distributionForInstance(rows.instance(i));
+ }
+ predictions.add(WhatIfPredictionService.toRecords(views[s], distributions, positiveClassIndex));
+ event.end();
+ event.commit(definition, feature, scenarios[s].getDisplayName(), distributions.length);
+ }
+ return predictions;
+ }
+
+ /**
+ * Pushes every row of a scenario view through the fitted filter chain, the way a trained filtered classifier
+ * filters a test instance, so training-only filters such as balancing let the rows pass untouched.
+ *
+ * @param filterChain filter chain already fitted on A
+ * @param view scenario view to filter
+ * @return filtered rows aligned with the view order
+ * @throws Exception when a row cannot be filtered
+ */
+ private Instances filter(Filter filterChain, InstancesView view) throws Exception {
+ Instances filtered = new Instances(filterChain.getOutputFormat(), view.size());
+ double[] values = new double[view.getSource().numAttributes()];
+ Instance scratch = view.scratchInstance(values);
+ for (int i = 0; i < view.size(); i++) {
+ Instance row = view.sourceInstance(i);
+ if (view.hasOverride()) {
+ view.copyInto(i, values);
+ scratch.setWeight(row.weight());
+ row = scratch;
+ }
+ filterChain.input(row);
+ filterChain.batchFinished();
+ Instance output = filterChain.output();
+ if (output == null) {
+ throw new IllegalStateException("Preprocessing removed what-if row " + i + " of dataset "
+ + view.getSource().relationName());
+ }
+ filtered.add(output);
+ }
+ return filtered;
+ }
+}
@@ -1,5 +1,7 @@
 package com.milestone2.whatif;
 
+import java.util.List;
+
 /**
  * Configuration switches for the exam-oriented what-if analysis.
  */
@@ -7,11 +9,31 @@ public class WhatIfOptions {
  private final boolean enabled;
  private final String featureName;
  private final String classifierId;
+ private final boolean featureSweep;
+ private final boolean allClassifiers;
+ private final boolean sensitivity;
+ private final List<Double> sensitivityLevels;
+ private final boolean modelCache;
+ private final boolean featureMatrix;
 
- public WhatIfOptions(boolean enabled, String featureName, String classifierId) {
+ public WhatIfOptions(boolean enabled,
+ String featureName,
+ String classifierId,
+ boolean featureSweep,
+ boolean allClassifiers,
+ boolean sensitivity,
+ List<Double> sensitivityLevels,
+ boolean modelCache,
+ boolean featureMatrix) {
  this.enabled = enabled;
  this.featureName = featureName;
  this.classifierId = classifierId;
+ this.featureSweep = featureSweep;
+ this.allClassifiers = allClassifiers;
+ this.sensitivity = sensitivity;
+ this.sensitivityLevels = List.copyOf(sensitivityLevels);
+ this.modelCache = modelCache;
+ this.featureMatrix = featureMatrix;
  }
 
  /**
@@ -40,5 +62,58 @@ public class WhatIfOptions {
  public String getClassifierId() {
  return classifierId;
  }
-}
 
+ /**
+ * Indicates whether the B+/B impact should also be measured for every zeroable feature.
+ *
+ * @return {@code true} when the feature sweep is enabled
+ */
+ public boolean isFeatureSweep() {
+ return featureSweep;
+ }
+
+ /**
+ * Indicates whether every catalog classifier should run the what-if scenarios, not only the selected one.
+ *
+ * @return {@code true} when the all-classifier study is enabled
+ */
+ public boolean isAllClassifiers() {
+ return allClassifiers;
+ }
+
+ /**
+ * Indicates whether the dose-response sensitivity curve of the selected feature should be computed.
+ *
+ * @return {@code true} when the sensitivity curve is enabled
+ */
+ public boolean isSensitivity() {
+ return sensitivity;
+ }
+
+ /**
+ * Returns the factors the selected feature is scaled by on B+ to draw the sensitivity curve.
+ *
+ * @return immutable non-negative scale factors in ascending order
+ */
+ public List<Double> getSensitivityLevels() {
+ return sensitivityLevels;
+ }
+
+ /**
+ * Indicates whether the pipeline trained on A may be loaded from, and saved to, the what-if model cache.
+ *
+ * @return {@code true} when the model cache is enabled
+ */
+ public boolean isModelCache() {
+ return modelCache;
+ }
+
+ /**
+ * Indicates whether the pairwise Pearson and Spearman feature correlation matrix should be computed.
+ *
+ * @return {@code true} when the feature matrix is enabled
+ */
+ public boolean isFeatureMatrix() {
+ return featureMatrix;
+ }
+}
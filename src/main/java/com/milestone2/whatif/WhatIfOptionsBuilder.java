@@ -3,6 +3,10 @@ package com.milestone2.whatif;
 import com.milestone2.startupUtility.CliArgument;
 import com.milestone2.startupUtility.Defaults;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Collects CLI values that control the optional what-if workflow.
  */
@@ -10,6 +14,12 @@ public class WhatIfOptionsBuilder {
  private boolean enabled = Defaults.DEFAULT_WHAT_IF_ENABLED;
  private String featureName;
  private String classifierId;
+ private boolean featureSweep = Defaults.DEFAULT_WHAT_IF_SWEEP_ENABLED;
+ private boolean allClassifiers = Defaults.DEFAULT_WHAT_IF_ALL_CLASSIFIERS;
+ private boolean sensitivity = Defaults.DEFAULT_WHAT_IF_SENSITIVITY_ENABLED;
+ private List<Double> sensitivityLevels = Defaults.DEFAULT_WHAT_IF_SENSITIVITY_LEVELS;
+ private boolean modelCache = Defaults.DEFAULT_WHAT_IF_MODEL_CACHE;
+ private boolean featureMatrix = Defaults.DEFAULT_FEATURE_MATRIX_ENABLED;
 
  /**
  * Applies one CLI argument related to the optional what-if workflow.
@@ -28,6 +38,24 @@ public class WhatIfOptionsBuilder {
  case "whatif-classifier":
  classifierId = emptyToNull(argument.getValue());
  return true;
+ case "whatif-sweep":
+ featureSweep = Boolean.parseBoolean(argument.getValue());
+ return true;
+ case "whatif-all-classifiers":
+ allClassifiers = Boolean.parseBoolean(argument.getValue());
+ return true;
+ case "whatif-sensitivity":
+ sensitivity = Boolean.parseBoolean(argument.getValue());
+ return true;
+ case "whatif-sensitivity-levels":
+ sensitivityLevels = parseLevels(argument.getValue());
+ return true;
+ case "whatif-model-cache":
+ modelCache = Boolean.parseBoolean(argument.getValue());
+ return true;
+ case "whatif-feature-matrix":
+ featureMatrix = Boolean.parseBoolean(argument.getValue());
+ return true;
  default:
  return false;
  }
@@ -39,7 +67,36 @@ public class WhatIfOptionsBuilder {
  * @return what-if options
  */
  public WhatIfOptions build() {
- return new WhatIfOptions(enabled, featureName, classifierId);
+ return new WhatIfOptions(enabled, featureName, classifierId, featureSweep, allClassifiers,
+ sensitivity, sensitivityLevels, modelCache, featureMatrix);
+ }
+
+ /**
+ * Parses a comma-separated list of non-negative scale factors, sorted and de-duplicated.
+ *
+ * @param raw raw CLI value
+ * @return ascending scale factors
+ * @throws IllegalArgumentException when a factor is not a non-negative finite number or the list is empty
+ */
+ private List<Double> parseLevels(String raw) {
+ List<Double> levels = new ArrayList<>();
+ for (String token : raw.split(",")) {
+ if (token.isBlank()) {
+ continue;
+ }
+ double level = Double.parseDouble(token.trim());
+ if (!(level >= 0.0) || Double.isInfinite(level)) {
+ throw new IllegalArgumentException("What-if sensitivity level '" + token.trim() + "' must be >= 0");
+ }
+ if (!levels.contains(level)) {
+ levels.add(level);
+ }
+ }
+ if (levels.isEmpty()) {
+ throw new IllegalArgumentException("--whatif-sensitivity-levels requires at least one scale factor");
+ }
+ Collections.sort(levels);
+ return levels;
  }
 
  /**
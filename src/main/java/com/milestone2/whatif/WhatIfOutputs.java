@@ -3,8 +3,11 @@ package com.milestone2.whatif;
 import com.milestone2.startupUtility.ResolvedPaths;
 import com.milestone2.startupUtility.WriterCloseSupport;
 import com.milestone2.featureAnalysis.CorrelationWriter;
+import com.milestone2.featureAnalysis.FeatureMatrixWriter;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.util.function.UnaryOperator;
 
 /**
  * Opens and closes the optional CSV writers used by the what-if workflow.
@@ -14,11 +17,17 @@ public class WhatIfOutputs implements AutoCloseable {
 
  private final CorrelationWriter featureCorrelationWriter;
  private final WhatIfSummaryWriter whatIfSummaryWriter;
+ private final WhatIfSensitivityWriter whatIfSensitivityWriter;
+ private final FeatureMatrixWriter featureMatrixWriter;
 
  private WhatIfOutputs(CorrelationWriter featureCorrelationWriter,
- WhatIfSummaryWriter whatIfSummaryWriter) {
+ WhatIfSummaryWriter whatIfSummaryWriter,
+ WhatIfSensitivityWriter whatIfSensitivityWriter,
+ FeatureMatrixWriter featureMatrixWriter) {
  this.featureCorrelationWriter = featureCorrelationWriter;
  this.whatIfSummaryWriter = whatIfSummaryWriter;
+ this.whatIfSensitivityWriter = whatIfSensitivityWriter;
+ this.featureMatrixWriter = featureMatrixWriter;
  }
 
  /**
@@ -29,9 +38,23 @@ public class WhatIfOutputs implements AutoCloseable {
  * @throws IOException when a writer cannot be created
  */
  public static WhatIfOutputs open(ResolvedPaths paths) throws IOException {
+ return open(paths, UnaryOperator.identity());
+ }
+
+ /**
+ * Opens the CSV writers used by the optional what-if workflow on the files chosen for their resolved paths.
+ *
+ * @param paths analysis output paths
+ * @param location maps each resolved output path to the file actually written, such as a merge staging file
+ * @return opened what-if output bundle
+ * @throws IOException when a writer cannot be created
+ */
+ public static WhatIfOutputs open(ResolvedPaths paths, UnaryOperator<Path> location) throws IOException {
  return new WhatIfOutputs(
- new CorrelationWriter(paths.getFeatureCorrelationsCsv()),
- new WhatIfSummaryWriter(paths.getWhatIfSummaryCsv())
+ new CorrelationWriter(location.apply(paths.getFeatureCorrelationsCsv())),
+ new WhatIfSummaryWriter(location.apply(paths.getWhatIfSummaryCsv())),
+ new WhatIfSensitivityWriter(location.apply(paths.getWhatIfSensitivityCsv())),
+ new FeatureMatrixWriter(location.apply(paths.getFeatureMatrixCsv()))
  );
  }
 
@@ -54,7 +77,25 @@ public class WhatIfOutputs implements AutoCloseable {
  }
 
  /**
- * Closes both writers, preserving the first failure and suppressing any additional ones.
+ * Returns the writer used to export what-if sensitivity curves.
+ *
+ * @return what-if sensitivity writer
+ */
+ public WhatIfSensitivityWriter getWhatIfSensitivityWriter() {
+ return whatIfSensitivityWriter;
+ }
+
+ /**
+ * Returns the writer used to export the pairwise feature correlation matrix.
+ *
+ * @return feature matrix writer
+ */
+ public FeatureMatrixWriter getFeatureMatrixWriter() {
+ return featureMatrixWriter;
+ }
+
+ /**
+ * Closes every writer, preserving the first failure and suppressing any additional ones.
  *
  * @throws IOException when one or more writers fail to close
  */
@@ -63,6 +104,8 @@ public class WhatIfOutputs implements AutoCloseable {
  IOException failure = null;
  failure = WriterCloseSupport.closeQuietly(featureCorrelationWriter, failure, CLOSE_MESSAGE);
  failure = WriterCloseSupport.closeQuietly(whatIfSummaryWriter, failure, CLOSE_MESSAGE);
+ failure = WriterCloseSupport.closeQuietly(whatIfSensitivityWriter, failure, CLOSE_MESSAGE);
+ failure = WriterCloseSupport.closeQuietly(featureMatrixWriter, failure, CLOSE_MESSAGE);
  if (failure != null) {
  throw failure;
  }
@@ -1,13 +1,17 @@
 package com.milestone2.whatif;
 
+import com.milestone2.flightRecorder.WhatIfScenarioEvent;
+import com.milestone2.evaluation.InstancesView;
+import com.milestone2.evaluation.PipelineScorer;
 import com.milestone2.evaluation.PositiveClassResolver;
 import com.milestone2.prediction.PredictionRecord;
 import com.milestone2.evaluation.Preprocessor;
 import com.milestone2.classifier.ClassifierFactory;
 import com.milestone2.startupUtility.RunConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import weka.classifiers.Classifier;
 import weka.classifiers.meta.FilteredClassifier;
-import weka.core.Instance;
 import weka.core.Instances;
 import weka.core.Utils;
 
@@ -15,37 +19,73 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Trains the selected classifier on A and evaluates the what-if scenarios.
+ * Trains the selected classifier on A and evaluates the what-if scenarios, scoring each scenario view directly
+ * against the original dataset.
  */
 public class WhatIfPredictionService {
+ private static final Logger log = LoggerFactory.getLogger(WhatIfPredictionService.class);
+
  private final PositiveClassResolver positiveClassResolver;
  private final WhatIfScenarioSummarizer scenarioSummarizer;
+ private final PipelineScorer pipelineScorer;
 
  public WhatIfPredictionService() {
- this(new PositiveClassResolver(), new WhatIfScenarioSummarizer());
+ this(new PositiveClassResolver(), new WhatIfScenarioSummarizer(), new PipelineScorer());
  }
 
  WhatIfPredictionService(PositiveClassResolver positiveClassResolver,
- WhatIfScenarioSummarizer scenarioSummarizer) {
+ WhatIfScenarioSummarizer scenarioSummarizer,
+ PipelineScorer pipelineScorer) {
  this.positiveClassResolver = positiveClassResolver;
  this.scenarioSummarizer = scenarioSummarizer;
+ this.pipelineScorer = pipelineScorer;
  }
 
  /**
- * Trains the selected classifier on dataset A and generates predictions for all what-if datasets.
+ * Returns the pipeline of the selected classifier trained on dataset A, loading it from the what-if model cache when
+ * the dataset, classifier and training settings are unchanged, and training and caching it otherwise.
  *
+ * @param datasetName dataset file name
  * @param originalDataset original dataset used for training
- * @param datasetSet derived what-if datasets
- * @param featureSelection selected feature information
  * @param classifierSelection selected classifier information
  * @param config immutable analysis configuration
  * @param preprocessor preprocessing pipeline builder
- * @return full what-if scenario report
- * @throws Exception when classifier training or prediction fails
+ * @return trained preprocessing pipeline
+ * @throws Exception when classifier training fails
  */
- public WhatIfScenarioReport evaluate(Instances originalDataset,
- WhatIfDatasetSet datasetSet,
- WhatIfFeatureSelection featureSelection,
+ public FilteredClassifier trainOrLoad(String datasetName,
+ Instances originalDataset,
+ WhatIfClassifierSelection classifierSelection,
+ RunConfig config,
+ Preprocessor preprocessor) throws Exception {
+ if (!config.getWhatIfOptions().isModelCache()) {
+ return train(originalDataset, classifierSelection, config, preprocessor);
+ }
+ WhatIfModelCache cache = new WhatIfModelCache(config.getPaths().getModelsDir());
+ String classifierId = classifierSelection.getDefinition().getId();
+ String fingerprint = cache.fingerprint(originalDataset, classifierSelection.getDefinition(), config);
+ FilteredClassifier cached = cache.load(datasetName, classifierId, fingerprint);
+ if (cached != null) {
+ log.info("Reusing cached what-if model for dataset '{}' and classifier '{}'", datasetName, classifierId);
+ return cached;
+ }
+ FilteredClassifier pipeline = train(originalDataset, classifierSelection, config, preprocessor);
+ cache.store(datasetName, classifierId, fingerprint, pipeline);
+ return pipeline;
+ }
+
+ /**
+ * Trains the selected classifier on dataset A so the scenario evaluation and the optional feature sweep share one
+ * fitted pipeline.
+ *
+ * @param originalDataset original dataset used for training
+ * @param classifierSelection selected classifier information
+ * @param config immutable analysis configuration
+ * @param preprocessor preprocessing pipeline builder
+ * @return trained preprocessing pipeline
+ * @throws Exception when classifier training fails
+ */
+ public FilteredClassifier train(Instances originalDataset,
  WhatIfClassifierSelection classifierSelection,
  RunConfig config,
  Preprocessor preprocessor) throws Exception {
@@ -55,12 +95,40 @@ public class WhatIfPredictionService {
  );
  FilteredClassifier pipeline = preprocessor.buildPipeline(classifier, config);
  pipeline.buildClassifier(originalDataset);
+ return pipeline;
+ }
 
+ /**
+ * Generates predictions for all what-if datasets with a pipeline already trained on dataset A.
+ *
+ * @param originalDataset original dataset used for training
+ * @param datasetSet derived what-if datasets
+ * @param featureSelection selected feature information
+ * @param classifierSelection selected classifier information
+ * @param config immutable analysis configuration
+ * @param pipeline pipeline trained on {@code originalDataset}
+ * @return full what-if scenario report
+ * @throws Exception when prediction fails
+ */
+ public WhatIfScenarioReport evaluate(Instances originalDataset,
+ WhatIfDatasetSet datasetSet,
+ WhatIfFeatureSelection featureSelection,
+ WhatIfClassifierSelection classifierSelection,
+ RunConfig config,
+ FilteredClassifier pipeline) throws Exception {
  int positiveClassIndex = positiveClassResolver.resolvePositiveClassIndex(originalDataset.classAttribute(), config);
- List<PredictionRecord> originalPredictions = predict(datasetSet.getOriginalDataset(), pipeline, positiveClassIndex);
- List<PredictionRecord> bPlusPredictions = predict(datasetSet.getBPlusDataset(), pipeline, positiveClassIndex);
- List<PredictionRecord> bPredictions = predict(datasetSet.getBDataset(), pipeline, positiveClassIndex);
- List<PredictionRecord> cPredictions = predict(datasetSet.getCDataset(), pipeline, positiveClassIndex);
+ List<PredictionRecord> originalPredictions =
+ predict(WhatIfScenario.A, datasetSet, featureSelection, classifierSelection, pipeline,
+ positiveClassIndex);
+ List<PredictionRecord> bPlusPredictions =
+ predict(WhatIfScenario.B_PLUS, datasetSet, featureSelection, classifierSelection, pipeline,
+ positiveClassIndex);
+ List<PredictionRecord> bPredictions =
+ predict(WhatIfScenario.B, datasetSet, featureSelection, classifierSelection, pipeline,
+ positiveClassIndex);
+ List<PredictionRecord> cPredictions =
+ predict(WhatIfScenario.C, datasetSet, featureSelection, classifierSelection, pipeline,
+ positiveClassIndex);
 
  return new WhatIfScenarioReport(
  featureSelection,
@@ -76,22 +144,47 @@ public class WhatIfPredictionService {
  }
 
  /**
- * Produces prediction records for every instance of one scenario dataset.
+ * Produces prediction records for every row of one scenario view, timed as a flight recorder event.
  *
- * @param dataset dataset to score
+ * @param scenario scenario to score
+ * @param datasetSet derived what-if datasets
+ * @param featureSelection selected feature information
+ * @param classifierSelection selected classifier information
  * @param pipeline trained filtered classifier
  * @param positiveClassIndex positive class index
  * @return raw prediction records
  * @throws Exception when prediction fails for any instance
  */
- private List<PredictionRecord> predict(Instances dataset,
+ private List<PredictionRecord> predict(WhatIfScenario scenario,
+ WhatIfDatasetSet datasetSet,
+ WhatIfFeatureSelection featureSelection,
+ WhatIfClassifierSelection classifierSelection,
  FilteredClassifier pipeline,
  int positiveClassIndex) throws Exception {
- List<PredictionRecord> predictions = new ArrayList<>();
- for (Instance instance : dataset) {
- double[] distribution = pipeline.distributionForInstance(instance);
+ WhatIfScenarioEvent event = new WhatIfScenarioEvent();
+ event.begin();
+ InstancesView view = datasetSet.getView(scenario);
+ List<PredictionRecord> predictions = toRecords(view, pipelineScorer.score(pipeline, view), positiveClassIndex);
+ event.end();
+ event.commit(classifierSelection.getDefinition(), featureSelection.getFeatureName(), scenario.getDisplayName(),
+ predictions.size());
+ return predictions;
+ }
+
+ /**
+ * Pairs the scored distributions of a view with the actual labels of its source rows.
+ *
+ * @param view scored scenario view
+ * @param distributions class distributions aligned with the view order
+ * @param positiveClassIndex positive class index
+ * @return raw prediction records
+ */
+ static List<PredictionRecord> toRecords(InstancesView view, double[][] distributions, int positiveClassIndex) {
+ List<PredictionRecord> predictions = new ArrayList<>(distributions.length);
+ for (int i = 0; i < distributions.length; i++) {
+ double[] distribution = distributions[i];
  predictions.add(new PredictionRecord(
- (int) instance.classValue() == positiveClassIndex,
+ (int) view.sourceInstance(i).classValue() == positiveClassIndex,
  Utils.maxIndex(distribution) == positiveClassIndex,
  distribution[positiveClassIndex]
  ));
@@ -99,4 +192,3 @@ public class WhatIfPredictionService {
  return predictions;
  }
 }
-
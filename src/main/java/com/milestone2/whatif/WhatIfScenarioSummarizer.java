@@ -85,5 +85,73 @@ public class WhatIfScenarioSummarizer {
  averageProbabilityReduction
  );
  }
-}
 
+ /**
+ * Combines the paired B+/B predictions of several classifiers into a spread and strict-majority consensus.
+ *
+ * @param bPlusPredictions B+ predictions, one list per classifier
+ * @param bPredictions B predictions aligned with {@code bPlusPredictions}
+ * @param impacts per-classifier impact summaries aligned with the prediction lists
+ * @return consensus summary
+ */
+ public WhatIfConsensusSummary summarizeConsensus(List<List<PredictionRecord>> bPlusPredictions,
+ List<List<PredictionRecord>> bPredictions,
+ List<WhatIfImpactSummary> impacts) {
+ int classifiers = impacts.size();
+ int pairedInstances = classifiers == 0 ? 0 : Integer.MAX_VALUE;
+ for (int c = 0; c < classifiers; c++) {
+ pairedInstances = Math.min(pairedInstances,
+ Math.min(bPlusPredictions.get(c).size(), bPredictions.get(c).size()));
+ }
+
+ int actualBuggyCount = 0;
+ int majorityRelievedCount = 0;
+ int majorityAvoidableBuggyCount = 0;
+ for (int index = 0; index < pairedInstances; index++) {
+ int relievedVotes = 0;
+ for (int c = 0; c < classifiers; c++) {
+ if (bPlusPredictions.get(c).get(index).isPredictedPositive()
+ && !bPredictions.get(c).get(index).isPredictedPositive()) {
+ relievedVotes++;
+ }
+ }
+ boolean actualPositive = bPlusPredictions.get(0).get(index).isActualPositive();
+ if (actualPositive) {
+ actualBuggyCount++;
+ }
+ if (2 * relievedVotes > classifiers) {
+ majorityRelievedCount++;
+ if (actualPositive) {
+ majorityAvoidableBuggyCount++;
+ }
+ }
+ }
+
+ double minimumShare = classifiers == 0 ? 0.0 : Double.POSITIVE_INFINITY;
+ double maximumShare = classifiers == 0 ? 0.0 : Double.NEGATIVE_INFINITY;
+ double minimumReduction = classifiers == 0 ? 0.0 : Double.POSITIVE_INFINITY;
+ double maximumReduction = classifiers == 0 ? 0.0 : Double.NEGATIVE_INFINITY;
+ double totalReduction = 0.0;
+ for (WhatIfImpactSummary impact : impacts) {
+ minimumShare = Math.min(minimumShare, impact.getAvoidableBuggyShare());
+ maximumShare = Math.max(maximumShare, impact.getAvoidableBuggyShare());
+ minimumReduction = Math.min(minimumReduction, impact.getAveragePositiveProbabilityReduction());
+ maximumReduction = Math.max(maximumReduction, impact.getAveragePositiveProbabilityReduction());
+ totalReduction += impact.getAveragePositiveProbabilityReduction();
+ }
+
+ return new WhatIfConsensusSummary(
+ classifiers,
+ pairedInstances,
+ actualBuggyCount,
+ majorityRelievedCount,
+ majorityAvoidableBuggyCount,
+ actualBuggyCount == 0 ? 0.0 : (double) majorityAvoidableBuggyCount / actualBuggyCount,
+ classifiers == 0 ? 0.0 : totalReduction / classifiers,
+ minimumShare,
+ maximumShare,
+ minimumReduction,
+ maximumReduction
+ );
+ }
+}
@@ -0,0 +1,31 @@
+package com.milestone2.whatif;
+
+import org.jfree.data.xy.XYDataset;
+import org.jfree.data.xy.XYSeries;
+import org.jfree.data.xy.XYSeriesCollection;
+
+/**
+ * Builds the line dataset used by the what-if sensitivity chart.
+ */
+public class WhatIfSensitivityChartData {
+ /**
+ * Builds the dataset consumed by the sensitivity chart, with the probability and the predicted buggy share plotted
+ * against the scale factor expressed as a percentage of the original feature value.
+ *
+ * @param curve sensitivity curve
+ * @return XY dataset for chart generation
+ */
+ public XYDataset create(WhatIfSensitivityCurve curve) {
+ XYSeries probability = new XYSeries("Average positive probability");
+ XYSeries predictedShare = new XYSeries("Predicted buggy share");
+ for (WhatIfSensitivityPoint point : curve.getPoints()) {
+ double percentage = point.getScaleFactor() * 100.0;
+ probability.add(percentage, point.getAveragePositiveProbability());
+ predictedShare.add(percentage, point.getPredictedBuggyShare());
+ }
+ XYSeriesCollection dataset = new XYSeriesCollection();
+ dataset.addSeries(probability);
+ dataset.addSeries(predictedShare);
+ return dataset;
+ }
+}
@@ -0,0 +1,47 @@
+package com.milestone2.whatif;
+
+import java.util.List;
+
+/**
+ * Dose-response curve of the selected classifier as the selected feature is scaled on B+.
+ */
+public class WhatIfSensitivityCurve {
+ private final WhatIfFeatureSelection featureSelection;
+ private final WhatIfClassifierSelection classifierSelection;
+ private final List<WhatIfSensitivityPoint> points;
+
+ public WhatIfSensitivityCurve(WhatIfFeatureSelection featureSelection,
+ WhatIfClassifierSelection classifierSelection,
+ List<WhatIfSensitivityPoint> points) {
+ this.featureSelection = featureSelection;
+ this.classifierSelection = classifierSelection;
+ this.points = List.copyOf(points);
+ }
+
+ /**
+ * Returns the feature whose values were scaled.
+ *
+ * @return selected feature
+ */
+ public WhatIfFeatureSelection getFeatureSelection() {
+ return featureSelection;
+ }
+
+ /**
+ * Returns the classifier that scored the scaled datasets.
+ *
+ * @return selected classifier
+ */
+ public WhatIfClassifierSelection getClassifierSelection() {
+ return classifierSelection;
+ }
+
+ /**
+ * Returns one point per scale factor, in ascending factor order.
+ *
+ * @return immutable curve points
+ */
+ public List<WhatIfSensitivityPoint> getPoints() {
+ return points;
+ }
+}
@@ -0,0 +1,78 @@
+package com.milestone2.whatif;
+
+/**
+ * Predictions on B+ with the selected feature scaled by one factor.
+ */
+public class WhatIfSensitivityPoint {
+ private final double scaleFactor;
+ private final int instanceCount;
+ private final int actualBuggyCount;
+ private final int predictedBuggyCount;
+ private final double averagePositiveProbability;
+
+ public WhatIfSensitivityPoint(double scaleFactor,
+ int instanceCount,
+ int actualBuggyCount,
+ int predictedBuggyCount,
+ double averagePositiveProbability) {
+ this.scaleFactor = scaleFactor;
+ this.instanceCount = instanceCount;
+ this.actualBuggyCount = actualBuggyCount;
+ this.predictedBuggyCount = predictedBuggyCount;
+ this.averagePositiveProbability = averagePositiveProbability;
+ }
+
+ /**
+ * Returns the factor the feature was multiplied by, {@code 1.0} being the unchanged B+ dataset.
+ *
+ * @return scale factor
+ */
+ public double getScaleFactor() {
+ return scaleFactor;
+ }
+
+ /**
+ * Returns how many B+ instances were scored.
+ *
+ * @return instance count
+ */
+ public int getInstanceCount() {
+ return instanceCount;
+ }
+
+ /**
+ * Returns how many scored instances are actually buggy.
+ *
+ * @return actual buggy count
+ */
+ public int getActualBuggyCount() {
+ return actualBuggyCount;
+ }
+
+ /**
+ * Returns how many scored instances are predicted buggy at this scale factor.
+ *
+ * @return predicted buggy count
+ */
+ public int getPredictedBuggyCount() {
+ return predictedBuggyCount;
+ }
+
+ /**
+ * Returns the share of scored instances predicted buggy at this scale factor.
+ *
+ * @return predicted buggy share
+ */
+ public double getPredictedBuggyShare() {
+ return instanceCount == 0 ? 0.0 : (double) predictedBuggyCount / instanceCount;
+ }
+
+ /**
+ * Returns the mean positive-class probability at this scale factor.
+ *
+ * @return average positive probability
+ */
+ public double getAveragePositiveProbability() {
+ return averagePositiveProbability;
+ }
+}
@@ -0,0 +1,144 @@
+package com.milestone2.whatif;
+
+import com.milestone2.evaluation.InstancesView;
+import com.milestone2.evaluation.PositiveClassResolver;
+import com.milestone2.startupUtility.RunConfig;
+import weka.classifiers.AbstractClassifier;
+import weka.classifiers.Classifier;
+import weka.classifiers.meta.FilteredClassifier;
+import weka.core.Attribute;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.Utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * Draws the dose-response curve of the selected feature: the pipeline trained on A scores B+ once per scale factor.
+ * <p>
+ * Scale factors are handed out to a small worker pool. Each worker owns a deserialized pipeline copy and one scratch
+ * instance whose attribute buffer is refilled row after row, so a whole B+ pass allocates nothing on the dataset side
+ * and only the running sums of each factor are kept, never the per-row predictions.
+ */
+public class WhatIfSensitivityService {
+ private final PositiveClassResolver positiveClassResolver;
+ private final IntSupplier availableProcessorsSupplier;
+
+ public WhatIfSensitivityService() {
+ this(new PositiveClassResolver(), () -> Runtime.getRuntime().availableProcessors());
+ }
+
+ WhatIfSensitivityService(PositiveClassResolver positiveClassResolver,
+ IntSupplier availableProcessorsSupplier) {
+ this.positiveClassResolver = positiveClassResolver;
+ this.availableProcessorsSupplier = availableProcessorsSupplier;
+ }
+
+ /**
+ * Scores B+ with the selected feature multiplied by every configured scale factor.
+ *
+ * @param datasetSet derived what-if datasets providing the B+ rows
+ * @param featureSelection selected feature information
+ * @param classifierSelection selected classifier information
+ * @param pipeline filtered classifier already trained on A
+ * @param config immutable analysis configuration
+ * @return sensitivity curve with one point per scale factor
+ * @throws Exception when scoring fails
+ */
+ public WhatIfSensitivityCurve evaluate(WhatIfDatasetSet datasetSet,
+ WhatIfFeatureSelection featureSelection,
+ WhatIfClassifierSelection classifierSelection,
+ FilteredClassifier pipeline,
+ RunConfig config) throws Exception {
+ InstancesView bPlus = datasetSet.getView(WhatIfScenario.B_PLUS);
+ Instances source = bPlus.getSource();
+ Attribute feature = source.attribute(featureSelection.getFeatureName());
+ int positiveClassIndex = positiveClassResolver.resolvePositiveClassIndex(source.classAttribute(), config);
+ List<Double> levels = config.getWhatIfOptions().getSensitivityLevels();
+
+ WhatIfSensitivityPoint[] points = new WhatIfSensitivityPoint[levels.size()];
+ AtomicInteger next = new AtomicInteger();
+ int workers = Math.min(Math.max(1, availableProcessorsSupplier.getAsInt()), levels.size());
+ if (workers == 1) {
+ drain(pipeline, bPlus, feature, levels, positiveClassIndex, next, points);
+ return new WhatIfSensitivityCurve(featureSelection, classifierSelection, List.of(points));
+ }
+
+ Classifier[] copies = AbstractClassifier.makeCopies(pipeline, workers - 1);
+ ExecutorService executor = Executors.newFixedThreadPool(workers - 1);
+ try {
+ List<Future<Void>> futures = new ArrayList<>();
+ for (Classifier copy : copies) {
+ futures.add(executor.submit(() -> {
+ drain((FilteredClassifier) copy, bPlus, feature, levels, positiveClassIndex, next, points);
+ return null;
+ }));
+ }
+ drain(pipeline, bPlus, feature, levels, positiveClassIndex, next, points);
+ for (Future<Void> future : futures) {
+ try {
+ future.get();
+ } catch (ExecutionException e) {
+ Throwable cause = e.getCause();
+ throw cause instanceof Exception ? (Exception) cause : e;
+ }
+ }
+ } finally {
+ executor.shutdownNow();
+ }
+ return new WhatIfSensitivityCurve(featureSelection, classifierSelection, List.of(points));
+ }
+
+ /**
+ * Scores B+ at every scale factor claimed from the shared counter, reusing one scratch instance.
+ *
+ * @param pipeline pipeline copy owned by the calling thread
+ * @param bPlus B+ view
+ * @param feature feature to scale
+ * @param levels scale factors
+ * @param positiveClassIndex positive class index
+ * @param next shared index of the next unclaimed factor
+ * @param points output slots aligned with {@code levels}
+ * @throws Exception when scoring fails
+ */
+ private void drain(FilteredClassifier pipeline,
+ InstancesView bPlus,
+ Attribute feature,
+ List<Double> levels,
+ int positiveClassIndex,
+ AtomicInteger next,
+ WhatIfSensitivityPoint[] points) throws Exception {
+ double[] values = new double[bPlus.getSource().numAttributes()];
+ Instance scratch = bPlus.scratchInstance(values);
+ for (int index = next.getAndIncrement(); index < points.length; index = next.getAndIncrement()) {
+ double level = levels.get(index);
+ InstancesView scaled = bPlus.withScale(feature, level);
+ int actualBuggy = 0;
+ int predictedBuggy = 0;
+ double totalProbability = 0.0;
+ for (int row = 0; row < scaled.size(); row++) {
+ Instance source = scaled.sourceInstance(row);
+ scaled.copyInto(row, values);
+ scratch.setWeight(source.weight());
+ double[] distribution = pipeline.distributionForInstance(scratch);
+ if ((int) source.classValue() == positiveClassIndex) {
+ actualBuggy++;
+ }
+ if (Utils.maxIndex(distribution) == positiveClassIndex) {
+ predictedBuggy++;
+ }
+ totalProbability += distribution[positiveClassIndex];
+ }
+ int size = scaled.size();
+ points[index] = new WhatIfSensitivityPoint(
+ level, size, actualBuggy, predictedBuggy, size == 0 ? 0.0 : totalProbability / size);
+ }
+ }
+}
@@ -0,0 +1,97 @@
+package com.milestone2.whatif;
+
+import com.milestone2.csvExporter.CsvSupport;
+import com.milestone2.dataset.AnalysisReport;
+import com.milestone2.startupUtility.RunConfig;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes the points of the what-if sensitivity curves.
+ */
+public class WhatIfSensitivityWriter implements AutoCloseable {
+ private static final String[] HEADER = {
+ "RunId",
+ "Granularity",
+ "Dataset",
+ "ValidationStrategy",
+ "TemporalAttribute",
+ "ClassAttribute",
+ "PositiveClass",
+ "SizeAttribute",
+ "Seed",
+ "Balancing",
+ "FeatureSelection",
+ "Feature",
+ "Classifier",
+ "ClassifierId",
+ "ScaleFactor",
+ "Instances",
+ "ActualBuggy",
+ "PredictedBuggy",
+ "PredictedBuggyShare",
+ "AveragePositiveProbability"
+ };
+
+ private final CSVPrinter printer;
+
+ public WhatIfSensitivityWriter(Path file) throws IOException {
+ Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+ printer = new CSVPrinter(out, CSVFormat.DEFAULT.builder().setHeader(HEADER).get());
+ }
+
+ /**
+ * Writes one row per scale factor of the dataset sensitivity curve when it was computed.
+ *
+ * @param config immutable analysis configuration
+ * @param report dataset analysis report
+ * @throws IOException when the CSV output cannot be written
+ */
+ public void write(RunConfig config, AnalysisReport report) throws IOException {
+ if (!report.hasWhatIfReport() || !report.getWhatIfReport().hasSensitivityCurve()) {
+ return;
+ }
+
+ WhatIfSensitivityCurve curve = report.getWhatIfReport().getSensitivityCurve();
+ for (WhatIfSensitivityPoint point : curve.getPoints()) {
+ List<Object> row = new ArrayList<>();
+ row.add(config.getExecution().getRunId());
+ row.add(config.getSelection().getGranularity());
+ row.add(report.getDatasetName());
+ row.add(config.getExecution().getValidationStrategy().getCliValue());
+ row.add(config.getExecution().getTemporalAttributeName());
+ row.add(report.getClassAttributeName());
+ row.add(report.getPositiveClassValue());
+ CsvSupport.addConfigurationFields(row, config);
+ row.add(curve.getFeatureSelection().getFeatureName());
+ row.add(curve.getClassifierSelection().getDefinition().getDisplayName());
+ row.add(curve.getClassifierSelection().getDefinition().getId());
+ row.add(point.getScaleFactor());
+ row.add(point.getInstanceCount());
+ row.add(point.getActualBuggyCount());
+ row.add(point.getPredictedBuggyCount());
+ row.add(point.getPredictedBuggyShare());
+ row.add(point.getAveragePositiveProbability());
+ printer.printRecord(row);
+ }
+ printer.flush();
+ }
+
+ /**
+ * Closes the underlying CSV printer.
+ *
+ * @throws IOException when closing the writer fails
+ */
+ @Override
+ public void close() throws IOException {
+ printer.close();
+ }
+}
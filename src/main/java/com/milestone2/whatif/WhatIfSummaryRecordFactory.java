@@ -1,5 +1,6 @@
 package com.milestone2.whatif;
 
+import com.milestone2.csvExporter.CsvSupport;
 import com.milestone2.prediction.ScenarioSummary;
 import com.milestone2.startupUtility.RunConfig;
 import com.milestone2.dataset.AnalysisReport;
@@ -11,6 +12,8 @@ import java.util.List;
  * Builds CSV rows for the what-if summary writer.
  */
 public class WhatIfSummaryRecordFactory {
+ private static final int SPREAD_COLUMNS = 5;
+
  /**
  * Builds one CSV record describing a scenario summary row.
  *
@@ -24,7 +27,9 @@ public class WhatIfSummaryRecordFactory {
  AnalysisReport report,
  WhatIfScenarioReport scenarioReport,
  ScenarioSummary summary) {
- List<Object> row = commonRecord(config, report, scenarioReport);
+ WhatIfFeatureSelection featureSelection = scenarioReport.getFeatureSelection();
+ List<Object> row = commonRecord(config, report, scenarioReport,
+ featureSelection.getFeatureName(), featureSelection.getReason());
  row.add("SCENARIO");
  row.add(summary.getScenario().getDisplayName());
  row.add(summary.getInstanceCount());
@@ -35,6 +40,7 @@ public class WhatIfSummaryRecordFactory {
  row.add(null);
  row.add(null);
  row.add(null);
+ addSpreadColumns(row, null);
  return row;
  }
 
@@ -49,9 +55,96 @@ public class WhatIfSummaryRecordFactory {
  public List<Object> buildImpactRecord(RunConfig config,
  AnalysisReport report,
  WhatIfScenarioReport scenarioReport) {
- WhatIfImpactSummary impact = scenarioReport.getImpactSummary();
- List<Object> row = commonRecord(config, report, scenarioReport);
+ WhatIfFeatureSelection featureSelection = scenarioReport.getFeatureSelection();
+ List<Object> row = commonRecord(config, report, scenarioReport,
+ featureSelection.getFeatureName(), featureSelection.getReason());
  row.add("IMPACT");
+ addImpactColumns(row, scenarioReport.getImpactSummary());
+ addSpreadColumns(row, null);
+ return row;
+ }
+
+ /**
+ * Builds one CSV record describing the paired B+/B impact of one feature measured by the feature sweep.
+ *
+ * @param config immutable analysis configuration
+ * @param report dataset analysis report
+ * @param scenarioReport what-if scenario report providing the classifier selection
+ * @param featureImpact swept feature impact
+ * @return CSV record values
+ */
+ public List<Object> buildSweepRecord(RunConfig config,
+ AnalysisReport report,
+ WhatIfScenarioReport scenarioReport,
+ WhatIfFeatureImpact featureImpact) {
+ List<Object> row = commonRecord(config, report, scenarioReport,
+ featureImpact.getFeatureName(), "zeroable feature sweep");
+ row.add("SWEEP");
+ addImpactColumns(row, featureImpact.getImpactSummary());
+ addSpreadColumns(row, null);
+ return row;
+ }
+
+ /**
+ * Builds one CSV record describing the strict-majority consensus and the spread of the B+/B impact across every
+ * classifier of the all-classifier study.
+ *
+ * @param config immutable analysis configuration
+ * @param report dataset analysis report
+ * @param scenarioReport what-if scenario report providing the feature selection
+ * @param consensus consensus summary
+ * @return CSV record values
+ */
+ public List<Object> buildConsensusRecord(RunConfig config,
+ AnalysisReport report,
+ WhatIfScenarioReport scenarioReport,
+ WhatIfConsensusSummary consensus) {
+ WhatIfFeatureSelection featureSelection = scenarioReport.getFeatureSelection();
+ List<Object> row = metadataRecord(config, report, featureSelection.getFeatureName(), featureSelection.getReason());
+ row.add("All classifiers");
+ row.add("ALL");
+ row.add("strict majority of the classifiers");
+ row.add("CONSENSUS");
+ row.add("B+->B");
+ row.add(consensus.getPairedInstanceCount());
+ row.add(consensus.getActualBuggyCount());
+ row.add(null);
+ row.add(null);
+ row.add(consensus.getMajorityRelievedCount());
+ row.add(consensus.getMajorityAvoidableBuggyCount());
+ row.add(consensus.getMajorityAvoidableBuggyShare());
+ row.add(consensus.getAveragePositiveProbabilityReduction());
+ addSpreadColumns(row, consensus);
+ return row;
+ }
+
+ /**
+ * Appends the cross-classifier spread columns, left empty on single-classifier rows.
+ *
+ * @param row CSV record being built
+ * @param consensus consensus summary, or {@code null} for single-classifier rows
+ */
+ private void addSpreadColumns(List<Object> row, WhatIfConsensusSummary consensus) {
+ if (consensus == null) {
+ for (int column = 0; column < SPREAD_COLUMNS; column++) {
+ row.add(null);
+ }
+ return;
+ }
+ row.add(consensus.getClassifierCount());
+ row.add(consensus.getMinimumAvoidableBuggyShare());
+ row.add(consensus.getMaximumAvoidableBuggyShare());
+ row.add(consensus.getMinimumProbabilityReduction());
+ row.add(consensus.getMaximumProbabilityReduction());
+ }
+
+ /**
+ * Appends the paired B+/B impact columns shared by impact and sweep rows.
+ *
+ * @param row CSV record being built
+ * @param impact paired impact summary
+ */
+ private void addImpactColumns(List<Object> row, WhatIfImpactSummary impact) {
  row.add("B+->B");
  row.add(impact.getPairedInstanceCount());
  row.add(impact.getActualBuggyCount());
@@ -61,7 +154,6 @@ public class WhatIfSummaryRecordFactory {
  row.add(impact.getAvoidableBuggyCount());
  row.add(impact.getAvoidableBuggyShare());
  row.add(impact.getAveragePositiveProbabilityReduction());
- return row;
  }
 
  /**
@@ -70,11 +162,36 @@ public class WhatIfSummaryRecordFactory {
  * @param config immutable analysis configuration
  * @param report dataset analysis report
  * @param scenarioReport what-if scenario report
+ * @param featureName manipulated feature name
+ * @param featureReason why the feature was manipulated
  * @return base CSV record values
  */
  private List<Object> commonRecord(RunConfig config,
  AnalysisReport report,
- WhatIfScenarioReport scenarioReport) {
+ WhatIfScenarioReport scenarioReport,
+ String featureName,
+ String featureReason) {
+ List<Object> row = metadataRecord(config, report, featureName, featureReason);
+ row.add(scenarioReport.getClassifierSelection().getDefinition().getDisplayName());
+ row.add(scenarioReport.getClassifierSelection().getDefinition().getId());
+ row.add(scenarioReport.getClassifierSelection().getReason());
+ return row;
+ }
+
+ /**
+ * Builds the dataset, configuration and feature columns that precede the classifier columns in every what-if
+ * summary CSV row.
+ *
+ * @param config immutable analysis configuration
+ * @param report dataset analysis report
+ * @param featureName manipulated feature name
+ * @param featureReason why the feature was manipulated
+ * @return metadata CSV record values
+ */
+ private List<Object> metadataRecord(RunConfig config,
+ AnalysisReport report,
+ String featureName,
+ String featureReason) {
  List<Object> row = new ArrayList<>();
  row.add(config.getExecution().getRunId());
  row.add(config.getSelection().getGranularity());
@@ -83,11 +200,9 @@ public class WhatIfSummaryRecordFactory {
  row.add(config.getExecution().getTemporalAttributeName());
  row.add(report.getClassAttributeName());
  row.add(report.getPositiveClassValue());
- row.add(scenarioReport.getFeatureSelection().getFeatureName());
- row.add(scenarioReport.getFeatureSelection().getReason());
- row.add(scenarioReport.getClassifierSelection().getDefinition().getDisplayName());
- row.add(scenarioReport.getClassifierSelection().getDefinition().getId());
- row.add(scenarioReport.getClassifierSelection().getReason());
+ CsvSupport.addConfigurationFields(row, config);
+ row.add(featureName);
+ row.add(featureReason);
  return row;
  }
 }
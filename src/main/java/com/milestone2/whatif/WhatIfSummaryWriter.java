@@ -11,6 +11,7 @@ import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
 
 /**
  * Writes scenario-level and paired-impact what-if summaries.
@@ -24,6 +25,10 @@ public class WhatIfSummaryWriter implements AutoCloseable {
  "TemporalAttribute",
  "ClassAttribute",
  "PositiveClass",
+ "SizeAttribute",
+ "Seed",
+ "Balancing",
+ "FeatureSelection",
  "Feature",
  "FeatureSelectionReason",
  "Classifier",
@@ -38,7 +43,12 @@ public class WhatIfSummaryWriter implements AutoCloseable {
  "PredictedRelieved",
  "AvoidableBuggy",
  "AvoidableBuggyShare",
- "AveragePositiveProbabilityReduction"
+ "AveragePositiveProbabilityReduction",
+ "Classifiers",
+ "AvoidableBuggyShareMin",
+ "AvoidableBuggyShareMax",
+ "AveragePositiveProbabilityReductionMin",
+ "AveragePositiveProbabilityReductionMax"
  };
 
  private final CSVPrinter printer;
@@ -51,7 +61,8 @@ public class WhatIfSummaryWriter implements AutoCloseable {
  }
 
  /**
- * Writes scenario-level and impact-level what-if rows for the dataset when scenario results are available.
+ * Writes scenario-level, impact-level, feature-sweep and consensus what-if rows for the dataset when scenario
+ * results are available. With the all-classifier study every classifier gets its own scenario and impact rows.
  *
  * @param config immutable analysis configuration
  * @param report dataset analysis report
@@ -62,11 +73,24 @@ public class WhatIfSummaryWriter implements AutoCloseable {
  return;
  }
 
- WhatIfScenarioReport scenarioReport = report.getWhatIfReport().getScenarioReport();
- for (ScenarioSummary summary : scenarioReport.getScenarioSummaries()) {
- printer.printRecord(recordFactory.buildScenarioRecord(config, report, scenarioReport, summary));
+ WhatIfAnalysisReport whatIfReport = report.getWhatIfReport();
+ WhatIfScenarioReport scenarioReport = whatIfReport.getScenarioReport();
+ List<WhatIfScenarioReport> classifierReports = whatIfReport.hasMultiClassifierReport()
+ ? whatIfReport.getMultiClassifierReport().getScenarioReports()
+ : List.of(scenarioReport);
+ for (WhatIfScenarioReport classifierReport : classifierReports) {
+ for (ScenarioSummary summary : classifierReport.getScenarioSummaries()) {
+ printer.printRecord(recordFactory.buildScenarioRecord(config, report, classifierReport, summary));
+ }
+ printer.printRecord(recordFactory.buildImpactRecord(config, report, classifierReport));
+ }
+ for (WhatIfFeatureImpact featureImpact : whatIfReport.getFeatureImpacts()) {
+ printer.printRecord(recordFactory.buildSweepRecord(config, report, scenarioReport, featureImpact));
+ }
+ if (whatIfReport.hasMultiClassifierReport()) {
+ printer.printRecord(recordFactory.buildConsensusRecord(
+ config, report, scenarioReport, whatIfReport.getMultiClassifierReport().getConsensusSummary()));
  }
- printer.printRecord(recordFactory.buildImpactRecord(config, report, scenarioReport));
  printer.flush();
  }
 
@@ -1,8 +1,11 @@
 package com.milestone2;
 
+import com.milestone2.csvExporter.ChartMode;
 import com.milestone2.startupUtility.RunConfig;
 import com.milestone2.startupUtility.Defaults;
 import com.milestone2.startupUtility.Granularity;
+import com.milestone2.startupUtility.OutputFormat;
+import com.milestone2.startupUtility.OutputMode;
 import com.milestone2.evaluation.BalancingStrategy;
 import com.milestone2.validationStrategy.ValidationStrategy;
 import org.junit.jupiter.api.Test;
@@ -12,6 +15,8 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class AnalysisConfigTest {
@@ -36,7 +41,12 @@ class AnalysisConfigTest {
  "--min-train-periods=2",
  "--whatif=true",
  "--whatif-feature=NSmells",
- "--whatif-classifier=RF"
+ "--whatif-classifier=RF",
+ "--whatif-sweep=true",
+ "--whatif-all-classifiers=true",
+ "--whatif-sensitivity=true",
+ "--whatif-sensitivity-levels=1,0,0.5",
+ "--whatif-feature-matrix=true"
  });
 
  assertEquals(Paths.get("data/custom"), config.getPaths().getDataDir());
@@ -45,7 +55,10 @@ class AnalysisConfigTest {
  assertEquals(Paths.get("build/out/fold_metrics.csv"), config.getPaths().getFoldCsv());
  assertEquals(Paths.get("build/out/milestone2_summary.csv"), config.getPaths().getMilestone2SummaryCsv());
  assertEquals(Paths.get("build/out/feature_correlations.csv"), config.getPaths().getFeatureCorrelationsCsv());
+ assertEquals(Paths.get("build/out/fold_metrics.m2c"), config.getPaths().getFoldColumnar());
+ assertEquals(Paths.get("build/out/feature_correlation_matrix.csv"), config.getPaths().getFeatureMatrixCsv());
  assertEquals(Paths.get("build/out/what_if_summary.csv"), config.getPaths().getWhatIfSummaryCsv());
+ assertEquals(Paths.get("build/out/what_if_sensitivity.csv"), config.getPaths().getWhatIfSensitivityCsv());
  assertEquals(Paths.get("build/out/charts"), config.getPaths().getChartsDir());
  assertEquals(Granularity.METHOD, config.getSelection().getGranularity());
  assertEquals("bug", config.getSelection().getClassAttributeName());
@@ -63,6 +76,11 @@ class AnalysisConfigTest {
  assertTrue(config.getWhatIfOptions().isEnabled());
  assertEquals("NSmells", config.getWhatIfOptions().getFeatureName());
  assertEquals("RF", config.getWhatIfOptions().getClassifierId());
+ assertTrue(config.getWhatIfOptions().isFeatureSweep());
+ assertTrue(config.getWhatIfOptions().isAllClassifiers());
+ assertTrue(config.getWhatIfOptions().isSensitivity());
+ assertEquals(List.of(0.0, 0.5, 1.0), config.getWhatIfOptions().getSensitivityLevels());
+ assertTrue(config.getWhatIfOptions().isFeatureMatrix());
  }
 
  @Test
@@ -75,6 +93,16 @@ class AnalysisConfigTest {
  assertEquals(Defaults.DEFAULT_TEMPORAL_ATTRIBUTE, config.getExecution().getTemporalAttributeName());
  assertEquals(Defaults.DEFAULT_MINIMUM_TRAINING_PERIODS, config.getExecution().getMinimumTrainingPeriods());
  assertTrue(config.getWhatIfOptions().isEnabled());
+ assertFalse(config.getWhatIfOptions().isFeatureSweep());
+ assertFalse(config.getWhatIfOptions().isAllClassifiers());
+ assertFalse(config.getWhatIfOptions().isSensitivity());
+ assertFalse(config.getWhatIfOptions().isFeatureMatrix());
+ assertEquals(OutputFormat.CSV, config.getReporting().getOutputFormat());
+ assertEquals(ChartMode.ASYNC, config.getReporting().getChartMode());
+ assertEquals(OutputMode.OVERWRITE, config.getReporting().getOutputMode());
+ assertNull(config.getReporting().getJfrFile());
+ assertEquals(-1, config.getReporting().getMetricsPort());
+ assertEquals(0, config.getReporting().getEffortBudgets().size());
  }
 
  @Test
@@ -83,5 +111,20 @@ class AnalysisConfigTest {
 
  assertFalse(config.getWhatIfOptions().isEnabled());
  }
-}
 
+ @Test
+ void fromArgsAcceptsAnEphemeralMetricsPort() {
+ RunConfig config = RunConfig.fromArgs(new String[]{"--metrics-port=0"});
+
+ assertEquals(0, config.getReporting().getMetricsPort());
+ }
+
+ @Test
+ void fromArgsParsesEffortBudgets() {
+ RunConfig config = RunConfig.fromArgs(new String[]{"--effort-budgets=0.5,0.1,0.5"});
+
+ assertEquals(List.of("NPofB10", "ACC10", "NPofB50", "ACC50"),
+ config.getReporting().getEffortBudgets().columnNames());
+ assertThrows(IllegalArgumentException.class, () -> RunConfig.fromArgs(new String[]{"--effort-budgets=1.5"}));
+ }
+}
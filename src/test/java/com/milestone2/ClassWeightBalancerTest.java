@@ -0,0 +1,77 @@
+package com.milestone2;
+
+import com.milestone2.evaluation.ClassWeightBalancer;
+import org.junit.jupiter.api.Test;
+import weka.core.Instances;
+import weka.filters.Filter;
+
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClassWeightBalancerTest {
+
+ @Test
+ void raiseMinorityKeepsRowCountAndEqualizesClassWeights() throws Exception {
+ Instances filtered = balance(ClassWeightBalancer.Mode.RAISE_MINORITY);
+
+ assertEquals(4, filtered.numInstances());
+ assertEquals(3.0, classWeight(filtered, "yes"), 1e-9);
+ assertEquals(3.0, classWeight(filtered, "no"), 1e-9);
+ }
+
+ @Test
+ void lowerMajorityScalesDownToLightestClass() throws Exception {
+ Instances filtered = balance(ClassWeightBalancer.Mode.LOWER_MAJORITY);
+
+ assertEquals(4, filtered.numInstances());
+ assertEquals(1.0, classWeight(filtered, "yes"), 1e-9);
+ assertEquals(1.0, classWeight(filtered, "no"), 1e-9);
+ }
+
+ @Test
+ void rowsAfterFirstBatchPassThroughUnchanged() throws Exception {
+ Instances data = dataset();
+ ClassWeightBalancer balancer = new ClassWeightBalancer(ClassWeightBalancer.Mode.RAISE_MINORITY);
+ balancer.setInputFormat(data);
+ Filter.useFilter(data, balancer);
+
+ Instances second = Filter.useFilter(data, balancer);
+
+ assertEquals(1.0, second.instance(0).weight(), 1e-9);
+ assertEquals(1.0, second.instance(3).weight(), 1e-9);
+ }
+
+ private static Instances balance(ClassWeightBalancer.Mode mode) throws Exception {
+ Instances data = dataset();
+ ClassWeightBalancer balancer = new ClassWeightBalancer(mode);
+ balancer.setInputFormat(data);
+ return Filter.useFilter(data, balancer);
+ }
+
+ private static double classWeight(Instances data, String classValue) {
+ int index = data.classAttribute().indexOfValue(classValue);
+ double total = 0.0;
+ for (int i = 0; i < data.numInstances(); i++) {
+ if ((int) data.instance(i).classValue() == index) {
+ total += data.instance(i).weight();
+ }
+ }
+ return total;
+ }
+
+ private static Instances dataset() throws Exception {
+ Instances data = new Instances(new StringReader(String.format(
+ "@relation demo%n" +
+ "@attribute LOC numeric%n" +
+ "@attribute bug {yes,no}%n" +
+ "@data%n" +
+ "10,yes%n" +
+ "12,no%n" +
+ "11,no%n" +
+ "13,no%n"
+ )));
+ data.setClassIndex(data.numAttributes() - 1);
+ return data;
+ }
+}
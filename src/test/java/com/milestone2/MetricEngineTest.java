@@ -0,0 +1,145 @@
+package com.milestone2;
+
+import com.milestone2.metric.EffortBudgets;
+import com.milestone2.metric.MetricDefinition;
+import com.milestone2.metric.MetricEngine;
+import com.milestone2.metric.Metrics;
+import com.milestone2.metric.PredictionBuffer;
+import org.junit.jupiter.api.Test;
+import weka.classifiers.Evaluation;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricEngineTest {
+
+ @Test
+ void binaryMetricsMatchWekaEvaluation() throws Exception {
+ assertMatchesWeka(List.of("yes", "no"), 0, 400, 5L);
+ }
+
+ @Test
+ void multiClassMetricsMatchWekaEvaluation() throws Exception {
+ assertMatchesWeka(List.of("low", "mid", "high"), 2, 300, 9L);
+ }
+
+ @Test
+ void missingSizeAttributeYieldsNaNForNPofB20() throws Exception {
+ Instances test = dataset(List.of("yes", "no"), 20, new Random(1));
+ PredictionBuffer buffer = PredictionBuffer.forTestSet(test, 0, "MISSING");
+ for (Instance instance : test) {
+ buffer.record(new double[]{0.4, 0.6}, instance);
+ }
+
+ assertEquals(Double.NaN, new MetricEngine().compute(buffer).get(MetricDefinition.NPOFB20));
+ }
+
+ @Test
+ void extraEffortBudgetsAreReadOffTheSameCurve() throws Exception {
+ Random random = new Random(3);
+ Instances test = dataset(List.of("yes", "no"), 200, random);
+ PredictionBuffer buffer = PredictionBuffer.forTestSet(test, 0, "LOC");
+ for (Instance instance : test) {
+ double positive = random.nextDouble();
+ buffer.record(new double[]{positive, 1.0 - positive}, instance);
+ }
+
+ Metrics metrics = new MetricEngine().compute(buffer, EffortBudgets.parse("0.5,0.2,0.1,0.1"));
+
+ assertEquals(List.of("NPofB10", "ACC10", "NPofB50", "ACC50"), EffortBudgets.parse("0.5,0.2,0.1").columnNames());
+ assertEquals(4, metrics.getEffortBudgetValueCount());
+ assertTrue(metrics.getEffortBudgetValue(0) <= metrics.get(MetricDefinition.NPOFB20));
+ assertTrue(metrics.getEffortBudgetValue(1) <= metrics.get(MetricDefinition.ACC));
+ assertTrue(metrics.getEffortBudgetValue(2) >= metrics.get(MetricDefinition.NPOFB20));
+ assertTrue(metrics.getEffortBudgetValue(3) >= metrics.get(MetricDefinition.ACC));
+ }
+
+ private static void assertMatchesWeka(List<String> classes, int positive, int size, long seed) throws Exception {
+ Random random = new Random(seed);
+ Instances test = dataset(classes, size, random);
+ Evaluation evaluation = new Evaluation(test);
+ PredictionBuffer buffer = PredictionBuffer.forTestSet(test, positive, "LOC");
+ double[][] distributions = new double[size][];
+ for (int i = 0; i < size; i++) {
+ double[] distribution = new double[classes.size()];
+ if (i % 97 != 13) {
+ double total = 0.0;
+ for (int c = 0; c < distribution.length; c++) {
+ // coarse probabilities produce plenty of ties for AUC and NPofB20
+ distribution[c] = random.nextInt(5) + 1;
+ total += distribution[c];
+ }
+ for (int c = 0; c < distribution.length; c++) {
+ distribution[c] /= total;
+ }
+ }
+ distributions[i] = distribution;
+ evaluation.evaluateModelOnceAndRecordPrediction(distribution, test.instance(i));
+ buffer.record(distribution, test.instance(i));
+ }
+
+ Metrics metrics = new MetricEngine().compute(buffer);
+
+ assertEquals((1 - evaluation.errorRate()) * 100.0, metrics.get(MetricDefinition.ACCURACY), 1e-9);
+ assertEquals(evaluation.precision(positive), metrics.get(MetricDefinition.PRECISION), 1e-9);
+ assertEquals(evaluation.recall(positive), metrics.get(MetricDefinition.RECALL), 1e-9);
+ assertEquals(evaluation.fMeasure(positive), metrics.get(MetricDefinition.F1), 1e-9);
+ assertEquals(evaluation.kappa(), metrics.get(MetricDefinition.KAPPA), 1e-9);
+ assertEquals(evaluation.areaUnderROC(positive), metrics.get(MetricDefinition.AUC), 1e-9);
+ assertEquals(referenceNPofB20(test, distributions, positive), metrics.get(MetricDefinition.NPOFB20), 1e-9);
+ }
+
+ /**
+ * Straightforward object-based NPofB20: stable sort by descending P(bug) / LOC and count positives within 20%
+ * of the total size.
+ */
+ private static double referenceNPofB20(Instances test, double[][] distributions, int positive) {
+ List<double[]> rows = new ArrayList<>();
+ int totalSize = 0;
+ int totalPositives = 0;
+ for (int i = 0; i < test.numInstances(); i++) {
+ int loc = (int) test.instance(i).value(0);
+ boolean isPositive = (int) test.instance(i).classValue() == positive;
+ rows.add(new double[]{distributions[i][positive] / Math.max(loc, 1), loc, isPositive ? 1 : 0});
+ totalSize += loc;
+ totalPositives += isPositive ? 1 : 0;
+ }
+ rows.sort(Comparator.comparingDouble((double[] row) -> row[0]).reversed());
+ int budget = (int) (totalSize * 0.20);
+ int consumed = 0;
+ int found = 0;
+ for (double[] row : rows) {
+ if (consumed + row[1] > budget) {
+ break;
+ }
+ consumed += (int) row[1];
+ found += (int) row[2];
+ }
+ return (double) found / totalPositives;
+ }
+
+ private static Instances dataset(List<String> classes, int size, Random random) {
+ ArrayList<Attribute> attributes = new ArrayList<>();
+ attributes.add(new Attribute("LOC"));
+ attributes.add(new Attribute("class", classes));
+ Instances data = new Instances("metrics", attributes, size);
+ data.setClassIndex(1);
+ for (int i = 0; i < size; i++) {
+ Instance instance = new DenseInstance(i % 7 == 0 ? 2.0 : 1.0, new double[]{
+ random.nextInt(4) * 10,
+ random.nextInt(classes.size())
+ });
+ data.add(instance);
+ }
+ return data;
+ }
+}
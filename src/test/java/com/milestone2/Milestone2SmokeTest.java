@@ -2,13 +2,23 @@ package com.milestone2;
 
 import com.milestone2.startupUtility.*;
 import com.milestone2.classifier.Catalog;
+import com.milestone2.columnarExport.ColumnarCsvConverter;
+import com.milestone2.flightRecorder.FlightRecording;
+import com.milestone2.foldMetadata.FoldPhase;
+import com.milestone2.foldMetadata.FoldResource;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class Milestone2SmokeTest {
@@ -29,7 +39,12 @@ class Milestone2SmokeTest {
  "--positive-class=yes",
  "--seed=123",
  "--balancing=none",
- "--validation=walk-forward"
+ "--validation=walk-forward",
+ "--whatif-sweep=true",
+ "--whatif-all-classifiers=true",
+ "--whatif-sensitivity=true",
+ "--whatif-feature-matrix=true",
+ "--jfr=" + tempRoot.resolve("run.jfr")
  });
 
  try {
@@ -42,15 +57,32 @@ class Milestone2SmokeTest {
  );
  new StartupValidator().validate(config, classifierCatalog);
 
+ FlightRecording recording = FlightRecording.start(config.getReporting().getJfrFile());
  try (OutputWriters outputs = OutputWriters.open(config)) {
  new Runner().run(config, classifierCatalog, outputs);
+ } finally {
+ recording.close();
  }
 
+ Set<String> events = RecordingFile.readAllEvents(config.getReporting().getJfrFile()).stream()
+ .map(event -> event.getEventType().getName())
+ .filter(name -> name.startsWith("com.milestone2."))
+ .collect(Collectors.toSet());
+ assertEquals(Set.of(
+ "com.milestone2.DatasetLoad",
+ "com.milestone2.Fold",
+ "com.milestone2.PreprocessingFit",
+ "com.milestone2.ModelTraining",
+ "com.milestone2.Scoring",
+ "com.milestone2.WhatIfScenario",
+ "com.milestone2.OutputPublish"
+ ), events);
  assertTrue(Files.exists(config.getPaths().getResultsCsv()));
  assertTrue(Files.exists(config.getPaths().getFoldCsv()));
  assertTrue(Files.exists(config.getPaths().getMilestone2SummaryCsv()));
  assertTrue(Files.exists(config.getPaths().getFeatureCorrelationsCsv()));
  assertTrue(Files.exists(config.getPaths().getWhatIfSummaryCsv()));
+ assertTrue(Files.exists(config.getPaths().getClassifierComparisonCsv()));
  assertTrue(Files.size(config.getPaths().getResultsCsv()) > 0);
  assertTrue(Files.size(config.getPaths().getFoldCsv()) > 0);
  assertTrue(Files.size(config.getPaths().getMilestone2SummaryCsv()) > 0);
@@ -62,6 +94,7 @@ class Milestone2SmokeTest {
  String summary = Files.readString(config.getPaths().getMilestone2SummaryCsv(), StandardCharsets.UTF_8);
  String correlations = Files.readString(config.getPaths().getFeatureCorrelationsCsv(), StandardCharsets.UTF_8);
  String whatIf = Files.readString(config.getPaths().getWhatIfSummaryCsv(), StandardCharsets.UTF_8);
+ String comparison = Files.readString(config.getPaths().getClassifierComparisonCsv(), StandardCharsets.UTF_8);
  assertTrue(results.contains("Random Forest"));
  assertTrue(results.contains("Naive Bayes"));
  assertTrue(results.contains("K-Nearest Neighbors"));
@@ -72,6 +105,18 @@ class Milestone2SmokeTest {
  assertTrue(correlations.contains("NSmells"));
  assertTrue(correlations.contains("SelectedForWhatIf"));
  assertTrue(whatIf.contains("B+->B"));
+ assertTrue(whatIf.contains("SWEEP"));
+ assertTrue(whatIf.contains("CONSENSUS"));
+ String sensitivity = Files.readString(config.getPaths().getWhatIfSensitivityCsv(), StandardCharsets.UTF_8);
+ assertTrue(sensitivity.contains("ScaleFactor"));
+ assertTrue(sensitivity.contains("NSmells"));
+ assertTrue(Files.exists(config.getPaths().getChartsDir().resolve("demo_sensitivity.png")));
+ String featureMatrix = Files.readString(config.getPaths().getFeatureMatrixCsv(), StandardCharsets.UTF_8);
+ assertTrue(featureMatrix.contains("Spearman"));
+ assertTrue(featureMatrix.contains("NSmells"));
+ assertTrue(Files.exists(config.getPaths().getChartsDir().resolve("demo_feature_matrix.png")));
+ assertTrue(comparison.contains("AdjustedPValue"));
+ assertTrue(comparison.contains("DATASET"));
  } finally {
  deleteRecursively(tempRoot);
  }
@@ -95,7 +140,9 @@ class Milestone2SmokeTest {
  "--runs=2",
  "--folds=2",
  "--threads=1",
- "--whatif=false"
+ "--whatif=false",
+ "--output-format=both",
+ "--charts=deferred"
  });
 
  try {
@@ -115,11 +162,79 @@ class Milestone2SmokeTest {
  assertTrue(Files.exists(config.getPaths().getResultsCsv()));
  assertTrue(Files.exists(config.getPaths().getFoldCsv()));
  assertTrue(Files.exists(config.getPaths().getMilestone2SummaryCsv()));
+ assertTrue(Files.exists(config.getPaths().getChartsDir().resolve("demo_bar.png")));
+
+ Path convertedFolds = tempRoot.resolve("fold_metrics_converted.csv");
+ new ColumnarCsvConverter().convert(config.getPaths().getFoldColumnar(), convertedFolds);
+ assertEquals(sortedLines(config.getPaths().getFoldCsv()), sortedLines(convertedFolds));
+ Path convertedResults = tempRoot.resolve("results_converted.csv");
+ new ColumnarCsvConverter().convert(config.getPaths().getResultsColumnar(), convertedResults);
+ assertEquals(sortedLines(config.getPaths().getResultsCsv()), sortedLines(convertedResults));
+ } finally {
+ deleteRecursively(tempRoot);
+ }
+ }
+
+ @Test
+ void recomputeRebuildsResultsFromStoredPredictions() throws Exception {
+ Path tempRoot = Files.createTempDirectory("milestone2-recompute-smoke");
+ Path dataDir = Files.createDirectory(tempRoot.resolve("data"));
+ Path outputDir = Files.createDirectory(tempRoot.resolve("out"));
+ Files.writeString(dataDir.resolve("demo.arff"), demoDataset(), StandardCharsets.UTF_8);
+ String[] common = {
+ "--data-dir=" + dataDir,
+ "--output-dir=" + outputDir,
+ "--classifier-config=classifiers.properties",
+ "--class-attribute=bug",
+ "--positive-class=yes",
+ "--validation=cross-validation",
+ "--runs=1",
+ "--folds=2",
+ "--threads=1",
+ "--whatif=false",
+ "--stacking=true"
+ };
+
+ try {
+ String trained = runAndReadResults(common);
+ assertTrue(Files.isDirectory(outputDir.resolve("predictions").resolve("demo.arff")));
+ assertTrue(trained.contains("Stacking (Random Forest + Naive Bayes + K-Nearest Neighbors)"));
+ assertTrue(Files.readString(outputDir.resolve("fold_metrics.csv"), StandardCharsets.UTF_8).contains("TrainNanos"));
+ assertTrue(Files.readString(outputDir.resolve("fold_metrics.csv"), StandardCharsets.UTF_8)
+ .contains("PredictAllocatedBytes"));
+
+ String[] recomputeArgs = java.util.Arrays.copyOf(common, common.length + 1);
+ recomputeArgs[common.length] = "--recompute=true";
+ String recomputed = runAndReadResults(recomputeArgs);
+
+ assertEquals(trained, recomputed);
+
+ String[] mergeArgs = java.util.Arrays.copyOf(recomputeArgs, recomputeArgs.length + 1);
+ mergeArgs[recomputeArgs.length] = "--output-mode=merge";
+ assertEquals(trained, runAndReadResults(mergeArgs));
+ assertFalse(Files.exists(outputDir.resolve("results.csv.staged")));
  } finally {
  deleteRecursively(tempRoot);
  }
  }
 
+ private String runAndReadResults(String[] args) throws Exception {
+ RunConfig config = RunConfig.fromArgs(args);
+ new RuntimePreparer().prepare(config);
+ Catalog classifierCatalog = Catalog.load(
+ config.getPaths().getClassifierConfigPath(),
+ config.getSelection().getClassifierIds()
+ );
+ try (OutputWriters outputs = OutputWriters.open(config)) {
+ new Runner().run(config, classifierCatalog, outputs);
+ }
+ // Drop the run id and the trailing phase timings and resources, which are only measured when classifiers are trained.
+ String timings = "(,[^,]*){" + (FoldPhase.values().length + FoldResource.values().length) + "}$";
+ return Files.readAllLines(config.getPaths().getResultsCsv(), StandardCharsets.UTF_8).stream()
+ .map(line -> line.substring(line.indexOf(',') + 1).replaceFirst(timings, ""))
+ .collect(java.util.stream.Collectors.joining(System.lineSeparator()));
+ }
+
  private String demoDataset() {
  return String.join(System.lineSeparator(),
  "@relation demo",
@@ -179,6 +294,10 @@ class Milestone2SmokeTest {
  );
  }
 
+ private List<String> sortedLines(Path file) throws IOException {
+ return Files.readAllLines(file, StandardCharsets.UTF_8).stream().sorted().collect(Collectors.toList());
+ }
+
  @SuppressWarnings("resource")
  private void deleteRecursively(Path path) throws IOException {
  if (!Files.exists(path)) {
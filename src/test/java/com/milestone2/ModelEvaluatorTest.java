@@ -32,7 +32,10 @@ class ModelEvaluatorTest {
  MetricDefinition.F1,
  MetricDefinition.KAPPA,
  MetricDefinition.AUC,
- MetricDefinition.NPOFB20
+ MetricDefinition.NPOFB20,
+ MetricDefinition.POPT,
+ MetricDefinition.ACC,
+ MetricDefinition.IFA
  ),
  new ArrayList<>(avg.keySet())
  );
@@ -43,6 +46,7 @@ class ModelEvaluatorTest {
  assertEquals(0.50, avg.get(MetricDefinition.KAPPA));
  assertEquals(0.75, avg.get(MetricDefinition.AUC));
  assertEquals(0.40, avg.get(MetricDefinition.NPOFB20));
+ assertEquals(Double.NaN, avg.get(MetricDefinition.POPT));
  }
 }
 
@@ -0,0 +1,104 @@
+package com.milestone2;
+
+import com.milestone2.featureAnalysis.Correlation;
+import com.milestone2.prediction.PredictionRecord;
+import com.milestone2.startupUtility.RunConfig;
+import com.milestone2.whatif.WhatIfDatasetBuilder;
+import com.milestone2.whatif.WhatIfDatasetSet;
+import com.milestone2.whatif.WhatIfFeatureImpact;
+import com.milestone2.whatif.WhatIfFeatureSelection;
+import com.milestone2.whatif.WhatIfFeatureSweep;
+import com.milestone2.whatif.WhatIfImpactSummary;
+import com.milestone2.whatif.WhatIfScenarioSummarizer;
+import org.junit.jupiter.api.Test;
+import weka.classifiers.bayes.NaiveBayes;
+import weka.classifiers.meta.FilteredClassifier;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instance;
+import weka.core.Instances;
+import weka.core.Utils;
+import weka.filters.unsupervised.attribute.Standardize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WhatIfFeatureSweepTest {
+
+ @Test
+ void sweepMeasuresEveryZeroableFeatureWithTheSharedPipeline() throws Exception {
+ Instances data = dataset();
+ FilteredClassifier pipeline = new FilteredClassifier();
+ pipeline.setFilter(new Standardize());
+ pipeline.setClassifier(new NaiveBayes());
+ pipeline.buildClassifier(data);
+ List<Correlation> correlations = List.of(
+ new Correlation("LOC", 0.6, 400, 0, 400),
+ new Correlation("NSmells", 0.5, 400, 180, 220),
+ new Correlation("Churn", 0.3, 400, 120, 280)
+ );
+ RunConfig config = RunConfig.fromArgs(new String[]{"--positive-class=yes"});
+
+ List<WhatIfFeatureImpact> impacts = new WhatIfFeatureSweep().sweep(data, correlations, pipeline, config);
+
+ assertEquals(2, impacts.size());
+ assertEquals("NSmells", impacts.get(0).getFeatureName());
+ assertEquals("Churn", impacts.get(1).getFeatureName());
+ for (WhatIfFeatureImpact impact : impacts) {
+ WhatIfImpactSummary expected = materializedImpact(data, pipeline, impact.getCorrelation());
+ WhatIfImpactSummary actual = impact.getImpactSummary();
+ assertEquals(expected.getPairedInstanceCount(), actual.getPairedInstanceCount());
+ assertEquals(expected.getActualBuggyCount(), actual.getActualBuggyCount());
+ assertEquals(expected.getPredictedRelievedCount(), actual.getPredictedRelievedCount());
+ assertEquals(expected.getAvoidableBuggyCount(), actual.getAvoidableBuggyCount());
+ assertEquals(expected.getAveragePositiveProbabilityReduction(),
+ actual.getAveragePositiveProbabilityReduction(), 1e-12);
+ }
+ }
+
+ private WhatIfImpactSummary materializedImpact(Instances data,
+ FilteredClassifier pipeline,
+ Correlation correlation) throws Exception {
+ WhatIfDatasetSet datasets = new WhatIfDatasetBuilder().build(data, new WhatIfFeatureSelection(correlation, "test"));
+ return new WhatIfScenarioSummarizer().summarizeImpact(
+ predictions(datasets.getBPlusDataset(), pipeline),
+ predictions(datasets.getBDataset(), pipeline)
+ );
+ }
+
+ private List<PredictionRecord> predictions(Instances dataset, FilteredClassifier pipeline) throws Exception {
+ int positive = dataset.classAttribute().indexOfValue("yes");
+ List<PredictionRecord> records = new ArrayList<>();
+ for (Instance instance : dataset) {
+ double[] distribution = pipeline.distributionForInstance(instance);
+ records.add(new PredictionRecord(
+ (int) instance.classValue() == positive,
+ Utils.maxIndex(distribution) == positive,
+ distribution[positive]
+ ));
+ }
+ return records;
+ }
+
+ private Instances dataset() {
+ ArrayList<Attribute> attributes = new ArrayList<>();
+ attributes.add(new Attribute("LOC"));
+ attributes.add(new Attribute("NSmells"));
+ attributes.add(new Attribute("Churn"));
+ attributes.add(new Attribute("bug", List.of("no", "yes")));
+ Instances data = new Instances("sweep", attributes, 400);
+ data.setClassIndex(3);
+ Random random = new Random(11);
+ for (int i = 0; i < 400; i++) {
+ boolean buggy = random.nextDouble() < 0.4;
+ double nSmells = random.nextDouble() < (buggy ? 0.8 : 0.35) ? 1 + random.nextInt(6) : 0;
+ double churn = random.nextDouble() < 0.7 ? random.nextInt(40) + 1 : 0;
+ double loc = 20 + random.nextInt(500) + (buggy ? 150 : 0);
+ data.add(new DenseInstance(1.0, new double[]{loc, nSmells, churn, buggy ? 1 : 0}));
+ }
+ return data;
+ }
+}
@@ -0,0 +1,95 @@
+package com.milestone2;
+
+import com.milestone2.classifier.Definition;
+import com.milestone2.evaluation.Preprocessor;
+import com.milestone2.startupUtility.RunConfig;
+import com.milestone2.whatif.WhatIfClassifierSelection;
+import com.milestone2.whatif.WhatIfModelCache;
+import com.milestone2.whatif.WhatIfPredictionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import weka.classifiers.meta.FilteredClassifier;
+import weka.core.Instances;
+
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WhatIfModelCacheTest {
+ private static final Definition NAIVE_BAYES =
+ new Definition("NB", "Naive Bayes", "weka.classifiers.bayes.NaiveBayes", "");
+
+ @TempDir
+ Path outputDir;
+
+ @Test
+ void fingerprintIgnoresScenarioParametersButTracksTrainingInputs() throws Exception {
+ Instances data = dataset("2,15,yes");
+ WhatIfModelCache cache = new WhatIfModelCache(outputDir);
+ String base = cache.fingerprint(data, NAIVE_BAYES, config("--seed=1"));
+
+ assertEquals(base, cache.fingerprint(data, NAIVE_BAYES,
+ config("--seed=1", "--whatif-feature=LOC", "--whatif-sweep=true", "--whatif-sensitivity=true")));
+ assertNotEquals(base, cache.fingerprint(data, NAIVE_BAYES, config("--seed=2")));
+ assertNotEquals(base, cache.fingerprint(data, NAIVE_BAYES, config("--seed=1", "--balancing=smote")));
+ assertNotEquals(base, cache.fingerprint(dataset("2,16,yes"), NAIVE_BAYES, config("--seed=1")));
+ assertNotEquals(base, cache.fingerprint(data,
+ new Definition("NB", "Naive Bayes", "weka.classifiers.bayes.NaiveBayes", "-K"), config("--seed=1")));
+ }
+
+ @Test
+ void secondRunLoadsTheCachedPipelineUntilTheDatasetChanges() throws Exception {
+ Instances data = dataset("2,15,yes");
+ RunConfig config = config("--output-dir=" + outputDir);
+ WhatIfClassifierSelection selection = new WhatIfClassifierSelection(NAIVE_BAYES, "test");
+ WhatIfPredictionService service = new WhatIfPredictionService();
+ WhatIfModelCache cache = new WhatIfModelCache(config.getPaths().getModelsDir());
+
+ FilteredClassifier trained = service.trainOrLoad("demo.arff", data, selection, config, new Preprocessor());
+ assertTrue(Files.isRegularFile(cache.file("demo.arff", "NB")));
+ FilteredClassifier loaded = service.trainOrLoad("demo.arff", data, selection, config, new Preprocessor());
+
+ assertNotNull(loaded);
+ assertArrayEquals(trained.distributionForInstance(data.instance(1)),
+ loaded.distributionForInstance(data.instance(1)), 1e-12);
+ String fingerprint = cache.fingerprint(data, NAIVE_BAYES, config);
+ assertNotNull(cache.load("demo.arff", "NB", fingerprint));
+ assertNull(cache.load("demo.arff", "NB", cache.fingerprint(dataset("2,16,yes"), NAIVE_BAYES, config)));
+ assertNull(cache.load("other.arff", "NB", fingerprint));
+
+ Files.delete(cache.file("demo.arff", "NB"));
+ RunConfig uncached = config("--output-dir=" + outputDir, "--whatif-model-cache=false");
+ assertNotNull(service.trainOrLoad("demo.arff", data, selection, uncached, new Preprocessor()));
+ assertFalse(Files.exists(cache.file("demo.arff", "NB")));
+ }
+
+ private RunConfig config(String... args) {
+ return RunConfig.fromArgs(args);
+ }
+
+ private Instances dataset(String secondRow) throws Exception {
+ Instances data = new Instances(new StringReader(String.format(
+ "@relation demo%n" +
+ "@attribute NSmells numeric%n" +
+ "@attribute LOC numeric%n" +
+ "@attribute bug {yes,no}%n" +
+ "@data%n" +
+ "0,10,no%n" +
+ secondRow + "%n" +
+ "0,11,no%n" +
+ "3,17,yes%n" +
+ "1,14,yes%n" +
+ "0,9,no%n"
+ )));
+ data.setClassIndex(data.numAttributes() - 1);
+ return data;
+ }
+}
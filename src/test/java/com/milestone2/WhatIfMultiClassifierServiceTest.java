@@ -0,0 +1,99 @@
+package com.milestone2;
+
+import com.milestone2.classifier.Definition;
+import com.milestone2.classifier.EvaluationReport;
+import com.milestone2.evaluation.Preprocessor;
+import com.milestone2.featureAnalysis.Correlation;
+import com.milestone2.prediction.ScenarioSummary;
+import com.milestone2.startupUtility.RunConfig;
+import com.milestone2.whatif.WhatIfClassifierSelection;
+import com.milestone2.whatif.WhatIfDatasetBuilder;
+import com.milestone2.whatif.WhatIfDatasetSet;
+import com.milestone2.whatif.WhatIfFeatureSelection;
+import com.milestone2.whatif.WhatIfMultiClassifierReport;
+import com.milestone2.whatif.WhatIfMultiClassifierService;
+import com.milestone2.whatif.WhatIfPredictionService;
+import com.milestone2.whatif.WhatIfScenarioReport;
+import org.junit.jupiter.api.Test;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WhatIfMultiClassifierServiceTest {
+
+ @Test
+ void sharedPreprocessingMatchesPerClassifierPipelines() throws Exception {
+ Instances data = dataset();
+ RunConfig config = RunConfig.fromArgs(new String[]{"--positive-class=yes"});
+ Preprocessor preprocessor = new Preprocessor();
+ WhatIfFeatureSelection featureSelection =
+ new WhatIfFeatureSelection(new Correlation("NSmells", 0.5, 300, 120, 180), "test");
+ WhatIfDatasetSet datasetSet = new WhatIfDatasetBuilder().build(data, featureSelection);
+ List<EvaluationReport> reports = List.of(
+ report("NB", "Naive Bayes", "weka.classifiers.bayes.NaiveBayes"),
+ report("LOG", "Logistic", "weka.classifiers.functions.Logistic"),
+ report("IBK", "K-Nearest Neighbors", "weka.classifiers.lazy.IBk")
+ );
+ WhatIfClassifierSelection primary = new WhatIfClassifierSelection(reports.get(1).getDefinition(), "primary");
+
+ WhatIfMultiClassifierReport multiReport = new WhatIfMultiClassifierService().evaluate(
+ data, datasetSet, featureSelection, primary, reports, config, preprocessor);
+
+ assertEquals(3, multiReport.getScenarioReports().size());
+ assertEquals("primary", multiReport.findScenarioReport("LOG").getClassifierSelection().getReason());
+ WhatIfPredictionService predictionService = new WhatIfPredictionService();
+ double minimumShare = Double.POSITIVE_INFINITY;
+ double maximumShare = Double.NEGATIVE_INFINITY;
+ for (EvaluationReport report : reports) {
+ WhatIfClassifierSelection selection = new WhatIfClassifierSelection(report.getDefinition(), "single");
+ WhatIfScenarioReport expected = predictionService.evaluate(data, datasetSet, featureSelection, selection,
+ config, predictionService.train(data, selection, config, preprocessor));
+ WhatIfScenarioReport actual = multiReport.findScenarioReport(report.getDefinition().getId());
+ for (int s = 0; s < expected.getScenarioSummaries().size(); s++) {
+ ScenarioSummary expectedSummary = expected.getScenarioSummaries().get(s);
+ ScenarioSummary actualSummary = actual.getScenarioSummaries().get(s);
+ assertEquals(expectedSummary.getScenario(), actualSummary.getScenario());
+ assertEquals(expectedSummary.getPredictedBuggyCount(), actualSummary.getPredictedBuggyCount());
+ assertEquals(expectedSummary.getAveragePositiveProbability(),
+ actualSummary.getAveragePositiveProbability(), 1e-9);
+ }
+ assertEquals(expected.getImpactSummary().getAvoidableBuggyCount(),
+ actual.getImpactSummary().getAvoidableBuggyCount());
+ minimumShare = Math.min(minimumShare, actual.getImpactSummary().getAvoidableBuggyShare());
+ maximumShare = Math.max(maximumShare, actual.getImpactSummary().getAvoidableBuggyShare());
+ }
+ assertEquals(3, multiReport.getConsensusSummary().getClassifierCount());
+ assertEquals(minimumShare, multiReport.getConsensusSummary().getMinimumAvoidableBuggyShare());
+ assertEquals(maximumShare, multiReport.getConsensusSummary().getMaximumAvoidableBuggyShare());
+ assertTrue(multiReport.getConsensusSummary().getMajorityAvoidableBuggyShare() <= maximumShare);
+ }
+
+ private EvaluationReport report(String id, String displayName, String className) {
+ return new EvaluationReport(new Definition(id, displayName, className, ""), Map.of(), List.of());
+ }
+
+ private Instances dataset() {
+ ArrayList<Attribute> attributes = new ArrayList<>();
+ attributes.add(new Attribute("LOC"));
+ attributes.add(new Attribute("NSmells"));
+ attributes.add(new Attribute("bug", List.of("no", "yes")));
+ Instances data = new Instances("multi", attributes, 300);
+ data.setClassIndex(2);
+ Random random = new Random(5);
+ for (int i = 0; i < 300; i++) {
+ boolean buggy = random.nextDouble() < 0.4;
+ double nSmells = random.nextDouble() < (buggy ? 0.85 : 0.3) ? 1 + random.nextInt(5) : 0;
+ double loc = 30 + random.nextInt(400) + (buggy ? 120 : 0);
+ data.add(new DenseInstance(1.0, new double[]{loc, nSmells, buggy ? 1 : 0}));
+ }
+ return data;
+ }
+}
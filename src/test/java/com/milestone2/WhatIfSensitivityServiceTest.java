@@ -0,0 +1,95 @@
+package com.milestone2;
+
+import com.milestone2.classifier.Definition;
+import com.milestone2.evaluation.Preprocessor;
+import com.milestone2.featureAnalysis.Correlation;
+import com.milestone2.prediction.ScenarioSummary;
+import com.milestone2.startupUtility.RunConfig;
+import com.milestone2.whatif.WhatIfClassifierSelection;
+import com.milestone2.whatif.WhatIfDatasetBuilder;
+import com.milestone2.whatif.WhatIfDatasetSet;
+import com.milestone2.whatif.WhatIfFeatureSelection;
+import com.milestone2.whatif.WhatIfPredictionService;
+import com.milestone2.whatif.WhatIfScenario;
+import com.milestone2.whatif.WhatIfScenarioReport;
+import com.milestone2.whatif.WhatIfSensitivityCurve;
+import com.milestone2.whatif.WhatIfSensitivityPoint;
+import com.milestone2.whatif.WhatIfSensitivityService;
+import org.junit.jupiter.api.Test;
+import weka.classifiers.meta.FilteredClassifier;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WhatIfSensitivityServiceTest {
+
+ @Test
+ void curveEndpointsMatchTheZeroedAndOriginalScenarios() throws Exception {
+ Instances data = dataset();
+ RunConfig config = RunConfig.fromArgs(new String[]{
+ "--positive-class=yes",
+ "--whatif-sensitivity=true",
+ "--whatif-sensitivity-levels=1,0.5,0,2"
+ });
+ WhatIfFeatureSelection featureSelection =
+ new WhatIfFeatureSelection(new Correlation("NSmells", 0.5, 300, 120, 180), "test");
+ WhatIfClassifierSelection classifierSelection = new WhatIfClassifierSelection(
+ new Definition("NB", "Naive Bayes", "weka.classifiers.bayes.NaiveBayes", ""), "test");
+ WhatIfDatasetSet datasetSet = new WhatIfDatasetBuilder().build(data, featureSelection);
+ WhatIfPredictionService predictionService = new WhatIfPredictionService();
+ FilteredClassifier pipeline = predictionService.train(data, classifierSelection, config, new Preprocessor());
+ WhatIfScenarioReport scenarioReport =
+ predictionService.evaluate(data, datasetSet, featureSelection, classifierSelection, config, pipeline);
+
+ WhatIfSensitivityCurve curve = new WhatIfSensitivityService()
+ .evaluate(datasetSet, featureSelection, classifierSelection, pipeline, config);
+
+ List<WhatIfSensitivityPoint> points = curve.getPoints();
+ assertEquals(List.of(0.0, 0.5, 1.0, 2.0), List.of(
+ points.get(0).getScaleFactor(),
+ points.get(1).getScaleFactor(),
+ points.get(2).getScaleFactor(),
+ points.get(3).getScaleFactor()));
+ assertMatches(summary(scenarioReport, WhatIfScenario.B), points.get(0));
+ assertMatches(summary(scenarioReport, WhatIfScenario.B_PLUS), points.get(2));
+ }
+
+ private void assertMatches(ScenarioSummary expected, WhatIfSensitivityPoint actual) {
+ assertEquals(expected.getInstanceCount(), actual.getInstanceCount());
+ assertEquals(expected.getActualBuggyCount(), actual.getActualBuggyCount());
+ assertEquals(expected.getPredictedBuggyCount(), actual.getPredictedBuggyCount());
+ assertEquals(expected.getAveragePositiveProbability(), actual.getAveragePositiveProbability(), 1e-9);
+ }
+
+ private ScenarioSummary summary(WhatIfScenarioReport report, WhatIfScenario scenario) {
+ for (ScenarioSummary summary : report.getScenarioSummaries()) {
+ if (summary.getScenario() == scenario) {
+ return summary;
+ }
+ }
+ throw new AssertionError("Missing scenario " + scenario);
+ }
+
+ private Instances dataset() {
+ ArrayList<Attribute> attributes = new ArrayList<>();
+ attributes.add(new Attribute("LOC"));
+ attributes.add(new Attribute("NSmells"));
+ attributes.add(new Attribute("bug", List.of("no", "yes")));
+ Instances data = new Instances("sensitivity", attributes, 300);
+ data.setClassIndex(2);
+ Random random = new Random(9);
+ for (int i = 0; i < 300; i++) {
+ boolean buggy = random.nextDouble() < 0.4;
+ double nSmells = random.nextDouble() < (buggy ? 0.85 : 0.3) ? 1 + random.nextInt(5) : 0;
+ double loc = 30 + random.nextInt(400) + (buggy ? 120 : 0);
+ data.add(new DenseInstance(1.0, new double[]{loc, nSmells, buggy ? 1 : 0}));
+ }
+ return data;
+ }
+}
@@ -0,0 +1,104 @@
+package com.milestone2.columnarExport;
+
+import org.apache.commons.csv.CSVFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ColumnarWriterTest {
+ private static final List<ColumnSpec> COLUMNS = List.of(
+ new ColumnSpec("Dataset", ColumnType.STRING),
+ new ColumnSpec("Fold", ColumnType.LONG),
+ new ColumnSpec("Window", ColumnType.STRING),
+ new ColumnSpec("AUC", ColumnType.DOUBLE)
+ );
+
+ @TempDir
+ Path tempDir;
+
+ @Test
+ void rowsRoundTripAcrossBlocksWithNullsAndSharedDictionary() throws Exception {
+ Path file = tempDir.resolve("folds.m2c");
+ List<List<Object>> rows = rows(23);
+ try (ColumnarWriter writer = new ColumnarWriter(file, COLUMNS, 5)) {
+ for (List<Object> row : rows) {
+ writer.write(row);
+ }
+ }
+
+ List<List<Object>> read = new ArrayList<>();
+ int blocks = 0;
+ try (ColumnarReader reader = new ColumnarReader(file)) {
+ assertEquals("AUC", reader.getColumns().get(3).getName());
+ assertEquals(ColumnType.LONG, reader.getColumns().get(1).getType());
+ for (ColumnarBlock block = reader.next(); block != null; block = reader.next()) {
+ blocks++;
+ for (int row = 0; row < block.getRowCount(); row++) {
+ List<Object> values = new ArrayList<>();
+ for (int column = 0; column < COLUMNS.size(); column++) {
+ values.add(block.getValue(column, row));
+ }
+ read.add(values);
+ }
+ }
+ }
+
+ assertEquals(5, blocks);
+ assertEquals(rows.size(), read.size());
+ for (int row = 0; row < rows.size(); row++) {
+ List<Object> expected = rows.get(row);
+ List<Object> actual = read.get(row);
+ assertEquals(expected.get(0), actual.get(0));
+ assertEquals(((Integer) expected.get(1)).longValue(), actual.get(1));
+ assertEquals(expected.get(2), actual.get(2));
+ assertEquals(expected.get(3), actual.get(3));
+ }
+ assertNull(read.get(0).get(2));
+ assertNull(read.get(4).get(3));
+ }
+
+ @Test
+ void converterReproducesTheCsvEncoding() throws Exception {
+ Path file = tempDir.resolve("folds.m2c");
+ List<List<Object>> rows = rows(12);
+ try (ColumnarWriter writer = new ColumnarWriter(file, COLUMNS, 4)) {
+ for (List<Object> row : rows) {
+ writer.write(row);
+ }
+ }
+
+ Path csv = tempDir.resolve("folds.csv");
+ assertEquals(12L, new ColumnarCsvConverter().convert(file, csv));
+
+ List<String> expected = new ArrayList<>();
+ expected.add("Dataset,Fold,Window,AUC");
+ for (List<Object> row : rows) {
+ expected.add(CSVFormat.DEFAULT.format(row.toArray()));
+ }
+ assertEquals(expected, Files.readAllLines(csv, StandardCharsets.UTF_8));
+ assertTrue(Files.size(file) < Files.size(csv));
+ }
+
+ private static List<List<Object>> rows(int count) {
+ List<List<Object>> rows = new ArrayList<>();
+ for (int row = 0; row < count; row++) {
+ rows.add(Arrays.asList(
+ row % 2 == 0 ? "demo,project" : "other \"quoted\"",
+ row,
+ row % 3 == 0 ? null : "release-" + row % 4,
+ row % 4 == 0 ? null : row / 10.0
+ ));
+ }
+ return rows;
+ }
+}
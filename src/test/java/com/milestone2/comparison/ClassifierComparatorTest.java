@@ -0,0 +1,125 @@
+package com.milestone2.comparison;
+
+import com.milestone2.classifier.Definition;
+import com.milestone2.foldMetadata.FoldResult;
+import com.milestone2.metric.FoldSamples;
+import com.milestone2.metric.MetricAccumulator;
+import com.milestone2.metric.MetricDefinition;
+import com.milestone2.metric.Metrics;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClassifierComparatorTest {
+ private static final Definition STRONG = new Definition("strong", "Strong", "weka.classifiers.trees.J48", "");
+ private static final Definition WEAK = new Definition("weak", "Weak", "weka.classifiers.bayes.NaiveBayes", "");
+ private static final Definition TWIN = new Definition("twin", "Twin", "weka.classifiers.bayes.NaiveBayes", "");
+
+ @Test
+ void permutationTestsSeparateDifferentClassifiersAndAreThreadIndependent() {
+ List<ComparisonDataset> datasets = List.of(
+ dataset("a", 0.80, 0.60, 0.60, 1L),
+ dataset("b", 0.75, 0.62, 0.62, 2L)
+ );
+
+ ComparisonReport sequential = new ClassifierComparator(new PermutationTester(), new RankAnalyzer(), () -> 1)
+ .compare(datasets, 999, 0.05, 7L);
+ ComparisonReport parallel = new ClassifierComparator(new PermutationTester(), new RankAnalyzer(), () -> 4)
+ .compare(datasets, 999, 0.05, 7L);
+
+ List<PairwiseComparison> auc = sequential.getPairwiseComparisons().stream()
+ .filter(comparison -> comparison.getMetric() == MetricDefinition.AUC)
+ .collect(Collectors.toList());
+ assertEquals(6, auc.size());
+ PairwiseComparison strongVsWeak = auc.get(0);
+ assertEquals(20, strongVsWeak.getObservations());
+ assertEquals(1.0 / 1000, strongVsWeak.getPValue(), 1e-12);
+ assertEquals(STRONG, strongVsWeak.getWinner(0.05));
+ PairwiseComparison weakVsTwin = auc.get(2);
+ assertEquals(1.0, weakVsTwin.getPValue(), 1e-12);
+ assertEquals(null, weakVsTwin.getWinner(0.05));
+
+ for (int i = 0; i < sequential.getPairwiseComparisons().size(); i++) {
+ PairwiseComparison expected = sequential.getPairwiseComparisons().get(i);
+ PairwiseComparison actual = parallel.getPairwiseComparisons().get(i);
+ assertEquals(expected.getPValue(), actual.getPValue(), 0.0);
+ assertEquals(expected.getAdjustedPValue(), actual.getAdjustedPValue(), 0.0);
+ }
+ }
+
+ @Test
+ void subsetSumTablesMatchDirectSignFlips() {
+ double[] values = new Random(5L).doubles(37).toArray();
+ SignMasks masks = SignMasks.generate(values.length, 200, new SplittableRandom(9L));
+
+ double[] sums = PermutationTester.flippedSums(values, masks);
+
+ for (int mask = 0; mask < masks.count(); mask++) {
+ double expected = 0.0;
+ for (int fold = 0; fold < values.length; fold++) {
+ if (masks.isFlipped(mask, fold)) {
+ expected += values[fold];
+ }
+ }
+ assertEquals(expected, sums[mask], 1e-12);
+ }
+ }
+
+ @Test
+ void rankingMatchesFriedmanNemenyiAndScottKnottExpectations() {
+ assertEquals(1.960, RankAnalyzer.nemenyiCriticalValue(2, 0.05), 1e-3);
+ assertEquals(2.728, RankAnalyzer.nemenyiCriticalValue(5, 0.05), 1e-3);
+ assertEquals(3.164, RankAnalyzer.nemenyiCriticalValue(10, 0.05), 1e-3);
+ assertEquals(3.544, RankAnalyzer.nemenyiCriticalValue(20, 0.05), 1e-3);
+
+ List<ComparisonDataset> datasets = new ArrayList<>();
+ for (int d = 0; d < 8; d++) {
+ datasets.add(dataset("d" + d, 0.80 + d * 0.01, 0.60, 0.60 + (d % 2 == 0 ? 0.01 : -0.01), d));
+ }
+
+ RankComparison ranking = new RankAnalyzer().rank(MetricDefinition.AUC, datasets, 0.05);
+
+ assertNotNull(ranking);
+ assertEquals(8, ranking.getDatasets());
+ assertEquals(1.0, ranking.getMeanRank(0), 1e-12);
+ assertEquals(2.5, ranking.getMeanRank(1), 1e-12);
+ assertEquals(2.5, ranking.getMeanRank(2), 1e-12);
+ assertEquals(12.0, ranking.getFriedmanStatistic(), 1e-9);
+ assertEquals(Math.exp(-6.0), ranking.getFriedmanPValue(), 1e-9);
+ assertEquals(1, ranking.getGroup(0));
+ assertEquals(2, ranking.getGroup(1));
+ assertEquals(2, ranking.getGroup(2));
+ }
+
+ private static ComparisonDataset dataset(String name, double strong, double weak, double twin, long seed) {
+ Random random = new Random(seed);
+ MetricAccumulator[] accumulators = {new MetricAccumulator(), new MetricAccumulator(), new MetricAccumulator()};
+ double[] centers = {strong, weak, twin};
+ for (int run = 0; run < 2; run++) {
+ for (int fold = 0; fold < 10; fold++) {
+ double noise = random.nextGaussian() * 0.01;
+ for (int c = 0; c < accumulators.length; c++) {
+ double value = c == 0 ? centers[c] + random.nextGaussian() * 0.01 : centers[c] + noise;
+ accumulators[c].add(new FoldResult(run, fold,
+ new Metrics(Map.of(MetricDefinition.AUC, value))));
+ }
+ }
+ }
+ List<FoldSamples> samples = new ArrayList<>();
+ List<Map<MetricDefinition, Double>> aggregates = new ArrayList<>();
+ for (MetricAccumulator accumulator : accumulators) {
+ samples.add(accumulator.foldSamples());
+ aggregates.add(accumulator.means());
+ }
+ return new ComparisonDataset(name, List.of(STRONG, WEAK, TWIN), samples, aggregates);
+ }
+}
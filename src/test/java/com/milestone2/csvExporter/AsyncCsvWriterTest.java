@@ -0,0 +1,74 @@
+package com.milestone2.csvExporter;
+
+import org.apache.commons.csv.CSVFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncCsvWriterTest {
+
+ @TempDir
+ Path tempDir;
+
+ @Test
+ void encodedPrefixProducesTheSameRowAsDirectEncoding() throws Exception {
+ Path file = tempDir.resolve("prefix.csv");
+ List<Object> prefixValues = Arrays.asList("run,1", "say \"hi\"", null, 42L);
+ List<Object> tailValues = Arrays.asList(3, 0.25, "last");
+ try (AsyncCsvWriter writer = new AsyncCsvWriter(file, new String[]{"A", "B", "C", "D", "E", "F", "G"})) {
+ writer.write(writer.encodePrefix(prefixValues), tailValues);
+ }
+
+ List<Object> full = new ArrayList<>(prefixValues);
+ full.addAll(tailValues);
+ List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+ assertEquals(List.of("A,B,C,D,E,F,G", CSVFormat.DEFAULT.format(full.toArray())), lines);
+ }
+
+ @Test
+ void concurrentProducersThroughASmallQueueLoseNoRows() throws Exception {
+ Path file = tempDir.resolve("rows.csv");
+ int producers = 4;
+ int rowsPerProducer = 500;
+ ExecutorService executor = Executors.newFixedThreadPool(producers);
+ try (AsyncCsvWriter writer = new AsyncCsvWriter(file, new String[]{"Producer", "Row"}, 8)) {
+ String[] prefixes = new String[producers];
+ List<Future<?>> futures = new ArrayList<>();
+ for (int producer = 0; producer < producers; producer++) {
+ prefixes[producer] = writer.encodePrefix(List.of("p" + producer));
+ String prefix = prefixes[producer];
+ futures.add(executor.submit(() -> {
+ for (int row = 0; row < rowsPerProducer; row++) {
+ writer.write(prefix, List.of(row));
+ }
+ return null;
+ }));
+ }
+ for (Future<?> future : futures) {
+ future.get();
+ }
+ } finally {
+ executor.shutdownNow();
+ }
+
+ List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+ assertEquals(producers * rowsPerProducer + 1, lines.size());
+ Set<String> unique = new HashSet<>(lines.subList(1, lines.size()));
+ assertEquals(producers * rowsPerProducer, unique.size());
+ assertTrue(unique.contains("p3,499"));
+ }
+}
@@ -0,0 +1,77 @@
+package com.milestone2.csvExporter;
+
+import com.milestone2.dataset.AnalysisReport;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChartSchedulerTest {
+
+ @Test
+ void asyncModeRendersEveryReportBeforeCloseReturns() throws Exception {
+ RecordingChartGenerator generator = new RecordingChartGenerator(false);
+ try (ChartScheduler scheduler = new ChartScheduler(generator, ChartMode.ASYNC, () -> 8)) {
+ for (int report = 0; report < 10; report++) {
+ scheduler.submit(null);
+ }
+ }
+
+ assertEquals(10, generator.renderingThreads.size());
+ assertTrue(generator.renderingThreads.stream().anyMatch(name -> name.equals("chart-renderer")));
+ }
+
+ @Test
+ void deferredModeRendersOnlyOnClose() throws Exception {
+ RecordingChartGenerator generator = new RecordingChartGenerator(false);
+ ChartScheduler scheduler = new ChartScheduler(generator, ChartMode.DEFERRED, () -> 4);
+ scheduler.submit(null);
+ scheduler.submit(null);
+ assertTrue(generator.renderingThreads.isEmpty());
+
+ scheduler.close();
+ assertEquals(2, generator.renderingThreads.size());
+ }
+
+ @Test
+ void offModeRendersNothing() throws Exception {
+ RecordingChartGenerator generator = new RecordingChartGenerator(false);
+ try (ChartScheduler scheduler = new ChartScheduler(generator, ChartMode.OFF, () -> 4)) {
+ scheduler.submit(null);
+ }
+ assertTrue(generator.renderingThreads.isEmpty());
+ }
+
+ @Test
+ void closeRethrowsRenderingFailures() {
+ ChartScheduler scheduler = new ChartScheduler(new RecordingChartGenerator(true), ChartMode.ASYNC, () -> 4);
+ scheduler.submit(null);
+
+ IOException failure = assertThrows(IOException.class, scheduler::close);
+ assertEquals("disk full", failure.getMessage());
+ }
+
+ private static final class RecordingChartGenerator extends ChartGenerator {
+ private final List<String> renderingThreads = new CopyOnWriteArrayList<>();
+ private final boolean failing;
+
+ private RecordingChartGenerator(boolean failing) {
+ super(Path.of("unused"));
+ this.failing = failing;
+ }
+
+ @Override
+ public void generate(AnalysisReport report) throws IOException {
+ if (failing) {
+ throw new IOException("disk full");
+ }
+ renderingThreads.add(Thread.currentThread().getName());
+ }
+ }
+}
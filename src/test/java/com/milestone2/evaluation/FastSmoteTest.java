@@ -0,0 +1,106 @@
+package com.milestone2.evaluation;
+
+import org.junit.jupiter.api.Test;
+import weka.core.Instances;
+import weka.filters.Filter;
+
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FastSmoteTest {
+
+ @Test
+ void kdTreeMatchesBruteForceNeighbours() {
+ Random random = new Random(7);
+ int size = 300;
+ int dimensions = 4;
+ int k = 5;
+ double[] points = new double[size * dimensions];
+ for (int i = 0; i < points.length; i++) {
+ points[i] = random.nextInt(20) / 4.0;
+ }
+ MinorityKdTree tree = new MinorityKdTree(points, size, dimensions);
+
+ int[] found = new int[k];
+ for (int query = 0; query < size; query++) {
+ assertEquals(k, tree.nearest(query, k, found, 0));
+ assertArrayEquals(bruteForce(points, size, dimensions, query, k), found);
+ }
+ }
+
+ @Test
+ void smoteDoublesMinorityClassDeterministically() throws Exception {
+ Instances data = dataset();
+
+ Instances first = smote(data);
+ Instances second = smote(data);
+
+ assertEquals(data.numInstances() + 4, first.numInstances());
+ assertEquals(8, IntStream.range(0, first.numInstances())
+ .filter(i -> first.instance(i).stringValue(first.classIndex()).equals("yes"))
+ .count());
+ for (int i = 0; i < first.numInstances(); i++) {
+ assertArrayEquals(first.instance(i).toDoubleArray(), second.instance(i).toDoubleArray());
+ }
+ for (int i = data.numInstances(); i < first.numInstances(); i++) {
+ double loc = first.instance(i).value(0);
+ assertTrue(loc >= 100.0 && loc <= 130.0, "synthetic LOC outside minority range: " + loc);
+ }
+ }
+
+ private static int[] bruteForce(double[] points, int size, int dimensions, int query, int k) {
+ return IntStream.range(0, size)
+ .filter(i -> i != query)
+ .boxed()
+ .sorted(Comparator.<Integer>comparingDouble(i -> distance(points, dimensions, query, i))
+ .thenComparingInt(i -> i))
+ .limit(k)
+ .mapToInt(Integer::intValue)
+ .toArray();
+ }
+
+ private static double distance(double[] points, int dimensions, int a, int b) {
+ double sum = 0.0;
+ for (int d = 0; d < dimensions; d++) {
+ double diff = points[a * dimensions + d] - points[b * dimensions + d];
+ sum += diff * diff;
+ }
+ return sum;
+ }
+
+ private static Instances smote(Instances data) throws Exception {
+ FastSmote smote = new FastSmote();
+ smote.setNearestNeighbors(2);
+ smote.setInputFormat(data);
+ return Filter.useFilter(data, smote);
+ }
+
+ private static Instances dataset() throws Exception {
+ Instances data = new Instances(new StringReader(String.format(
+ "@relation demo%n" +
+ "@attribute LOC numeric%n" +
+ "@attribute NSmells numeric%n" +
+ "@attribute bug {yes,no}%n" +
+ "@data%n" +
+ "100,1,yes%n" +
+ "110,2,yes%n" +
+ "120,3,yes%n" +
+ "130,4,yes%n" +
+ "10,0,no%n" +
+ "12,0,no%n" +
+ "14,1,no%n" +
+ "16,0,no%n" +
+ "18,0,no%n" +
+ "20,1,no%n"
+ )));
+ data.setClassIndex(data.numAttributes() - 1);
+ return data;
+ }
+}
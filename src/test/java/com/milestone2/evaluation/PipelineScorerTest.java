@@ -0,0 +1,131 @@
+package com.milestone2.evaluation;
+
+import org.junit.jupiter.api.Test;
+import weka.classifiers.Classifier;
+import weka.classifiers.bayes.NaiveBayes;
+import weka.classifiers.meta.FilteredClassifier;
+import weka.classifiers.trees.RandomForest;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+import weka.filters.unsupervised.attribute.Standardize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PipelineScorerTest {
+
+ @Test
+ void parallelChunksKeepInstanceOrder() throws Exception {
+ Instances data = dataset(600);
+ FilteredClassifier pipeline = pipeline(new NaiveBayes(), data);
+
+ double[][] distributions = new PipelineScorer(new CoreBudget(() -> 5), 64).score(pipeline, data);
+
+ assertEquals(data.numInstances(), distributions.length);
+ for (int i = 0; i < data.numInstances(); i++) {
+ assertArrayEquals(pipeline.distributionForInstance(data.instance(i)), distributions[i], 1e-12);
+ }
+ }
+
+ @Test
+ void saturatedFoldPoolLeavesNoCoreForScoringHelpers() throws Exception {
+ Instances data = dataset(600);
+ FilteredClassifier pipeline = pipeline(new NaiveBayes(), data);
+ CoreBudget budget = new CoreBudget(() -> 4);
+ budget.occupy(4);
+
+ assertEquals(0, budget.tryAcquire(3));
+ double[][] distributions = new PipelineScorer(budget, 64).score(pipeline, data);
+ for (int i = 0; i < data.numInstances(); i++) {
+ assertArrayEquals(pipeline.distributionForInstance(data.instance(i)), distributions[i], 1e-12);
+ }
+
+ budget.release(2);
+ assertEquals(2, budget.tryAcquire(3));
+ assertEquals(0, budget.tryAcquire(1));
+ }
+
+ @Test
+ void batchCapableClassifierUsesBatchPrediction() throws Exception {
+ Instances data = dataset(200);
+ RandomForest forest = new RandomForest();
+ forest.setNumIterations(10);
+ forest.setSeed(3);
+ FilteredClassifier pipeline = pipeline(forest, data);
+
+ double[][] distributions = new PipelineScorer(new CoreBudget(() -> 1), 64).score(pipeline, data);
+
+ assertEquals(data.numInstances(), distributions.length);
+ for (int i = 0; i < data.numInstances(); i++) {
+ assertArrayEquals(pipeline.distributionForInstance(data.instance(i)), distributions[i], 1e-12);
+ }
+ }
+
+ @Test
+ void overriddenViewScoresLikeMaterializedCopyWithoutTouchingSource() throws Exception {
+ Instances data = dataset(300);
+ FilteredClassifier pipeline = pipeline(new NaiveBayes(), data);
+ int[] rows = new int[150];
+ for (int i = 0; i < rows.length; i++) {
+ rows[i] = 2 * i + 1;
+ }
+ InstancesView view = InstancesView.ofRows(data, rows).withOverride(data.attribute("NSmells"), 0.0);
+ double[] nSmellsBefore = data.attributeToDoubleArray(1);
+
+ double[][] distributions = new PipelineScorer(new CoreBudget(() -> 3), 32).score(pipeline, view);
+
+ Instances copy = view.materialize();
+ assertEquals(rows.length, distributions.length);
+ for (int i = 0; i < rows.length; i++) {
+ assertEquals(0.0, copy.instance(i).value(1));
+ assertArrayEquals(pipeline.distributionForInstance(copy.instance(i)), distributions[i], 1e-12);
+ }
+ assertArrayEquals(nSmellsBefore, data.attributeToDoubleArray(1));
+ }
+
+ @Test
+ void scaledViewKeepsMissingValuesMissingEvenForAZeroFactor() {
+ Instances data = dataset(4);
+ data.instance(1).setMissing(1);
+
+ Instances copy = InstancesView.of(data).withScale(data.attribute("NSmells"), 0.0).materialize();
+
+ assertEquals(0.0, copy.instance(0).value(1));
+ assertTrue(copy.instance(1).isMissing(1));
+ assertEquals(0.0, InstancesView.of(data).withOverride(data.attribute("NSmells"), 0.0).materialize()
+ .instance(1).value(1));
+ }
+
+ private static FilteredClassifier pipeline(Classifier classifier, Instances data) throws Exception {
+ FilteredClassifier pipeline = new FilteredClassifier();
+ pipeline.setFilter(new Standardize());
+ pipeline.setClassifier(classifier);
+ pipeline.buildClassifier(data);
+ return pipeline;
+ }
+
+ private static Instances dataset(int size) {
+ List<Attribute> attributes = new ArrayList<>();
+ attributes.add(new Attribute("LOC"));
+ attributes.add(new Attribute("NSmells"));
+ attributes.add(new Attribute("bug", List.of("yes", "no")));
+ Instances data = new Instances("demo", new ArrayList<>(attributes), size);
+ data.setClassIndex(2);
+ Random random = new Random(11);
+ for (int i = 0; i < size; i++) {
+ boolean buggy = random.nextDouble() < 0.3;
+ data.add(new DenseInstance(1.0, new double[]{
+ random.nextGaussian() * 20 + (buggy ? 80 : 40),
+ random.nextInt(buggy ? 6 : 3),
+ buggy ? 0 : 1
+ }));
+ }
+ return data;
+ }
+}
@@ -0,0 +1,36 @@
+package com.milestone2.evaluation;
+
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ResourceScopeTest {
+ private static final int HELPER_BYTES = 8 * 1024 * 1024;
+
+ @Test
+ void helperThreadAllocationsAreAddedToTheScope() throws Exception {
+ Assumptions.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+ ExecutorService helper = Executors.newSingleThreadExecutor();
+ ResourceScope scope = ResourceScope.open();
+ try {
+ assertSame(scope, ResourceScope.current());
+ byte[] allocated = helper.submit(scope.onHelperThread(() -> new byte[HELPER_BYTES])).get();
+ assertTrue(allocated.length > 0);
+ } finally {
+ scope.close();
+ helper.shutdownNow();
+ }
+
+ assertNull(ResourceScope.current());
+ Assumptions.assumeTrue(scope.getAllocatedBytes() >= 0);
+ assertTrue(scope.getAllocatedBytes() >= HELPER_BYTES);
+ assertTrue(scope.getCpuNanos() >= 0);
+ }
+}
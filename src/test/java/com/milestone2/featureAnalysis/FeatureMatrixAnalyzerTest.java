@@ -0,0 +1,117 @@
+package com.milestone2.featureAnalysis;
+
+import org.junit.jupiter.api.Test;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+import weka.core.Utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FeatureMatrixAnalyzerTest {
+
+ @Test
+ void tiledParallelMatrixMatchesPairwiseReference() {
+ Instances data = randomDataset(9, 500);
+ FeatureMatrix matrix = new FeatureMatrixAnalyzer(() -> 4, 2, 64).analyze(data);
+
+ assertEquals(9, matrix.size());
+ List<double[]> columns = completeColumns(data);
+ assertEquals(columns.get(0).length, matrix.getRowCount());
+ for (int first = 0; first < matrix.size(); first++) {
+ for (int second = 0; second < matrix.size(); second++) {
+ double[] left = columns.get(first);
+ double[] right = columns.get(second);
+ assertEquals(pearson(left, right), matrix.getPearson(first, second), 1e-9);
+ assertEquals(pearson(FeatureMatrixAnalyzer.rank(left), FeatureMatrixAnalyzer.rank(right)),
+ matrix.getSpearman(first, second), 1e-9);
+ }
+ }
+ }
+
+ @Test
+ void spearmanUsesAverageRanksAndIgnoresMonotoneTransforms() {
+ assertArrayEquals(new double[]{2.5, 1.0, 2.5, 4.0},
+ FeatureMatrixAnalyzer.rank(new double[]{5.0, 1.0, 5.0, 9.0}), 1e-12);
+
+ ArrayList<Attribute> attributes = new ArrayList<>();
+ attributes.add(new Attribute("Linear"));
+ attributes.add(new Attribute("Cubic"));
+ attributes.add(new Attribute("Constant"));
+ attributes.add(new Attribute("bug", Arrays.asList("yes", "no")));
+ Instances data = new Instances("monotone", attributes, 5);
+ data.setClassIndex(3);
+ for (int row = 1; row <= 5; row++) {
+ data.add(new DenseInstance(1.0, new double[]{row, Math.pow(row, 3), 7.0, row % 2}));
+ }
+
+ FeatureMatrix matrix = new FeatureMatrixAnalyzer().analyze(data);
+ assertEquals(1.0, matrix.getSpearman(0, 1), 1e-12);
+ assertEquals(0.0, matrix.getPearson(0, 2));
+ assertEquals(0.0, matrix.getSpearman(2, 2));
+ }
+
+ private static Instances randomDataset(int features, int rows) {
+ ArrayList<Attribute> attributes = new ArrayList<>();
+ for (int feature = 0; feature < features; feature++) {
+ attributes.add(new Attribute("F" + feature));
+ }
+ attributes.add(new Attribute("bug", Arrays.asList("yes", "no")));
+ Instances data = new Instances("random", attributes, rows);
+ data.setClassIndex(features);
+
+ Random random = new Random(11L);
+ for (int row = 0; row < rows; row++) {
+ double[] values = new double[features + 1];
+ double shared = random.nextGaussian();
+ for (int feature = 0; feature < features; feature++) {
+ values[feature] = feature % 3 == 0 ? random.nextInt(4) : shared * feature + random.nextGaussian();
+ }
+ values[features] = random.nextInt(2);
+ if (row % 13 == 0) {
+ values[random.nextInt(features)] = Utils.missingValue();
+ }
+ data.add(new DenseInstance(1.0, values));
+ }
+ return data;
+ }
+
+ private static List<double[]> completeColumns(Instances data) {
+ List<double[]> columns = new ArrayList<>();
+ for (int feature = 0; feature < data.classIndex(); feature++) {
+ columns.add(new double[0]);
+ }
+ for (int row = 0; row < data.numInstances(); row++) {
+ if (data.instance(row).hasMissingValue()) {
+ continue;
+ }
+ for (int feature = 0; feature < columns.size(); feature++) {
+ double[] column = Arrays.copyOf(columns.get(feature), columns.get(feature).length + 1);
+ column[column.length - 1] = data.instance(row).value(feature);
+ columns.set(feature, column);
+ }
+ }
+ return columns;
+ }
+
+ private static double pearson(double[] left, double[] right) {
+ double meanLeft = Arrays.stream(left).average().orElse(0.0);
+ double meanRight = Arrays.stream(right).average().orElse(0.0);
+ double sxx = 0.0;
+ double syy = 0.0;
+ double sxy = 0.0;
+ for (int row = 0; row < left.length; row++) {
+ sxx += (left[row] - meanLeft) * (left[row] - meanLeft);
+ syy += (right[row] - meanRight) * (right[row] - meanRight);
+ sxy += (left[row] - meanLeft) * (right[row] - meanRight);
+ }
+ double denominator = Math.sqrt(sxx * syy);
+ return denominator == 0.0 ? 0.0 : sxy / denominator;
+ }
+}
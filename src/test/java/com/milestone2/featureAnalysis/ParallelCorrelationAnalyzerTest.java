@@ -0,0 +1,97 @@
+package com.milestone2.featureAnalysis;
+
+import com.milestone2.evaluation.PositiveClassResolver;
+import com.milestone2.startupUtility.RunConfig;
+import org.junit.jupiter.api.Test;
+import weka.core.Attribute;
+import weka.core.DenseInstance;
+import weka.core.Instances;
+import weka.core.Utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ParallelCorrelationAnalyzerTest {
+
+ @Test
+ void blockedParallelPassMatchesTwoPassReference() {
+ Instances data = randomDataset();
+ RunConfig config = RunConfig.fromArgs(new String[]{"--positive-class=yes"});
+
+ List<Correlation> serial = new CorrelationAnalyzer(new PositiveClassResolver(), () -> 1, 1_000_000)
+ .analyze(data, config);
+ List<Correlation> parallel = new CorrelationAnalyzer(new PositiveClassResolver(), () -> 4, 37)
+ .analyze(data, config);
+
+ assertEquals(data.numAttributes() - 1, parallel.size());
+ for (Correlation correlation : parallel) {
+ int attribute = data.attribute(correlation.getFeatureName()).index();
+ Correlation expected = serial.stream()
+ .filter(candidate -> candidate.getFeatureName().equals(correlation.getFeatureName()))
+ .findFirst()
+ .orElseThrow();
+ assertEquals(twoPassCorrelation(data, attribute), correlation.getCorrelation(), 1e-9);
+ assertEquals(expected.getCorrelation(), correlation.getCorrelation(), 1e-9);
+ assertEquals(expected.getNonMissingValueCount(), correlation.getNonMissingValueCount());
+ assertEquals(expected.getZeroValueCount(), correlation.getZeroValueCount());
+ assertEquals(expected.getPositiveValueCount(), correlation.getPositiveValueCount());
+ }
+ }
+
+ private static Instances randomDataset() {
+ ArrayList<Attribute> attributes = new ArrayList<>();
+ attributes.add(new Attribute("Small"));
+ attributes.add(new Attribute("Offset"));
+ attributes.add(new Attribute("Sparse"));
+ attributes.add(new Attribute("Constant"));
+ attributes.add(new Attribute("bug", Arrays.asList("yes", "no")));
+ Instances data = new Instances("random", attributes, 1000);
+ data.setClassIndex(attributes.size() - 1);
+
+ Random random = new Random(7L);
+ for (int row = 0; row < 1000; row++) {
+ double bug = random.nextDouble() < 0.3 ? 0.0 : 1.0;
+ double[] values = {
+ random.nextGaussian() + (bug == 0.0 ? 1.0 : 0.0),
+ 1.0e6 + random.nextGaussian() + (bug == 0.0 ? 0.5 : 0.0),
+ random.nextDouble() < 0.7 ? 0.0 : random.nextInt(5),
+ 42.0,
+ bug
+ };
+ if (row % 11 == 0) {
+ values[random.nextInt(3)] = Utils.missingValue();
+ }
+ if (row % 97 == 0) {
+ values[4] = Utils.missingValue();
+ }
+ data.add(new DenseInstance(1.0, values));
+ }
+ return data;
+ }
+
+ private static double twoPassCorrelation(Instances data, int attribute) {
+ List<double[]> pairs = new ArrayList<>();
+ for (int row = 0; row < data.numInstances(); row++) {
+ if (data.instance(row).isMissing(attribute) || data.instance(row).classIsMissing()) {
+ continue;
+ }
+ pairs.add(new double[]{data.instance(row).value(attribute), data.instance(row).classValue() == 0 ? 1.0 : 0.0});
+ }
+ double meanX = pairs.stream().mapToDouble(pair -> pair[0]).average().orElse(0.0);
+ double meanY = pairs.stream().mapToDouble(pair -> pair[1]).average().orElse(0.0);
+ double sxx = 0.0;
+ double syy = 0.0;
+ double sxy = 0.0;
+ for (double[] pair : pairs) {
+ sxx += (pair[0] - meanX) * (pair[0] - meanX);
+ syy += (pair[1] - meanY) * (pair[1] - meanY);
+ sxy += (pair[0] - meanX) * (pair[1] - meanY);
+ }
+ double denominator = Math.sqrt(sxx * syy);
+ return denominator == 0.0 ? 0.0 : sxy / denominator;
+ }
+}
@@ -0,0 +1,124 @@
+package com.milestone2.metric;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BootstrapEstimatorTest {
+
+ @Test
+ void resampleMultiplicitiesMatchPhysicallyDuplicatedRows() {
+ PredictionBuffer buffer = randomBuffer(200, 3L);
+ int[] multiplicity = new int[buffer.size()];
+ Random random = new Random(11L);
+ for (int draw = 0; draw < buffer.size(); draw++) {
+ multiplicity[random.nextInt(buffer.size())]++;
+ }
+
+ PredictionBuffer duplicated = new PredictionBuffer(buffer.size(), 2, 0, true);
+ for (int row = 0; row < buffer.size(); row++) {
+ for (int copy = 0; copy < multiplicity[row]; copy++) {
+ double probability = buffer.positiveProbability(row);
+ duplicated.record(
+ new double[]{probability, 1.0 - probability},
+ buffer.actualClass(row),
+ buffer.weight(row),
+ buffer.inspectionSize(row)
+ );
+ }
+ }
+
+ MetricEngine engine = new MetricEngine();
+ Metrics resampled = engine.compute(buffer, RankedRows.of(buffer), multiplicity);
+ Metrics expected = engine.compute(duplicated);
+ for (MetricDefinition metric : MetricDefinition.values()) {
+ assertEquals(metric.extract(expected), metric.extract(resampled), 1e-9, metric.name());
+ }
+ }
+
+ @Test
+ void intervalsDoNotDependOnTheNumberOfWorkers() {
+ List<PredictionBuffer> folds = randomFolds(3, 100, 5L);
+ Map<MetricDefinition, Double> reported = foldMeans(folds).means();
+
+ Map<MetricDefinition, ConfidenceInterval> sequential =
+ new BootstrapEstimator(new MetricEngine(), () -> 1).estimate(folds, reported, 200, 0.95, 42L);
+ Map<MetricDefinition, ConfidenceInterval> parallel =
+ new BootstrapEstimator(new MetricEngine(), () -> 4).estimate(folds, reported, 200, 0.95, 42L);
+
+ for (MetricDefinition metric : MetricDefinition.values()) {
+ assertEquals(sequential.get(metric).getLower(), parallel.get(metric).getLower(), metric.name());
+ assertEquals(sequential.get(metric).getUpper(), parallel.get(metric).getUpper(), metric.name());
+ }
+ }
+
+ @Test
+ void intervalsBracketTheReportedFoldMeanOfRepeatedRuns() {
+ List<PredictionBuffer> firstRun = randomFolds(5, 100, 7L);
+ MetricAccumulator allRuns = foldMeans(firstRun);
+ for (PredictionBuffer fold : randomFolds(5, 100, 8L)) {
+ allRuns.add(new MetricEngine().compute(fold));
+ }
+ Map<MetricDefinition, Double> reported = allRuns.means();
+
+ Map<MetricDefinition, ConfidenceInterval> intervals =
+ new BootstrapEstimator(new MetricEngine(), () -> 2).estimate(firstRun, reported, 500, 0.95, 1L);
+
+ for (MetricDefinition metric : new MetricDefinition[]{
+ MetricDefinition.AUC, MetricDefinition.ACCURACY, MetricDefinition.NPOFB20}) {
+ ConfidenceInterval interval = intervals.get(metric);
+ assertTrue(interval.getLower() <= reported.get(metric), metric.name());
+ assertTrue(interval.getUpper() >= reported.get(metric), metric.name());
+ assertTrue(interval.getUpper() > interval.getLower(), metric.name());
+ }
+ }
+
+ @Test
+ void disabledBootstrapReportsUnavailableIntervals() {
+ Map<MetricDefinition, ConfidenceInterval> intervals =
+ new BootstrapEstimator().estimate(List.of(randomBuffer(50, 1L)), Map.of(), 0, 0.95, 1L);
+
+ for (MetricDefinition metric : MetricDefinition.values()) {
+ assertEquals(ConfidenceInterval.UNAVAILABLE, intervals.get(metric));
+ }
+ }
+
+ private static List<PredictionBuffer> randomFolds(int count, int size, long seed) {
+ List<PredictionBuffer> folds = new ArrayList<>();
+ for (int fold = 0; fold < count; fold++) {
+ folds.add(randomBuffer(size, seed * 31 + fold));
+ }
+ return folds;
+ }
+
+ private static MetricAccumulator foldMeans(List<PredictionBuffer> folds) {
+ MetricAccumulator accumulator = new MetricAccumulator();
+ for (PredictionBuffer fold : folds) {
+ accumulator.add(new MetricEngine().compute(fold));
+ }
+ return accumulator;
+ }
+
+ private static PredictionBuffer randomBuffer(int size, long seed) {
+ Random random = new Random(seed);
+ PredictionBuffer buffer = new PredictionBuffer(size, 2, 0, true);
+ for (int row = 0; row < size; row++) {
+ boolean positive = random.nextInt(4) == 0;
+ // coarse, informative scores leave ties for AUC and the effort ranking
+ double probability = Math.min(1.0, (random.nextInt(5) + (positive ? 3 : 0)) / 8.0);
+ buffer.record(
+ new double[]{probability, 1.0 - probability},
+ positive ? 0 : 1,
+ 1.0,
+ 10 + random.nextInt(200)
+ );
+ }
+ return buffer;
+ }
+}
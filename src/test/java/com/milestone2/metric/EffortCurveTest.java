@@ -0,0 +1,55 @@
+package com.milestone2.metric;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EffortCurveTest {
+ // Ranked order: row 2 (pos, 10), row 0 (neg, 10), row 3 (pos, 30), row 1 (neg, 50); total size 100.
+ private static final int[] ORDER = {2, 0, 3, 1};
+ private static final int[] SIZES = {10, 50, 10, 30};
+ private static final boolean[] POSITIVES = {false, false, true, true};
+
+ @Test
+ void npOfBStopsBeforeTheFirstEntityExceedingTheBudget() {
+ EffortCurve curve = new EffortCurve(ORDER, SIZES, POSITIVES);
+
+ assertEquals(0.5, curve.npOfB(0.20), 1e-12);
+ assertEquals(0.5, curve.npOfB(0.49), 1e-12);
+ assertEquals(1.0, curve.npOfB(0.50), 1e-12);
+ assertEquals(0.0, curve.npOfB(0.05), 1e-12);
+ }
+
+ @Test
+ void recallAtEffortInterpolatesInsideTheCrossingEntity() {
+ EffortCurve curve = new EffortCurve(ORDER, SIZES, POSITIVES);
+
+ assertEquals(0.5, curve.recallAtEffort(0.20), 1e-12);
+ assertEquals(0.5 + 0.5 * (15.0 / 30.0), curve.recallAtEffort(0.35), 1e-12);
+ assertEquals(0.25, curve.recallAtEffort(0.05), 1e-12);
+ }
+
+ @Test
+ void poptAndIfaFollowTheRankedCurve() {
+ EffortCurve curve = new EffortCurve(ORDER, SIZES, POSITIVES);
+
+ // Areas in (size x found) units, normalized by 100 * 2.
+ double model = (10 * 0.5 + 10 * 1.0 + 30 * 1.5 + 50 * 2.0) / 200.0;
+ double optimal = (10 * 0.5 + 30 * 1.5 + 60 * 2.0) / 200.0;
+ double worst = (30 * 0.5 + 10 * 1.5) / 200.0;
+ assertEquals(1.0 - (optimal - model) / (optimal - worst), curve.popt(), 1e-12);
+ assertEquals(0.0, curve.initialFalseAlarms(), 1e-12);
+
+ EffortCurve late = new EffortCurve(new int[]{0, 1, 2, 3}, SIZES, POSITIVES);
+ assertEquals(2.0, late.initialFalseAlarms(), 1e-12);
+ }
+
+ @Test
+ void curveWithoutPositivesIsUndefinedWhereTheMetricIsARatio() {
+ EffortCurve curve = new EffortCurve(ORDER, SIZES, new boolean[4]);
+
+ assertEquals(0.0, curve.npOfB(0.20));
+ assertEquals(Double.NaN, curve.popt());
+ assertEquals(Double.NaN, curve.initialFalseAlarms());
+ }
+}
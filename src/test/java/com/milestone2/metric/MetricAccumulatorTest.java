@@ -0,0 +1,124 @@
+package com.milestone2.metric;
+
+import com.milestone2.foldMetadata.FoldPhase;
+import com.milestone2.foldMetadata.FoldResource;
+import com.milestone2.foldMetadata.FoldResources;
+import com.milestone2.foldMetadata.FoldResult;
+import com.milestone2.foldMetadata.FoldTimings;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class MetricAccumulatorTest {
+
+ @Test
+ void meanVarianceAndExtremesMatchTwoPassStatistics() {
+ Random random = new Random(3L);
+ double[] values = new double[500];
+ MetricAccumulator accumulator = new MetricAccumulator();
+ for (int i = 0; i < values.length; i++) {
+ values[i] = 0.6 + random.nextGaussian() * 0.05;
+ accumulator.add(new Metrics(Map.of(MetricDefinition.AUC, values[i])));
+ }
+
+ double mean = Arrays.stream(values).average().orElseThrow();
+ double variance = Arrays.stream(values).map(value -> (value - mean) * (value - mean)).sum() / (values.length - 1);
+ assertEquals(mean, accumulator.mean(MetricDefinition.AUC), 1e-12);
+ assertEquals(variance, accumulator.variance(MetricDefinition.AUC), 1e-12);
+ assertEquals(Arrays.stream(values).min().orElseThrow(), accumulator.min(MetricDefinition.AUC));
+ assertEquals(Arrays.stream(values).max().orElseThrow(), accumulator.max(MetricDefinition.AUC));
+ assertEquals(500, accumulator.count(MetricDefinition.AUC));
+ assertEquals(0, accumulator.count(MetricDefinition.KAPPA));
+ assertEquals(Double.NaN, accumulator.mean(MetricDefinition.KAPPA));
+ }
+
+ @Test
+ void quartileSketchesTrackTheExactQuartiles() {
+ Random random = new Random(7L);
+ double[] values = new double[5_000];
+ MetricAccumulator accumulator = new MetricAccumulator();
+ for (int i = 0; i < values.length; i++) {
+ values[i] = random.nextDouble();
+ accumulator.add(new Metrics(Map.of(MetricDefinition.F1, values[i])));
+ }
+ Arrays.sort(values);
+
+ assertEquals(values[1_250], accumulator.lowerQuartile(MetricDefinition.F1), 0.02);
+ assertEquals(values[2_500], accumulator.median(MetricDefinition.F1), 0.02);
+ assertEquals(values[3_750], accumulator.upperQuartile(MetricDefinition.F1), 0.02);
+ }
+
+ @Test
+ void quartilesOfFewFoldsAreExact() {
+ MetricAccumulator accumulator = new MetricAccumulator();
+ for (double value : new double[]{0.4, 0.1, 0.3}) {
+ accumulator.add(new Metrics(Map.of(MetricDefinition.RECALL, value)));
+ }
+
+ assertEquals(0.2, accumulator.lowerQuartile(MetricDefinition.RECALL), 1e-12);
+ assertEquals(0.3, accumulator.median(MetricDefinition.RECALL), 1e-12);
+ assertEquals(0.35, accumulator.upperQuartile(MetricDefinition.RECALL), 1e-12);
+ assertEquals(Double.NaN, accumulator.variance(MetricDefinition.PRECISION));
+ assertEquals(3, accumulator.getFoldCount());
+ }
+
+ @Test
+ void quartilesOfFiveAndTenFoldsMatchTheExactQuartiles() {
+ double[] tenFolds = {0.71, 0.64, 0.92, 0.58, 0.77, 0.69, 0.83, 0.61, 0.74, 0.88};
+ MetricAccumulator five = new MetricAccumulator();
+ MetricAccumulator ten = new MetricAccumulator();
+ for (int i = 0; i < tenFolds.length; i++) {
+ if (i < 5) {
+ five.add(new Metrics(Map.of(MetricDefinition.AUC, tenFolds[i])));
+ }
+ ten.add(new Metrics(Map.of(MetricDefinition.AUC, tenFolds[i])));
+ }
+
+ // sorted first five: 0.58 0.64 0.71 0.77 0.92
+ assertEquals(0.64, five.lowerQuartile(MetricDefinition.AUC), 1e-12);
+ assertEquals(0.71, five.median(MetricDefinition.AUC), 1e-12);
+ assertEquals(0.77, five.upperQuartile(MetricDefinition.AUC), 1e-12);
+ // sorted ten: 0.58 0.61 0.64 0.69 0.71 0.74 0.77 0.83 0.88 0.92, read at positions 2.25, 4.5 and 6.75
+ assertEquals(0.64 + 0.25 * (0.69 - 0.64), ten.lowerQuartile(MetricDefinition.AUC), 1e-12);
+ assertEquals((0.71 + 0.74) / 2.0, ten.median(MetricDefinition.AUC), 1e-12);
+ assertEquals(0.77 + 0.75 * (0.83 - 0.77), ten.upperQuartile(MetricDefinition.AUC), 1e-12);
+ }
+
+ @Test
+ void phaseTimingsAreSummedOverTheTimedFoldsOnly() {
+ MetricAccumulator accumulator = new MetricAccumulator();
+ assertEquals(-1L, accumulator.totalNanos(FoldPhase.MODEL_TRAINING));
+ Metrics metrics = new Metrics(Map.of(MetricDefinition.AUC, 0.7));
+ accumulator.add(new FoldResult(0, 0, null, null, 8, 2, metrics, FoldTimings.of(1, 2, 30, 4, 5)));
+ accumulator.add(new FoldResult(0, 1, null, null, 8, 2, metrics, FoldTimings.of(10, 20, 300, 40, 50)));
+ accumulator.add(new FoldResult(0, 2, metrics));
+
+ assertEquals(3, accumulator.getFoldCount());
+ assertEquals(2, accumulator.getTimedFoldCount());
+ assertEquals(11L, accumulator.totalNanos(FoldPhase.CLASSIFIER_CREATION));
+ assertEquals(22L, accumulator.totalNanos(FoldPhase.FILTER_FITTING));
+ assertEquals(330L, accumulator.totalNanos(FoldPhase.MODEL_TRAINING));
+ assertEquals(44L, accumulator.totalNanos(FoldPhase.PREDICTION));
+ assertEquals(55L, accumulator.totalNanos(FoldPhase.METRIC_COMPUTATION));
+ }
+
+ @Test
+ void threadResourcesAreSummedOverTheFoldsThatMeteredThem() {
+ MetricAccumulator accumulator = new MetricAccumulator();
+ assertEquals(-1L, accumulator.total(FoldResource.TRAINING_CPU));
+ Metrics metrics = new Metrics(Map.of(MetricDefinition.AUC, 0.7));
+ FoldTimings timings = FoldTimings.of(1, 1, 1, 1, 1);
+ accumulator.add(new FoldResult(0, 0, null, null, 8, 2, metrics, timings, FoldResources.of(100, 2_000, 10, -1)));
+ accumulator.add(new FoldResult(0, 1, null, null, 8, 2, metrics, timings, FoldResources.of(300, 4_000, 30, -1)));
+ accumulator.add(new FoldResult(0, 2, metrics));
+
+ assertEquals(400L, accumulator.total(FoldResource.TRAINING_CPU));
+ assertEquals(6_000L, accumulator.total(FoldResource.TRAINING_ALLOCATION));
+ assertEquals(40L, accumulator.total(FoldResource.PREDICTION_CPU));
+ assertEquals(-1L, accumulator.total(FoldResource.PREDICTION_ALLOCATION));
+ }
+}
@@ -0,0 +1,169 @@
+package com.milestone2.outputMerge;
+
+import com.milestone2.columnarExport.ColumnSpec;
+import com.milestone2.columnarExport.ColumnType;
+import com.milestone2.columnarExport.ColumnarBlock;
+import com.milestone2.columnarExport.ColumnarReader;
+import com.milestone2.columnarExport.ColumnarWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OutputMergerTest {
+ private static final List<String> KEY = List.of("Dataset", "Classifier");
+
+ @TempDir
+ Path tempDir;
+
+ @Test
+ void csvMergeReplacesOnlyTheRecomputedCells() throws Exception {
+ Path target = tempDir.resolve("results.csv");
+ Files.write(target, List.of(
+ "RunId,Dataset,Classifier,AUC",
+ "old,a,RF,0.1",
+ "old,a,NB,0.2",
+ "old,b,RF,0.3"
+ ), StandardCharsets.UTF_8);
+ OutputMerger merger = new OutputMerger();
+ Path staged = merger.stageCsv(target, KEY);
+ Files.write(staged, List.of(
+ "RunId,Dataset,Classifier,AUC",
+ "new,a,NB,0.9",
+ "new,c,\"K, NN\",0.7"
+ ), StandardCharsets.UTF_8);
+
+ merger.commit();
+
+ assertEquals(List.of(
+ "RunId,Dataset,Classifier,AUC",
+ "old,a,RF,0.1",
+ "old,b,RF,0.3",
+ "new,a,NB,0.9",
+ "new,c,\"K, NN\",0.7"
+ ), Files.readAllLines(target, StandardCharsets.UTF_8));
+ assertFalse(Files.exists(staged));
+ }
+
+ @Test
+ void missingTargetIsCreatedFromTheStagedRows() throws Exception {
+ Path target = tempDir.resolve("summary.csv");
+ OutputMerger merger = new OutputMerger();
+ Path staged = merger.stageCsv(target, KEY);
+ List<String> lines = List.of("Dataset,Classifier", "a,RF");
+ Files.write(staged, lines, StandardCharsets.UTF_8);
+
+ merger.commit();
+
+ assertEquals(lines, Files.readAllLines(target, StandardCharsets.UTF_8));
+ }
+
+ @Test
+ void differentColumnsLeaveTheTargetUntouched() throws Exception {
+ Path target = tempDir.resolve("results.csv");
+ List<String> earlier = List.of("Dataset,Classifier,AUC", "a,RF,0.1");
+ Files.write(target, earlier, StandardCharsets.UTF_8);
+ OutputMerger merger = new OutputMerger();
+ Path staged = merger.stageCsv(target, KEY);
+ Files.write(staged, List.of("Dataset,Classifier,AUC,Kappa", "a,RF,0.2,0.5"), StandardCharsets.UTF_8);
+
+ assertThrows(IOException.class, merger::commit);
+
+ assertEquals(earlier, Files.readAllLines(target, StandardCharsets.UTF_8));
+ assertFalse(Files.exists(staged));
+ }
+
+ @Test
+ void derivedOutputsAreRebuiltFromTheMergedTargets() throws Exception {
+ Path results = tempDir.resolve("results.csv");
+ Files.write(results, List.of("Dataset,Classifier,AUC", "a,RF,0.1", "a,NB,0.2"), StandardCharsets.UTF_8);
+ Path summary = tempDir.resolve("summary.csv");
+ Files.write(summary, List.of("Rows", "stale"), StandardCharsets.UTF_8);
+ OutputMerger merger = new OutputMerger();
+ Path staged = merger.stageCsv(results, KEY);
+ merger.derive(summary, file -> Files.write(file, List.of(
+ "Rows",
+ String.valueOf(Files.readAllLines(results, StandardCharsets.UTF_8).size() - 1)
+ ), StandardCharsets.UTF_8));
+ Files.write(staged, List.of("Dataset,Classifier,AUC", "a,NB,0.9", "b,RF,0.3"), StandardCharsets.UTF_8);
+
+ merger.commit();
+
+ assertEquals(List.of("Rows", "3"), Files.readAllLines(summary, StandardCharsets.UTF_8));
+ assertFalse(Files.exists(tempDir.resolve("summary.csv.merging")));
+ }
+
+ @Test
+ void discardKeepsTheEarlierOutput() throws Exception {
+ Path target = tempDir.resolve("results.csv");
+ List<String> earlier = List.of("Dataset,Classifier", "a,RF");
+ Files.write(target, earlier, StandardCharsets.UTF_8);
+ OutputMerger merger = new OutputMerger();
+ Path staged = merger.stageCsv(target, KEY);
+ Files.write(staged, List.of("Dataset,Classifier", "a,RF", "b,RF"), StandardCharsets.UTF_8);
+
+ merger.discard();
+
+ assertEquals(earlier, Files.readAllLines(target, StandardCharsets.UTF_8));
+ assertFalse(Files.exists(staged));
+ }
+
+ @Test
+ void columnarMergeReplacesOnlyTheRecomputedCells() throws Exception {
+ List<ColumnSpec> columns = List.of(
+ new ColumnSpec("Dataset", ColumnType.STRING),
+ new ColumnSpec("Classifier", ColumnType.STRING),
+ new ColumnSpec("Seed", ColumnType.LONG),
+ new ColumnSpec("AUC", ColumnType.DOUBLE)
+ );
+ Path target = tempDir.resolve("results.m2c");
+ try (ColumnarWriter writer = new ColumnarWriter(target, columns)) {
+ writer.write(Arrays.asList("a", "RF", 1L, 0.1));
+ writer.write(Arrays.asList("a", "NB", 1L, 0.2));
+ writer.write(Arrays.asList("b", "RF", 1L, null));
+ }
+ OutputMerger merger = new OutputMerger();
+ Path staged = merger.stageColumnar(target, List.of("Dataset", "Classifier", "Seed"));
+ try (ColumnarWriter writer = new ColumnarWriter(staged, columns)) {
+ writer.write(Arrays.asList("a", "RF", 1L, 0.8));
+ writer.write(Arrays.asList("b", "RF", 2L, 0.6));
+ }
+
+ merger.commit();
+
+ assertEquals(List.of(
+ Arrays.asList("a", "NB", 1L, 0.2),
+ Arrays.asList("b", "RF", 1L, null),
+ Arrays.asList("a", "RF", 1L, 0.8),
+ Arrays.asList("b", "RF", 2L, 0.6)
+ ), readRows(target));
+ assertFalse(Files.exists(staged));
+ }
+
+ private static List<List<Object>> readRows(Path file) throws IOException {
+ List<List<Object>> rows = new ArrayList<>();
+ try (ColumnarReader reader = new ColumnarReader(file)) {
+ int columns = reader.getColumns().size();
+ for (ColumnarBlock block = reader.next(); block != null; block = reader.next()) {
+ for (int row = 0; row < block.getRowCount(); row++) {
+ List<Object> values = new ArrayList<>();
+ for (int column = 0; column < columns; column++) {
+ values.add(block.getValue(column, row));
+ }
+ rows.add(values);
+ }
+ }
+ }
+ return rows;
+ }
+}
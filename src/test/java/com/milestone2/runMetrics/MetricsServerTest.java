@@ -0,0 +1,90 @@
+package com.milestone2.runMetrics;
+
+import com.milestone2.foldMetadata.FoldContext;
+import com.milestone2.foldMetadata.FoldResultProducer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsServerTest {
+ private final AtomicLong clock = new AtomicLong();
+ private final RunProgress progress = new RunProgress(clock::get);
+
+ @Test
+ void scrapeExposesFoldCountersLatenciesAndDatasetProgress() throws Exception {
+ progress.runStarted(2, 1);
+ progress.datasetStarted("first.csv");
+ progress.workerPoolStarted(4);
+ FoldResultProducer producer = progress.track("Random \"Forest\"").wrap((train, test, context) -> {
+ clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(300));
+ return null;
+ });
+ producer.scheduled(3);
+ long busySince = progress.workerBusy();
+ producer.produce(null, null, FoldContext.orderedHoldout(1, 1));
+
+ try (MetricsServer server = MetricsServer.start(0, progress)) {
+ String body = scrape(server.getPort());
+ String classifier = "classifier=\"Random \\\"Forest\\\"\"";
+
+ assertTrue(body.contains("milestone2_folds_completed_total{" + classifier + "} 1\n"));
+ assertTrue(body.contains("milestone2_folds_queued{" + classifier + "} 2\n"));
+ assertTrue(body.contains("milestone2_folds_running{" + classifier + "} 0\n"));
+ assertTrue(body.contains("milestone2_fold_duration_seconds_bucket{" + classifier + ",le=\"0.25\"} 0\n"));
+ assertTrue(body.contains("milestone2_fold_duration_seconds_bucket{" + classifier + ",le=\"0.5\"} 1\n"));
+ assertTrue(body.contains("milestone2_fold_duration_seconds_count{" + classifier + "} 1\n"));
+ assertTrue(body.contains("milestone2_fold_workers 4\n"));
+ assertTrue(body.contains("milestone2_fold_workers_busy 1\n"));
+ assertTrue(body.contains("milestone2_fold_worker_utilization 0.25\n"));
+ assertTrue(body.contains("milestone2_dataset_in_progress{dataset=\"first.csv\"} 1\n"));
+ assertTrue(body.contains("milestone2_datasets_total 2\n"));
+ assertTrue(body.contains("# TYPE jvm_memory_heap_used_bytes gauge\n"));
+ }
+ progress.workerIdle(busySince);
+ }
+
+ @Test
+ void etaExtrapolatesTheElapsedTimeOverTheEstimatedRemainingShare() throws Exception {
+ progress.runStarted(2, 2);
+ assertTrue(Double.isNaN(progress.etaSeconds()));
+
+ progress.datasetStarted("first.csv");
+ progress.datasetFinished();
+ progress.datasetStarted("second.csv");
+ FoldResultProducer producer = progress.track("A").wrap((train, test, context) -> null);
+ producer.scheduled(4);
+ producer.produce(null, null, null);
+ producer.produce(null, null, null);
+ clock.addAndGet(TimeUnit.SECONDS.toNanos(50));
+
+ // Second dataset: 2 of an estimated 2 classifiers x 4 folds done, so 1.25 of 2 datasets.
+ assertEquals(0.625, progress.progressRatio(), 1e-9);
+ assertEquals(30.0, progress.etaSeconds(), 1e-9);
+ }
+
+ private static String scrape(int port) throws IOException {
+ HttpURLConnection connection =
+ (HttpURLConnection) new URL("http://127.0.0.1:" + port + "/metrics").openConnection();
+ try {
+ assertEquals(200, connection.getResponseCode());
+ assertTrue(connection.getContentType().startsWith("text/plain; version=0.0.4"));
+ try (InputStream in = connection.getInputStream()) {
+ ByteArrayOutputStream out = new ByteArrayOutputStream();
+ in.transferTo(out);
+ return out.toString(StandardCharsets.UTF_8);
+ }
+ } finally {
+ connection.disconnect();
+ }
+ }
+}
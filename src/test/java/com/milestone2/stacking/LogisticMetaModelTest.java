@@ -0,0 +1,52 @@
+package com.milestone2.stacking;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LogisticMetaModelTest {
+
+ @Test
+ void fitRecoversTheGeneratingCoefficients() {
+ Random random = new Random(11L);
+ int rows = 20_000;
+ int columns = 2;
+ double[] truth = {-0.5, 1.5, -0.8};
+ double[] features = new double[rows * columns];
+ int[] labels = new int[rows];
+ double[] weights = new double[rows];
+ int[] indexes = new int[rows];
+ for (int row = 0; row < rows; row++) {
+ features[row * columns] = random.nextGaussian();
+ features[row * columns + 1] = random.nextGaussian();
+ double probability = LogisticMetaModel.sigmoid(
+ truth[0] + truth[1] * features[row * columns] + truth[2] * features[row * columns + 1]);
+ labels[row] = random.nextDouble() < probability ? 1 : 0;
+ weights[row] = 1.0;
+ indexes[row] = row;
+ }
+
+ double[] coefficients = LogisticMetaModel.fit(features, columns, labels, weights, indexes, rows, 1.0);
+
+ for (int i = 0; i < truth.length; i++) {
+ assertEquals(truth[i], coefficients[i], 0.08, Arrays.toString(coefficients));
+ }
+ }
+
+ @Test
+ void ridgeKeepsSeparableDataFinite() {
+ double[] features = {-2.0, -1.0, 1.0, 2.0};
+ int[] labels = {0, 0, 1, 1};
+ double[] weights = {1.0, 1.0, 1.0, 1.0};
+
+ double[] coefficients = LogisticMetaModel.fit(features, 1, labels, weights, new int[]{0, 1, 2, 3}, 4, 1.0);
+
+ assertTrue(Double.isFinite(coefficients[1]) && coefficients[1] > 0.0);
+ assertTrue(LogisticMetaModel.predict(coefficients, features, 3, 1) > 0.5);
+ assertTrue(LogisticMetaModel.predict(coefficients, features, 0, 1) < 0.5);
+ }
+}
@@ -0,0 +1,75 @@
+package com.milestone2.summary;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SummaryRegeneratorTest {
+ private static final String HEADER = "RunId,Granularity,Dataset,ValidationStrategy,TemporalAttribute,Classifier,"
+ + "ClassifierId,ClassifierClass,ClassAttribute,PositiveClass,SizeAttribute,Seed,Balancing,FeatureSelection,"
+ + "Kappa,AUC";
+
+ @TempDir
+ Path tempDir;
+
+ @Test
+ void winnersAreChosenAmongEveryMergedRowPerConfiguration() throws Exception {
+ Path results = tempDir.resolve("results.csv");
+ Files.write(results, List.of(
+ HEADER,
+ "earlier,CLASS,demo,cross-validation,ReleaseId,Random Forest,RF,weka.RF,bug,yes,LOC,42,none,none,0.5,0.7",
+ "earlier,CLASS,demo,cross-validation,ReleaseId,Random Forest,RF,weka.RF,bug,yes,LOC,42,smote,none,0.2,0.6",
+ "latest,CLASS,demo,cross-validation,ReleaseId,Naive Bayes,NB,weka.NB,bug,yes,LOC,42,none,none,0.3,0.9"
+ ), StandardCharsets.UTF_8);
+ Path summary = tempDir.resolve("summary.csv");
+
+ new SummaryRegenerator().regenerateFromCsv(results, summary);
+
+ List<CSVRecord> rows;
+ try (CSVParser parser = CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).get()
+ .parse(Files.newBufferedReader(summary, StandardCharsets.UTF_8))) {
+ rows = parser.getRecords();
+ }
+ assertEquals(List.of("earlier:RF", "latest:NB", "earlier:RF"), winners(rows, "none", "Kappa", "AUC", "Kappa/AUC"));
+ assertEquals(List.of("earlier:RF", "earlier:RF", "earlier:RF"), winners(rows, "smote", "Kappa", "AUC", "Kappa/AUC"));
+ }
+
+ @Test
+ void classifiersSharingADisplayNameKeepTheirOwnRunIds() throws Exception {
+ Path results = tempDir.resolve("results.csv");
+ Files.write(results, List.of(
+ HEADER,
+ "earlier,CLASS,demo,cross-validation,ReleaseId,IBk,IBK1,weka.IBk,bug,yes,LOC,42,none,none,0.2,0.9",
+ "latest,CLASS,demo,cross-validation,ReleaseId,IBk,IBK5,weka.IBk,bug,yes,LOC,42,none,none,0.6,0.7"
+ ), StandardCharsets.UTF_8);
+ Path summary = tempDir.resolve("summary.csv");
+
+ new SummaryRegenerator().regenerateFromCsv(results, summary);
+
+ List<CSVRecord> rows;
+ try (CSVParser parser = CSVFormat.DEFAULT.builder().setHeader().setSkipHeaderRecord(true).get()
+ .parse(Files.newBufferedReader(summary, StandardCharsets.UTF_8))) {
+ rows = parser.getRecords();
+ }
+ assertEquals(List.of("latest:IBK5", "earlier:IBK1"), winners(rows, "none", "Kappa", "AUC"));
+ }
+
+ private static List<String> winners(List<CSVRecord> rows, String balancing, String... metrics) {
+ return List.of(metrics).stream()
+ .map(metric -> rows.stream()
+ .filter(row -> row.get("Balancing").equals(balancing) && row.get("Metric").equals(metric))
+ .map(row -> row.get("RunId") + ":" + row.get("ClassifierId"))
+ .collect(Collectors.joining("|")))
+ .collect(Collectors.toList());
+ }
+}